@@ -0,0 +1,112 @@
+/***************************************************************
+*file: AppSnapshot.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is a frozen copy of every wishlist in
+*         SantaWishlistApp at one point in time: a WishlistSnapshot
+*         per child, in child name order. It never changes, so
+*         exports and reports over all children can read it from
+*         any thread without locking.
+*
+*         The app publishes a new AppSnapshot for every change (see
+*         SantaWishlistApp.snapshot). The children live in a
+*         PersistentMap, so each new snapshot shares all but
+*         O(log n) nodes with the one before. When the wishlist
+*         cache is bounded the app keeps none and builds one per
+*         call instead, so the cache still bounds the heap.
+****************************************************************/
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public final class AppSnapshot
+{
+    private static final AppSnapshot EMPTY = new AppSnapshot(PersistentMap.empty(), 0);
+
+    private final PersistentMap<String, WishlistSnapshot> wishlists;  // child name to the child's wishlist
+    private final long itemCount;  // items over all wishlists
+
+    private AppSnapshot(PersistentMap<String, WishlistSnapshot> wishlists, long itemCount)
+    {
+        this.wishlists = wishlists;
+        this.itemCount = itemCount;
+    }
+
+    /***************************************************************
+    *function: empty
+    *purpose: Returns the snapshot of an app with no children.
+    ****************************************************************/
+    static AppSnapshot empty()
+    {
+        return EMPTY;
+    }
+
+    /***************************************************************
+    *function: getWishlist
+    *purpose: Returns the child's wishlist, or null if the child had
+    *         none.
+    ****************************************************************/
+    public WishlistSnapshot getWishlist(String childName)
+    {
+        return wishlists.get(childName);
+    }
+
+    /***************************************************************
+    *function: getWishlists
+    *purpose: Returns every wishlist in child name order.
+    ****************************************************************/
+    public Collection<WishlistSnapshot> getWishlists()
+    {
+        return wishlists.values();
+    }
+
+    /***************************************************************
+    *function: forEachWishlist
+    *purpose: Gives the wishlists ranked from (inclusive) to to
+    *         (exclusive) in child name order to the action, so work
+    *         over all children can be split into ranges.
+    ****************************************************************/
+    public void forEachWishlist(int from, int to, Consumer<? super WishlistSnapshot> action)
+    {
+        wishlists.forEachValue(from, to, action);
+    }
+
+    /***************************************************************
+    *function: getChildCount
+    *purpose: Returns the number of children with a wishlist.
+    ****************************************************************/
+    public int getChildCount()
+    {
+        return wishlists.size();
+    }
+
+    /***************************************************************
+    *function: getItemCount
+    *purpose: Returns the number of items over all wishlists.
+    ****************************************************************/
+    public long getItemCount()
+    {
+        return itemCount;
+    }
+
+    /***************************************************************
+    *function: with
+    *purpose: Returns the snapshot with one child's wishlist replaced,
+    *         or this snapshot if it already holds that version or a
+    *         newer one.
+    ****************************************************************/
+    AppSnapshot with(WishlistSnapshot wishlist)
+    {
+        WishlistSnapshot old = wishlists.get(wishlist.getChildName());
+        if (old != null && old.getVersion() >= wishlist.getVersion())
+        {
+            return this;
+        }
+        long count = itemCount + wishlist.size() - (old == null ? 0 : old.size());
+        return new AppSnapshot(wishlists.plus(wishlist.getChildName(), wishlist), count);
+    }
+}
@@ -0,0 +1,206 @@
+/***************************************************************
+*file: ApproximateToyDemand.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class estimates wish counts in a fixed amount of
+*         memory, however many different toys there are. Counts
+*         live in a count-min sketch: depth rows of width counters,
+*         each toy adding to one counter per row, and a toy's
+*         estimate is the smallest of its counters. An estimate is
+*         never too low while every toy's true count is at least
+*         zero, and with probability 1 - e^-depth it is too high by
+*         at most e/width times the total number of wishes.
+*
+*         The most popular toys are kept as a bounded set of heavy
+*         hitter candidates ordered by estimate. A toy whose
+*         estimate beats the weakest candidate takes its place, so
+*         top-k reads only the candidate set.
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+public class ApproximateToyDemand extends ToyDemand
+{
+    private final long[][] counters;  // the sketch, one row per hash function (guarded by this)
+    private final int mask;  // width - 1, width is a power of two
+    private final int[] seeds;  // one hash seed per row
+    private final int capacity;  // most heavy hitter candidates kept
+    private final Map<String, Candidate> candidates;  // key to candidate (guarded by this)
+    private final TreeSet<Candidate> ranked;  // candidates by estimate, weakest first (guarded by this)
+
+    /***************************************************************
+    *class: Candidate
+    *purpose: A toy that may be among the most popular.
+    ****************************************************************/
+    private static final class Candidate implements Comparable<Candidate>
+    {
+        final String key;  // normalized name
+        final String name;  // name as first seen
+        long estimate;  // estimate when last updated
+
+        Candidate(String key, String name, long estimate)
+        {
+            this.key = key;
+            this.name = name;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public int compareTo(Candidate other)
+        {
+            int byEstimate = Long.compare(estimate, other.estimate);
+            return byEstimate != 0 ? byEstimate : key.compareTo(other.key);
+        }
+    }
+
+    /***************************************************************
+    *function: ApproximateToyDemand
+    *purpose: Constructor that sizes the sketch and the candidate set.
+    *         width is rounded up to a power of two.
+    ****************************************************************/
+    public ApproximateToyDemand(int width, int depth, int heavyHitters)
+    {
+        if (width < 1 || depth < 1 || heavyHitters < 1)
+        {
+            throw new IllegalArgumentException("Invalid sketch settings.");
+        }
+        int roundedWidth = Integer.highestOneBit(Math.max(1, width - 1)) << 1;
+        this.counters = new long[depth][roundedWidth];
+        this.mask = roundedWidth - 1;
+        this.seeds = new int[depth];
+        for (int row = 0; row < depth; row++)
+        {
+            seeds[row] = mix(0x9E3779B9 * (row + 1));
+        }
+        this.capacity = heavyHitters;
+        this.candidates = new HashMap<>();
+        this.ranked = new TreeSet<>();
+    }
+
+    /***************************************************************
+    *function: withDefaults
+    *purpose: A sketch of 4 rows of 65,536 counters (2 MB) with 1,000
+    *         heavy hitter candidates: estimates are within about
+    *         0.004% of the total wishes with 98% probability.
+    ****************************************************************/
+    public static ApproximateToyDemand withDefaults()
+    {
+        return new ApproximateToyDemand(1 << 16, 4, 1000);
+    }
+
+    /***************************************************************
+    *function: topToys
+    *purpose: Returns the k candidates with the highest estimates. k
+    *         should not exceed the number of candidates kept.
+    ****************************************************************/
+    @Override
+    public synchronized List<ToyCount> topToys(int k)
+    {
+        List<ToyCount> top = new ArrayList<>(Math.min(k, ranked.size()));
+        Iterator<Candidate> iterator = ranked.descendingIterator();
+        while (iterator.hasNext() && top.size() < k)
+        {
+            Candidate candidate = iterator.next();
+            top.add(new ToyCount(candidate.name, candidate.estimate));
+        }
+        return top;
+    }
+
+    @Override
+    public boolean isExact()
+    {
+        return false;
+    }
+
+    @Override
+    protected synchronized long countOf(String key)
+    {
+        return estimate(key.hashCode());
+    }
+
+    /***************************************************************
+    *function: adjust
+    *purpose: Adds delta to the toy's counters, then refreshes its
+    *         place among the heavy hitter candidates.
+    ****************************************************************/
+    @Override
+    protected synchronized void adjust(String key, String displayName, int delta)
+    {
+        int hash = key.hashCode();
+        for (int row = 0; row < counters.length; row++)
+        {
+            counters[row][index(hash, row)] += delta;
+        }
+        long estimate = estimate(hash);
+
+        Candidate candidate = candidates.get(key);
+        if (candidate != null)
+        {
+            ranked.remove(candidate);
+            candidate.estimate = estimate;
+            if (estimate > 0)
+            {
+                ranked.add(candidate);
+            }
+            else
+            {
+                candidates.remove(key);
+            }
+            return;
+        }
+
+        if (estimate <= 0)
+        {
+            return;
+        }
+        if (candidates.size() >= capacity)
+        {
+            Candidate weakest = ranked.first();
+            if (estimate <= weakest.estimate)
+            {
+                return;
+            }
+            ranked.pollFirst();
+            candidates.remove(weakest.key);
+        }
+        candidate = new Candidate(key, displayName, estimate);
+        candidates.put(key, candidate);
+        ranked.add(candidate);
+    }
+
+    // smallest counter for a hash, never below zero
+    private long estimate(int hash)
+    {
+        long smallest = Long.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++)
+        {
+            smallest = Math.min(smallest, counters[row][index(hash, row)]);
+        }
+        return Math.max(0, smallest);
+    }
+
+    private int index(int hash, int row)
+    {
+        return mix(hash ^ seeds[row]) & mask;
+    }
+
+    // 32-bit finalizer from MurmurHash3
+    private static int mix(int h)
+    {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,142 @@
+/***************************************************************
+*file: AsyncWishlistListener.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class turns synchronous wishlist events into
+*         asynchronous batches. As a WishlistListener it only
+*         queues each event, so the thread making the change is
+*         never held up. A delivery thread collects up to maxBatch
+*         events, waiting at most maxDelayMillis for more after the
+*         first, and hands them to a WishlistBatchListener.
+*
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncWishlistListener implements WishlistListener, AutoCloseable
+{
+    private final WishlistBatchListener target;  // receives the batches
+    private final int maxBatch;  // largest batch delivered at once
+    private final long maxDelayMillis;  // longest wait for a batch to fill
+    private final LinkedBlockingQueue<WishlistEvent> queue;  // events not yet delivered
+    private final Thread deliverer;  // background delivery thread
+    private volatile boolean running;  // false once close has been called
+
+    /***************************************************************
+    *function: AsyncWishlistListener
+    *purpose: Creates the queue and starts the delivery thread.
+    ****************************************************************/
+    public AsyncWishlistListener(WishlistBatchListener target, int maxBatch, long maxDelayMillis)
+    {
+        this.target = target;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+        this.queue = new LinkedBlockingQueue<>();
+        this.running = true;
+
+        deliverer = new Thread(this::deliverLoop, "wishlist-events");
+        deliverer.setDaemon(true);
+        deliverer.start();
+    }
+
+    /***************************************************************
+    *function: wishlistChanged
+    *purpose: Queues the event and returns at once.
+    ****************************************************************/
+    @Override
+    public void wishlistChanged(WishlistEvent event)
+    {
+        queue.add(event);
+    }
+
+    /***************************************************************
+    *function: wishlistBatchChanged
+    *purpose: Queues all of a batch's events at once.
+    ****************************************************************/
+    @Override
+    public void wishlistBatchChanged(List<WishlistEvent> events)
+    {
+        queue.addAll(events);
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Delivers whatever is queued, then stops the thread. If
+    *         the caller is interrupted while waiting, it returns with
+    *         the interrupt flag set.
+    ****************************************************************/
+    @Override
+    public void close()
+    {
+        running = false;
+        deliverer.interrupt();
+        try
+        {
+            deliverer.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /***************************************************************
+    *function: deliverLoop
+    *purpose: Body of the delivery thread.
+    ****************************************************************/
+    private void deliverLoop()
+    {
+        List<WishlistEvent> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty())
+        {
+            try
+            {
+                WishlistEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+                queue.drainTo(batch, maxBatch - batch.size());
+                while (batch.size() < maxBatch && running)
+                {
+                    long wait = deadline - System.nanoTime();
+                    WishlistEvent next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null)
+                    {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            }
+            catch (InterruptedException e)
+            {
+                // close() interrupts us; deliver what we have and let the loop condition decide
+                queue.drainTo(batch, maxBatch - batch.size());
+            }
+
+            if (!batch.isEmpty())
+            {
+                try
+                {
+                    target.wishlistsChanged(new ArrayList<>(batch));
+                }
+                catch (RuntimeException e)
+                {
+                    System.out.println("Wishlist batch listener failed: " + e.getMessage());
+                }
+                batch.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,739 @@
+/***************************************************************
+*file: ChristmasEveLoad.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This program simulates Christmas Eve against a
+*         SantaWishlistApp, calling it directly. Simulated children
+*         create their wishlist on their first visit and then add,
+*         edit, remove, search for and send wishes in a configurable
+*         mix. Toys are picked with Zipfian popularity, so a few toys
+*         are on almost every list, and children arrive in bursts:
+*         calm stretches alternate with rushes at several times the
+*         base rate, both of random length.
+*
+*         Arrivals are open-loop. Every operation has a planned start
+*         time and is not held back by slow ones before it, so a
+*         stall shows up in the latency of everything that queued
+*         behind it. Each operation reports two latencies: service
+*         time, from when it really started, and response time, from
+*         when it was planned to start. Sends are timed until the
+*         delivery pipeline has delivered the wishlist.
+*
+*         Each child belongs to one worker thread, which remembers
+*         how many items the child has so it can pick one to edit or
+*         remove without a scan. Only operations planned after the
+*         warmup are counted. The offered rate is the counted
+*         operations planned divided by the measured window; the
+*         achieved rate is the operations completed divided by the
+*         time from the end of the warmup to the last counted
+*         completion, so an app that cannot keep up shows a lower
+*         achieved rate. The results are printed as a table, and
+*         as JSON with --json or --out so runs of two builds can be
+*         compared.
+*
+*         Usage: java ChristmasEveLoad [--children n] [--threads n]
+*                [--seconds n] [--warmup n] [--rate ops/sec]
+*                [--toys n] [--zipf exponent] [--burst-factor x]
+*                [--burst-millis n] [--calm-millis n]
+*                [--mix add=40,edit=15,remove=10,search=30,send=5]
+*                [--storage STANDARD|COMPACT|MAPPED] [--cache n]
+*                [--seed n] [--json] [--out file]
+*
+****************************************************************/
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class ChristmasEveLoad
+{
+    private static final int PRIORITIES = 10;  // wishes get a priority from 0 to 9
+    private static final long SPIN_NANOS = 50_000;  // closer to the planned start than this, spin instead of park
+
+    /***************************************************************
+    *class: Operation
+    *purpose: The operations a simulated child performs. CREATE only
+    *         happens on a child's first visit; the others are picked
+    *         by the mix.
+    ****************************************************************/
+    enum Operation
+    {
+        CREATE, ADD, EDIT, REMOVE, SEARCH, SEND;
+
+        String key()
+        {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /***************************************************************
+    *class: Settings
+    *purpose: The options of one run.
+    ****************************************************************/
+    static final class Settings
+    {
+        int children = 1000;  // simulated children
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());  // worker threads
+        int seconds = 30;  // measured run length
+        int warmup = 5;  // seconds run before measuring
+        double rate = 2000;  // planned operations per second outside bursts
+        int toys = 1000;  // distinct toys
+        double zipf = 1.0;  // Zipf exponent of toy popularity
+        double burstFactor = 5;  // rate multiplier during a burst
+        long burstMillis = 500;  // mean burst length
+        long calmMillis = 2000;  // mean length of the calm between bursts
+        int[] mix = {0, 40, 15, 10, 30, 5};  // weight per Operation, CREATE unused
+        Wishlist.Storage storage = Wishlist.Storage.STANDARD;  // how wishlists store items
+        int cache = 0;  // wishlists kept in memory, 0 for all
+        long seed = 2024;  // seed of every random choice
+        boolean json = false;  // print JSON instead of the table
+        String out = null;  // file to write JSON to
+    }
+
+    /***************************************************************
+    *class: Zipf
+    *purpose: Picks a toy from 0 to n - 1 with probability falling
+    *         off as 1 / (rank + 1)^exponent, by binary search in the
+    *         cumulative distribution.
+    ****************************************************************/
+    static final class Zipf
+    {
+        private final double[] cumulative;  // P(toy <= i)
+
+        Zipf(int n, double exponent)
+        {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++)
+            {
+                sum += 1 / Math.pow(i + 1, exponent);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < n; i++)
+            {
+                cumulative[i] /= sum;
+            }
+        }
+
+        int next(SplittableRandom random)
+        {
+            int found = Arrays.binarySearch(cumulative, random.nextDouble());
+            int toy = found >= 0 ? found : -found - 1;
+            return Math.min(toy, cumulative.length - 1);
+        }
+    }
+
+    /***************************************************************
+    *class: Bursts
+    *purpose: The calm and burst stretches of a run, drawn once up
+    *         front with exponential lengths so every worker sees
+    *         the same rushes at the same time.
+    ****************************************************************/
+    static final class Bursts
+    {
+        private final long[] starts;  // offset of each stretch from the run start, in ns
+        private final double[] factors;  // rate multiplier of each stretch
+
+        Bursts(Settings settings, long lengthNanos, SplittableRandom random)
+        {
+            List<long[]> stretches = new ArrayList<>();
+            long at = 0;
+            boolean burst = false;
+            while (at < lengthNanos)
+            {
+                stretches.add(new long[] {at, burst ? 1 : 0});
+                long mean = TimeUnit.MILLISECONDS.toNanos(burst ? settings.burstMillis : settings.calmMillis);
+                at += Math.max(1, (long) (-Math.log(1 - random.nextDouble()) * mean));
+                burst = !burst;
+            }
+            starts = new long[stretches.size()];
+            factors = new double[stretches.size()];
+            for (int i = 0; i < starts.length; i++)
+            {
+                starts[i] = stretches.get(i)[0];
+                factors[i] = stretches.get(i)[1] == 1 ? settings.burstFactor : 1;
+            }
+        }
+
+        double factorAt(long offsetNanos)
+        {
+            int found = Arrays.binarySearch(starts, offsetNanos);
+            return factors[Math.max(0, found >= 0 ? found : -found - 2)];
+        }
+
+        int count()
+        {
+            return starts.length / 2;
+        }
+    }
+
+    /***************************************************************
+    *class: Results
+    *purpose: Counts and latencies per operation, shared by the
+    *         workers.
+    ****************************************************************/
+    static final class Results
+    {
+        final LongAdder[] done = new LongAdder[Operation.values().length];  // operations counted
+        final LongAdder[] failed = new LongAdder[Operation.values().length];  // operations the app refused
+        final LatencyHistogram[] service = new LatencyHistogram[Operation.values().length];  // from real start
+        final LatencyHistogram[] response = new LatencyHistogram[Operation.values().length];  // from planned start
+        final LongAdder offered = new LongAdder();  // operations planned after the warmup
+        final LongAccumulator lastFinished = new LongAccumulator(Math::max, Long.MIN_VALUE);  // latest counted end
+
+        Results()
+        {
+            for (int i = 0; i < done.length; i++)
+            {
+                done[i] = new LongAdder();
+                failed[i] = new LongAdder();
+                service[i] = new LatencyHistogram();
+                response[i] = new LatencyHistogram();
+            }
+        }
+
+        void record(Operation operation, boolean ok, long planned, long started, long finished)
+        {
+            int i = operation.ordinal();
+            done[i].increment();
+            if (!ok)
+            {
+                failed[i].increment();
+            }
+            service[i].record(finished - started);
+            response[i].record(finished - planned);
+            lastFinished.accumulate(finished);
+        }
+    }
+
+    /***************************************************************
+    *function: main
+    *purpose: Reads the options, runs the simulation and prints the
+    *         results.
+    ****************************************************************/
+    public static void main(String[] args) throws InterruptedException, IOException
+    {
+        Settings settings = parse(args);
+        if (settings == null)
+        {
+            System.out.println("Usage: java ChristmasEveLoad [--children n] [--threads n] [--seconds n]"
+                    + " [--warmup n] [--rate ops/sec] [--toys n] [--zipf exponent] [--burst-factor x]"
+                    + " [--burst-millis n] [--calm-millis n] [--mix add=40,edit=15,remove=10,search=30,send=5]"
+                    + " [--storage STANDARD|COMPACT|MAPPED] [--cache n] [--seed n] [--json] [--out file]");
+            System.exit(2);
+        }
+
+        // keep deliveries and notifications off the console
+        NotificationSystem.setBus(new NotificationBus(65_536));
+        SantaWishlistApp app = new SantaWishlistApp(settings.storage, settings.cache);
+        app.setDeliveryPipeline(DeliveryPipeline.withDefaults(batch -> { }));
+
+        Results results = new Results();
+        long[] run = new long[3];
+        int bursts = simulate(app, settings, results, run);
+        app.getDeliveryPipeline().close();
+
+        String json = toJson(settings, results, run[0], run[2], run[1], bursts);
+        if (settings.out != null)
+        {
+            Files.write(Paths.get(settings.out), json.getBytes(StandardCharsets.UTF_8));
+        }
+        if (settings.json)
+        {
+            System.out.println(json);
+        }
+        else
+        {
+            printTable(settings, results, run[0], run[2], bursts);
+        }
+        System.exit(0);
+    }
+
+    /***************************************************************
+    *function: parse
+    *purpose: Reads --name value options into Settings. Returns null
+    *         for an unknown option, a missing value or a bad number.
+    ****************************************************************/
+    static Settings parse(String[] args)
+    {
+        Settings settings = new Settings();
+        try
+        {
+            for (int i = 0; i < args.length; i++)
+            {
+                String option = args[i];
+                if ("--json".equals(option))
+                {
+                    settings.json = true;
+                    continue;
+                }
+                if (i + 1 >= args.length)
+                {
+                    return null;
+                }
+                String value = args[++i];
+                switch (option)
+                {
+                    case "--children": settings.children = Integer.parseInt(value); break;
+                    case "--threads": settings.threads = Integer.parseInt(value); break;
+                    case "--seconds": settings.seconds = Integer.parseInt(value); break;
+                    case "--warmup": settings.warmup = Integer.parseInt(value); break;
+                    case "--rate": settings.rate = Double.parseDouble(value); break;
+                    case "--toys": settings.toys = Integer.parseInt(value); break;
+                    case "--zipf": settings.zipf = Double.parseDouble(value); break;
+                    case "--burst-factor": settings.burstFactor = Double.parseDouble(value); break;
+                    case "--burst-millis": settings.burstMillis = Long.parseLong(value); break;
+                    case "--calm-millis": settings.calmMillis = Long.parseLong(value); break;
+                    case "--mix": settings.mix = parseMix(value); break;
+                    case "--storage":
+                        settings.storage = Wishlist.Storage.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--cache": settings.cache = Integer.parseInt(value); break;
+                    case "--seed": settings.seed = Long.parseLong(value); break;
+                    case "--out": settings.out = value; break;
+                    default: return null;
+                }
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+        boolean valid = settings.children > 0 && settings.threads > 0 && settings.seconds > 0
+                && settings.warmup >= 0 && settings.rate > 0 && settings.toys > 0 && settings.zipf >= 0
+                && settings.burstFactor > 0 && settings.burstMillis > 0 && settings.calmMillis > 0
+                && settings.mix != null;
+        return valid ? settings : null;
+    }
+
+    // reads "add=40,search=30" style weights; operations left out get 0
+    private static int[] parseMix(String value)
+    {
+        int[] mix = new int[Operation.values().length];
+        int total = 0;
+        for (String part : value.split(","))
+        {
+            String[] pair = part.split("=", 2);
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            int weight = pair.length == 2 ? Integer.parseInt(pair[1].trim()) : -1;
+            if (operation == Operation.CREATE || weight < 0)
+            {
+                return null;
+            }
+            mix[operation.ordinal()] = weight;
+            total += weight;
+        }
+        return total > 0 ? mix : null;
+    }
+
+    /***************************************************************
+    *function: simulate
+    *purpose: Starts the workers, waits for the warmup and the
+    *         measured run and then for the last sends to be
+    *         delivered. run receives the planned window in ns, the
+    *         operations that fell behind plan by more than a second
+    *         and the ns from the end of the warmup to the last
+    *         counted completion. Returns the number of bursts in the
+    *         run.
+    ****************************************************************/
+    private static int simulate(SantaWishlistApp app, Settings settings, Results results, long[] run)
+            throws InterruptedException
+    {
+        SplittableRandom seeds = new SplittableRandom(settings.seed);
+        Zipf toys = new Zipf(settings.toys, settings.zipf);
+        long warmupNanos = TimeUnit.SECONDS.toNanos(settings.warmup);
+        long lengthNanos = warmupNanos + TimeUnit.SECONDS.toNanos(settings.seconds);
+        Bursts bursts = new Bursts(settings, lengthNanos, seeds.split());
+        AtomicInteger sending = new AtomicInteger();
+        LongAdder lagging = new LongAdder();
+        CountDownLatch ready = new CountDownLatch(settings.threads);
+        CountDownLatch start = new CountDownLatch(1);
+        long[] begin = new long[1];
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < settings.threads; t++)
+        {
+            Worker worker = new Worker(app, settings, results, toys, bursts, seeds.split(), t, sending, lagging);
+            Thread thread = new Thread(() -> {
+                ready.countDown();
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+                worker.run(begin[0], warmupNanos, lengthNanos);
+            }, "christmas-eve-" + t);
+            workers.add(thread);
+            thread.start();
+        }
+
+        ready.await();
+        begin[0] = System.nanoTime();
+        start.countDown();
+        for (Thread thread : workers)
+        {
+            thread.join();
+        }
+
+        // sends still in the pipeline are part of the run
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (sending.get() > 0 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(1);
+        }
+
+        run[0] = lengthNanos - warmupNanos;
+        run[1] = lagging.sum();
+        long last = results.lastFinished.get();
+        run[2] = last == Long.MIN_VALUE ? run[0] : last - (begin[0] + warmupNanos);
+        return bursts.count();
+    }
+
+    /***************************************************************
+    *class: Worker
+    *purpose: One thread of simulated children. The worker plans its
+    *         arrivals as a Poisson process at its share of the rate,
+    *         scaled by the burst factor of the moment, and has a
+    *         random child of its own perform each one.
+    ****************************************************************/
+    static final class Worker
+    {
+        private final SantaWishlistApp app;  // app under load
+        private final Results results;  // where operations are counted
+        private final Zipf toys;  // toy popularity
+        private final Bursts bursts;  // rate multiplier over time
+        private final SplittableRandom random;  // this worker's random choices
+        private final AtomicInteger sending;  // sends not yet delivered, over all workers
+        private final LongAdder lagging;  // operations started more than a second late
+        private final double ratePerNano;  // this worker's base arrivals per ns
+        private final int[] cumulativeMix;  // running total of the mix weights
+        private final String[] children;  // names of this worker's children
+        private final boolean[] created;  // whether each child has made its wishlist
+        private final int[] items;  // items on each child's wishlist
+
+        Worker(SantaWishlistApp app, Settings settings, Results results, Zipf toys, Bursts bursts,
+                SplittableRandom random, int index, AtomicInteger sending, LongAdder lagging)
+        {
+            this.app = app;
+            this.results = results;
+            this.toys = toys;
+            this.bursts = bursts;
+            this.random = random;
+            this.sending = sending;
+            this.lagging = lagging;
+            this.ratePerNano = settings.rate / settings.threads / 1e9;
+
+            cumulativeMix = new int[settings.mix.length];
+            int total = 0;
+            for (int i = 0; i < settings.mix.length; i++)
+            {
+                total += settings.mix[i];
+                cumulativeMix[i] = total;
+            }
+
+            // children index, index + threads, ... belong to this worker
+            int count = (settings.children - index + settings.threads - 1) / settings.threads;
+            children = new String[Math.max(0, count)];
+            for (int i = 0; i < children.length; i++)
+            {
+                children[i] = "child-" + (index + i * settings.threads);
+            }
+            created = new boolean[children.length];
+            items = new int[children.length];
+        }
+
+        // plans and performs arrivals until the end of the run
+        void run(long begin, long warmupNanos, long lengthNanos)
+        {
+            if (children.length == 0)
+            {
+                return;
+            }
+            long offset = 0;
+            while (true)
+            {
+                double rate = ratePerNano * bursts.factorAt(offset);
+                offset += (long) (-Math.log(1 - random.nextDouble()) / rate);
+                if (offset >= lengthNanos)
+                {
+                    return;
+                }
+                long planned = begin + offset;
+                long now;
+                while ((now = System.nanoTime()) < planned)
+                {
+                    if (planned - now > SPIN_NANOS)
+                    {
+                        LockSupport.parkNanos(planned - now - SPIN_NANOS);
+                    }
+                    else
+                    {
+                        Thread.onSpinWait();
+                    }
+                }
+                if (now - planned > 1_000_000_000L)
+                {
+                    lagging.increment();
+                }
+                boolean counted = offset >= warmupNanos;
+                if (counted)
+                {
+                    results.offered.increment();
+                }
+                visit(random.nextInt(children.length), planned, counted);
+            }
+        }
+
+        // has one child perform its next operation
+        private void visit(int child, long planned, boolean counted)
+        {
+            String name = children[child];
+            if (!created[child])
+            {
+                created[child] = true;
+                long started = System.nanoTime();
+                app.createWishlistForChild(name);
+                finish(Operation.CREATE, true, planned, started, counted);
+                return;
+            }
+
+            Operation operation = pick();
+            if (items[child] == 0 && (operation == Operation.EDIT || operation == Operation.REMOVE))
+            {
+                // nothing to change yet, so the child wishes for something
+                operation = Operation.ADD;
+            }
+            switch (operation)
+            {
+                case ADD:
+                {
+                    String toy = toy();
+                    int priority = random.nextInt(PRIORITIES);
+                    long started = System.nanoTime();
+                    boolean ok = app.addItem(name, toy, "wished for by " + name, priority);
+                    finish(operation, ok, planned, started, counted);
+                    if (ok)
+                    {
+                        items[child]++;
+                    }
+                    break;
+                }
+                case EDIT:
+                {
+                    WishlistItem item = app.getWishlist(name).itemAtRank(random.nextInt(items[child]));
+                    String toy = toy();
+                    long started = System.nanoTime();
+                    boolean ok = item != null
+                            && app.editItem(name, item.getId(), item.getVersion(), toy, "changed mind to " + toy);
+                    finish(operation, ok, planned, started, counted);
+                    break;
+                }
+                case REMOVE:
+                {
+                    WishlistItem item = app.getWishlist(name).itemAtRank(random.nextInt(items[child]));
+                    long started = System.nanoTime();
+                    boolean ok = item != null && app.removeItem(name, item.getId(), item.getVersion());
+                    finish(operation, ok, planned, started, counted);
+                    if (ok)
+                    {
+                        items[child]--;
+                    }
+                    break;
+                }
+                case SEARCH:
+                {
+                    String toy = toy();
+                    long started = System.nanoTime();
+                    app.searchItem(name, toy);
+                    finish(operation, true, planned, started, counted);
+                    break;
+                }
+                default:
+                {
+                    long started = System.nanoTime();
+                    sending.incrementAndGet();
+                    CompletableFuture<Void> delivered = app.sendWishlist(name);
+                    delivered.whenComplete((ignored, failure) -> {
+                        finish(Operation.SEND, failure == null, planned, started, counted);
+                        sending.decrementAndGet();
+                    });
+                    break;
+                }
+            }
+        }
+
+        // picks an operation by the mix weights
+        private Operation pick()
+        {
+            int roll = random.nextInt(cumulativeMix[cumulativeMix.length - 1]);
+            for (int i = 0; i < cumulativeMix.length; i++)
+            {
+                if (roll < cumulativeMix[i])
+                {
+                    return Operation.values()[i];
+                }
+            }
+            return Operation.ADD;
+        }
+
+        private String toy()
+        {
+            return "Toy " + toys.next(random);
+        }
+
+        private void finish(Operation operation, boolean ok, long planned, long started, boolean counted)
+        {
+            if (counted)
+            {
+                results.record(operation, ok, planned, started, System.nanoTime());
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: printTable
+    *purpose: Prints throughput and latency percentiles per
+    *         operation, in microseconds, then the offered and
+    *         achieved rates.
+    ****************************************************************/
+    private static void printTable(Settings settings, Results results, long windowNanos, long elapsedNanos,
+            int bursts)
+    {
+        double seconds = elapsedNanos / 1e9;
+        System.out.println("Christmas Eve load: " + settings.children + " children, " + settings.threads
+                + " threads, " + settings.seconds + "s after " + settings.warmup + "s warmup, "
+                + bursts + " bursts");
+        System.out.printf("%8s %10s %8s %10s %10s %10s %10s %10s %10s %10s%n", "op", "count", "failed",
+                "ops/sec", "p50 us", "p99 us", "p999 us", "max us", "rsp p99", "rsp p999");
+        for (Operation operation : Operation.values())
+        {
+            int i = operation.ordinal();
+            LatencyHistogram.Snapshot service = results.service[i].snapshot();
+            LatencyHistogram.Snapshot response = results.response[i].snapshot();
+            System.out.printf("%8s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n", operation.key(),
+                    results.done[i].sum(), results.failed[i].sum(), results.done[i].sum() / seconds,
+                    micros(service.valueAtPercentile(50)), micros(service.valueAtPercentile(99)),
+                    micros(service.valueAtPercentile(99.9)), micros(service.getMax()),
+                    micros(response.valueAtPercentile(99)), micros(response.valueAtPercentile(99.9)));
+        }
+        System.out.printf("%8s %10d %8s %10.1f%n", "total", total(results), "", total(results) / seconds);
+        System.out.printf("offered %.1f ops/sec over %.1fs, achieved %.1f ops/sec over %.1fs%n",
+                results.offered.sum() / (windowNanos / 1e9), windowNanos / 1e9, total(results) / seconds, seconds);
+    }
+
+    /***************************************************************
+    *function: toJson
+    *purpose: Writes the settings and results as one JSON object.
+    *         Latencies are in microseconds; "service" is timed from
+    *         the real start and "response" from the planned start.
+    *         Throughputs are over the elapsed time, up to the last
+    *         counted completion.
+    ****************************************************************/
+    static String toJson(Settings settings, Results results, long windowNanos, long elapsedNanos, long lagging,
+            int bursts)
+    {
+        double window = windowNanos / 1e9;
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder json = new StringBuilder(2048);
+        json.append("{\"benchmark\":\"ChristmasEveLoad\",\"java\":");
+        WishlistServer.appendJsonString(json, System.getProperty("java.version"));
+        json.append(",\"cores\":").append(Runtime.getRuntime().availableProcessors());
+        json.append(",\"settings\":{\"children\":").append(settings.children)
+                .append(",\"threads\":").append(settings.threads)
+                .append(",\"seconds\":").append(settings.seconds)
+                .append(",\"warmup\":").append(settings.warmup)
+                .append(",\"rate\":").append(number(settings.rate))
+                .append(",\"toys\":").append(settings.toys)
+                .append(",\"zipf\":").append(number(settings.zipf))
+                .append(",\"burstFactor\":").append(number(settings.burstFactor))
+                .append(",\"burstMillis\":").append(settings.burstMillis)
+                .append(",\"calmMillis\":").append(settings.calmMillis)
+                .append(",\"storage\":");
+        WishlistServer.appendJsonString(json, settings.storage.name());
+        json.append(",\"cache\":").append(settings.cache)
+                .append(",\"seed\":").append(settings.seed)
+                .append(",\"mix\":{");
+        for (Operation operation : Operation.values())
+        {
+            if (operation != Operation.CREATE)
+            {
+                json.append(operation == Operation.ADD ? "" : ",")
+                        .append('"').append(operation.key()).append("\":").append(settings.mix[operation.ordinal()]);
+            }
+        }
+        json.append("}},\"bursts\":").append(bursts)
+                .append(",\"lagging\":").append(lagging)
+                .append(",\"total\":{\"count\":").append(total(results))
+                .append(",\"offered\":").append(results.offered.sum())
+                .append(",\"windowSeconds\":").append(number(window))
+                .append(",\"elapsedSeconds\":").append(number(seconds))
+                .append(",\"offeredRate\":").append(number(results.offered.sum() / window))
+                .append(",\"achievedRate\":").append(number(total(results) / seconds))
+                .append("},\"operations\":{");
+        for (Operation operation : Operation.values())
+        {
+            int i = operation.ordinal();
+            json.append(i == 0 ? "" : ",").append('"').append(operation.key()).append("\":{\"count\":")
+                    .append(results.done[i].sum())
+                    .append(",\"failed\":").append(results.failed[i].sum())
+                    .append(",\"throughput\":").append(number(results.done[i].sum() / seconds))
+                    .append(",\"service\":");
+            appendLatencies(json, results.service[i].snapshot());
+            json.append(",\"response\":");
+            appendLatencies(json, results.response[i].snapshot());
+            json.append('}');
+        }
+        return json.append("}}").toString();
+    }
+
+    private static void appendLatencies(StringBuilder json, LatencyHistogram.Snapshot snapshot)
+    {
+        json.append("{\"p50\":").append(number(micros(snapshot.valueAtPercentile(50))))
+                .append(",\"p99\":").append(number(micros(snapshot.valueAtPercentile(99))))
+                .append(",\"p999\":").append(number(micros(snapshot.valueAtPercentile(99.9))))
+                .append(",\"max\":").append(number(micros(snapshot.getMax())))
+                .append(",\"mean\":").append(number(snapshot.getMean() / 1000))
+                .append('}');
+    }
+
+    private static long total(Results results)
+    {
+        long total = 0;
+        for (LongAdder done : results.done)
+        {
+            total += done.sum();
+        }
+        return total;
+    }
+
+    private static double micros(long nanos)
+    {
+        return nanos / 1000.0;
+    }
+
+    // JSON number with at most 3 decimals and no locale
+    private static String number(double value)
+    {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
@@ -0,0 +1,374 @@
+/***************************************************************
+*file: DeliveryManifest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class writes Santa's delivery manifest for every
+*         child in SantaWishlistApp to a text file: each child's
+*         items in child name order, then the total quantity of
+*         every toy, most wished for first. Toys are grouped by
+*         normalized name, the same way ToyDemand counts them.
+*
+*         The work is split over a fork-join pool. The children of
+*         one AppSnapshot are cut into chunks by rank, and each
+*         task renders its chunk's text and counts its chunk's toys
+*         on its own; counts are merged as the tasks join. Chunks
+*         are written in waves of a few per worker, and the next
+*         wave is rendered while the last one is written, so the
+*         whole manifest is never held in memory and the disk is
+*         kept busy.
+*
+*         Running the class as a program builds a large app and
+*         times the manifest with 1 worker up to one per core.
+*
+*         Usage: java DeliveryManifest [children] [items per child] [file]
+*
+****************************************************************/
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+public final class DeliveryManifest
+{
+    private static final int CHILDREN_PER_CHUNK = 1024;  // children rendered by one task
+    private static final int CHUNKS_PER_WORKER = 4;  // chunks per worker in one wave
+
+    /***************************************************************
+    *class: Summary
+    *purpose: What one manifest run wrote and how long it took.
+    ****************************************************************/
+    public static final class Summary
+    {
+        private final int children;  // children listed
+        private final long items;  // items listed
+        private final int toys;  // distinct toys in the totals
+        private final long bytes;  // size of the file
+        private final long millis;  // time taken
+
+        private Summary(int children, long items, int toys, long bytes, long millis)
+        {
+            this.children = children;
+            this.items = items;
+            this.toys = toys;
+            this.bytes = bytes;
+            this.millis = millis;
+        }
+
+        public int getChildren()
+        {
+            return children;
+        }
+
+        public long getItems()
+        {
+            return items;
+        }
+
+        public int getToys()
+        {
+            return toys;
+        }
+
+        public long getBytes()
+        {
+            return bytes;
+        }
+
+        public long getMillis()
+        {
+            return millis;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "children=" + children + ", items=" + items + ", toys=" + toys + ", bytes=" + bytes
+                    + ", time=" + millis + "ms";
+        }
+    }
+
+    /***************************************************************
+    *class: Total
+    *purpose: The quantity of one toy, under the first spelling of
+    *         its name in child order.
+    ****************************************************************/
+    private static final class Total
+    {
+        final String name;  // name as written in the first wishlist that has it
+        long quantity;  // wishes for the toy
+
+        Total(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    /***************************************************************
+    *class: RenderTask
+    *purpose: Renders a range of chunks into their slots of the wave
+    *         and returns the toy totals of the range. Splits in half
+    *         until one chunk is left.
+    ****************************************************************/
+    private static final class RenderTask extends RecursiveTask<Map<String, Total>>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final transient AppSnapshot snapshot;  // the children being listed
+        private final byte[][] wave;  // rendered text per chunk of the wave
+        private final int waveStart;  // first chunk of the wave
+        private final int firstChunk;  // first chunk of this task
+        private final int endChunk;  // chunk after the last one of this task
+
+        RenderTask(AppSnapshot snapshot, byte[][] wave, int waveStart, int firstChunk, int endChunk)
+        {
+            this.snapshot = snapshot;
+            this.wave = wave;
+            this.waveStart = waveStart;
+            this.firstChunk = firstChunk;
+            this.endChunk = endChunk;
+        }
+
+        @Override
+        protected Map<String, Total> compute()
+        {
+            if (endChunk - firstChunk == 1)
+            {
+                return render(firstChunk);
+            }
+            int middle = (firstChunk + endChunk) >>> 1;
+            RenderTask left = new RenderTask(snapshot, wave, waveStart, firstChunk, middle);
+            left.fork();
+            Map<String, Total> right = new RenderTask(snapshot, wave, waveStart, middle, endChunk).compute();
+            return merge(left.join(), right);
+        }
+
+        // renders one chunk of children and counts its toys
+        private Map<String, Total> render(int chunk)
+        {
+            StringBuilder text = new StringBuilder(CHILDREN_PER_CHUNK * 128);
+            Map<String, Total> totals = new HashMap<>();
+            Map<String, Total> spellings = new HashMap<>();  // exact names seen, so each is normalized once
+            int from = chunk * CHILDREN_PER_CHUNK;
+            snapshot.forEachWishlist(from, from + CHILDREN_PER_CHUNK, wishlist -> {
+                List<WishlistItem> items = wishlist.getItems();
+                text.append(wishlist.getChildName()).append(" (").append(items.size())
+                        .append(items.size() == 1 ? " item)\n" : " items)\n");
+                for (WishlistItem item : items)
+                {
+                    String name = item.getItemName();
+                    text.append("    ").append(name).append(": ").append(item.getDescription()).append('\n');
+                    Total total = spellings.get(name);
+                    if (total == null)
+                    {
+                        total = totals.computeIfAbsent(ToyDemand.normalize(name), key -> new Total(name));
+                        spellings.put(name, total);
+                    }
+                    total.quantity++;
+                }
+            });
+            wave[chunk - waveStart] = text.toString().getBytes(StandardCharsets.UTF_8);
+            return totals;
+        }
+    }
+
+    private DeliveryManifest()
+    {
+    }
+
+    /***************************************************************
+    *function: write
+    *purpose: Writes the manifest of every child in the app to the
+    *         target file, using the common fork-join pool.
+    ****************************************************************/
+    public static Summary write(SantaWishlistApp app, Path target) throws IOException
+    {
+        return write(app.snapshot(), target, ForkJoinPool.commonPool());
+    }
+
+    /***************************************************************
+    *function: write
+    *purpose: Writes the manifest of the snapshot's children to the
+    *         target file, rendering on the given pool. Stops with an
+    *         InterruptedIOException if the calling thread is
+    *         interrupted between waves.
+    ****************************************************************/
+    public static Summary write(AppSnapshot snapshot, Path target, ForkJoinPool pool) throws IOException
+    {
+        long begin = System.nanoTime();
+        int children = snapshot.getChildCount();
+        int chunks = (children + CHILDREN_PER_CHUNK - 1) / CHILDREN_PER_CHUNK;
+        int waveSize = Math.max(1, pool.getParallelism() * CHUNKS_PER_WORKER);
+        Map<String, Total> totals = new HashMap<>();
+
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            writeFully(file, header(snapshot));
+            byte[][] wave = new byte[Math.min(waveSize, chunks)][];
+            ForkJoinTask<Map<String, Total>> next = chunks == 0 ? null
+                    : pool.submit(new RenderTask(snapshot, wave, 0, 0, Math.min(waveSize, chunks)));
+            for (int start = 0; start < chunks; start += waveSize)
+            {
+                Map<String, Total> waveTotals = next.join();
+                byte[][] rendered = wave;
+                int end = Math.min(start + waveSize, chunks);
+                int nextStart = start + waveSize;
+                if (nextStart < chunks)
+                {
+                    wave = new byte[Math.min(waveSize, chunks - nextStart)][];
+                    next = pool.submit(new RenderTask(snapshot, wave, nextStart, nextStart,
+                            Math.min(nextStart + waveSize, chunks)));
+                }
+                for (int chunk = 0; chunk < end - start; chunk++)
+                {
+                    writeFully(file, rendered[chunk]);
+                }
+                totals = merge(totals, waveTotals);
+                if (Thread.currentThread().isInterrupted())
+                {
+                    next.cancel(true);
+                    throw new InterruptedIOException("Manifest cancelled");
+                }
+            }
+
+            List<Total> sorted = new ArrayList<>(totals.values());
+            sorted.sort((a, b) -> a.quantity != b.quantity ? Long.compare(b.quantity, a.quantity)
+                    : a.name.compareTo(b.name));
+            try (WishlistExporter.ChannelWriter out = new WishlistExporter.ChannelWriter(file))
+            {
+                out.write("\nTotals by toy (").write(Integer.toString(sorted.size())).write(" toys)\n");
+                for (Total total : sorted)
+                {
+                    out.write("    ").write(Long.toString(total.quantity)).write("  ").write(total.name).write('\n');
+                }
+            }
+        }
+        return new Summary(children, snapshot.getItemCount(), totals.size(), Files.size(target),
+                (System.nanoTime() - begin) / 1_000_000);
+    }
+
+    // the lines before the first child
+    private static byte[] header(AppSnapshot snapshot)
+    {
+        return ("Santa delivery manifest\n"
+                + "Created on: " + LocalDate.now() + "\n"
+                + "Children: " + snapshot.getChildCount() + "\n"
+                + "Items: " + snapshot.getItemCount() + "\n\n"
+                + "Deliveries by child\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /***************************************************************
+    *function: merge
+    *purpose: Adds the totals of a later range of children into those
+    *         of an earlier one, folding the smaller map into the
+    *         larger. The earlier range's spelling of a name wins.
+    ****************************************************************/
+    private static Map<String, Total> merge(Map<String, Total> earlier, Map<String, Total> later)
+    {
+        if (earlier.size() >= later.size())
+        {
+            for (Map.Entry<String, Total> entry : later.entrySet())
+            {
+                Total total = earlier.putIfAbsent(entry.getKey(), entry.getValue());
+                if (total != null)
+                {
+                    total.quantity += entry.getValue().quantity;
+                }
+            }
+            return earlier;
+        }
+        for (Map.Entry<String, Total> entry : earlier.entrySet())
+        {
+            Total total = later.get(entry.getKey());
+            if (total != null)
+            {
+                entry.getValue().quantity += total.quantity;
+            }
+            later.put(entry.getKey(), entry.getValue());
+        }
+        return later;
+    }
+
+    private static void writeFully(FileChannel file, byte[] bytes) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining())
+        {
+            file.write(buffer);
+        }
+    }
+
+    /***************************************************************
+    *function: main
+    *purpose: Fills an app with children and items from a fixed set
+    *         of toys, then writes the manifest with 1 worker up to
+    *         one per core and prints the time and speedup of each.
+    ****************************************************************/
+    public static void main(String[] args) throws IOException
+    {
+        int children = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int itemsPerChild = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Path target = Paths.get(args.length > 2 ? args[2] : "manifest.txt");
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        SantaWishlistApp app = new SantaWishlistApp();
+        long begin = System.nanoTime();
+        for (int c = 0; c < children; c++)
+        {
+            String child = "child-" + c;
+            app.createWishlistForChild(child);
+            List<WishlistItem> items = new ArrayList<>(itemsPerChild);
+            for (int i = 0; i < itemsPerChild; i++)
+            {
+                int toy = (c * 31 + i * 7919) % 5000;
+                items.add(new WishlistItem("Toy " + toy, "for " + child));
+            }
+            app.addItems(child, items);
+        }
+        AppSnapshot snapshot = app.snapshot();
+        System.out.printf("Delivery manifest: %d children, %d items, %d cores (set up in %.1fs)%n",
+                snapshot.getChildCount(), snapshot.getItemCount(), cores, (System.nanoTime() - begin) / 1e9);
+        System.out.printf("%8s %10s %12s %10s%n", "workers", "ms", "MB/sec", "speedup");
+
+        write(snapshot, target, ForkJoinPool.commonPool());  // warm up
+        double baseline = 0;
+        for (int workers = 1; workers <= cores; workers = workers < cores ? Math.min(cores, workers * 2) : workers + 1)
+        {
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try
+            {
+                Summary summary = write(snapshot, target, pool);
+                double millis = Math.max(1, summary.getMillis());
+                if (workers == 1)
+                {
+                    baseline = millis;
+                }
+                System.out.printf("%8d %10d %12.1f %9.2fx%n", workers, summary.getMillis(),
+                        summary.getBytes() / 1e6 / (millis / 1000), baseline / millis);
+            }
+            finally
+            {
+                pool.shutdown();
+            }
+        }
+        System.out.println("Wrote " + target);
+    }
+}
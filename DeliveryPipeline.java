@@ -0,0 +1,315 @@
+/***************************************************************
+*file: DeliveryPipeline.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class delivers sent wishlists to a DeliverySink in
+*         the background. Sends wait in a bounded queue; when the
+*         queue is full, submit blocks the sender until there is
+*         room (backpressure). Worker virtual threads take
+*         everything waiting, up to the batch size, optionally
+*         lingering a few milliseconds for a batch to fill, and
+*         hand the batch to the sink in one call. Each send gets a
+*         CompletableFuture that completes when its batch is
+*         delivered or fails.
+*
+*         A send that races with close is either delivered or
+*         rejected, never left waiting: submit checks again after
+*         queuing and takes the send back out if the pipeline was
+*         closed meanwhile. Callers that must not block, such as the
+*         GUI on its event thread, should hand submit to another
+*         thread.
+*
+*         Queue depth and batch size metrics are kept so the
+*         pipeline can be watched and tuned.
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DeliveryPipeline implements AutoCloseable
+{
+    private static final long IDLE_POLL_MILLIS = 100;  // how often idle workers check for shutdown
+
+    private final DeliverySink sink;  // where batches are delivered
+    private final BlockingQueue<Pending> queue;  // sends waiting for a worker
+    private final int batchSize;  // largest batch handed to the sink
+    private final long lingerMillis;  // how long a worker waits for a batch to fill
+    private final List<Thread> workers;  // virtual worker threads
+    private volatile boolean running;  // false once close has been called
+
+    private final LongAdder submitted = new LongAdder();  // sends accepted
+    private final LongAdder delivered = new LongAdder();  // sends delivered
+    private final LongAdder failed = new LongAdder();  // sends whose batch failed
+    private final LongAdder batches = new LongAdder();  // batches handed to the sink
+    private final AtomicInteger maxBatch = new AtomicInteger();  // largest batch so far
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();  // deepest the queue has been
+
+    /***************************************************************
+    *class: Pending
+    *purpose: A queued send and the future its caller is holding.
+    ****************************************************************/
+    private static final class Pending
+    {
+        final WishlistDelivery delivery;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pending(WishlistDelivery delivery)
+        {
+            this.delivery = delivery;
+        }
+    }
+
+    /***************************************************************
+    *function: DeliveryPipeline
+    *purpose: Creates the queue and starts the worker threads.
+    ****************************************************************/
+    public DeliveryPipeline(DeliverySink sink, int queueCapacity, int batchSize, int workerCount, long lingerMillis)
+    {
+        if (queueCapacity < 1 || batchSize < 1 || workerCount < 1 || lingerMillis < 0)
+        {
+            throw new IllegalArgumentException("Invalid delivery pipeline settings.");
+        }
+
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.running = true;
+        this.workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++)
+        {
+            workers.add(Thread.ofVirtual().name("delivery-worker-" + i).start(this::workLoop));
+        }
+    }
+
+    /***************************************************************
+    *function: withDefaults
+    *purpose: Creates a pipeline with settings that suit the GUI:
+    *         room for 10,000 waiting sends, batches of up to 256,
+    *         4 workers and a 5 ms linger.
+    ****************************************************************/
+    public static DeliveryPipeline withDefaults(DeliverySink sink)
+    {
+        return new DeliveryPipeline(sink, 10_000, 256, 4, 5);
+    }
+
+    /***************************************************************
+    *function: submit
+    *purpose: Queues a delivery, blocking while the queue is full.
+    *         Returns a future that completes once the delivery's
+    *         batch has reached the sink, or fails if the pipeline is
+    *         closed before the delivery was queued.
+    ****************************************************************/
+    public CompletableFuture<Void> submit(WishlistDelivery delivery)
+    {
+        Pending pending = new Pending(delivery);
+        if (!running)
+        {
+            pending.future.completeExceptionally(new RejectedExecutionException("Delivery pipeline is closed."));
+            return pending.future;
+        }
+
+        try
+        {
+            queue.put(pending);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            pending.future.completeExceptionally(e);
+            return pending.future;
+        }
+
+        // close may have run while we were queuing; if the send is still
+        // in the queue, no worker will take it, so take it back and fail it.
+        // If it is gone, a worker or close's final sweep has it.
+        if (!running && queue.remove(pending))
+        {
+            pending.future.completeExceptionally(new RejectedExecutionException("Delivery pipeline is closed."));
+            return pending.future;
+        }
+        submitted.increment();
+        maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+        return pending.future;
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Stops accepting sends, lets the workers deliver what is
+    *         already queued and waits for them to finish. If the
+    *         caller is interrupted while waiting, it returns at once
+    *         with the interrupt flag set and the workers finish on
+    *         their own.
+    ****************************************************************/
+    @Override
+    public void close()
+    {
+        running = false;
+        try
+        {
+            for (Thread worker : workers)
+            {
+                worker.join();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        // a send that raced with close may have slipped in after the workers stopped
+        Pending late;
+        while ((late = queue.poll()) != null)
+        {
+            late.future.completeExceptionally(new RejectedExecutionException("Delivery pipeline is closed."));
+        }
+    }
+
+    // metrics
+    public int getQueueDepth()
+    {
+        return queue.size();
+    }
+
+    public int getMaxQueueDepth()
+    {
+        return maxQueueDepth.get();
+    }
+
+    public long getSubmittedCount()
+    {
+        return submitted.sum();
+    }
+
+    public long getDeliveredCount()
+    {
+        return delivered.sum();
+    }
+
+    public long getFailedCount()
+    {
+        return failed.sum();
+    }
+
+    public long getBatchCount()
+    {
+        return batches.sum();
+    }
+
+    public int getMaxBatchSize()
+    {
+        return maxBatch.get();
+    }
+
+    public double getAverageBatchSize()
+    {
+        long count = batches.sum();
+        return count == 0 ? 0 : (delivered.sum() + failed.sum()) / (double) count;
+    }
+
+    /***************************************************************
+    *function: toString
+    *purpose: One-line summary of the metrics.
+    ****************************************************************/
+    @Override
+    public String toString()
+    {
+        return String.format("queue=%d (max %d), submitted=%d, delivered=%d, failed=%d, batches=%d, "
+                + "avgBatch=%.1f, maxBatch=%d", getQueueDepth(), getMaxQueueDepth(), getSubmittedCount(),
+                getDeliveredCount(), getFailedCount(), getBatchCount(), getAverageBatchSize(), getMaxBatchSize());
+    }
+
+    /***************************************************************
+    *function: workLoop
+    *purpose: Body of each worker. Collects a batch, hands it to the
+    *         sink and completes the futures of everything in it.
+    ****************************************************************/
+    private void workLoop()
+    {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        List<WishlistDelivery> payload = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty())
+        {
+            try
+            {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null)
+                {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                // give a small batch a moment to fill up
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize && lingerMillis > 0 && running)
+                {
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null)
+                    {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            }
+            catch (InterruptedException e)
+            {
+                // deliver what we have; the loop condition decides whether to stop
+            }
+
+            if (!batch.isEmpty())
+            {
+                deliver(batch, payload);
+                batch.clear();
+                payload.clear();
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: deliver
+    *purpose: Sends one batch to the sink and updates the metrics.
+    ****************************************************************/
+    private void deliver(List<Pending> batch, List<WishlistDelivery> payload)
+    {
+        for (Pending pending : batch)
+        {
+            payload.add(pending.delivery);
+        }
+        batches.increment();
+        maxBatch.accumulateAndGet(batch.size(), Math::max);
+
+        try
+        {
+            sink.deliver(payload);
+            delivered.add(batch.size());
+            for (Pending pending : batch)
+            {
+                pending.future.complete(null);
+            }
+        }
+        catch (Exception e)
+        {
+            failed.add(batch.size());
+            for (Pending pending : batch)
+            {
+                pending.future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/***************************************************************
+*file: DeliverySink.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This interface is the end of the delivery pipeline,
+*         where batches of sent wishlists are handed over to the
+*         North Pole. Implementations may be called from several
+*         delivery workers at once and must be thread-safe.
+*
+****************************************************************/
+
+import java.io.IOException;
+import java.util.List;
+
+public interface DeliverySink
+{
+    /***************************************************************
+    *function: deliver
+    *purpose: Delivers one batch of wishlists. Throwing fails every
+    *         delivery in the batch.
+    ****************************************************************/
+    void deliver(List<WishlistDelivery> batch) throws IOException;
+
+    /***************************************************************
+    *function: toConsole
+    *purpose: Returns a sink that prints one line per delivered
+    *         wishlist, like sendWishlist used to.
+    ****************************************************************/
+    static DeliverySink toConsole()
+    {
+        return batch -> {
+            for (WishlistDelivery delivery : batch)
+            {
+                System.out.println("Sending wishlist to Santa for " + delivery.getChildName());
+            }
+        };
+    }
+}
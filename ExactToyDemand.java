@@ -0,0 +1,264 @@
+/***************************************************************
+*file: ExactToyDemand.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class keeps an exact wish count for every toy. Toys
+*         with the same count share a bucket, and the buckets form a
+*         list ordered by count. Adding or removing a wish moves a
+*         toy to the neighbouring bucket in O(1), and the top k toys
+*         are read off the highest buckets in O(k), so both stay
+*         fast however many items there are. Only the tracker's
+*         thread changes the counts, so the lock is contended by
+*         readers alone.
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ExactToyDemand extends ToyDemand
+{
+    private final Map<String, Toy> toys = new HashMap<>();  // normalized name to its toy (guarded by this)
+    private Bucket highest;  // bucket with the largest count, or null (guarded by this)
+    private Bucket lowest;  // bucket with the smallest count, or null (guarded by this)
+
+    /***************************************************************
+    *class: Toy
+    *purpose: One toy, linked into the bucket for its count.
+    ****************************************************************/
+    private static final class Toy
+    {
+        final String key;  // normalized name
+        final String name;  // name as first seen
+        Bucket bucket;  // bucket for the current count
+        Toy previous;  // neighbours within the bucket
+        Toy next;
+
+        Toy(String key, String name)
+        {
+            this.key = key;
+            this.name = name;
+        }
+    }
+
+    /***************************************************************
+    *class: Bucket
+    *purpose: Every toy with the same count. Buckets are linked from
+    *         the highest count down.
+    ****************************************************************/
+    private static final class Bucket
+    {
+        final long count;  // count shared by the toys in it
+        Toy first;  // toys in this bucket
+        Bucket higher;  // bucket with the next larger count
+        Bucket lower;  // bucket with the next smaller count
+
+        Bucket(long count)
+        {
+            this.count = count;
+        }
+    }
+
+    /***************************************************************
+    *function: topToys
+    *purpose: Returns the k most wished-for toys, most popular first.
+    *         Toys with equal counts come in no particular order.
+    ****************************************************************/
+    @Override
+    public synchronized List<ToyCount> topToys(int k)
+    {
+        List<ToyCount> top = new ArrayList<>(Math.min(k, toys.size()));
+        for (Bucket bucket = highest; bucket != null && top.size() < k; bucket = bucket.lower)
+        {
+            for (Toy toy = bucket.first; toy != null && top.size() < k; toy = toy.next)
+            {
+                top.add(new ToyCount(toy.name, bucket.count));
+            }
+        }
+        return top;
+    }
+
+    /***************************************************************
+    *function: getToyCount
+    *purpose: Returns the number of different toys wished for.
+    ****************************************************************/
+    public synchronized int getToyCount()
+    {
+        return toys.size();
+    }
+
+    @Override
+    public boolean isExact()
+    {
+        return true;
+    }
+
+    @Override
+    protected synchronized long countOf(String key)
+    {
+        Toy toy = toys.get(key);
+        return toy == null ? 0 : toy.bucket.count;
+    }
+
+    /***************************************************************
+    *function: adjust
+    *purpose: Moves the toy one bucket up or down per unit of delta.
+    *         A toy whose count drops to zero is forgotten.
+    ****************************************************************/
+    @Override
+    protected synchronized void adjust(String key, String displayName, int delta)
+    {
+        Toy toy = toys.get(key);
+        if (toy == null)
+        {
+            if (delta <= 0)
+            {
+                return;
+            }
+            toy = new Toy(key, displayName);
+            toys.put(key, toy);
+        }
+
+        for (; delta > 0; delta--)
+        {
+            moveUp(toy);
+        }
+        for (; delta < 0 && toy.bucket != null; delta++)
+        {
+            moveDown(toy);
+        }
+        if (toy.bucket == null)
+        {
+            toys.remove(key);
+        }
+    }
+
+    // moves a toy to the bucket for count + 1
+    private void moveUp(Toy toy)
+    {
+        Bucket from = toy.bucket;
+        long count = from == null ? 1 : from.count + 1;
+        Bucket to;
+        if (from == null)
+        {
+            to = lowest;
+            if (to == null || to.count != 1)
+            {
+                to = insertAbove(new Bucket(1), null, to);
+            }
+        }
+        else
+        {
+            to = from.higher;
+            if (to == null || to.count != count)
+            {
+                to = insertAbove(new Bucket(count), from, to);
+            }
+            unlink(toy);
+        }
+        link(toy, to);
+    }
+
+    // moves a toy to the bucket for count - 1, or out of every bucket at zero
+    private void moveDown(Toy toy)
+    {
+        Bucket from = toy.bucket;
+        long count = from.count - 1;
+        Bucket to = null;
+        if (count > 0)
+        {
+            to = from.lower;
+            if (to == null || to.count != count)
+            {
+                to = insertAbove(new Bucket(count), to, from);
+            }
+        }
+        unlink(toy);
+        if (to != null)
+        {
+            link(toy, to);
+        }
+    }
+
+    // puts a new bucket between lower and higher (either may be null)
+    private Bucket insertAbove(Bucket bucket, Bucket lower, Bucket higher)
+    {
+        bucket.lower = lower;
+        bucket.higher = higher;
+        if (lower != null)
+        {
+            lower.higher = bucket;
+        }
+        else
+        {
+            lowest = bucket;
+        }
+        if (higher != null)
+        {
+            higher.lower = bucket;
+        }
+        else
+        {
+            highest = bucket;
+        }
+        return bucket;
+    }
+
+    private void link(Toy toy, Bucket bucket)
+    {
+        toy.bucket = bucket;
+        toy.previous = null;
+        toy.next = bucket.first;
+        if (bucket.first != null)
+        {
+            bucket.first.previous = toy;
+        }
+        bucket.first = toy;
+    }
+
+    // takes a toy out of its bucket and drops the bucket if it is now empty
+    private void unlink(Toy toy)
+    {
+        Bucket bucket = toy.bucket;
+        if (toy.previous != null)
+        {
+            toy.previous.next = toy.next;
+        }
+        else
+        {
+            bucket.first = toy.next;
+        }
+        if (toy.next != null)
+        {
+            toy.next.previous = toy.previous;
+        }
+        toy.bucket = null;
+        toy.previous = null;
+        toy.next = null;
+
+        if (bucket.first == null)
+        {
+            if (bucket.lower != null)
+            {
+                bucket.lower.higher = bucket.higher;
+            }
+            else
+            {
+                lowest = bucket.higher;
+            }
+            if (bucket.higher != null)
+            {
+                bucket.higher.lower = bucket.lower;
+            }
+            else
+            {
+                highest = bucket.lower;
+            }
+        }
+    }
+}
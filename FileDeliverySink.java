@@ -0,0 +1,67 @@
+/***************************************************************
+*file: FileDeliverySink.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is a delivery sink that appends every batch
+*         of sent wishlists to a local file. A whole batch is
+*         written with a single call, which is what makes batching
+*         worthwhile.
+*
+****************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FileDeliverySink implements DeliverySink, AutoCloseable
+{
+    private final FileChannel channel;  // file the deliveries are appended to
+
+    /***************************************************************
+    *function: FileDeliverySink
+    *purpose: Opens (or creates) the file for appending.
+    ****************************************************************/
+    public FileDeliverySink(Path file) throws IOException
+    {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /***************************************************************
+    *function: deliver
+    *purpose: Formats the whole batch and appends it in one write.
+    ****************************************************************/
+    @Override
+    public synchronized void deliver(List<WishlistDelivery> batch) throws IOException
+    {
+        StringBuilder text = new StringBuilder();
+        for (WishlistDelivery delivery : batch)
+        {
+            text.append(delivery).append("\n");
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+        while (bytes.hasRemaining())
+        {
+            channel.write(bytes);
+        }
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Closes the file.
+    ****************************************************************/
+    @Override
+    public synchronized void close() throws IOException
+    {
+        channel.close();
+    }
+}
@@ -0,0 +1,51 @@
+/***************************************************************
+*file: InMemoryDeliverySink.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is an in-process delivery sink for tests and
+*         tools. It keeps every delivered wishlist and the size of
+*         every batch so they can be checked afterwards.
+*
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryDeliverySink implements DeliverySink
+{
+    private final List<WishlistDelivery> deliveries = new ArrayList<>();  // everything delivered so far
+    private final List<Integer> batchSizes = new ArrayList<>();  // size of each batch, in arrival order
+
+    /***************************************************************
+    *function: deliver
+    *purpose: Remembers the batch.
+    ****************************************************************/
+    @Override
+    public synchronized void deliver(List<WishlistDelivery> batch)
+    {
+        deliveries.addAll(batch);
+        batchSizes.add(batch.size());
+    }
+
+    /***************************************************************
+    *function: getDeliveries
+    *purpose: Returns a copy of every wishlist delivered so far.
+    ****************************************************************/
+    public synchronized List<WishlistDelivery> getDeliveries()
+    {
+        return new ArrayList<>(deliveries);
+    }
+
+    /***************************************************************
+    *function: getBatchSizes
+    *purpose: Returns a copy of the size of every batch so far.
+    ****************************************************************/
+    public synchronized List<Integer> getBatchSizes()
+    {
+        return new ArrayList<>(batchSizes);
+    }
+}
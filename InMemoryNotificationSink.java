@@ -0,0 +1,39 @@
+/***************************************************************
+*file: InMemoryNotificationSink.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is a notification sink for tests and tools.
+*         It keeps every notification it receives.
+*
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InMemoryNotificationSink implements NotificationSink
+{
+    private final List<NotificationBus.Notification> received = new ArrayList<>();  // everything delivered so far
+
+    /***************************************************************
+    *function: deliver
+    *purpose: Remembers the notification.
+    ****************************************************************/
+    @Override
+    public synchronized void deliver(NotificationBus.Notification notification)
+    {
+        received.add(notification);
+    }
+
+    /***************************************************************
+    *function: getReceived
+    *purpose: Returns a copy of every notification received so far.
+    ****************************************************************/
+    public synchronized List<NotificationBus.Notification> getReceived()
+    {
+        return new ArrayList<>(received);
+    }
+}
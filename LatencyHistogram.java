@@ -0,0 +1,215 @@
+/***************************************************************
+*file: LatencyHistogram.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class records how long an operation took, in
+*         nanoseconds, and answers percentile questions about it,
+*         in the style of an HDR histogram. Each power of two is
+*         split into 32 equal buckets, so a recorded value is off
+*         by at most about 3%, from 1 ns up to 2^40 ns (about 18
+*         minutes); longer values are counted as 2^40 ns. The whole
+*         histogram is a fixed array of 1,152 counters.
+*
+*         Recording is one atomic increment and never locks. To
+*         keep threads from fighting over the same counters, there
+*         are several copies of the array and each thread adds to
+*         the one picked by its id. Reading adds the copies up.
+****************************************************************/
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class LatencyHistogram
+{
+    private static final int SUB_BITS = 5;  // 32 buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_BITS = 40;  // largest value kept is 2^40 - 1
+    private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+    private static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray[] stripes;  // counters per bucket, one copy per stripe
+    private final int mask;  // stripes.length - 1
+
+    /***************************************************************
+    *class: Snapshot
+    *purpose: The counts of a histogram at one moment, added up over
+    *         the stripes.
+    ****************************************************************/
+    public static final class Snapshot
+    {
+        private final long[] counts;  // values per bucket
+        private final long total;  // values recorded
+
+        private Snapshot(long[] counts, long total)
+        {
+            this.counts = counts;
+            this.total = total;
+        }
+
+        public long getCount()
+        {
+            return total;
+        }
+
+        /***************************************************************
+        *function: valueAtPercentile
+        *purpose: Returns the value that percent of the recorded values
+        *         are at or below (the top of its bucket), or 0 if
+        *         nothing was recorded.
+        ****************************************************************/
+        public long valueAtPercentile(double percent)
+        {
+            if (total == 0)
+            {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(total * Math.min(100.0, percent) / 100.0));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++)
+            {
+                seen += counts[bucket];
+                if (seen >= rank)
+                {
+                    return highestValue(bucket);
+                }
+            }
+            return MAX_VALUE;
+        }
+
+        /***************************************************************
+        *function: getMax
+        *purpose: Returns the largest value recorded (the top of its
+        *         bucket), or 0.
+        ****************************************************************/
+        public long getMax()
+        {
+            for (int bucket = BUCKETS - 1; bucket >= 0; bucket--)
+            {
+                if (counts[bucket] != 0)
+                {
+                    return highestValue(bucket);
+                }
+            }
+            return 0;
+        }
+
+        /***************************************************************
+        *function: getMean
+        *purpose: Returns the average value, taking each value as the
+        *         middle of its bucket, or 0.
+        ****************************************************************/
+        public double getMean()
+        {
+            if (total == 0)
+            {
+                return 0;
+            }
+            double sum = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++)
+            {
+                if (counts[bucket] != 0)
+                {
+                    sum += counts[bucket] * ((lowestValue(bucket) + highestValue(bucket)) / 2.0);
+                }
+            }
+            return sum / total;
+        }
+    }
+
+    /***************************************************************
+    *function: LatencyHistogram
+    *purpose: Constructor that makes about one stripe per processor
+    *         (a power of two from 2 to 16).
+    ****************************************************************/
+    public LatencyHistogram()
+    {
+        int processors = Runtime.getRuntime().availableProcessors();
+        stripes = new AtomicLongArray[Math.min(16, Integer.highestOneBit(Math.max(1, processors - 1)) << 1)];
+        for (int i = 0; i < stripes.length; i++)
+        {
+            stripes[i] = new AtomicLongArray(BUCKETS);
+        }
+        mask = stripes.length - 1;
+    }
+
+    /***************************************************************
+    *function: record
+    *purpose: Counts one value in nanoseconds. Negative values count
+    *         as 0.
+    ****************************************************************/
+    public void record(long nanos)
+    {
+        long value = Math.min(MAX_VALUE, Math.max(0, nanos));
+        stripes[(int) Thread.currentThread().threadId() & mask].incrementAndGet(bucketOf(value));
+    }
+
+    /***************************************************************
+    *function: snapshot
+    *purpose: Adds up the stripes. Values recorded meanwhile may or
+    *         may not be included.
+    ****************************************************************/
+    public Snapshot snapshot()
+    {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (AtomicLongArray stripe : stripes)
+        {
+            for (int bucket = 0; bucket < BUCKETS; bucket++)
+            {
+                long count = stripe.get(bucket);
+                counts[bucket] += count;
+                total += count;
+            }
+        }
+        return new Snapshot(counts, total);
+    }
+
+    /***************************************************************
+    *function: reset
+    *purpose: Forgets every value recorded so far.
+    ****************************************************************/
+    public void reset()
+    {
+        for (AtomicLongArray stripe : stripes)
+        {
+            for (int bucket = 0; bucket < BUCKETS; bucket++)
+            {
+                stripe.set(bucket, 0);
+            }
+        }
+    }
+
+    // values below 64 get a bucket each; above that, 32 buckets per power of two
+    private static int bucketOf(long value)
+    {
+        if (value < 2 * SUB_BUCKETS)
+        {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    private static long lowestValue(int bucket)
+    {
+        if (bucket < 2 * SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    private static long highestValue(int bucket)
+    {
+        if (bucket < 2 * SUB_BUCKETS)
+        {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return ((long) (bucket % SUB_BUCKETS + SUB_BUCKETS + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,26 @@
+/***************************************************************
+*file: LogNotificationSink.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is a notification sink that writes each
+*         notification to standard output. It is the sink used
+*         when the application runs without a display.
+*
+****************************************************************/
+
+public class LogNotificationSink implements NotificationSink
+{
+    /***************************************************************
+    *function: deliver
+    *purpose: Prints the notification with its time and audience.
+    ****************************************************************/
+    @Override
+    public void deliver(NotificationBus.Notification notification)
+    {
+        System.out.println("[" + notification.getTime() + "] " + notification);
+    }
+}
@@ -0,0 +1,114 @@
+/***************************************************************
+*file: MemoryFootprint.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This program measures how much heap the wishlists take
+*         per item with each kind of storage. It fills wishlists
+*         for many children with toy names drawn from a catalogue
+*         where a few toys are very popular, with mostly short,
+*         repeating descriptions and some long unique ones, and
+*         prints the retained heap per item for each mode. It also
+*         times one full garbage collection with the data live,
+*         since the pause grows with what the collector must trace.
+*         MAPPED storage keeps its segment files in a temporary
+*         folder, deleted at the end.
+*
+*         Usage: java MemoryFootprint [children] [items per child]
+*         Run with a heap large enough for the standard mode, for
+*         example -Xmx2g for the defaults.
+*
+****************************************************************/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class MemoryFootprint
+{
+    private static final int CATALOGUE = 5_000;  // different toy names
+    private static final String[] COLOURS = {"red", "blue", "green", "pink", "black", "white", "any colour"};
+    private static final String[] SIZES = {"small", "medium", "large", "size 6", "size 8"};
+
+    /***************************************************************
+    *function: main
+    *purpose: Builds the same data in each storage mode and prints
+    *         the bytes per item.
+    ****************************************************************/
+    public static void main(String[] args) throws IOException
+    {
+        int children = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int itemsPerChild = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        long items = (long) children * itemsPerChild;
+
+        System.out.println("Memory footprint: " + children + " children, " + itemsPerChild + " items each");
+        System.out.printf("%10s %15s %15s %15s %15s%n", "storage", "heap MB", "bytes/item", "full gc ms",
+                "mapped MB");
+        for (Wishlist.Storage storage : Wishlist.Storage.values())
+        {
+            WishlistSegmentStore store = storage == Wishlist.Storage.MAPPED
+                    ? WishlistSegmentStore.open(Files.createTempDirectory("santa-segments")) : null;
+            long before = usedHeap();
+            List<Wishlist> wishlists = build(storage, store, children, itemsPerChild);
+            long after = usedHeap();
+            long gcStart = System.nanoTime();
+            System.gc();
+            double gcMillis = (System.nanoTime() - gcStart) / 1e6;
+            System.out.printf("%10s %15.1f %15.1f %15.1f %15.1f%n", storage, (after - before) / (1024.0 * 1024.0),
+                    (after - before) / (double) items, gcMillis,
+                    store == null ? 0.0 : store.getMappedBytes() / (1024.0 * 1024.0));
+            wishlists.clear();
+            if (store != null)
+            {
+                store.close();
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: build
+    *purpose: Fills the wishlists. Every item gets freshly built
+    *         strings, as it would when typed in or read from a file.
+    ****************************************************************/
+    private static List<Wishlist> build(Wishlist.Storage storage, WishlistSegmentStore store, int children,
+            int itemsPerChild)
+    {
+        Random random = new Random(42);
+        List<Wishlist> wishlists = new ArrayList<>(children);
+        for (int child = 0; child < children; child++)
+        {
+            Wishlist wishlist = store != null ? new Wishlist("child-" + child, store)
+                    : new Wishlist("child-" + child, storage);
+            for (int i = 0; i < itemsPerChild; i++)
+            {
+                // popular toys come up far more often (roughly Zipf)
+                int toy = (int) Math.floor(Math.pow(CATALOGUE, random.nextDouble())) - 1;
+                String name = new StringBuilder("Toy number ").append(toy).toString();
+                String description = random.nextInt(10) == 0
+                        ? "Please make it the one with the " + random.nextInt(1_000_000) + " sticker on the box"
+                        : COLOURS[random.nextInt(COLOURS.length)] + ", " + SIZES[random.nextInt(SIZES.length)];
+                wishlist.addItem(name, description);
+            }
+            wishlists.add(wishlist);
+        }
+        return wishlists;
+    }
+
+    // heap in use after letting the garbage collector settle
+    private static long usedHeap()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++)
+        {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,383 @@
+/***************************************************************
+*file: NotificationBus.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class delivers notifications to children and Santa
+*         without blocking the code that sends them. publish only
+*         puts the notification on a bounded queue; one dispatcher
+*         thread hands it to every registered NotificationSink.
+*
+*         Bursts are coalesced per audience. The first notification
+*         after a quiet period is delivered at once; everything else
+*         published within the audience's window is collected and
+*         delivered as one digest when the window closes. So 500
+*         wishlist sends in a minute reach Santa as the first
+*         notification plus a single digest of the other 499.
+*
+*         If the queue is full, new notifications are dropped and
+*         counted rather than slowing the sender down.
+****************************************************************/
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class NotificationBus implements AutoCloseable
+{
+    private static final int DIGEST_SAMPLES = 5;  // messages quoted in a digest
+
+    /***************************************************************
+    *enum: Audience
+    *purpose: Who a notification is for.
+    ****************************************************************/
+    public enum Audience
+    {
+        CHILD("Child Notification"), SANTA("Santa Notification");
+
+        private final String title;  // title used by sinks that show one
+
+        Audience(String title)
+        {
+            this.title = title;
+        }
+
+        public String getTitle()
+        {
+            return title;
+        }
+    }
+
+    /***************************************************************
+    *class: Notification
+    *purpose: One delivered notification. A digest has a count above
+    *         one and a message summarizing what it stands for.
+    ****************************************************************/
+    public static final class Notification
+    {
+        private final Audience audience;  // who it is for
+        private final String message;  // text to show
+        private final int count;  // number of published notifications it stands for
+        private final Instant time;  // when it was published (first one for a digest)
+
+        public Notification(Audience audience, String message, int count, Instant time)
+        {
+            this.audience = audience;
+            this.message = message;
+            this.count = count;
+            this.time = time;
+        }
+
+        public Audience getAudience()
+        {
+            return audience;
+        }
+
+        public String getMessage()
+        {
+            return message;
+        }
+
+        public int getCount()
+        {
+            return count;
+        }
+
+        public Instant getTime()
+        {
+            return time;
+        }
+
+        public boolean isDigest()
+        {
+            return count > 1;
+        }
+
+        @Override
+        public String toString()
+        {
+            return audience.getTitle() + ": " + message;
+        }
+    }
+
+    /***************************************************************
+    *class: Window
+    *purpose: Coalescing state of one audience.
+    ****************************************************************/
+    private static final class Window
+    {
+        long closesAt;  // nanoTime the current window ends, 0 when quiet
+        final List<Notification> held = new ArrayList<>();  // collected for the digest
+    }
+
+    private final LinkedBlockingQueue<Notification> queue;  // published, not yet dispatched
+    private final List<NotificationSink> sinks;  // where notifications go
+    private final Map<Audience, Long> windowNanos;  // coalescing window per audience
+    private final Map<Audience, Window> windows;  // dispatcher thread only
+    private final Thread dispatcher;  // background thread delivering to the sinks
+    private volatile boolean running;  // false once close has been called
+
+    private final LongAdder published = new LongAdder();  // notifications accepted
+    private final LongAdder dropped = new LongAdder();  // notifications lost to a full queue
+    private final LongAdder deliveredCount = new LongAdder();  // notifications and digests handed to sinks
+
+    /***************************************************************
+    *function: NotificationBus
+    *purpose: Creates a bus with a bounded queue and starts its
+    *         dispatcher thread. Windows start at zero (no coalescing).
+    ****************************************************************/
+    public NotificationBus(int queueCapacity)
+    {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.sinks = new CopyOnWriteArrayList<>();
+        this.windowNanos = new EnumMap<>(Audience.class);
+        this.windows = new EnumMap<>(Audience.class);
+        for (Audience audience : Audience.values())
+        {
+            windowNanos.put(audience, 0L);
+            windows.put(audience, new Window());
+        }
+        this.running = true;
+
+        dispatcher = new Thread(this::dispatchLoop, "notification-bus");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /***************************************************************
+    *function: addSink
+    *purpose: Registers a sink. Returns the bus for chaining.
+    ****************************************************************/
+    public NotificationBus addSink(NotificationSink sink)
+    {
+        sinks.add(sink);
+        return this;
+    }
+
+    /***************************************************************
+    *function: setCoalesceWindow
+    *purpose: Sets how long notifications for an audience are
+    *         collected into one digest. Zero turns coalescing off.
+    *         Returns the bus for chaining.
+    ****************************************************************/
+    public synchronized NotificationBus setCoalesceWindow(Audience audience, Duration window)
+    {
+        windowNanos.put(audience, window.toNanos());
+        return this;
+    }
+
+    /***************************************************************
+    *function: publish
+    *purpose: Queues a notification and returns at once. Returns false
+    *         if the queue was full and the notification was dropped.
+    ****************************************************************/
+    public boolean publish(Audience audience, String message)
+    {
+        if (!running || !queue.offer(new Notification(audience, message, 1, Instant.now())))
+        {
+            dropped.increment();
+            return false;
+        }
+        published.increment();
+        return true;
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Stops the dispatcher after it has delivered everything
+    *         queued and flushed any open digest. If the caller is
+    *         interrupted while waiting, it returns with the interrupt
+    *         flag set.
+    ****************************************************************/
+    @Override
+    public void close()
+    {
+        running = false;
+        dispatcher.interrupt();
+        try
+        {
+            dispatcher.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // metrics
+    public long getPublishedCount()
+    {
+        return published.sum();
+    }
+
+    public long getDroppedCount()
+    {
+        return dropped.sum();
+    }
+
+    public long getDeliveredCount()
+    {
+        return deliveredCount.sum();
+    }
+
+    public int getQueueDepth()
+    {
+        return queue.size();
+    }
+
+    /***************************************************************
+    *function: dispatchLoop
+    *purpose: Body of the dispatcher thread. Delivers or holds each
+    *         notification and closes windows that have expired.
+    ****************************************************************/
+    private void dispatchLoop()
+    {
+        while (running || !queue.isEmpty())
+        {
+            Notification next = null;
+            try
+            {
+                next = queue.poll(nanosUntilNextWindowCloses(), TimeUnit.NANOSECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                // close() interrupts us; the loop condition decides
+            }
+
+            if (next != null)
+            {
+                accept(next);
+            }
+            closeExpiredWindows(System.nanoTime(), false);
+        }
+        closeExpiredWindows(System.nanoTime(), true);
+    }
+
+    /***************************************************************
+    *function: accept
+    *purpose: Delivers a notification at once if its audience is
+    *         quiet (and opens a window), otherwise holds it.
+    ****************************************************************/
+    private void accept(Notification notification)
+    {
+        long window;
+        synchronized (this)
+        {
+            window = windowNanos.get(notification.getAudience());
+        }
+        Window state = windows.get(notification.getAudience());
+
+        if (window <= 0)
+        {
+            deliver(notification);
+        }
+        else if (state.closesAt == 0)
+        {
+            deliver(notification);
+            state.closesAt = System.nanoTime() + window;
+        }
+        else
+        {
+            state.held.add(notification);
+        }
+    }
+
+    /***************************************************************
+    *function: closeExpiredWindows
+    *purpose: Delivers the digest of every window that has ended (or
+    *         of every window when closing the bus).
+    ****************************************************************/
+    private void closeExpiredWindows(long now, boolean all)
+    {
+        for (Map.Entry<Audience, Window> entry : windows.entrySet())
+        {
+            Window state = entry.getValue();
+            if (state.closesAt == 0 || (!all && now - state.closesAt < 0))
+            {
+                continue;
+            }
+
+            if (state.held.size() == 1)
+            {
+                deliver(state.held.get(0));
+            }
+            else if (!state.held.isEmpty())
+            {
+                deliver(digest(entry.getKey(), state.held));
+            }
+
+            // a window that held something stays open for one more round
+            state.closesAt = state.held.isEmpty() || all ? 0 : now + windowNanosOf(entry.getKey());
+            state.held.clear();
+        }
+    }
+
+    /***************************************************************
+    *function: digest
+    *purpose: Builds one notification summarizing the held ones.
+    ****************************************************************/
+    private static Notification digest(Audience audience, List<Notification> held)
+    {
+        StringBuilder message = new StringBuilder(held.size() + " new notifications:");
+        for (int i = 0; i < Math.min(DIGEST_SAMPLES, held.size()); i++)
+        {
+            message.append("\n- ").append(held.get(i).getMessage());
+        }
+        if (held.size() > DIGEST_SAMPLES)
+        {
+            message.append("\n... and ").append(held.size() - DIGEST_SAMPLES).append(" more");
+        }
+        return new Notification(audience, message.toString(), held.size(), held.get(0).getTime());
+    }
+
+    /***************************************************************
+    *function: deliver
+    *purpose: Hands a notification to every sink. A failing sink is
+    *         reported but does not stop the others.
+    ****************************************************************/
+    private void deliver(Notification notification)
+    {
+        deliveredCount.increment();
+        for (NotificationSink sink : sinks)
+        {
+            try
+            {
+                sink.deliver(notification);
+            }
+            catch (RuntimeException e)
+            {
+                System.out.println("Notification sink failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // time left until the earliest open window closes
+    private long nanosUntilNextWindowCloses()
+    {
+        long now = System.nanoTime();
+        long wait = TimeUnit.MILLISECONDS.toNanos(100);
+        for (Window state : windows.values())
+        {
+            if (state.closesAt != 0)
+            {
+                wait = Math.min(wait, Math.max(0, state.closesAt - now));
+            }
+        }
+        return wait;
+    }
+
+    private synchronized long windowNanosOf(Audience audience)
+    {
+        return windowNanos.get(audience);
+    }
+}
@@ -0,0 +1,22 @@
+/***************************************************************
+*file: NotificationSink.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This interface is a destination for notifications
+*         coming off the NotificationBus. Sinks are called from
+*         the bus's dispatcher thread and must not block for long.
+*
+****************************************************************/
+
+public interface NotificationSink
+{
+    /***************************************************************
+    *function: deliver
+    *purpose: Shows, records or forwards one notification (or digest).
+    ****************************************************************/
+    void deliver(NotificationBus.Notification notification);
+}
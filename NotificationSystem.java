@@ -4,40 +4,69 @@
 *		  Marie Philavong, and Brandon Shippy
 *class: CS 4800 - Software Engineering
 *assignment: Final Project
-*date last modified: 01/14/25
+*date last modified: 10/17/26
 *
 *purpose: This program contains the NotificationSystem class, 
 *         which provides methods to send notifications to both 
-*         children and Santa. The notifications are displayed 
-*         using dialog boxes, allowing communication through a 
-*         simple user interface.
+*         children and Santa. The notifications go through a
+*         NotificationBus, so sending one never blocks the caller
+*         and works without a display. With a display they show
+*         up as toasts; without one they are logged. Santa's
+*         notifications are coalesced into digests.
 *
 ****************************************************************/
 
-import javax.swing.JOptionPane;
+import java.awt.GraphicsEnvironment;
+import java.time.Duration;
 
 public class NotificationSystem
 {
+    private static NotificationBus bus;  // bus used by the static methods (guarded by the class)
 
     /***************************************************************
     *function: feedbackToChild
-    *purpose: Displays a notification to the child with a custom message.
-    *         The message is shown in a dialog box with an 
-    *         "Information" icon.
+    *purpose: Sends a notification to the child with a custom message.
+    *         Returns at once; the message is shown in the background.
     ****************************************************************/
     public static void feedbackToChild(String message)
     {
-        JOptionPane.showMessageDialog(null, message, "Child Notification", JOptionPane.INFORMATION_MESSAGE);
+        getBus().publish(NotificationBus.Audience.CHILD, message);
     }
 
     /***************************************************************
     *function: notifySanta
-    *purpose: Displays a notification to Santa with a custom message.
-    *         The message is shown in a dialog box with an 
-    *         "Information" icon.
+    *purpose: Sends a notification to Santa with a custom message.
+    *         Returns at once; bursts reach Santa as a digest.
     ****************************************************************/
     public static void notifySanta(String message)
     {
-        JOptionPane.showMessageDialog(null, message, "Santa Notification", JOptionPane.INFORMATION_MESSAGE);
+        getBus().publish(NotificationBus.Audience.SANTA, message);
+    }
+
+    /***************************************************************
+    *function: getBus
+    *purpose: Returns the bus, creating the default one on first use:
+    *         toasts when a display is available, a log otherwise,
+    *         and a one-minute digest window for Santa.
+    ****************************************************************/
+    public static synchronized NotificationBus getBus()
+    {
+        if (bus == null)
+        {
+            bus = new NotificationBus(10_000)
+                    .setCoalesceWindow(NotificationBus.Audience.SANTA, Duration.ofMinutes(1))
+                    .addSink(GraphicsEnvironment.isHeadless() ? new LogNotificationSink() : new SwingToastSink(4000));
+        }
+        return bus;
+    }
+
+    /***************************************************************
+    *function: setBus
+    *purpose: Replaces the bus, for example with one that has an
+    *         in-memory sink in tests.
+    ****************************************************************/
+    public static synchronized void setBus(NotificationBus newBus)
+    {
+        bus = newBus;
     }
 }
\ No newline at end of file
@@ -0,0 +1,302 @@
+/***************************************************************
+*file: PersistentList.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is an immutable list that is cheap to change
+*         by making a new version. plus, update and without leave
+*         the list alone and return a new list that shares all but
+*         O(log n) of its nodes with the old one, so keeping every
+*         version of a wishlist costs little more than keeping one.
+*
+*         The elements live in an AVL tree ordered by position,
+*         where each node knows the size of its subtree. get, plus,
+*         update and without are O(log n); iterating is O(n).
+*
+*         A list never changes once built, so any number of threads
+*         can read it without locking. The List methods that would
+*         change it throw UnsupportedOperationException.
+****************************************************************/
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public final class PersistentList<T> extends AbstractList<T>
+{
+    private static final PersistentList<Object> EMPTY = new PersistentList<>(null);
+
+    private final Node<T> root;  // tree of the elements, null when empty
+
+    /***************************************************************
+    *class: Node
+    *purpose: One element with the subtrees before and after it.
+    ****************************************************************/
+    private static final class Node<T>
+    {
+        final T value;  // the element
+        final Node<T> left;  // elements before it
+        final Node<T> right;  // elements after it
+        final int size;  // elements in this subtree
+        final int height;  // levels in this subtree
+
+        Node(T value, Node<T> left, Node<T> right)
+        {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private PersistentList(Node<T> root)
+    {
+        this.root = root;
+    }
+
+    /***************************************************************
+    *function: empty
+    *purpose: Returns the empty list.
+    ****************************************************************/
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty()
+    {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /***************************************************************
+    *function: of
+    *purpose: Returns a list of the given elements in order. The tree
+    *         is built balanced in O(n).
+    ****************************************************************/
+    public static <T> PersistentList<T> of(List<? extends T> elements)
+    {
+        return elements.isEmpty() ? empty() : new PersistentList<>(build(elements, 0, elements.size()));
+    }
+
+    /***************************************************************
+    *function: get
+    *purpose: Returns the element at a position in O(log n).
+    ****************************************************************/
+    @Override
+    public T get(int index)
+    {
+        checkIndex(index, size());
+        Node<T> node = root;
+        while (true)
+        {
+            int before = size(node.left);
+            if (index < before)
+            {
+                node = node.left;
+            }
+            else if (index > before)
+            {
+                index -= before + 1;
+                node = node.right;
+            }
+            else
+            {
+                return node.value;
+            }
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return size(root);
+    }
+
+    /***************************************************************
+    *function: plus
+    *purpose: Returns a new list with the element added at the end.
+    ****************************************************************/
+    public PersistentList<T> plus(T value)
+    {
+        return new PersistentList<>(insert(root, size(), value));
+    }
+
+    /***************************************************************
+    *function: update
+    *purpose: Returns a new list with the element at a position
+    *         replaced.
+    ****************************************************************/
+    public PersistentList<T> update(int index, T value)
+    {
+        checkIndex(index, size());
+        return new PersistentList<>(replace(root, index, value));
+    }
+
+    /***************************************************************
+    *function: without
+    *purpose: Returns a new list with the element at a position
+    *         removed.
+    ****************************************************************/
+    public PersistentList<T> without(int index)
+    {
+        checkIndex(index, size());
+        return new PersistentList<>(delete(root, index));
+    }
+
+    /***************************************************************
+    *function: iterator
+    *purpose: Walks the elements in order, keeping the path to the
+    *         next one on a stack.
+    ****************************************************************/
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private final Deque<Node<T>> path = new ArrayDeque<>();  // nodes still to visit, next on top
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<T> node)
+            {
+                for (; node != null; node = node.left)
+                {
+                    path.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext()
+            {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public T next()
+            {
+                if (path.isEmpty())
+                {
+                    throw new NoSuchElementException();
+                }
+                Node<T> node = path.pop();
+                pushLeft(node.right);
+                return node.value;
+            }
+        };
+    }
+
+    // tree operations, each copying only the path it walks
+    private static <T> Node<T> build(List<? extends T> elements, int from, int to)
+    {
+        if (from == to)
+        {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(elements.get(middle), build(elements, from, middle), build(elements, middle + 1, to));
+    }
+
+    private static <T> Node<T> insert(Node<T> node, int index, T value)
+    {
+        if (node == null)
+        {
+            return new Node<>(value, null, null);
+        }
+        int before = size(node.left);
+        if (index <= before)
+        {
+            return balance(node.value, insert(node.left, index, value), node.right);
+        }
+        return balance(node.value, node.left, insert(node.right, index - before - 1, value));
+    }
+
+    private static <T> Node<T> replace(Node<T> node, int index, T value)
+    {
+        int before = size(node.left);
+        if (index < before)
+        {
+            return new Node<>(node.value, replace(node.left, index, value), node.right);
+        }
+        if (index > before)
+        {
+            return new Node<>(node.value, node.left, replace(node.right, index - before - 1, value));
+        }
+        return new Node<>(value, node.left, node.right);
+    }
+
+    private static <T> Node<T> delete(Node<T> node, int index)
+    {
+        int before = size(node.left);
+        if (index < before)
+        {
+            return balance(node.value, delete(node.left, index), node.right);
+        }
+        if (index > before)
+        {
+            return balance(node.value, node.left, delete(node.right, index - before - 1));
+        }
+        if (node.left == null)
+        {
+            return node.right;
+        }
+        if (node.right == null)
+        {
+            return node.left;
+        }
+
+        // take the next element's place
+        Node<T> next = node.right;
+        while (next.left != null)
+        {
+            next = next.left;
+        }
+        return balance(next.value, node.left, delete(node.right, 0));
+    }
+
+    // joins two subtrees whose heights differ by at most two, rotating to keep the AVL balance
+    private static <T> Node<T> balance(T value, Node<T> left, Node<T> right)
+    {
+        if (height(left) > height(right) + 1)
+        {
+            if (height(left.left) >= height(left.right))
+            {
+                return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+            }
+            return new Node<>(left.right.value, new Node<>(left.value, left.left, left.right.left),
+                    new Node<>(value, left.right.right, right));
+        }
+        if (height(right) > height(left) + 1)
+        {
+            if (height(right.right) >= height(right.left))
+            {
+                return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+            }
+            return new Node<>(right.left.value, new Node<>(value, left, right.left.left),
+                    new Node<>(right.value, right.left.right, right.right));
+        }
+        return new Node<>(value, left, right);
+    }
+
+    private static int size(Node<?> node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node)
+    {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void checkIndex(int index, int size)
+    {
+        if (index < 0 || index >= size)
+        {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+/***************************************************************
+*file: PersistentMap.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is an immutable sorted map that is cheap to
+*         change by making a new version, the keyed counterpart of
+*         PersistentList. plus and minus return a new map sharing
+*         all but O(log n) nodes with the old one. Entries live in
+*         an AVL tree ordered by key, so get, plus and minus are
+*         O(log n) and values come out in key order.
+*
+*         A map never changes once built, so any number of threads
+*         can read it without locking.
+****************************************************************/
+
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+public final class PersistentMap<K extends Comparable<? super K>, V>
+{
+    @SuppressWarnings("rawtypes")
+    private static final PersistentMap EMPTY = new PersistentMap<>(null);
+
+    private final Node<K, V> root;  // tree of the entries, null when empty
+
+    /***************************************************************
+    *class: Node
+    *purpose: One entry with the subtrees of smaller and larger keys.
+    ****************************************************************/
+    private static final class Node<K, V>
+    {
+        final K key;  // the entry's key
+        final V value;  // the entry's value
+        final Node<K, V> left;  // entries with smaller keys
+        final Node<K, V> right;  // entries with larger keys
+        final int size;  // entries in this subtree
+        final int height;  // levels in this subtree
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right)
+        {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+
+    private PersistentMap(Node<K, V> root)
+    {
+        this.root = root;
+    }
+
+    /***************************************************************
+    *function: empty
+    *purpose: Returns the empty map.
+    ****************************************************************/
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<? super K>, V> PersistentMap<K, V> empty()
+    {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /***************************************************************
+    *function: get
+    *purpose: Returns the value for a key, or null if there is none.
+    ****************************************************************/
+    public V get(K key)
+    {
+        Node<K, V> node = root;
+        while (node != null)
+        {
+            int order = key.compareTo(node.key);
+            if (order == 0)
+            {
+                return node.value;
+            }
+            node = order < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
+    public int size()
+    {
+        return size(root);
+    }
+
+    /***************************************************************
+    *function: plus
+    *purpose: Returns a new map with the key set to the value.
+    ****************************************************************/
+    public PersistentMap<K, V> plus(K key, V value)
+    {
+        return new PersistentMap<>(put(root, key, value));
+    }
+
+    /***************************************************************
+    *function: minus
+    *purpose: Returns a new map without the key, or this map if it
+    *         does not have the key.
+    ****************************************************************/
+    public PersistentMap<K, V> minus(K key)
+    {
+        return get(key) == null ? this : new PersistentMap<>(delete(root, key));
+    }
+
+    /***************************************************************
+    *function: values
+    *purpose: Returns the values in key order, as a read-only
+    *         collection.
+    ****************************************************************/
+    public Collection<V> values()
+    {
+        return new AbstractCollection<V>()
+        {
+            @Override
+            public int size()
+            {
+                return PersistentMap.this.size();
+            }
+
+            @Override
+            public Iterator<V> iterator()
+            {
+                return new Iterator<V>()
+                {
+                    private final Deque<Node<K, V>> path = new ArrayDeque<>();  // nodes still to visit, next on top
+
+                    {
+                        pushLeft(root);
+                    }
+
+                    private void pushLeft(Node<K, V> node)
+                    {
+                        for (; node != null; node = node.left)
+                        {
+                            path.push(node);
+                        }
+                    }
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        return !path.isEmpty();
+                    }
+
+                    @Override
+                    public V next()
+                    {
+                        if (path.isEmpty())
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        Node<K, V> node = path.pop();
+                        pushLeft(node.right);
+                        return node.value;
+                    }
+                };
+            }
+        };
+    }
+
+    /***************************************************************
+    *function: forEachValue
+    *purpose: Gives the values ranked from (inclusive) to to
+    *         (exclusive) in key order to the action. Finding the
+    *         first one takes O(log n), using the subtree sizes, so
+    *         a map can be split into ranges for parallel work.
+    ****************************************************************/
+    public void forEachValue(int from, int to, Consumer<? super V> action)
+    {
+        forEach(root, Math.max(0, from), Math.min(to, size()), action);
+    }
+
+    // visits the values ranked from to to within the subtree, looping down the right side
+    private static <V> void forEach(Node<?, V> node, int from, int to, Consumer<? super V> action)
+    {
+        while (node != null && from < to)
+        {
+            int leftSize = size(node.left);
+            if (from < leftSize)
+            {
+                forEach(node.left, from, Math.min(to, leftSize), action);
+            }
+            if (from <= leftSize && leftSize < to)
+            {
+                action.accept(node.value);
+            }
+            from = Math.max(0, from - leftSize - 1);
+            to -= leftSize + 1;
+            node = node.right;
+        }
+    }
+
+    // tree operations, each copying only the path it walks
+    private static <K extends Comparable<? super K>, V> Node<K, V> put(Node<K, V> node, K key, V value)
+    {
+        if (node == null)
+        {
+            return new Node<>(key, value, null, null);
+        }
+        int order = key.compareTo(node.key);
+        if (order < 0)
+        {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+        if (order > 0)
+        {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <K extends Comparable<? super K>, V> Node<K, V> delete(Node<K, V> node, K key)
+    {
+        int order = key.compareTo(node.key);
+        if (order < 0)
+        {
+            return balance(node.key, node.value, delete(node.left, key), node.right);
+        }
+        if (order > 0)
+        {
+            return balance(node.key, node.value, node.left, delete(node.right, key));
+        }
+        if (node.left == null)
+        {
+            return node.right;
+        }
+        if (node.right == null)
+        {
+            return node.left;
+        }
+
+        // take the next entry's place
+        Node<K, V> next = node.right;
+        while (next.left != null)
+        {
+            next = next.left;
+        }
+        return balance(next.key, next.value, node.left, delete(node.right, next.key));
+    }
+
+    // joins two subtrees whose heights differ by at most two, rotating to keep the AVL balance
+    private static <K, V> Node<K, V> balance(K key, V value, Node<K, V> left, Node<K, V> right)
+    {
+        if (height(left) > height(right) + 1)
+        {
+            if (height(left.left) >= height(left.right))
+            {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<K, V> middle = left.right;
+            return new Node<>(middle.key, middle.value, new Node<>(left.key, left.value, left.left, middle.left),
+                    new Node<>(key, value, middle.right, right));
+        }
+        if (height(right) > height(left) + 1)
+        {
+            if (height(right.right) >= height(right.left))
+            {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<K, V> middle = right.left;
+            return new Node<>(middle.key, middle.value, new Node<>(key, value, left, middle.left),
+                    new Node<>(right.key, right.value, middle.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static int size(Node<?, ?> node)
+    {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?, ?> node)
+    {
+        return node == null ? 0 : node.height;
+    }
+}
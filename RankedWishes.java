@@ -0,0 +1,156 @@
+/***************************************************************
+*file: RankedWishes.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class walks the wishes of every child from the
+*         highest priority down, for Santa's global top-n. It is a
+*         k-way merge of the per-child rankings each Wishlist keeps.
+*         The children's top wishes come in order from the app's
+*         index of heads, which follows the change events. Once a
+*         child's top wish is taken, a heap holds that child's next
+*         wish, read with Wishlist.nextByRank. Equal priorities come
+*         out by child name, then in the order the child added them.
+*
+*         A walk of n steps touches only the children whose wishes
+*         it returns, so Santa's top n costs about n steps however
+*         many children there are, and spilled wishlists of other
+*         children stay on disk. Only the child's name and its next
+*         wish are kept between steps; the wishlist is looked up
+*         again when the child's turn comes. Changes made during a
+*         walk show up if they land below the point it has reached
+*         for that child.
+****************************************************************/
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+
+public final class RankedWishes implements Iterator<RankedWishes.Wish>
+{
+    private final Function<String, Wishlist> lookup;  // finds a child's wishlist again by name
+    private final Iterator<Wish> firsts;  // top wish of every child, most wanted first
+    private final Set<String> started;  // children whose top wish was taken
+    private final PriorityQueue<Wish> heads;  // next wish of every started child that has one left
+    private Wish nextFirst;  // next top wish of a child not yet started, read ahead from firsts
+
+    /***************************************************************
+    *class: Wish
+    *purpose: One child's item, as it was when the walk read it.
+    ****************************************************************/
+    public static final class Wish implements Comparable<Wish>
+    {
+        private final String childName;  // child who wished for the item
+        private final WishlistItem item;  // the item, with its priority
+
+        Wish(String childName, WishlistItem item)
+        {
+            this.childName = childName;
+            this.item = item;
+        }
+
+        public String getChildName()
+        {
+            return childName;
+        }
+
+        public WishlistItem getItem()
+        {
+            return item;
+        }
+
+        // higher priority first, then by child, then by the child's own order
+        @Override
+        public int compareTo(Wish other)
+        {
+            int byPriority = Integer.compare(other.item.getPriority(), item.getPriority());
+            if (byPriority != 0)
+            {
+                return byPriority;
+            }
+            int byChild = childName.compareTo(other.childName);
+            return byChild != 0 ? byChild : Long.compare(item.getId(), other.item.getId());
+        }
+
+        @Override
+        public String toString()
+        {
+            return childName + ": " + item.getItemName() + " (" + item.getPriority() + ")";
+        }
+    }
+
+    /***************************************************************
+    *function: RankedWishes
+    *purpose: Constructor that walks from the top wishes of the
+    *         children, given most wanted first and at most one per
+    *         child at a time. lookup finds a wishlist by child name
+    *         for the later steps.
+    ****************************************************************/
+    RankedWishes(Iterable<Wish> firsts, Function<String, Wishlist> lookup)
+    {
+        this.lookup = lookup;
+        this.firsts = firsts.iterator();
+        this.started = new HashSet<>();
+        this.heads = new PriorityQueue<>();
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return peekFirst() != null || !heads.isEmpty();
+    }
+
+    /***************************************************************
+    *function: next
+    *purpose: Returns the most wanted wish not yet returned and reads
+    *         the same child's next one into the heap, in O(log
+    *         started children + log items).
+    ****************************************************************/
+    @Override
+    public Wish next()
+    {
+        Wish first = peekFirst();
+        Wish wish;
+        if (first != null && (heads.isEmpty() || first.compareTo(heads.peek()) < 0))
+        {
+            wish = first;
+            nextFirst = null;
+            started.add(wish.childName);
+        }
+        else
+        {
+            wish = heads.poll();
+        }
+        if (wish == null)
+        {
+            throw new NoSuchElementException();
+        }
+        Wishlist wishlist = lookup.apply(wish.childName);
+        WishlistItem following = wishlist == null ? null : wishlist.nextByRank(wish.item);
+        if (following != null)
+        {
+            heads.add(new Wish(wish.childName, following));
+        }
+        return wish;
+    }
+
+    // the next top wish of a child not yet started, skipping a child's newer top wish once it has started
+    private Wish peekFirst()
+    {
+        while (nextFirst == null && firsts.hasNext())
+        {
+            Wish candidate = firsts.next();
+            if (!started.contains(candidate.childName))
+            {
+                nextFirst = candidate;
+            }
+        }
+        return nextFirst;
+    }
+}
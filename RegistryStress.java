@@ -0,0 +1,180 @@
+/***************************************************************
+*file: RegistryStress.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This program is a stress test for the wishlist registry
+*         in SantaWishlistApp. It runs the create, add, edit and
+*         remove operations from 1 thread up to one thread per
+*         core, each thread working on its own children, and
+*         prints the throughput for every thread count so we can
+*         see how well the registry scales across cores. At the
+*         end it checks that no update was lost.
+*
+*         Usage: java RegistryStress [seconds per step] [children per thread]
+*
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RegistryStress
+{
+    /***************************************************************
+    *function: main
+    *purpose: Runs one measurement step per thread count and prints
+    *         operations per second and the speedup over one thread.
+    ****************************************************************/
+    public static void main(String[] args) throws InterruptedException
+    {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int childrenPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.println("Registry stress test: " + cores + " cores, "
+                + seconds + "s per step, " + childrenPerThread + " children per thread");
+        System.out.printf("%8s %15s %10s%n", "threads", "ops/sec", "speedup");
+
+        double baseline = 0;
+        for (int threads = 1; threads <= cores; threads = nextThreadCount(threads, cores))
+        {
+            double opsPerSecond = runStep(threads, childrenPerThread, seconds);
+            if (threads == 1)
+            {
+                baseline = opsPerSecond;
+            }
+            System.out.printf("%8d %15.0f %9.2fx%n", threads, opsPerSecond, opsPerSecond / baseline);
+        }
+
+        boolean consistent = checkConsistency(Math.max(2, cores), childrenPerThread);
+        System.out.println("Lost update check: " + (consistent ? "passed" : "FAILED"));
+        if (!consistent)
+        {
+            System.exit(1);
+        }
+    }
+
+    /***************************************************************
+    *function: nextThreadCount
+    *purpose: Doubles the thread count, making sure the last step
+    *         always uses exactly one thread per core.
+    ****************************************************************/
+    private static int nextThreadCount(int threads, int cores)
+    {
+        if (threads == cores)
+        {
+            return cores + 1;
+        }
+        return Math.min(threads * 2, cores);
+    }
+
+    /***************************************************************
+    *function: runStep
+    *purpose: Runs the operation mix on a fresh registry with the
+    *         given number of threads and returns operations per
+    *         second. Each thread owns its own set of children.
+    ****************************************************************/
+    private static double runStep(int threads, int childrenPerThread, int seconds) throws InterruptedException
+    {
+        SantaWishlistApp app = new SantaWishlistApp();
+        LongAdder operations = new LongAdder();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++)
+        {
+            final int threadId = t;
+            Thread worker = new Thread(() -> {
+                ready.countDown();
+                try
+                {
+                    start.await();
+                }
+                catch (InterruptedException e)
+                {
+                    return;
+                }
+
+                long done = 0;
+                int round = 0;
+                while (running.get())
+                {
+                    String child = "child-" + threadId + "-" + (round % childrenPerThread);
+                    app.createWishlistForChild(child);
+                    app.addItem(child, "toy-" + round, "description " + round);
+                    app.editItem(child, 0, "toy-" + round, "edited " + round);
+                    app.removeItem(child, "toy-" + round);
+                    done += 4;
+                    round++;
+                }
+                operations.add(done);
+            }, "stress-" + t);
+            workers.add(worker);
+            worker.start();
+        }
+
+        ready.await();
+        long begin = System.nanoTime();
+        start.countDown();
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        return operations.sum() / (elapsed / 1_000_000_000.0);
+    }
+
+    /***************************************************************
+    *function: checkConsistency
+    *purpose: Has every thread add items to the same small set of
+    *         children at once, then verifies that every single add
+    *         made it into the registry.
+    ****************************************************************/
+    private static boolean checkConsistency(int threads, int children) throws InterruptedException
+    {
+        SantaWishlistApp app = new SantaWishlistApp();
+        int addsPerThread = 10_000;
+        List<Thread> workers = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++)
+        {
+            final int threadId = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < addsPerThread; i++)
+                {
+                    String child = "shared-" + (i % children);
+                    app.createWishlistForChild(child);
+                    app.addItem(child, "toy-" + threadId + "-" + i, "description");
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers)
+        {
+            worker.join();
+        }
+
+        long total = 0;
+        for (int c = 0; c < children; c++)
+        {
+            Wishlist wishlist = app.getWishlist("shared-" + c);
+            if (wishlist != null)
+            {
+                total += wishlist.getItems().size();
+            }
+        }
+        return total == (long) threads * addsPerThread;
+    }
+}
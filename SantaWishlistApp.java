@@ -4,7 +4,7 @@
 *		  Marie Philavong, and Brandon Shippy
 *class: CS 4800 - Software Engineering
 *assignment: Final Project
-*date last modified: 01/14/25
+*date last modified: 10/17/26
 *
 *purpose: This program manages the backend logic of Santa's 
 *         Wishlist application. It implements the singleton 
@@ -12,50 +12,270 @@
 *         app exists. It allows for creating, editing, and 
 *         sending wishlists for children.
 *
+*         The registry is safe to share between concurrent
+*         sessions. Children live in a concurrent map and every
+*         per-child operation locks only that child's wishlist,
+*         so work on different children runs in parallel.
+*
+*         When a journal is attached, every change that actually
+*         modified a wishlist is recorded while the child's lock
+*         is still held, so the journal sees each child's changes
+*         in the order they were applied.
+*
+*         Listeners added to the app hear about changes to every
+*         child's wishlist, including wishlists created later.
+*         addListener delivers each event synchronously;
+*         addBatchListener delivers them in batches on a
+*         background thread.
+*
+*         snapshot returns a frozen AppSnapshot of every wishlist
+*         that readers such as exports and reports can use without
+*         locking. Once started, every change publishes a new one
+*         with a compare-and-set while the child's lock is held.
+*         When the wishlist cache is bounded, a kept snapshot would
+*         hold every spilled wishlist on the heap, so each call
+*         builds a fresh one instead and nothing is kept.
+*
+*         With MAPPED storage the items of every wishlist live in
+*         one WishlistSegmentStore under the data folder, off the
+*         Java heap.
+*
+*         rankedWishes walks every child's wishes from the highest
+*         priority down, merging the per-child rankings of the
+*         wishlists as it goes (see RankedWishes), so Santa's top n
+*         wishes cost about n steps instead of a sort of everything.
+*         The top wish of every child is kept in a sorted index,
+*         updated while the child's lock is held, so a walk starts
+*         without visiting every wishlist.
+*
+*         When the santa.cache.size system property is set, at most
+*         that many wishlists stay in memory. The rest are spilled
+*         to the spill folder inside santa.data.dir by WishlistCache
+*         and read back when next looked up. Not used with MAPPED
+*         storage, whose items are already off the heap.
+*
 ****************************************************************/
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
 
 public class SantaWishlistApp
 {
-    private static SantaWishlistApp instance;  // singleton instance of the application
-    private Map<String, Wishlist> wishlists;  // Map of child names to their wishlists
+    private final WishlistCache wishlists;  // child names to their wishlists, some possibly spilled to disk
+    private final Wishlist.Storage storage;  // how new wishlists store their items
+    private final WishlistSegmentStore segmentStore;  // off-heap items for MAPPED storage, or null
+    private volatile WishlistJournal journal;  // write-ahead journal, or null when not persisting
+    private DeliveryPipeline deliveryPipeline;  // where sent wishlists go (guarded by this)
+    private final List<WishlistListener> listeners;  // hear about changes to every wishlist
+    private final WishlistListener forwarder;  // added to each wishlist, passes events on to listeners
+    private final Map<String, RankedWishes.Wish> topWishByChild;  // each child's most wanted wish
+    private final ConcurrentSkipListSet<RankedWishes.Wish> topWishes;  // the same wishes, most wanted first
+    private final Object demandLock = new Object();  // guards toyDemand
+    private final Object searchIndexLock = new Object();  // guards searchIndex
+    private ToyDemand toyDemand;  // toy popularity across all wishlists, created on first use
+    private WishlistSearchIndex searchIndex;  // full-text index of all wishlists, created on first use
+    private final AtomicReference<AppSnapshot> state;  // latest snapshot of all wishlists, null until first asked for
+    private volatile boolean snapshotsReady;  // true once state holds every wishlist
+    private final boolean keepsSnapshots;  // false when the cache is bounded; snapshots are then built per call
 
     /***************************************************************
     *function: SantaWishlistApp
-    *purpose: Private constructor to prevent instantiation.
-    *         Initializes the wishlists map.
+    *purpose: Package-private constructor so the singleton is the
+    *         normal entry point while tools and stress tests can
+    *         still build an isolated registry. Initializes the
+    *         wishlists map. New wishlists are stored as the
+    *         santa.storage system property says: STANDARD (the
+    *         default), COMPACT or MAPPED, and santa.cache.size caps
+    *         how many stay in memory (0, the default, for no cap).
+    ****************************************************************/
+    SantaWishlistApp()
+    {
+        this(Wishlist.Storage.valueOf(System.getProperty("santa.storage", "STANDARD")),
+                Integer.getInteger("santa.cache.size", 0));
+    }
+
+    /***************************************************************
+    *function: SantaWishlistApp
+    *purpose: Package-private constructor that chooses how new
+    *         wishlists store their items. MAPPED storage keeps its
+    *         segment files in the segments folder inside santa.data.dir
+    *         and falls back to STANDARD if they cannot be created.
+    *         Every wishlist stays in memory.
+    ****************************************************************/
+    SantaWishlistApp(Wishlist.Storage storage)
+    {
+        this(storage, 0);
+    }
+
+    /***************************************************************
+    *function: SantaWishlistApp
+    *purpose: Package-private constructor that also caps how many
+    *         wishlists stay in memory; 0 means no cap. The others are
+    *         spilled to the spill folder inside santa.data.dir. With
+    *         MAPPED storage, or if the folder cannot be created, the
+    *         cap is ignored.
+    ****************************************************************/
+    SantaWishlistApp(Wishlist.Storage storage, int cacheSize)
+    {
+        WishlistSegmentStore store = null;
+        if (storage == Wishlist.Storage.MAPPED)
+        {
+            try
+            {
+                store = WishlistSegmentStore.open(
+                        Paths.get(System.getProperty("santa.data.dir", "santa-data"), "segments"));
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not open wishlist segments, using standard storage: " + e.getMessage());
+                storage = Wishlist.Storage.STANDARD;
+            }
+        }
+        this.storage = storage;
+        this.segmentStore = store;
+        listeners = new CopyOnWriteArrayList<>();
+        state = new AtomicReference<>();
+        topWishByChild = new ConcurrentHashMap<>();
+        topWishes = new ConcurrentSkipListSet<>();
+        forwarder = new WishlistListener()
+        {
+            @Override
+            public void wishlistChanged(WishlistEvent event)
+            {
+                Wishlist wishlist = wishlists.touched(event.getChildName());
+                updateTopWish(wishlist);
+                if (state.get() != null)
+                {
+                    publish(wishlist);
+                }
+                for (WishlistListener listener : listeners)
+                {
+                    try
+                    {
+                        listener.wishlistChanged(event);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        System.out.println("Wishlist listener failed: " + e.getMessage());
+                    }
+                }
+            }
+
+            @Override
+            public void wishlistBatchChanged(List<WishlistEvent> events)
+            {
+                Wishlist wishlist = wishlists.touched(events.get(0).getChildName());
+                updateTopWish(wishlist);
+                if (state.get() != null)
+                {
+                    publish(wishlist);
+                }
+                for (WishlistListener listener : listeners)
+                {
+                    try
+                    {
+                        listener.wishlistBatchChanged(events);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        System.out.println("Wishlist listener failed: " + e.getMessage());
+                    }
+                }
+            }
+        };
+
+        WishlistCache cache = WishlistCache.unbounded();
+        boolean bounded = false;
+        if (cacheSize > 0 && store != null)
+        {
+            System.out.println("Wishlist cache is not used with mapped storage.");
+        }
+        else if (cacheSize > 0)
+        {
+            try
+            {
+                cache = WishlistCache.open(cacheSize,
+                        Paths.get(System.getProperty("santa.data.dir", "santa-data"), "spill"),
+                        this::newWishlist, forwarder);
+                bounded = true;
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not open the wishlist spill folder, keeping every wishlist in memory: "
+                        + e.getMessage());
+            }
+        }
+        wishlists = cache;
+        keepsSnapshots = !bounded;
+    }
+
+    /***************************************************************
+    *class: Holder
+    *purpose: Lazily creates the singleton the first time it is
+    *         needed. The JVM guarantees class initialization runs
+    *         exactly once, so no locking is needed in getInstance.
     ****************************************************************/
-    private SantaWishlistApp()
+    private static class Holder
     {
-        wishlists = new HashMap<>();
+        private static final SantaWishlistApp INSTANCE = new SantaWishlistApp();
+
+        static
+        {
+            // publish the metrics of the shared app (no-op unless santa.metrics is set)
+            WishlistMetrics.watch(INSTANCE);
+        }
     }
 
     /***************************************************************
     *function: getInstance
     *purpose: Provides the singleton instance of SantaWishlistApp.
-    *         If no instance exists, it creates one.
+    *         The instance is created safely on first use.
     ****************************************************************/
     public static SantaWishlistApp getInstance()
     {
-        if (instance == null) {
-            instance = new SantaWishlistApp();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
     /***************************************************************
     *function: createWishlistForChild
     *purpose: Creates a wishlist for a specified child if one does 
-    *         not already exist.
+    *         not already exist. Concurrent calls for the same child
+    *         all see the same wishlist.
     ****************************************************************/
     public void createWishlistForChild(String childName)
     {
-        if (!wishlists.containsKey(childName))
+        long start = WishlistMetrics.start();
+        try
+        {
+            long[] seq = {-1};
+
+            // add new wishlist for the child (atomic per key)
+            wishlists.computeIfAbsent(childName, name -> {
+                Wishlist wishlist = newWishlist(name);
+                wishlist.addListener(forwarder);
+                seq[0] = log(wishlist, WishlistJournal.OP_CREATE, null, null, null, -1);
+                return wishlist;
+            });
+            if (state.get() != null)
+            {
+                publish(wishlists.get(childName));
+            }
+            awaitDurable(seq[0]);
+        }
+        finally
         {
-        	// add new wishlist for the child
-            wishlists.put(childName, new Wishlist(childName));
+            WishlistMetrics.record(WishlistMetrics.Operation.CREATE_WISHLIST, start);
         }
     }
 
@@ -63,16 +283,194 @@ public class SantaWishlistApp
     *function: addItem
     *purpose: Adds an item to the child's wishlist.
     *         It takes the child's name, item name, and description.
+    *         Returns false if the child has no wishlist or the item
+    *         fails the wishlist's checks.
     ****************************************************************/
-    public void addItem(String childName, String itemName, String description)
+    public boolean addItem(String childName, String itemName, String description)
     {
-    	// get the wishlist for the specified child
-        Wishlist wishlist = wishlists.get(childName);
-        
-        if (wishlist != null)
+        return addItem(childName, itemName, description, 0);
+    }
+
+    /***************************************************************
+    *function: addItem
+    *purpose: Adds an item with the given priority to the child's
+    *         wishlist. Fails like addItem without a priority.
+    ****************************************************************/
+    public boolean addItem(String childName, String itemName, String description, int priority)
+    {
+        return addItemAndGet(childName, itemName, description, priority) != null;
+    }
+
+    /***************************************************************
+    *function: addItemAndGet
+    *purpose: Adds an item like addItem and returns it as stored,
+    *         with the id and version callers need for later edits,
+    *         or null where addItem would return false.
+    ****************************************************************/
+    public WishlistItem addItemAndGet(String childName, String itemName, String description, int priority)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+        	// get the wishlist for the specified child
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return null;
+            }
+
+            WishlistItem added;
+            long seq;
+            synchronized (wishlist)
+            {
+            	// add the item to the wishlist (locks only this child)
+                added = wishlist.addItemAndGet(itemName, description, priority);
+                if (added == null)
+                {
+                    return null;
+                }
+                seq = log(wishlist, WishlistJournal.OP_ADD, itemName, null, description, -1, priority);
+            }
+            awaitDurable(seq);
+            return added;
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.ADD_ITEM, start);
+        }
+    }
+
+    /***************************************************************
+    *function: addItems
+    *purpose: Adds several items to the child's wishlist as one batch
+    *         (see Wishlist.addItems), waiting for the journal once.
+    *         Items failing the usual checks are skipped. Returns the
+    *         number of items added, or -1 if the child has no
+    *         wishlist.
+    ****************************************************************/
+    public int addItems(String childName, List<WishlistItem> items)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return -1;
+            }
+
+            long seq;
+            List<WishlistEvent> changes;
+            synchronized (wishlist)
+            {
+                changes = wishlist.addItems(items);
+                seq = logBatch(wishlist, changes);
+            }
+            awaitDurable(seq);
+            return changes.size();
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.ADD_ITEMS, start);
+        }
+    }
+
+    /***************************************************************
+    *function: editItems
+    *purpose: Edits several items in the child's wishlist by name as
+    *         one batch (see Wishlist.editItems). Returns the number of
+    *         items edited, or -1 if the child has no wishlist.
+    ****************************************************************/
+    public int editItems(String childName, Map<String, WishlistItem> edits)
+    {
+        long start = WishlistMetrics.start();
+        try
         {
-        	// add the item to the wishlist
-            wishlist.addItem(itemName, description);
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return -1;
+            }
+
+            long seq;
+            List<WishlistEvent> changes;
+            synchronized (wishlist)
+            {
+                changes = wishlist.editItems(edits);
+                seq = logBatch(wishlist, changes);
+            }
+            awaitDurable(seq);
+            return changes.size();
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.EDIT_ITEMS, start);
+        }
+    }
+
+    /***************************************************************
+    *function: removeItems
+    *purpose: Removes every item with one of the given names from the
+    *         child's wishlist as one batch. Returns the number of
+    *         items removed, or -1 if the child has no wishlist.
+    ****************************************************************/
+    public int removeItems(String childName, Collection<String> itemNames)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return -1;
+            }
+
+            long seq;
+            List<WishlistEvent> changes;
+            synchronized (wishlist)
+            {
+                changes = wishlist.removeItems(itemNames);
+                seq = logBatch(wishlist, changes);
+            }
+            awaitDurable(seq);
+            return changes.size();
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.REMOVE_ITEMS, start);
+        }
+    }
+
+    /***************************************************************
+    *function: removeItemsIf
+    *purpose: Removes every item the filter accepts from the child's
+    *         wishlist as one batch. Returns the number of items
+    *         removed, or -1 if the child has no wishlist.
+    ****************************************************************/
+    public int removeItemsIf(String childName, Predicate<WishlistItem> filter)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return -1;
+            }
+
+            long seq;
+            List<WishlistEvent> changes;
+            synchronized (wishlist)
+            {
+                changes = wishlist.removeItemsIf(filter);
+                seq = logBatch(wishlist, changes);
+            }
+            awaitDurable(seq);
+            return changes.size();
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.REMOVE_ITEMS, start);
         }
     }
 
@@ -86,6 +484,58 @@ public class SantaWishlistApp
         return wishlists.get(childName);
     }
 
+    /***************************************************************
+    *function: getWishlists
+    *purpose: Returns a read-only view of every child's wishlist. The
+    *         view is safe to iterate while other sessions make
+    *         changes. Spilled wishlists are read back as the view
+    *         reaches them (see WishlistCache.values).
+    ****************************************************************/
+    public Collection<Wishlist> getWishlists()
+    {
+        return wishlists.values();
+    }
+
+    /***************************************************************
+    *function: getCacheStats
+    *purpose: Returns the hit, miss and eviction counts of the
+    *         wishlist cache (see santa.cache.size).
+    ****************************************************************/
+    public WishlistCache.Stats getCacheStats()
+    {
+        return wishlists.getStats();
+    }
+
+    /***************************************************************
+    *function: forEachWishlistSize
+    *purpose: Reports the item count of every child's wishlist without
+    *         reading spilled wishlists back.
+    ****************************************************************/
+    void forEachWishlistSize(IntConsumer sizes)
+    {
+        wishlists.forEachSize(sizes);
+    }
+
+    /***************************************************************
+    *function: searchItem
+    *purpose: Finds an item in the child's wishlist by name
+    *         (case-insensitive). Returns null if the child or item is
+    *         missing.
+    ****************************************************************/
+    public WishlistItem searchItem(String childName, String itemName)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            return wishlist == null ? null : wishlist.searchItem(itemName);
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.SEARCH_ITEM, start);
+        }
+    }
+
     /***************************************************************
     *function: editItem
     *purpose: Edits an item in the child's wishlist based on the 
@@ -93,60 +543,668 @@ public class SantaWishlistApp
     ****************************************************************/
     public void editItem(String childName, int itemIndex, String newItemName, String newDescription)
     {
-    	// get the child's wishlist
-        Wishlist wishlist = wishlists.get(childName);
+        long start = WishlistMetrics.start();
+        try
+        {
+        	// get the child's wishlist
+            Wishlist wishlist = wishlists.get(childName);
         
-        if (wishlist != null)
+            if (wishlist != null)
+            {
+                long seq = -1;
+                synchronized (wishlist)
+                {
+                	// edit the item in the wishlist (locks only this child)
+                    if (wishlist.editItem(itemIndex, newItemName, newDescription))
+                    {
+                        seq = log(wishlist, WishlistJournal.OP_EDIT_INDEX, null, newItemName, newDescription,
+                                itemIndex);
+                    }
+                }
+                awaitDurable(seq);
+            }
+        }
+        finally
         {
-        	// edit the item in the wishlist
-            wishlist.editItem(itemIndex, newItemName, newDescription);
+            WishlistMetrics.record(WishlistMetrics.Operation.EDIT_ITEM, start);
+        }
+    }
+
+    /***************************************************************
+    *function: editItem
+    *purpose: Edits the item with the given name (case-insensitive)
+    *         in the child's wishlist. The item is found through the
+    *         wishlist's name index, so no index has to be looked up
+    *         first. Returns false if the child or item is missing.
+    ****************************************************************/
+    public boolean editItem(String childName, String itemName, String newItemName, String newDescription)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            // get the child's wishlist
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return false;
+            }
+
+            long seq;
+            synchronized (wishlist)
+            {
+                // edit the item in the wishlist (locks only this child)
+                if (!wishlist.editItem(itemName, newItemName, newDescription))
+                {
+                    return false;
+                }
+                seq = log(wishlist, WishlistJournal.OP_EDIT_NAME, itemName, newItemName, newDescription, -1);
+            }
+            awaitDurable(seq);
+            return true;
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.EDIT_ITEM, start);
+        }
+    }
+
+    /***************************************************************
+    *function: editItem
+    *purpose: Edits the item with the given id in the child's
+    *         wishlist, but only if it still has the expected version
+    *         (Wishlist.ANY_VERSION to skip the check). Returns false
+    *         if the child or item is missing or the item was changed
+    *         since the caller read it. The journal records the edit
+    *         by position, so replay needs no ids.
+    ****************************************************************/
+    public boolean editItem(String childName, long itemId, long expectedVersion, String newItemName,
+            String newDescription)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return false;
+            }
+
+            long seq;
+            synchronized (wishlist)
+            {
+                int itemIndex = wishlist.indexOfItem(itemId);
+                if (!wishlist.editItemById(itemId, expectedVersion, newItemName, newDescription))
+                {
+                    return false;
+                }
+                seq = log(wishlist, WishlistJournal.OP_EDIT_INDEX, null, newItemName, newDescription, itemIndex);
+            }
+            awaitDurable(seq);
+            return true;
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.EDIT_ITEM, start);
         }
     }
 
     /***************************************************************
     * function: removeItem
     * purpose: Removes an item from the specified child's wishlist.
-    *          It searches for the item by name (case-insensitive), 
-    *          and if found, removes it from the wishlist. If the 
-    *          item is not found or the wishlist is null, the method 
-    *          returns false.
+    *          It looks the item up by name (case-insensitive) in the
+    *          wishlist's name index, and if found, removes it from 
+    *          the wishlist. If the item is not found or the wishlist 
+    *          is null, the method returns false.
     ****************************************************************/
     public boolean removeItem(String childName, String itemName)
     {
-    	// get the wishlist for the specified child
-        Wishlist wishlist = getWishlist(childName);
-
-        // ensure the wishlist is not null
-        if (wishlist != null)
+        long start = WishlistMetrics.start();
+        try
         {
-            // iterate through the list of items to find the item to remove
-            for (WishlistItem item : wishlist.getItems())
+        	// get the wishlist for the specified child
+            Wishlist wishlist = getWishlist(childName);
+
+            // ensure the wishlist is not null
+            if (wishlist == null)
+            {
+                return false;
+            }
+
+            long seq;
+            synchronized (wishlist)
             {
-                // compare the item's name (case-insensitive) with the input name
-                if (item.getItemName().equalsIgnoreCase(itemName))
+                // remove under the child's lock
+                if (!wishlist.removeItem(itemName))
                 {
-                    // if found, remove the item from the list
-                    wishlist.getItems().remove(item);
-                    return true;
+                    return false;
                 }
+                seq = log(wishlist, WishlistJournal.OP_REMOVE_NAME, itemName, null, null, -1);
             }
+            awaitDurable(seq);
+            return true;
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.REMOVE_ITEM, start);
         }
-        return false;
     }
     
+    /***************************************************************
+    *function: removeItem
+    *purpose: Removes the item with the given id from the child's
+    *         wishlist, but only if it still has the expected version
+    *         (Wishlist.ANY_VERSION to skip the check). Returns false
+    *         if the child or item is missing or the item was changed
+    *         since the caller read it.
+    ****************************************************************/
+    public boolean removeItem(String childName, long itemId, long expectedVersion)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return false;
+            }
+
+            long seq;
+            synchronized (wishlist)
+            {
+                int itemIndex = wishlist.indexOfItem(itemId);
+                if (!wishlist.removeItemById(itemId, expectedVersion))
+                {
+                    return false;
+                }
+                seq = log(wishlist, WishlistJournal.OP_REMOVE_INDEX, null, null, null, itemIndex);
+            }
+            awaitDurable(seq);
+            return true;
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.REMOVE_ITEM, start);
+        }
+    }
+
+    /***************************************************************
+    *function: setPriority
+    *purpose: Gives the item with the given id in the child's wishlist
+    *         a new priority, but only if it still has the expected
+    *         version (Wishlist.ANY_VERSION to skip the check).
+    *         Returns false if the child or item is missing or the
+    *         item was changed since the caller read it.
+    ****************************************************************/
+    public boolean setPriority(String childName, long itemId, long expectedVersion, int priority)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return false;
+            }
+
+            long seq;
+            synchronized (wishlist)
+            {
+                int itemIndex = wishlist.indexOfItem(itemId);
+                if (!wishlist.setPriorityById(itemId, expectedVersion, priority))
+                {
+                    return false;
+                }
+                seq = log(wishlist, WishlistJournal.OP_PRIORITY_INDEX, null, null, null, itemIndex, priority);
+            }
+            awaitDurable(seq);
+            return true;
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.EDIT_ITEM, start);
+        }
+    }
+
+    /***************************************************************
+    *function: updateItem
+    *purpose: Gives the item with the given id in the child's
+    *         wishlist a new name, description and priority in one
+    *         change, checked once against the expected version
+    *         (Wishlist.ANY_VERSION to skip the check) and journalled
+    *         as one record. Returns the item as stored, or null if
+    *         the child or item is missing, the item was changed since
+    *         the caller read it, or the values fail the usual checks.
+    ****************************************************************/
+    public WishlistItem updateItem(String childName, long itemId, long expectedVersion, String newItemName,
+            String newDescription, int priority)
+    {
+        long start = WishlistMetrics.start();
+        try
+        {
+            Wishlist wishlist = wishlists.get(childName);
+            if (wishlist == null)
+            {
+                return null;
+            }
+
+            WishlistItem updated;
+            long seq;
+            synchronized (wishlist)
+            {
+                int itemIndex = wishlist.indexOfItem(itemId);
+                updated = wishlist.updateItemById(itemId, expectedVersion, newItemName, newDescription, priority);
+                if (updated == null)
+                {
+                    return null;
+                }
+                seq = log(wishlist, WishlistJournal.OP_UPDATE_INDEX, null, newItemName, newDescription, itemIndex,
+                        priority);
+            }
+            awaitDurable(seq);
+            return updated;
+        }
+        finally
+        {
+            WishlistMetrics.record(WishlistMetrics.Operation.EDIT_ITEM, start);
+        }
+    }
+
+    /***************************************************************
+    *function: topItems
+    *purpose: Returns the child's n most wanted items, highest
+    *         priority first, or null if the child has no wishlist.
+    ****************************************************************/
+    public List<WishlistItem> topItems(String childName, int n)
+    {
+        Wishlist wishlist = wishlists.get(childName);
+        return wishlist == null ? null : wishlist.topItems(n);
+    }
+
+    /***************************************************************
+    *function: rankedWishes
+    *purpose: Returns every child's wishes, highest priority first,
+    *         read lazily from the wishlists as the caller goes.
+    ****************************************************************/
+    public RankedWishes rankedWishes()
+    {
+        return new RankedWishes(topWishes, wishlists::get);
+    }
+
+    /***************************************************************
+    *function: topWishes
+    *purpose: Returns the n most wanted wishes over every child.
+    ****************************************************************/
+    public List<RankedWishes.Wish> topWishes(int n)
+    {
+        List<RankedWishes.Wish> top = new ArrayList<>();
+        RankedWishes wishes = rankedWishes();
+        while (top.size() < n && wishes.hasNext())
+        {
+            top.add(wishes.next());
+        }
+        return top;
+    }
+
     /***************************************************************
     *function: sendWishlist
-    *purpose: Sends the child's wishlist to Santa.
+    *purpose: Sends the child's wishlist to Santa. A copy of the list
+    *         is queued on the delivery pipeline; the returned future
+    *         completes once it has been delivered and Santa has been
+    *         notified, or fails if the child has no wishlist or the
+    *         delivery fails.
     ****************************************************************/
-    public void sendWishlist(String childName)
+    public CompletableFuture<Void> sendWishlist(String childName)
     {
     	// get the wishlist for the specified child
         Wishlist wishlist = wishlists.get(childName);
         
-        if (wishlist != null)
+        if (wishlist == null)
+        {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("No wishlist found for " + childName + "."));
+        }
+
+        // send the wishlist, then let Santa know (never blocks the sender)
+        long start = WishlistMetrics.start();
+        CompletableFuture<Void> sent = getDeliveryPipeline().submit(WishlistDelivery.of(wishlist))
+                .thenRun(() -> NotificationSystem.notifySanta("New wishlist from " + childName + "."));
+        if (WishlistMetrics.ENABLED)
+        {
+            // time the whole delivery, not just the hand-off to the pipeline
+            sent.whenComplete((done, failure) ->
+                    WishlistMetrics.record(WishlistMetrics.Operation.SEND_WISHLIST, start));
+        }
+        return sent;
+    }
+
+    /***************************************************************
+    *function: getDeliveryPipeline
+    *purpose: Returns the pipeline used by sendWishlist, creating a
+    *         default one that prints each delivery if none was set.
+    ****************************************************************/
+    public synchronized DeliveryPipeline getDeliveryPipeline()
+    {
+        if (deliveryPipeline == null)
+        {
+            deliveryPipeline = DeliveryPipeline.withDefaults(DeliverySink.toConsole());
+        }
+        return deliveryPipeline;
+    }
+
+    /***************************************************************
+    *function: setDeliveryPipeline
+    *purpose: Replaces the pipeline used by sendWishlist, for example
+    *         with one that writes to a file or to memory in tests.
+    *         The old pipeline is left running for the caller to close.
+    ****************************************************************/
+    public synchronized void setDeliveryPipeline(DeliveryPipeline deliveryPipeline)
+    {
+        this.deliveryPipeline = deliveryPipeline;
+    }
+
+    /***************************************************************
+    *function: addListener
+    *purpose: Registers a listener for changes to every wishlist. It
+    *         is called synchronously, while the changed child's lock
+    *         is held, so it must be quick.
+    ****************************************************************/
+    public void addListener(WishlistListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /***************************************************************
+    *function: removeListener
+    *purpose: Unregisters a listener added with addListener.
+    ****************************************************************/
+    public void removeListener(WishlistListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /***************************************************************
+    *function: addBatchListener
+    *purpose: Registers a listener that gets the changes to every
+    *         wishlist in batches of up to maxBatch events, at most
+    *         maxDelayMillis after the first one, on a background
+    *         thread. Close the returned listener to unregister it; it
+    *         delivers anything still queued first.
+    ****************************************************************/
+    public AsyncWishlistListener addBatchListener(WishlistBatchListener listener, int maxBatch, long maxDelayMillis)
+    {
+        AsyncWishlistListener async = new AsyncWishlistListener(listener, maxBatch, maxDelayMillis)
+        {
+            @Override
+            public void close()
+            {
+                removeListener(this);
+                super.close();
+            }
+        };
+        addListener(async);
+        return async;
+    }
+
+    /***************************************************************
+    *function: getToyDemand
+    *purpose: Returns the toy popularity counts across every wishlist,
+    *         starting them on first use. The counts are exact unless
+    *         the santa.demand.approximate system property is true.
+    *         It has its own lock, so it can start while the search
+    *         index is being built.
+    ****************************************************************/
+    public ToyDemand getToyDemand()
+    {
+        synchronized (demandLock)
+        {
+            if (toyDemand == null)
+            {
+                toyDemand = Boolean.getBoolean("santa.demand.approximate")
+                        ? ApproximateToyDemand.withDefaults() : new ExactToyDemand();
+                toyDemand.attach(this);
+            }
+            return toyDemand;
+        }
+    }
+
+    /***************************************************************
+    *function: getSearchIndex
+    *purpose: Returns the full-text index over every wishlist,
+    *         building it on first use. Building it does not hold up
+    *         getToyDemand or getDeliveryPipeline.
+    ****************************************************************/
+    public WishlistSearchIndex getSearchIndex()
+    {
+        synchronized (searchIndexLock)
+        {
+            if (searchIndex == null)
+            {
+                searchIndex = new WishlistSearchIndex();
+                searchIndex.attach(this);
+            }
+            return searchIndex;
+        }
+    }
+
+    /***************************************************************
+    *function: snapshot
+    *purpose: Returns a frozen copy of every wishlist at one point in
+    *         time. The first call starts snapshots and takes a lock;
+    *         after that no lock is needed. With a bounded cache every
+    *         call reads the spilled wishlists back and builds its own
+    *         copy, which is dropped once the caller is done with it.
+    ****************************************************************/
+    public AppSnapshot snapshot()
+    {
+        if (!keepsSnapshots)
+        {
+            AppSnapshot built = AppSnapshot.empty();
+            for (Wishlist wishlist : wishlists.values())
+            {
+                built = built.with(wishlist.snapshot());
+            }
+            return built;
+        }
+        return snapshotsReady ? state.get() : startSnapshots();
+    }
+
+    /***************************************************************
+    *function: startSnapshots
+    *purpose: Publishes every existing wishlist into an empty
+    *         snapshot. Changes made meanwhile publish themselves, and
+    *         the version check in AppSnapshot.with keeps the newest.
+    ****************************************************************/
+    private synchronized AppSnapshot startSnapshots()
+    {
+        if (!snapshotsReady)
+        {
+            state.compareAndSet(null, AppSnapshot.empty());
+            for (Wishlist wishlist : wishlists.values())
+            {
+                publish(wishlist);
+            }
+            snapshotsReady = true;
+        }
+        return state.get();
+    }
+
+    /***************************************************************
+    *function: publish
+    *purpose: Puts the wishlist's current snapshot into the app
+    *         snapshot, retrying if another child's change got in
+    *         first.
+    ****************************************************************/
+    private void publish(Wishlist wishlist)
+    {
+        if (wishlist == null)
+        {
+            return;
+        }
+        WishlistSnapshot latest = wishlist.snapshot();
+        state.updateAndGet(current -> current == null ? null : current.with(latest));
+    }
+
+    /***************************************************************
+    *function: updateTopWish
+    *purpose: Puts the wishlist's most wanted wish in the index that
+    *         rankedWishes starts from. Called while the child's lock
+    *         is held, so one child's updates never interleave.
+    ****************************************************************/
+    private void updateTopWish(Wishlist wishlist)
+    {
+        if (wishlist == null)
+        {
+            return;
+        }
+        String childName = wishlist.getChildName();
+        WishlistItem top = wishlist.nextByRank(null);
+        RankedWishes.Wish old = topWishByChild.get(childName);
+        if (old == null ? top == null
+                : top != null && old.getItem().getId() == top.getId()
+                        && old.getItem().getVersion() == top.getVersion())
+        {
+            return;
+        }
+
+        RankedWishes.Wish wish = top == null ? null : new RankedWishes.Wish(childName, top);
+        if (wish == null)
+        {
+            topWishByChild.remove(childName);
+        }
+        else
+        {
+            topWishByChild.put(childName, wish);
+        }
+
+        // add before removing so walks never miss the child; RankedWishes skips the second one
+        boolean sameRank = old != null && wish != null && old.compareTo(wish) == 0;
+        if (old != null && (wish == null || sameRank))
+        {
+            topWishes.remove(old);
+        }
+        if (wish != null)
+        {
+            topWishes.add(wish);
+        }
+        if (old != null && wish != null && !sameRank)
+        {
+            topWishes.remove(old);
+        }
+    }
+
+    /***************************************************************
+    *function: attachJournal
+    *purpose: Starts recording every change in the given journal, or
+    *         stops recording when journal is null. Used by
+    *         WishlistPersistence once the saved state is restored.
+    ****************************************************************/
+    void attachJournal(WishlistJournal journal)
+    {
+        this.journal = journal;
+    }
+
+    /***************************************************************
+    *function: clearForRestore
+    *purpose: Drops every wishlist. Only used while restoring saved
+    *         state, before any session is using the app.
+    ****************************************************************/
+    void clearForRestore()
+    {
+        wishlists.clear();
+        topWishByChild.clear();
+        topWishes.clear();
+        state.updateAndGet(current -> current == null ? null : AppSnapshot.empty());
+        if (segmentStore != null)
+        {
+            segmentStore.clear();
+        }
+    }
+
+    // an empty wishlist stored the way this app stores them
+    private Wishlist newWishlist(String childName)
+    {
+        return segmentStore != null ? new Wishlist(childName, segmentStore) : new Wishlist(childName, storage);
+    }
+
+    /***************************************************************
+    *function: log
+    *purpose: Appends a record for a change that was just applied to
+    *         the wishlist. Must be called while holding the child's
+    *         lock. Returns the record's sequence number, or -1 when
+    *         no journal is attached.
+    ****************************************************************/
+    private long log(Wishlist wishlist, byte op, String itemName, String newItemName, String description, int index)
+    {
+        return log(wishlist, op, itemName, newItemName, description, index, 0);
+    }
+
+    // log for records that carry an item priority
+    private long log(Wishlist wishlist, byte op, String itemName, String newItemName, String description, int index,
+            int priority)
+    {
+        WishlistJournal current = journal;
+        if (current == null)
+        {
+            return -1;
+        }
+
+        long seq = current.append(op, wishlist.getChildName(), itemName, newItemName, description, index, priority);
+        wishlist.journalSeq = seq;
+        return seq;
+    }
+
+    /***************************************************************
+    *function: logBatch
+    *purpose: Appends a record for each change of a batch. Edits and
+    *         removals are logged by list position, so replay touches
+    *         exactly the items the batch did even when names repeat.
+    *         Returns the last record's sequence number, or -1.
+    ****************************************************************/
+    private long logBatch(Wishlist wishlist, List<WishlistEvent> changes)
+    {
+        long seq = -1;
+        for (WishlistEvent change : changes)
+        {
+            WishlistItem item = change.getItem();
+            switch (change.getType())
+            {
+                case ADDED:
+                    seq = log(wishlist, WishlistJournal.OP_ADD, item.getItemName(), null, item.getDescription(), -1,
+                            item.getPriority());
+                    break;
+                case EDITED:
+                    seq = log(wishlist, WishlistJournal.OP_EDIT_INDEX, null, item.getItemName(),
+                            item.getDescription(), change.getPosition());
+                    break;
+                default:
+                    seq = log(wishlist, WishlistJournal.OP_REMOVE_INDEX, null, null, null, change.getPosition());
+                    break;
+            }
+        }
+        return seq;
+    }
+
+    /***************************************************************
+    *function: awaitDurable
+    *purpose: Waits (outside the child's lock) until a journal record
+    *         is saved as the fsync policy requires. A failed journal
+    *         is reported but does not undo the change in memory.
+    ****************************************************************/
+    private void awaitDurable(long seq)
+    {
+        WishlistJournal current = journal;
+        if (seq < 0 || current == null)
+        {
+            return;
+        }
+
+        try
+        {
+            current.awaitDurable(seq);
+        }
+        catch (IOException e)
         {
-            // send the wishlist
-            System.out.println("Sending wishlist to Santa for " + childName);
+            System.out.println("Could not save wishlist change: " + e.getMessage());
         }
     }
 }
\ No newline at end of file
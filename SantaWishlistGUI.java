@@ -5,7 +5,7 @@
  *		  Marie Philavong, and Brandon Shippy
  *class: CS 4800 - Software Engineering
  *assignment: Final Project
- *date last modified: 01/15/25
+ *date last modified: 10/17/26
  *
  *purpose: This program manages the graphical user interface (GUI)
  *         for Santa's Wishlist application. It allows children
@@ -15,90 +15,57 @@
  *         (Santa) users, and ensures that only parents can view
  *         wishlists.
  *
+ *         The window is built once, on the event dispatch thread,
+ *         and the login dialogs come up right away. Meanwhile a
+ *         background thread restores the saved wishlists and builds
+ *         the toy counts and search index. Logout hides the window
+ *         and asks for a new login, keeping the window and the
+ *         loaded backend. The first login prints how long after
+ *         launch the login dialog was ready (time to first
+ *         interaction) and how long the backend took to load.
+ *
  *************************************************************** */
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.FileWriter;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.util.stream.Collectors;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
 
 public class SantaWishlistGUI extends JFrame {
 
-    private SantaWishlistApp wishlistApp; // reference to the wishlist application backend
-    private JTextArea wishlistTextArea;   // text area to display the child's wishlist
+    private static final long serialVersionUID = 1L;
+    private static volatile long backendReadyMillis = -1;  // JVM uptime when the backend finished loading
+
+    private final transient CompletableFuture<SantaWishlistApp> backend;  // backend, loading in the background
+    private transient SantaWishlistApp wishlistApp; // reference to the wishlist application backend, set once loaded
+    private JList<WishlistItem> wishlistList;  // list view of the child's wishlist
+    private WishlistListModel wishlistModel;   // model reading rows straight from the wishlist
+    private JLabel wishlistHeader;             // "Wishlist for ..." header shown in the parent view
+    private JPanel buttonPanel;                // buttons under the list
+    private JButton parentViewButton;          // Santa-only buttons, enabled per login
+    private JButton topToysButton;
+    private JButton searchButton;
     private String userRole;              // role of the user (child/adult)
     private String childName;             // name of the child for whom the wishlist is created
+    private long loginReadyMillis = -1;   // JVM uptime when the first login dialog opened
+    private boolean startupReported;      // whether the startup times have been printed
 
     /**
      * *************************************************************
-     * function: SantaWishlistGUI purpose: Constructor that sets up the GUI for
-     * the application. It handles login, authentication, and GUI element
-     * initialization for both child and parent users.
+     * function: SantaWishlistGUI purpose: Constructor that builds the
+     * window and its buttons without showing it. It must run on the
+     * event dispatch thread; call login() to show the login dialogs.
+     * The buttons stay off until backend has loaded.
      * **************************************************************
      */
-    public SantaWishlistGUI() {
-        // get the instance of SantaWishlistApp
-        wishlistApp = SantaWishlistApp.getInstance();
-
-        // prompt for login (child or adult/Santa)
-        String[] roles = {"Child", "Santa"};
-        userRole = (String) JOptionPane.showInputDialog(this, "Select user role:", "Login",
-                JOptionPane.PLAIN_MESSAGE, null, roles, roles[0]);
-
-        if (userRole == null) {
-            System.exit(0);  // exit if the login dialog was canceled
-            return;
-        }
-
-        // if user selects Santa, ask for password ('parent123')
-        if ("Santa".equals(userRole)) {
-            JPasswordField passwordField = new JPasswordField(10);  // creates password field
-            int attempts = 0;	// track the number of attempts
-            boolean authenticated = false;
-
-            // loop to give 3 attempts
-            while (attempts < 3 && !authenticated) {
-                int option = JOptionPane.showConfirmDialog(this, passwordField,
-                        "Enter password for Santa:", JOptionPane.OK_CANCEL_OPTION);
-
-                if (option == JOptionPane.OK_OPTION) {
-                    char[] passwordArray = passwordField.getPassword();
-                    String password = new String(passwordArray);  // convert char array to string
-
-                    if ("parent123".equals(password)) {
-                        authenticated = true; // password is correct, exit the loop
-                    } else {
-                        attempts++;  // increment the attempt counter
-                        if (attempts < 3) {
-                            JOptionPane.showMessageDialog(this, "Incorrect password! Attempt " + attempts + " of 3.");
-                        }
-                    }
-                } else {
-                    // exit if the user cancels the password dialog
-                    System.exit(0);
-                    return;
-                }
-            }
-
-            // if the user didn't authenticate within 3 attempts
-            if (!authenticated) {
-                JOptionPane.showMessageDialog(this, "Too many incorrect attempts. Exiting.");
-                System.exit(0);  // exit the application after 3 failed attempts
-            }
-        }
-
-        // initialize backend logic (child name is still required)
-        childName = JOptionPane.showInputDialog(this, "Enter the child's name:");
-
-        if (childName == null || childName.trim().isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Child's name cannot be empty!");
-            System.exit(0);  // exit if the name is not provided
-            return;  // exit the constructor, so no further GUI creation happens
-        }
-
-        wishlistApp.createWishlistForChild(childName);  // create wishlist for child
+    public SantaWishlistGUI(CompletableFuture<SantaWishlistApp> backend) {
+        this.backend = backend;
 
         // set up GUI window
         setTitle("Santa's Wishlist");
@@ -106,21 +73,37 @@ public class SantaWishlistGUI extends JFrame {
         setSize(400, 300);
         setLayout(new BorderLayout());
 
-        // add wishlist text area
-        wishlistTextArea = new JTextArea();
-        wishlistTextArea.setEditable(false);
-        JScrollPane scrollPane = new JScrollPane(wishlistTextArea);
+        // add wishlist list view; the fixed cell size (from the prototype) lets the
+        // JList lay out and paint only the visible rows, however long the list is
+        wishlistModel = new WishlistListModel();
+        wishlistList = new JList<>(wishlistModel);
+        wishlistList.setPrototypeCellValue(new WishlistItem("A fairly long toy name", "and a fairly long description"));
+        wishlistList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                    boolean isSelected, boolean cellHasFocus) {
+                WishlistItem item = (WishlistItem) value;
+                String text = item == null ? "" : item.getItemName() + ": " + item.getDescription();
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        wishlistHeader = new JLabel();
+        wishlistHeader.setVisible(false);
+        JScrollPane scrollPane = new JScrollPane(wishlistList);
+        scrollPane.setColumnHeaderView(wishlistHeader);
         add(scrollPane, BorderLayout.CENTER);
 
         // add buttons panel
-        JPanel buttonPanel = new JPanel();
+        buttonPanel = new JPanel();
         buttonPanel.setLayout(new FlowLayout());
 
         JButton addButton = new JButton("Add Item");
         JButton editButton = new JButton("Edit Item");
         JButton removeButton = new JButton("Remove Item");
         JButton sendButton = new JButton("Send to Santa");
-        JButton parentViewButton = new JButton("Parent View");
+        parentViewButton = new JButton("Parent View");
+        topToysButton = new JButton("Top Toys");
+        searchButton = new JButton("Search");
         JButton exportButton = new JButton("Export to TXT");
         JButton logoutButton = new JButton("Logout");
 
@@ -129,6 +112,8 @@ public class SantaWishlistGUI extends JFrame {
         buttonPanel.add(removeButton);
         buttonPanel.add(sendButton);
         buttonPanel.add(parentViewButton);
+        buttonPanel.add(topToysButton);
+        buttonPanel.add(searchButton);
         buttonPanel.add(exportButton);
         buttonPanel.add(logoutButton);
 
@@ -151,8 +136,7 @@ public class SantaWishlistGUI extends JFrame {
                     String description = JOptionPane.showInputDialog("Enter item description:");
 
                     if (itemName != null && !itemName.trim().isEmpty() && description != null && !description.trim().isEmpty()) {
-                        wishlistApp.addItem(childName, itemName, description);
-                        updateWishlistDisplay();
+                        wishlistApp.addItem(childName, itemName, description);  // the list model repaints from the change event
                     }
                 } else {
                     JOptionPane.showMessageDialog(SantaWishlistGUI.this, "Parents cannot add items.");
@@ -175,27 +159,22 @@ public class SantaWishlistGUI extends JFrame {
                     String oldItem = JOptionPane.showInputDialog("Enter the item you want to edit:");
 
                     if (oldItem != null && !oldItem.trim().isEmpty()) {
-                        // get the index of the item in the wishlist
                         Wishlist wishlist = wishlistApp.getWishlist(childName);  // get the wishlist of the child
 
                         if (wishlist != null) {
-                            int itemIndex = -1;
-                            // find the item index manually by looping through the wishlist items
-                            for (int i = 0; i < wishlist.getItems().size(); i++) {
-                                if (wishlist.getItems().get(i).getItemName().equalsIgnoreCase(oldItem)) {
-                                    itemIndex = i;
-                                    break;
-                                }
-                            }
-
-                            if (itemIndex != -1) {
+                            // look the item up in the wishlist's name index
+                            WishlistItem found = wishlist.searchItem(oldItem);
+                            if (found != null) {
                                 // if the item was found, ask for the new description
                                 String newItem = JOptionPane.showInputDialog("Enter the new description:");
 
                                 if (newItem != null && !newItem.trim().isEmpty()) {
-                                    // call editItem with index, oldItem, and new description
-                                    wishlistApp.editItem(childName, itemIndex, oldItem, newItem);
-                                    updateWishlistDisplay();
+                                    // edit by id and version, so a change made while the dialog was open is not lost
+                                    if (!wishlistApp.editItem(childName, found.getId(), found.getVersion(),
+                                            found.getItemName(), newItem)) {
+                                        JOptionPane.showMessageDialog(SantaWishlistGUI.this,
+                                                "The item was changed or removed meanwhile.");
+                                    }
                                 }
                             } else {
                                 JOptionPane.showMessageDialog(SantaWishlistGUI.this, "Item not found!");
@@ -237,10 +216,8 @@ public class SantaWishlistGUI extends JFrame {
                             // attempt to remove the item from the wishlist using the backend logic
                             boolean itemRemoved = wishlistApp.removeItem(childName, itemToRemove);
 
-                            // if the item was successfully removed, update the display
-                            if (itemRemoved) {
-                                updateWishlistDisplay();
-                            } else {
+                            // the list model drops the row when the removal event arrives
+                            if (!itemRemoved) {
                                 // if the item wasn't found, show an error message
                                 JOptionPane.showMessageDialog(SantaWishlistGUI.this, "Item not found!");
                             }
@@ -259,14 +236,31 @@ public class SantaWishlistGUI extends JFrame {
         /**
          * *************************************************************
          * function: sendButton ActionListener purpose: Sends the child's
-         * wishlist to Santa, confirming the action with a success message.
+         * wishlist to Santa. The success message is shown once the
+         * delivery pipeline has actually delivered it. The send is
+         * handed to its own thread, since queuing it blocks while the
+         * pipeline is full.
          * **************************************************************
          */
         sendButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                wishlistApp.sendWishlist(childName);  // send the wishlist to Santa
-                JOptionPane.showMessageDialog(SantaWishlistGUI.this, "Wishlist sent to the North Pole!");  // display success message
+                sendButton.setEnabled(false);  // one send at a time from this window
+                CompletableFuture.supplyAsync(() -> wishlistApp.sendWishlist(childName),
+                        task -> Thread.ofVirtual().name("wishlist-sender").start(task))
+                        .thenCompose(sent -> sent)
+                        .whenComplete((ignored, ex) -> SwingUtilities.invokeLater(() -> {
+                    sendButton.setEnabled(true);
+                    if (ex == null) {
+                        NotificationSystem.feedbackToChild("Wishlist sent to the North Pole!");  // display success message
+                    } else {
+                        Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                        JOptionPane.showMessageDialog(SantaWishlistGUI.this,
+                                "Could not send wishlist: " + cause.getMessage(),
+                                "Send Error",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
             }
         });
 
@@ -281,33 +275,29 @@ public class SantaWishlistGUI extends JFrame {
             @Override
             public void actionPerformed(ActionEvent e) {
                 Wishlist wishlist = wishlistApp.getWishlist(childName);
-                if (wishlist != null && !wishlist.getItems().isEmpty()) {
+
+                // Santa may export every child's wishlist at once
+                boolean exportAll = false;
+                if ("Santa".equals(userRole)) {
+                    String[] scopes = {"This child", "All children"};
+                    int scope = JOptionPane.showOptionDialog(SantaWishlistGUI.this, "What do you want to export?",
+                            "Export", JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, scopes, scopes[0]);
+                    if (scope < 0) {
+                        return;
+                    }
+                    exportAll = scope == 1;
+                }
+
+                if (exportAll || (wishlist != null && !wishlist.getItems().isEmpty())) {
                     JFileChooser fileChooser = new JFileChooser();
-                    fileChooser.setDialogTitle("Save Wishlist");
-                    fileChooser.setSelectedFile(new java.io.File(childName + "_wishlist.txt"));
+                    fileChooser.setDialogTitle("Save Wishlist (.txt, .csv or .json, add .gz to compress)");
+                    fileChooser.setSelectedFile(new java.io.File(
+                            (exportAll ? "all" : childName) + "_wishlist.txt"));
 
                     int userSelection = fileChooser.showSaveDialog(SantaWishlistGUI.this);
 
                     if (userSelection == JFileChooser.APPROVE_OPTION) {
-                        java.io.File fileToSave = fileChooser.getSelectedFile();
-                        try (FileWriter writer = new FileWriter(fileToSave)) {
-                            // Write header
-                            writer.write("Wishlist for " + childName + "\n");
-                            writer.write("Created on: " + java.time.LocalDate.now() + "\n\n");
-
-                            // Write items
-                            for (WishlistItem item : wishlist.getItems()) {
-                                writer.write(item.getItemName() + ": " + item.getDescription() + "\n");
-                            }
-
-                            JOptionPane.showMessageDialog(SantaWishlistGUI.this,
-                                    "Wishlist exported successfully to:\n" + fileToSave.getAbsolutePath());
-                        } catch (IOException ex) {
-                            JOptionPane.showMessageDialog(SantaWishlistGUI.this,
-                                    "Error exporting wishlist: " + ex.getMessage(),
-                                    "Export Error",
-                                    JOptionPane.ERROR_MESSAGE);
-                        }
+                        startExport(fileChooser.getSelectedFile(), exportAll ? null : wishlist);
                     }
                 } else {
                     JOptionPane.showMessageDialog(SantaWishlistGUI.this,
@@ -325,7 +315,6 @@ public class SantaWishlistGUI extends JFrame {
          * this feature.
          * **************************************************************
          */
-        parentViewButton.setEnabled("Santa".equals(userRole));
         parentViewButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -333,50 +322,272 @@ public class SantaWishlistGUI extends JFrame {
             }
         });
 
+        /**
+         * *************************************************************
+         * function: topToysButton ActionListener purpose: Shows Santa the
+         * most wished-for toys across every child's wishlist. Only Santa can
+         * access this feature.
+         * **************************************************************
+         */
+        topToysButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showTopToys();
+            }
+        });
+
+        /**
+         * *************************************************************
+         * function: searchButton ActionListener purpose: Lets Santa search
+         * every child's wishlist by words from item names and descriptions.
+         * Only Santa can access this feature.
+         * **************************************************************
+         */
+        searchButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String query = JOptionPane.showInputDialog(SantaWishlistGUI.this, "Search all wishlists for:");
+                if (query != null && !query.trim().isEmpty()) {
+                    showSearchResults(query);
+                }
+            }
+        });
+
         /**
          * *************************************************************
          * function: logoutButton ActionListener purpose: Logs the user out and
-         * prompts for login again.
+         * prompts for login again, reusing this window.
          * **************************************************************
          */
         logoutButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 // log out and go back to login screen
-                dispose();  // close the current window
-                new SantaWishlistGUI();  // create a new instance to prompt for login again
+                setVisible(false);  // hide the window, keeping it for the next login
+                wishlistModel.setWishlist(null);  // don't leave the last child's list behind
+                login();
             }
         });
 
-        // display GUI
+        setButtonsEnabled(false);
+    }
+
+    /**
+     * *************************************************************
+     * function: login purpose: Asks for the user's role, Santa's
+     * password and the child's name, then shows the child's wishlist.
+     * Runs on the event dispatch thread, while the backend may still
+     * be loading; if it is, the window shows a loading message until
+     * it is done. Canceling any dialog exits the application.
+     * **************************************************************
+     */
+    public void login() {
+        // prompt for login (child or adult/Santa)
+        String[] roles = {"Child", "Santa"};
+        userRole = askRole(roles);
+
+        if (userRole == null) {
+            System.exit(0);  // exit if the login dialog was canceled
+            return;
+        }
+
+        // if user selects Santa, ask for password ('parent123')
+        if ("Santa".equals(userRole)) {
+            JPasswordField passwordField = new JPasswordField(10);  // creates password field
+            int attempts = 0;	// track the number of attempts
+            boolean authenticated = false;
+
+            // loop to give 3 attempts
+            while (attempts < 3 && !authenticated) {
+                int option = JOptionPane.showConfirmDialog(this, passwordField,
+                        "Enter password for Santa:", JOptionPane.OK_CANCEL_OPTION);
+
+                if (option == JOptionPane.OK_OPTION) {
+                    char[] passwordArray = passwordField.getPassword();
+                    String password = new String(passwordArray);  // convert char array to string
+
+                    if ("parent123".equals(password)) {
+                        authenticated = true; // password is correct, exit the loop
+                    } else {
+                        attempts++;  // increment the attempt counter
+                        if (attempts < 3) {
+                            JOptionPane.showMessageDialog(this, "Incorrect password! Attempt " + attempts + " of 3.");
+                        }
+                    }
+                } else {
+                    // exit if the user cancels the password dialog
+                    System.exit(0);
+                    return;
+                }
+            }
+
+            // if the user didn't authenticate within 3 attempts
+            if (!authenticated) {
+                JOptionPane.showMessageDialog(this, "Too many incorrect attempts. Exiting.");
+                System.exit(0);  // exit the application after 3 failed attempts
+                return;
+            }
+        }
+
+        // initialize backend logic (child name is still required)
+        childName = JOptionPane.showInputDialog(this, "Enter the child's name:");
+
+        if (childName == null || childName.trim().isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Child's name cannot be empty!");
+            System.exit(0);  // exit if the name is not provided
+            return;
+        }
+
+        if (!backend.isDone()) {
+            // show the window right away and fill it in once the wishlists are loaded
+            setButtonsEnabled(false);
+            wishlistHeader.setText("Loading saved wishlists...");
+            wishlistHeader.setVisible(true);
+            setVisible(true);
+        }
+        long loggedIn = uptimeMillis();
+        backend.whenComplete((app, ex) -> SwingUtilities.invokeLater(() -> {
+            if (ex == null) {
+                showWishlist(app, loggedIn);
+            } else {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                JOptionPane.showMessageDialog(this, "Could not load the wishlists: " + cause.getMessage(),
+                        "Startup Error", JOptionPane.ERROR_MESSAGE);
+                System.exit(1);
+            }
+        }));
+    }
+
+    /**
+     * *************************************************************
+     * function: showWishlist purpose: Opens the logged-in child's
+     * wishlist in the window once the backend is loaded. After the
+     * first login it prints the startup times.
+     * **************************************************************
+     */
+    private void showWishlist(SantaWishlistApp app, long loggedIn) {
+        wishlistApp = app;
+        wishlistApp.createWishlistForChild(childName);  // create wishlist for child
+        wishlistModel.setWishlist(wishlistApp.getWishlist(childName));
+        wishlistHeader.setVisible(false);
+        setButtonsEnabled(true);
         setVisible(true);
+
+        if (!startupReported) {
+            startupReported = true;
+            System.out.println("Startup: login ready after " + loginReadyMillis + " ms, backend loaded after "
+                    + backendReadyMillis + " ms, waited " + Math.max(0, uptimeMillis() - loggedIn)
+                    + " ms for it after login");
+        }
     }
 
     /**
      * *************************************************************
-     * function: updateWishlistDisplay purpose: Updates the text area with the
-     * current wishlist of the child, displaying each item and its description.
+     * function: askRole purpose: Shows the role dialog, like
+     * JOptionPane.showInputDialog, but notes when the first one
+     * opens. Returns the role, or null if the dialog was canceled.
      * **************************************************************
      */
-    private void updateWishlistDisplay() {
-        // get the wishlist of the specific child
-        Wishlist wishlist = wishlistApp.getWishlist(childName);
+    private String askRole(String[] roles) {
+        JOptionPane pane = new JOptionPane("Select user role:", JOptionPane.PLAIN_MESSAGE,
+                JOptionPane.OK_CANCEL_OPTION);
+        pane.setWantsInput(true);
+        pane.setSelectionValues(roles);
+        pane.setInitialSelectionValue(roles[0]);
+        JDialog dialog = pane.createDialog(this, "Login");
+        pane.selectInitialValue();
+        if (!startupReported) {
+            dialog.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    loginReadyMillis = uptimeMillis();
+                }
+            });
+        }
+        dialog.setVisible(true);
+        dialog.dispose();
 
-        // if the wishlist exists, update the display
-        if (wishlist != null) {
-            String wishlistText = wishlist.getItems().stream()
-                    .map(item -> item.getItemName() + ": " + item.getDescription()) // convert each WishlistItem to a string
-                    .collect(Collectors.joining("\n"));  // join the strings with new lines
+        Object value = pane.getInputValue();
+        return value == JOptionPane.UNINITIALIZED_VALUE ? null : (String) value;
+    }
 
-            // set the text area content
-            wishlistTextArea.setText(wishlistText);
+    /**
+     * *************************************************************
+     * function: setButtonsEnabled purpose: Turns the buttons on or off;
+     * the Santa-only ones only come on for Santa.
+     * **************************************************************
+     */
+    private void setButtonsEnabled(boolean enabled) {
+        for (Component button : buttonPanel.getComponents()) {
+            button.setEnabled(enabled);
         }
+        boolean santa = enabled && "Santa".equals(userRole);
+        parentViewButton.setEnabled(santa);
+        topToysButton.setEnabled(santa);
+        searchButton.setEnabled(santa);
+    }
+
+    /**
+     * *************************************************************
+     * function: startExport purpose: Exports one wishlist (or every
+     * wishlist when wishlist is null) on a background thread, so the
+     * window stays responsive. The format comes from the file name and
+     * a progress monitor lets the user follow or cancel the export.
+     * **************************************************************
+     */
+    private void startExport(java.io.File fileToSave, Wishlist wishlist) {
+        String fileName = fileToSave.getName();
+        WishlistExporter.Format format = WishlistExporter.Format.forFileName(fileName);
+        boolean gzip = fileName.toLowerCase().endsWith(".gz");
+        ProgressMonitor monitor = new ProgressMonitor(this, "Exporting to " + fileName, null, 0, 100);
+
+        SwingWorker<Long, Void> worker = new SwingWorker<Long, Void>() {
+            @Override
+            protected Long doInBackground() throws IOException {
+                WishlistExporter.ProgressListener listener = (written, total) ->
+                        setProgress(total == 0 ? 100 : (int) Math.min(100, written * 100 / total));
+                if (wishlist == null) {
+                    return WishlistExporter.exportAll(wishlistApp, fileToSave.toPath(), format, gzip, listener);
+                }
+                return WishlistExporter.export(wishlist, fileToSave.toPath(), format, gzip, listener);
+            }
+
+            @Override
+            protected void done() {
+                monitor.close();
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    long items = get();
+                    JOptionPane.showMessageDialog(SantaWishlistGUI.this,
+                            "Exported " + items + " items successfully to:\n" + fileToSave.getAbsolutePath());
+                } catch (InterruptedException | ExecutionException ex) {
+                    Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                    JOptionPane.showMessageDialog(SantaWishlistGUI.this,
+                            "Error exporting wishlist: " + cause.getMessage(),
+                            "Export Error",
+                            JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+
+        // mirror the worker's progress in the monitor and cancel it on request
+        worker.addPropertyChangeListener(event -> {
+            if ("progress".equals(event.getPropertyName())) {
+                monitor.setProgress((Integer) event.getNewValue());
+            }
+            if (monitor.isCanceled() && !worker.isDone()) {
+                worker.cancel(true);
+            }
+        });
+        worker.execute();
     }
 
     /**
      * *************************************************************
      * function: showParentView purpose: Displays the parent view of the child's
-     * wishlist. Parents can view and modify the wishlist here.
+     * wishlist, with a header naming the child above the list.
      * **************************************************************
      */
     private void showParentView() {
@@ -384,25 +595,130 @@ public class SantaWishlistGUI extends JFrame {
         Wishlist wishlist = wishlistApp.getWishlist(childName);
 
         if (wishlist != null) {
-            // create a string representing the child's name and the wishlist
-            String wishlistText = "Wishlist for " + childName + ":\n";
+            wishlistHeader.setText("Wishlist for " + childName + ":");
+            wishlistHeader.setVisible(true);
+            wishlistModel.setWishlist(wishlist);
+        }
+    }
 
-            // append each item in the wishlist
-            wishlistText += wishlist.getItems().stream()
-                    .map(item -> item.getItemName() + ": " + item.getDescription())
-                    .collect(Collectors.joining("\n"));
+    /**
+     * *************************************************************
+     * function: showTopToys purpose: Displays the ten most wished-for toys
+     * across every child, most popular first.
+     * **************************************************************
+     */
+    private void showTopToys() {
+        ToyDemand demand = wishlistApp.getToyDemand();
+        StringBuilder message = new StringBuilder();
+        int rank = 1;
+        for (ToyDemand.ToyCount toy : demand.topToys(10)) {
+            message.append(rank++).append(". ").append(toy.getName())
+                    .append(" (").append(demand.isExact() ? "" : "about ").append(toy.getCount()).append(")\n");
+        }
+        if (message.length() == 0) {
+            message.append("No toys have been wished for yet.");
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Top Toys", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * *************************************************************
+     * function: showSearchResults purpose: Displays the hits for a query
+     * one page at a time, letting Santa step to the next page.
+     * **************************************************************
+     */
+    private void showSearchResults(String query) {
+        WishlistSearchIndex index = wishlistApp.getSearchIndex();
+        int page = 0;
+        while (true) {
+            WishlistSearchIndex.SearchResults results = index.search(query, page, 20);
+            if (results.getTotalHits() == 0) {
+                JOptionPane.showMessageDialog(this, "Nothing matches \"" + query + "\".");
+                return;
+            }
+
+            StringBuilder message = new StringBuilder("Page " + (page + 1) + " of " + results.getPageCount()
+                    + " (" + results.getTotalHits() + " items)\n\n");
+            for (WishlistSearchIndex.SearchHit hit : results.getHits()) {
+                message.append(hit).append("\n");
+            }
 
-            // set the text area to show the wishlist
-            wishlistTextArea.setText(wishlistText);
+            String[] options = results.hasNextPage() ? new String[]{"Next Page", "Close"} : new String[]{"Close"};
+            int choice = JOptionPane.showOptionDialog(this, message.toString(), "Search Results",
+                    JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
+            if (!results.hasNextPage() || choice != 0) {
+                return;
+            }
+            page++;
         }
     }
 
     /**
      * *************************************************************
      * main function: main purpose: Starts the SantaWishlistGUI application.
+     * The window is built and the login shown on the event dispatch
+     * thread while loadBackend runs on its own thread; a final
+     * snapshot is written when the JVM exits. With --import as the
+     * first argument it runs WishlistImporter instead and shows no
+     * window, and with --server it serves the JSON API of
+     * WishlistServer instead.
+     * **************************************************************
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--import".equals(args[0])) {
+            // headless bulk import: java SantaWishlistGUI --import [options] file...
+            WishlistImporter.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && "--server".equals(args[0])) {
+            // headless API server: java SantaWishlistGUI --server [--host address] [--port n]
+            WishlistServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+
+        CompletableFuture<SantaWishlistApp> backend = CompletableFuture.supplyAsync(
+                SantaWishlistGUI::loadBackend, task -> {
+                    Thread loader = new Thread(task, "wishlist-loader");
+                    loader.setDaemon(true);
+                    loader.start();
+                });
+        SwingUtilities.invokeLater(() -> new SantaWishlistGUI(backend).login());
+    }
+
+    /**
+     * *************************************************************
+     * function: loadBackend purpose: Restores the saved wishlists, then
+     * builds the toy counts and the search index side by side and
+     * starts the delivery pipeline, so Santa's first search or top
+     * toys does not wait. Runs off the event dispatch thread.
      * **************************************************************
      */
-    public static void main(String[] args) {
-        new SantaWishlistGUI();
+    static SantaWishlistApp loadBackend() {
+        SantaWishlistApp app = SantaWishlistApp.getInstance();
+        try {
+            WishlistPersistence persistence = WishlistPersistence.openDefault(app);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    persistence.close();
+                } catch (IOException ex) {
+                    System.out.println("Could not save wishlists: " + ex.getMessage());
+                }
+            }, "wishlist-shutdown"));
+        } catch (IOException ex) {
+            // keep going without persistence rather than refusing to start
+            System.out.println("Could not restore saved wishlists: " + ex.getMessage());
+        }
+
+        CompletableFuture<ToyDemand> demand = CompletableFuture.supplyAsync(app::getToyDemand);
+        app.getSearchIndex();
+        app.getDeliveryPipeline();
+        demand.join();
+        backendReadyMillis = uptimeMillis();
+        return app;
+    }
+
+    // milliseconds since the JVM started
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
     }
 }
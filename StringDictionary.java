@@ -0,0 +1,240 @@
+/***************************************************************
+*file: StringDictionary.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class gives each distinct string an int code, so
+*         compact wishlists can store codes instead of strings and
+*         every copy of "bike" across all children shares one
+*         String. It is meant for values that repeat, such as toy
+*         names and short descriptions.
+*
+*         Entries are reference counted: encode and canonical take a
+*         reference, release gives it back, and a string whose last
+*         reference is released is dropped and its code reused. The
+*         dictionary therefore holds only the strings some wishlist
+*         still uses, however many come and go.
+*
+*         Looking up a known string and taking or giving back a
+*         reference need no lock; only adding and dropping strings
+*         is done under the dictionary's lock.
+****************************************************************/
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class StringDictionary
+{
+    private static final int MAX_SHARED_LENGTH = 32;  // longest description worth sharing
+
+    private final ConcurrentHashMap<String, Entry> codes;  // string to its entry
+    private volatile Entry[] entries;  // code to entry, null where a code is free
+    private int size;  // codes handed out so far, free ones included (guarded by this)
+    private int[] free;  // codes of dropped strings, for reuse (guarded by this)
+    private int freeCount;  // codes in free (guarded by this)
+    private int live;  // strings held (guarded by this)
+
+    /***************************************************************
+    *class: Entry
+    *purpose: One string, its code and how many references to it are
+    *         out. A count of 0 means the entry is being dropped and
+    *         can no longer be taken.
+    ****************************************************************/
+    private static final class Entry
+    {
+        final String value;  // the shared string
+        final int code;  // its code
+        final AtomicInteger references = new AtomicInteger(1);  // references handed out
+
+        Entry(String value, int code)
+        {
+            this.value = value;
+            this.code = code;
+        }
+
+        // takes one more reference unless the entry is being dropped
+        boolean acquire()
+        {
+            while (true)
+            {
+                int count = references.get();
+                if (count == 0)
+                {
+                    return false;
+                }
+                if (references.compareAndSet(count, count + 1))
+                {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /***************************************************************
+    *class: Holder
+    *purpose: Lazily creates the dictionary shared by every compact
+    *         wishlist.
+    ****************************************************************/
+    private static class Holder
+    {
+        private static final StringDictionary SHARED = new StringDictionary();
+    }
+
+    /***************************************************************
+    *function: StringDictionary
+    *purpose: Creates an empty dictionary.
+    ****************************************************************/
+    public StringDictionary()
+    {
+        codes = new ConcurrentHashMap<>();
+        entries = new Entry[1024];
+        free = new int[16];
+    }
+
+    /***************************************************************
+    *function: shared
+    *purpose: Returns the dictionary used by compact wishlists.
+    ****************************************************************/
+    public static StringDictionary shared()
+    {
+        return Holder.SHARED;
+    }
+
+    /***************************************************************
+    *function: isShareable
+    *purpose: Returns true if a description is short enough that it
+    *         is likely to repeat and is worth a dictionary entry.
+    ****************************************************************/
+    public static boolean isShareable(String description)
+    {
+        return description.length() <= MAX_SHARED_LENGTH;
+    }
+
+    /***************************************************************
+    *function: encode
+    *purpose: Returns the code for a string, adding it if it is new,
+    *         and takes a reference to it. Every encode must be
+    *         matched by one release of the code.
+    ****************************************************************/
+    public int encode(String value)
+    {
+        return entryFor(value).code;
+    }
+
+    /***************************************************************
+    *function: decode
+    *purpose: Returns the string for a code the caller holds a
+    *         reference to.
+    ****************************************************************/
+    public String decode(int code)
+    {
+        return entries[code].value;
+    }
+
+    /***************************************************************
+    *function: canonical
+    *purpose: Returns the dictionary's own copy of a string, adding it
+    *         if it is new, so equal strings can share one object.
+    *         Takes a reference like encode; give it back with
+    *         release(String).
+    ****************************************************************/
+    public String canonical(String value)
+    {
+        return entryFor(value).value;
+    }
+
+    /***************************************************************
+    *function: release
+    *purpose: Gives back a reference taken by encode. The string is
+    *         dropped once no references are left.
+    ****************************************************************/
+    public void release(int code)
+    {
+        release(entries[code]);
+    }
+
+    /***************************************************************
+    *function: release
+    *purpose: Gives back a reference taken by canonical.
+    ****************************************************************/
+    public void release(String value)
+    {
+        Entry entry = codes.get(value);
+        if (entry != null)
+        {
+            release(entry);
+        }
+    }
+
+    /***************************************************************
+    *function: size
+    *purpose: Returns the number of distinct strings held.
+    ****************************************************************/
+    public synchronized int size()
+    {
+        return live;
+    }
+
+    // the entry for a string with one more reference taken, added if it is new
+    private Entry entryFor(String value)
+    {
+        Entry entry = codes.get(value);
+        if (entry != null && entry.acquire())
+        {
+            return entry;
+        }
+
+        synchronized (this)
+        {
+            entry = codes.get(value);
+            if (entry != null && entry.acquire())
+            {
+                return entry;
+            }
+
+            // new, or its last reference was just released and it is on its way out
+            int code;
+            if (freeCount > 0)
+            {
+                code = free[--freeCount];
+            }
+            else
+            {
+                if (size == entries.length)
+                {
+                    entries = Arrays.copyOf(entries, size * 2);
+                }
+                code = size++;
+            }
+            entry = new Entry(value, code);
+            entries[code] = entry;
+            codes.put(value, entry);
+            live++;
+            return entry;
+        }
+    }
+
+    // gives back one reference and drops the entry when it was the last
+    private void release(Entry entry)
+    {
+        if (entry.references.decrementAndGet() != 0)
+        {
+            return;
+        }
+        synchronized (this)
+        {
+            codes.remove(entry.value, entry);
+            entries[entry.code] = null;
+            if (freeCount == free.length)
+            {
+                free = Arrays.copyOf(free, freeCount * 2);
+            }
+            free[freeCount++] = entry.code;
+            live--;
+        }
+    }
+}
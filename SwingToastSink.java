@@ -0,0 +1,109 @@
+/***************************************************************
+*file: SwingToastSink.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is a notification sink that shows each
+*         notification as a small toast in the bottom-right corner
+*         of the screen. A toast does not take focus and closes by
+*         itself after a few seconds, so it never blocks anyone.
+*         Toasts stack upwards while several are showing.
+*
+****************************************************************/
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.GraphicsEnvironment;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JTextArea;
+import javax.swing.JWindow;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+public class SwingToastSink implements NotificationSink
+{
+    private static final int WIDTH = 320;  // toast width in pixels
+    private static final int MARGIN = 12;  // gap to the screen edge and between toasts
+
+    private final int visibleMillis;  // how long a toast stays up
+    private final List<JWindow> showing = new ArrayList<>();  // toasts on screen (event thread only)
+
+    /***************************************************************
+    *function: SwingToastSink
+    *purpose: Constructor that sets how long each toast is shown.
+    ****************************************************************/
+    public SwingToastSink(int visibleMillis)
+    {
+        this.visibleMillis = visibleMillis;
+    }
+
+    /***************************************************************
+    *function: deliver
+    *purpose: Schedules the toast on the Swing event thread and
+    *         returns at once.
+    ****************************************************************/
+    @Override
+    public void deliver(NotificationBus.Notification notification)
+    {
+        if (GraphicsEnvironment.isHeadless())
+        {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> show(notification));
+    }
+
+    /***************************************************************
+    *function: show
+    *purpose: Builds the toast window, places it above any toasts
+    *         already showing and starts its close timer.
+    ****************************************************************/
+    private void show(NotificationBus.Notification notification)
+    {
+        JWindow toast = new JWindow();
+        toast.setFocusableWindowState(false);
+        toast.setAlwaysOnTop(true);
+
+        JPanel panel = new JPanel(new BorderLayout(0, 4));
+        panel.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(Color.DARK_GRAY),
+                BorderFactory.createEmptyBorder(8, 10, 8, 10)));
+        JLabel title = new JLabel(notification.getAudience().getTitle());
+        title.setFont(title.getFont().deriveFont(java.awt.Font.BOLD));
+        JTextArea text = new JTextArea(notification.getMessage());
+        text.setEditable(false);
+        text.setLineWrap(true);
+        text.setWrapStyleWord(true);
+        text.setOpaque(false);
+        panel.add(title, BorderLayout.NORTH);
+        panel.add(text, BorderLayout.CENTER);
+        toast.add(panel);
+
+        toast.setSize(WIDTH, 1);
+        toast.setSize(WIDTH, toast.getPreferredSize().height);
+
+        Rectangle screen = GraphicsEnvironment.getLocalGraphicsEnvironment().getMaximumWindowBounds();
+        int bottom = screen.y + screen.height - MARGIN;
+        for (JWindow other : showing)
+        {
+            bottom = Math.min(bottom, other.getY() - MARGIN);
+        }
+        toast.setLocation(screen.x + screen.width - WIDTH - MARGIN, bottom - toast.getHeight());
+        showing.add(toast);
+        toast.setVisible(true);
+
+        Timer timer = new Timer(visibleMillis, event -> {
+            showing.remove(toast);
+            toast.dispose();
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+}
@@ -0,0 +1,144 @@
+/***************************************************************
+*file: ToyDemand.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class counts how often each toy is wished for across
+*         every wishlist in SantaWishlistApp, so Santa can see the
+*         most popular toys. Toys are counted by normalized name
+*         (case-folded, surrounding spaces trimmed and inner spaces
+*         collapsed), so "Lego  Set" and "lego set" are one toy.
+*
+*         The counts follow the wishlists through their change
+*         events, applied on the tracker's own thread a few
+*         milliseconds after the change (see WishlistTracker), so
+*         the lock around the counts is never taken while a child's
+*         lock is held.
+*
+*         ExactToyDemand keeps an exact count per toy.
+*         ApproximateToyDemand uses a fixed amount of memory and
+*         gives estimates.
+****************************************************************/
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+public abstract class ToyDemand extends WishlistTracker
+{
+    private static final Pattern SPACES = Pattern.compile("\\s+");  // runs of whitespace inside a toy name
+
+    /***************************************************************
+    *class: ToyCount
+    *purpose: One toy and how many times it is wished for.
+    ****************************************************************/
+    public static final class ToyCount
+    {
+        private final String name;  // toy name as first seen
+        private final long count;  // number of wishes (an estimate in approximate mode)
+
+        public ToyCount(String name, long count)
+        {
+            this.name = name;
+            this.count = count;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + ": " + count;
+        }
+    }
+
+    /***************************************************************
+    *function: normalize
+    *purpose: Returns the key a toy name is counted under.
+    ****************************************************************/
+    public static String normalize(String itemName)
+    {
+        return Wishlist.foldName(SPACES.matcher(itemName.trim()).replaceAll(" "));
+    }
+
+    /***************************************************************
+    *function: itemAdded
+    *purpose: Counts one more wish for the item's toy.
+    ****************************************************************/
+    @Override
+    protected void itemAdded(String childName, WishlistItem item)
+    {
+        adjust(normalize(item.getItemName()), item.getItemName(), 1);
+    }
+
+    /***************************************************************
+    *function: itemRemoved
+    *purpose: Counts one wish less for the item's toy.
+    ****************************************************************/
+    @Override
+    protected void itemRemoved(String childName, WishlistItem item)
+    {
+        adjust(normalize(item.getItemName()), item.getItemName(), -1);
+    }
+
+    /***************************************************************
+    *function: itemEdited
+    *purpose: Moves a wish to another toy if the edit renamed it.
+    ****************************************************************/
+    @Override
+    protected void itemEdited(String childName, String previousItemName, String previousDescription,
+            WishlistItem item)
+    {
+        String oldKey = normalize(previousItemName);
+        String newKey = normalize(item.getItemName());
+        if (!oldKey.equals(newKey))
+        {
+            adjust(oldKey, previousItemName, -1);
+            adjust(newKey, item.getItemName(), 1);
+        }
+    }
+
+    /***************************************************************
+    *function: getCount
+    *purpose: Returns how many times the toy is wished for.
+    ****************************************************************/
+    public long getCount(String itemName)
+    {
+        return countOf(normalize(itemName));
+    }
+
+    /***************************************************************
+    *function: topToys
+    *purpose: Returns the k most wished-for toys, most popular first.
+    ****************************************************************/
+    public abstract List<ToyCount> topToys(int k);
+
+    /***************************************************************
+    *function: isExact
+    *purpose: Returns false if counts are estimates.
+    ****************************************************************/
+    public abstract boolean isExact();
+
+    /***************************************************************
+    *function: adjust
+    *purpose: Adds delta to a toy's count. displayName is the name as
+    *         the child wrote it.
+    ****************************************************************/
+    protected abstract void adjust(String key, String displayName, int delta);
+
+    /***************************************************************
+    *function: countOf
+    *purpose: Returns the count for a normalized key.
+    ****************************************************************/
+    protected abstract long countOf(String key);
+}
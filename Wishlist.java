@@ -1,135 +1,2489 @@
 /***************************************************************
 *file: Wishlist.java
-*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez, 
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
 *		  Marie Philavong, and Brandon Shippy
 *class: CS 4800 - Software Engineering
 *assignment: Final Project
-*date last modified: 01/14/25
+*date last modified: 10/17/26
 *
-*purpose: This class manages a child's wishlist. It allows adding, 
-*         editing, and removing items from the wishlist, as well 
-*         as searching for specific items. The class provides 
-*         functionalities to manipulate and display the wishlist 
+*purpose: This class manages a child's wishlist. It allows adding,
+*         editing, and removing items from the wishlist, as well
+*         as searching for specific items. The class provides
+*         functionalities to manipulate and display the wishlist
 *         for the child.
+*
+*         Every method locks on the wishlist itself, so one child
+*         is the unit of locking. Callers that need several steps
+*         to happen together can synchronize on the wishlist too.
+*
+*         Items are kept in slots in the order they were added.
+*         A removed item leaves an empty slot behind which is
+*         cleaned up in bulk once there are too many of them. A
+*         Fenwick tree over the slots turns list positions into
+*         slots (and back) in O(log n), and a case-folded hash
+*         index maps each item name to its slots, so looking up,
+*         editing or removing an item by name never scans the
+*         list. When several items share a name, the one that
+*         comes first in the list wins, just like a front-to-back
+*         scan would.
+*
+*         Items are stored in one of three ways. STANDARD storage
+*         keeps a WishlistItem object per slot. COMPACT storage
+*         keeps two int codes per slot instead, looked up in a
+*         StringDictionary shared by every compact wishlist, so a
+*         toy name wished for by a million children is stored once.
+*         The codes and the folded name keys are references into
+*         the dictionary: removing or editing an item gives them
+*         back, and so does a compact wishlist that is no longer
+*         reachable (a Cleaner does it), so names nobody wishes for
+*         any more leave the dictionary.
+*         MAPPED storage moves the names and descriptions off the
+*         heap into a WishlistSegmentStore, and the name index is an
+*         open-addressing table of name hashes and slots instead of
+*         a map of strings. What stays on the heap is the per-slot
+*         bookkeeping: the record number, id, version and priority
+*         of every slot, the Fenwick tree, the id table, the name
+*         table and the rank treap. That is still about 85 bytes per
+*         item (MemoryFootprint, 200 children x 2000 items: 86.5
+*         against 131 for COMPACT and 270 for STANDARD), so it grows
+*         with the data and the number of items stays bounded by
+*         -Xmx; MAPPED only takes the text out of the heap and out
+*         of the collector's way. In compact and mapped mode
+*         getItems and searchItem hand out WishlistItem copies.
+*
+*         Every item gets an id when it is added, unique within the
+*         wishlist and kept through edits, and a version that every
+*         edit raises. A small hash table maps ids to slots, so
+*         editItemById and removeItemById find an item in O(1) and
+*         act only if it still has the version the caller saw. Two
+*         sessions editing the same child can then work from what
+*         they last read without holding the lock in between: the
+*         slower one gets false instead of changing the wrong item.
+*
+*         Items also have a priority, higher meaning more wanted. A
+*         treap over the slots keeps them ranked by priority, ties
+*         going to the item added first, so an item's rank, the item
+*         at a rank and a new priority each cost O(log n), and the
+*         top n items O(log n + n). SantaWishlistApp merges these
+*         rankings into one ranked view of every child's wishes.
+*
+*         Every change bumps the wishlist's version and, if anyone
+*         is listening, fires a WishlistEvent while the lock is
+*         still held, so listeners see one child's changes in order.
+*         The batch methods (addItems, editItems, removeItems and
+*         removeItemsIf) make many changes in one pass under one
+*         lock, hand each listener all of them in one call and
+*         publish one snapshot at the end.
+*
+*         snapshot returns a frozen WishlistSnapshot that can be read
+*         without locking. The first call builds it in O(n); from
+*         then on every change makes the next snapshot from the
+*         last one in O(log n), sharing the rest of its items.
 ****************************************************************/
 
+import java.lang.ref.Cleaner;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 public class Wishlist
 {
-    private String childName;  // the name of the child for whom the wishlist is created
-    private List<WishlistItem> items;  // List to hold items in the wishlist
+    private static final int INITIAL_CAPACITY = 8;  // slots allocated for a new wishlist
+    private static final int MIN_COMPACT_HOLES = 16;  // never compact for fewer empty slots than this
+    private static final Cleaner CLEANER = Cleaner.create();  // gives back the dictionary references of dropped compact wishlists
+
+    public static final long ANY_VERSION = -1;  // expected version that matches every version of an item
+
+    private final String childName;  // the name of the child for whom the wishlist is created
+    private final SlotStore slots;  // items in insertion order, empty where an item was removed
+    private int used;  // number of slots handed out so far (live items plus holes)
+    private int live;  // number of items currently in the wishlist
+    private int[] tree;  // Fenwick tree counting live items per slot, 1-based
+    private final NameIndex nameIndex;  // case-folded name to the slots holding it
+    private final SlotById slotsById;  // item id to the slot holding it
+    private final RankTree ranks;  // live slots by priority, for rank and top-n queries
+    private long nextItemId = 1;  // id the next added item gets
+    private final List<WishlistItem> itemsView;  // read-only list view handed out by getItems
+    private final List<WishlistListener> listeners;  // notified of every change
+    private long version;  // number of changes made so far
+    private volatile WishlistSnapshot snapshot;  // snapshot at the current version, null until first asked for
+    private WishlistSnapshot working;  // next snapshot while a change is being made, null until first asked for
+    long journalSeq = -1;  // sequence number of the last journal record applied (guarded by this)
+
+    /***************************************************************
+    *enum: Storage
+    *purpose: How a wishlist stores its items.
+    ****************************************************************/
+    public enum Storage
+    {
+        STANDARD, COMPACT, MAPPED
+    }
 
     /***************************************************************
     *function: Wishlist
     *purpose: Constructor to initialize the wishlist for the child.
-    *         It initializes the childName and the items list to
-    *         an empty ArrayList.
+    *         It initializes the childName, the item slots and the
+    *         name index.
     ****************************************************************/
     public Wishlist(String childName)
+    {
+        this(childName, Storage.STANDARD);
+    }
+
+    /***************************************************************
+    *function: Wishlist
+    *purpose: Constructor that also chooses how items are stored.
+    *         MAPPED wishlists are made with the constructor that
+    *         takes a WishlistSegmentStore.
+    ****************************************************************/
+    public Wishlist(String childName, Storage storage)
+    {
+        this(childName, newSlots(storage));
+    }
+
+    /***************************************************************
+    *function: Wishlist
+    *purpose: Constructor for a MAPPED wishlist whose items are kept
+    *         in the given segment store.
+    ****************************************************************/
+    public Wishlist(String childName, WishlistSegmentStore store)
+    {
+        this(childName, new MappedSlots(store, store.childId(childName), INITIAL_CAPACITY));
+    }
+
+    // common part of the constructors; the Cleaner only keeps a phantom reference to this
+    @SuppressWarnings("this-escape")
+    private Wishlist(String childName, SlotStore slots)
     {
         this.childName = childName;
-        this.items = new ArrayList<>();
+        this.slots = slots;
+        this.tree = new int[INITIAL_CAPACITY + 1];
+        this.nameIndex = slots instanceof MappedSlots ? new HashedSlotIndex(slots)
+                : new MapNameIndex(slots instanceof CodedSlots ? StringDictionary.shared() : null);
+        this.slotsById = new SlotById();
+        this.ranks = new RankTree(slots);
+        this.itemsView = new ItemsView();
+        this.listeners = new CopyOnWriteArrayList<>();
+        if (slots instanceof CodedSlots)
+        {
+            CLEANER.register(this, releaser((CodedSlots) slots, nameIndex));
+        }
+    }
+
+    // the cleanup of a compact wishlist; must not refer to the wishlist itself
+    private static Runnable releaser(CodedSlots slots, NameIndex nameIndex)
+    {
+        return () ->
+        {
+            slots.releaseAll();
+            nameIndex.clear();
+        };
+    }
+
+    // empty slots for STANDARD or COMPACT storage
+    private static SlotStore newSlots(Storage storage)
+    {
+        switch (storage)
+        {
+            case COMPACT:
+                return new CodedSlots(INITIAL_CAPACITY);
+            case MAPPED:
+                throw new IllegalArgumentException("Mapped storage needs a WishlistSegmentStore.");
+            default:
+                return new ObjectSlots(INITIAL_CAPACITY);
+        }
+    }
+
+    /***************************************************************
+    *function: getChildName
+    *purpose: Returns the name of the child who owns this wishlist.
+    ****************************************************************/
+    public String getChildName()
+    {
+        return childName;
+    }
+
+    /***************************************************************
+    *function: addListener
+    *purpose: Registers a listener for this wishlist's changes.
+    ****************************************************************/
+    public void addListener(WishlistListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    /***************************************************************
+    *function: removeListener
+    *purpose: Unregisters a listener added with addListener.
+    ****************************************************************/
+    public void removeListener(WishlistListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /***************************************************************
+    *function: getStorage
+    *purpose: Returns how this wishlist stores its items.
+    ****************************************************************/
+    public Storage getStorage()
+    {
+        if (slots instanceof CodedSlots)
+        {
+            return Storage.COMPACT;
+        }
+        return slots instanceof MappedSlots ? Storage.MAPPED : Storage.STANDARD;
+    }
+
+    /***************************************************************
+    *function: getVersion
+    *purpose: Returns the number of changes made to the wishlist. It
+    *         matches the version of the last event fired.
+    ****************************************************************/
+    public synchronized long getVersion()
+    {
+        return version;
+    }
+
+    /***************************************************************
+    *function: snapshot
+    *purpose: Returns a frozen copy of the wishlist at its current
+    *         version. Needs no lock once snapshots have been started.
+    ****************************************************************/
+    public WishlistSnapshot snapshot()
+    {
+        WishlistSnapshot current = snapshot;
+        return current != null ? current : startSnapshots();
+    }
+
+    /***************************************************************
+    *function: startSnapshots
+    *purpose: Builds the first snapshot from the slots. Every change
+    *         after this keeps the snapshot up to date.
+    ****************************************************************/
+    private synchronized WishlistSnapshot startSnapshots()
+    {
+        if (snapshot == null)
+        {
+            List<WishlistItem> items = new ArrayList<>(live);
+            for (int slot = 0; slot < used; slot++)
+            {
+                if (slots.isLive(slot))
+                {
+                    items.add(slots.item(slot));
+                }
+            }
+            working = new WishlistSnapshot(childName, version, PersistentList.of(items));
+            snapshot = working;
+        }
+        return snapshot;
+    }
+
+    /***************************************************************
+    *function: foldName
+    *purpose: Folds an item name to the key used by the name index.
+    *         Two names that are equalsIgnoreCase to each other fold
+    *         to the same key.
+    ****************************************************************/
+    static String foldName(String itemName)
+    {
+        return itemName.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    /***************************************************************
+    *function: isValid
+    *purpose: Returns true if both the item name and the description
+    *         are present and not blank. These are the rules every
+    *         add and edit is checked against.
+    ****************************************************************/
+    static boolean isValid(String itemName, String description)
+    {
+        return itemName != null && !itemName.trim().isEmpty() && description != null && !description.trim().isEmpty();
+    }
+
+    /***************************************************************
+    *function: addItem
+    *purpose: Adds an item to the wishlist. The item consists of a
+    *         name and description. If either the name or description
+    *         is empty or null, an error message is displayed and
+    *         false is returned.
+    ****************************************************************/
+    public synchronized boolean addItem(String itemName, String description)
+    {
+        return addItem(itemName, description, 0);
     }
 
     /***************************************************************
     *function: addItem
-    *purpose: Adds an item to the wishlist. The item consists of a 
-    *         name and description. If either the name or description 
-    *         is empty or null, an error message is displayed.
+    *purpose: Adds an item with the given priority to the wishlist.
+    *         Fails like addItem(itemName, description).
+    ****************************************************************/
+    public synchronized boolean addItem(String itemName, String description, int priority)
+    {
+        return addItemAndGet(itemName, description, priority) != null;
+    }
+
+    /***************************************************************
+    *function: addItemAndGet
+    *purpose: Adds an item like addItem and returns it as stored,
+    *         with its new id and version, or null if it fails the
+    *         usual checks.
     ****************************************************************/
-    public void addItem(String itemName, String description)
+    public synchronized WishlistItem addItemAndGet(String itemName, String description, int priority)
     {
-        if (itemName == null || itemName.trim().isEmpty() || description == null || description.trim().isEmpty())
+        if (!isValid(itemName, description))
         {
             System.out.println("Item name or description cannot be empty.");
-            return;
+            return null;
         }
-        
+
         // add the new item to the wishlist
-        items.add(new WishlistItem(itemName, description));
+        appendSlot(nextItemId++, 1, priority, itemName, description, null);
+        publishSnapshot();
+        return slots.item(used - 1);
+    }
+
+    /***************************************************************
+    *function: addItems
+    *purpose: Adds several items in one go. The slots grow at most
+    *         once, listeners hear about all the additions in one
+    *         call and snapshots show either none or all of them.
+    *         Items failing the usual checks are skipped. Returns the
+    *         changes made, in order.
+    ****************************************************************/
+    public synchronized List<WishlistEvent> addItems(List<WishlistItem> items)
+    {
+        return appendItems(items, false);
+    }
+
+    /***************************************************************
+    *function: reloadItems
+    *purpose: Adds items read back from a snapshot like addItems, but
+    *         they keep their saved ids and versions, and items added
+    *         later get ids from savedNextItemId up, as they would
+    *         have before the snapshot was taken.
+    ****************************************************************/
+    synchronized List<WishlistEvent> reloadItems(List<WishlistItem> items, long savedNextItemId)
+    {
+        nextItemId = Math.max(nextItemId, savedNextItemId);
+        return appendItems(items, true);
+    }
+
+    // adds the valid items as one batch, with new ids or their own
+    private List<WishlistEvent> appendItems(List<WishlistItem> items, boolean keepIds)
+    {
+        List<WishlistEvent> changes = new ArrayList<>(items.size());
+        reserve(used + items.size());
+        for (WishlistItem item : items)
+        {
+            if (!isValid(item.getItemName(), item.getDescription()))
+            {
+                continue;
+            }
+            if (keepIds)
+            {
+                appendSaved(item, changes);
+            }
+            else
+            {
+                appendSlot(nextItemId++, 1, item.getPriority(), item.getItemName(), item.getDescription(), changes);
+            }
+        }
+        return finishBatch(changes);
+    }
+
+    /***************************************************************
+    *function: editItems
+    *purpose: Edits several items by name (case-insensitive). Each
+    *         key names the item to edit, the first one with that
+    *         name, and its value holds the new name and description.
+    *         Every name is looked up before anything changes, so the
+    *         names refer to the list as it was. Edits whose item is
+    *         missing or whose new values fail the usual checks are
+    *         skipped. Returns the changes made, in order.
+    ****************************************************************/
+    public synchronized List<WishlistEvent> editItems(Map<String, WishlistItem> edits)
+    {
+        int[] targets = new int[edits.size()];
+        WishlistItem[] values = new WishlistItem[edits.size()];
+        int count = 0;
+        for (Map.Entry<String, WishlistItem> edit : edits.entrySet())
+        {
+            WishlistItem value = edit.getValue();
+            boolean valid = value != null && isValid(value.getItemName(), value.getDescription());
+            targets[count] = valid ? firstSlot(edit.getKey()) : -1;
+            values[count++] = value;
+        }
+
+        List<WishlistEvent> changes = new ArrayList<>(count);
+        BitSet edited = new BitSet();
+        for (int i = 0; i < count; i++)
+        {
+            int slot = targets[i];
+            if (slot >= 0 && !edited.get(slot))
+            {
+                edited.set(slot);
+                editSlot(slot, values[i].getItemName(), values[i].getDescription(), changes);
+            }
+        }
+        return finishBatch(changes);
+    }
+
+    /***************************************************************
+    *function: removeItems
+    *purpose: Removes every item whose name is one of the given names
+    *         (case-insensitive). Returns the changes made, in order.
+    ****************************************************************/
+    public synchronized List<WishlistEvent> removeItems(Collection<String> itemNames)
+    {
+        Set<String> keys = new HashSet<>();
+        for (String itemName : itemNames)
+        {
+            if (itemName != null)
+            {
+                keys.add(foldName(itemName));
+            }
+        }
+        return removeMatching(slot -> keys.contains(foldName(slots.name(slot))));
+    }
+
+    /***************************************************************
+    *function: removeItemsIf
+    *purpose: Removes every item the filter accepts. If the filter
+    *         throws, nothing is removed. Returns the changes made, in
+    *         order.
+    ****************************************************************/
+    public synchronized List<WishlistEvent> removeItemsIf(Predicate<WishlistItem> filter)
+    {
+        return removeMatching(slot -> filter.test(slots.item(slot)));
     }
 
     /***************************************************************
     *function: editItem
     *purpose: Edits an item on the wishlist at a specific index.
     *         It updates the name and description of the item.
-    *         If the index is invalid, an error message is displayed.
+    *         If the index is invalid, an error message is displayed
+    *         and false is returned.
     ****************************************************************/
-    public void editItem(int itemIndex, String newItemName, String newDescription)
+    public synchronized boolean editItem(int itemIndex, String newItemName, String newDescription)
     {
-        if (itemIndex < 0 || itemIndex >= items.size())
+        if (itemIndex < 0 || itemIndex >= live)
         {
             System.out.println("Invalid item index.");
-            return;
+            return false;
+        }
+        if (!isValid(newItemName, newDescription))
+        {
+            System.out.println("Item name or description cannot be empty.");
+            return false;
+        }
+
+        editSlot(slotAt(itemIndex), newItemName, newDescription, null);
+        publishSnapshot();
+        return true;
+    }
+
+    /***************************************************************
+    *function: editItem
+    *purpose: Edits the item with the given name (case-insensitive).
+    *         If several items share the name, the first one in the
+    *         list is edited. Returns false if no item has the name.
+    ****************************************************************/
+    public synchronized boolean editItem(String itemName, String newItemName, String newDescription)
+    {
+        int slot = firstSlot(itemName);
+        if (slot < 0 || !isValid(newItemName, newDescription))
+        {
+            return false;
         }
-        
-        WishlistItem item = items.get(itemIndex);  // get the item at the specified index
-        item.setItemName(newItemName);  // update the item name
-        item.setDescription(newDescription);  // update the item description
+
+        editSlot(slot, newItemName, newDescription, null);
+        publishSnapshot();
+        return true;
     }
 
     /***************************************************************
     *function: removeItem
     *purpose: Removes an item from the wishlist at a specified index.
-    *         If the index is invalid, an error message is displayed.
+    *         If the index is invalid, an error message is displayed
+    *         and false is returned.
     ****************************************************************/
-    public void removeItem(int itemIndex)
+    public synchronized boolean removeItem(int itemIndex)
     {
-        if (itemIndex < 0 || itemIndex >= items.size()) 
+        if (itemIndex < 0 || itemIndex >= live)
         {
             System.out.println("Invalid item index.");
-            return; 
+            return false;
         }
-        
+
         // remove the item at the specified index
-        items.remove(itemIndex);
+        removeSlot(slotAt(itemIndex));
+        publishSnapshot();
+        return true;
     }
 
     /***************************************************************
-    *function: getItems
-    *purpose: Returns the list of items currently in the wishlist.
+    *function: removeItem
+    *purpose: Removes the item with the given name (case-insensitive).
+    *         If several items share the name, the first one in the
+    *         list is removed. Returns false if no item has the name.
     ****************************************************************/
-    public List<WishlistItem> getItems()
+    public synchronized boolean removeItem(String itemName)
     {
-        return items;
+        int slot = firstSlot(itemName);
+        if (slot < 0)
+        {
+            return false;
+        }
+
+        removeSlot(slot);
+        publishSnapshot();
+        return true;
     }
 
     /***************************************************************
-    *function: searchItem
-    *purpose: Searches for an item in the wishlist by its name.
-    *         If found, it returns the WishlistItem; otherwise, 
-    *         it returns null.
+    *function: indexOf
+    *purpose: Returns the list position of the item with the given
+    *         name (case-insensitive), or -1 if there is none. With
+    *         duplicate names the first position is returned.
     ****************************************************************/
-    public WishlistItem searchItem(String itemName)
+    public synchronized int indexOf(String itemName)
     {
-        for (WishlistItem item : items)
+        int slot = firstSlot(itemName);
+        return slot < 0 ? -1 : treePrefix(slot) - 1;
+    }
+
+    /***************************************************************
+    *function: editItemById
+    *purpose: Edits the item with the given id, but only if it still
+    *         has the expected version (or expectedVersion is
+    *         ANY_VERSION). Returns false if the item is gone, was
+    *         changed since the caller read it, or the new values
+    *         fail the usual checks; nothing is changed then.
+    ****************************************************************/
+    public synchronized boolean editItemById(long itemId, long expectedVersion, String newItemName,
+            String newDescription)
+    {
+        int slot = slotOf(itemId, expectedVersion);
+        if (slot < 0 || !isValid(newItemName, newDescription))
         {
-            if (item.getItemName().equalsIgnoreCase(itemName))
-            {
-                return item;
-            }
+            return false;
         }
-        return null;
+
+        editSlot(slot, newItemName, newDescription, null);
+        publishSnapshot();
+        return true;
     }
 
     /***************************************************************
-    *function: toString
-    *purpose: Overriding toString() method to format the wishlist 
-    *         display. It returns a string representation of the 
-    *         child's wishlist with each item's name and description.
+    *function: updateItemById
+    *purpose: Gives the item with the given id a new name,
+    *         description and priority in one change, but only if it
+    *         still has the expected version (or expectedVersion is
+    *         ANY_VERSION). The version goes up once. Returns the
+    *         item as stored, or null if the item is gone, was
+    *         changed since the caller read it, or the new values
+    *         fail the usual checks; nothing is changed then.
     ****************************************************************/
-    @Override
-    public String toString()
+    public synchronized WishlistItem updateItemById(long itemId, long expectedVersion, String newItemName,
+            String newDescription, int priority)
     {
-        StringBuilder wishlistString = new StringBuilder("Wishlist for " + childName + ":\n");
-        
-        for (WishlistItem item : items)
+        int slot = slotOf(itemId, expectedVersion);
+        if (slot < 0 || !isValid(newItemName, newDescription))
         {
-            wishlistString.append(item.getItemName()).append(": ").append(item.getDescription()).append("\n");
+            return null;
+        }
+
+        updateSlot(slot, newItemName, newDescription, priority);
+        publishSnapshot();
+        return slots.item(slot);
+    }
+
+    /***************************************************************
+    *function: updateItem
+    *purpose: Gives the item at a specific index a new name,
+    *         description and priority in one change. If the index is
+    *         invalid or the values fail the usual checks, an error
+    *         message is displayed and false is returned.
+    ****************************************************************/
+    public synchronized boolean updateItem(int itemIndex, String newItemName, String newDescription, int priority)
+    {
+        if (itemIndex < 0 || itemIndex >= live)
+        {
+            System.out.println("Invalid item index.");
+            return false;
+        }
+        if (!isValid(newItemName, newDescription))
+        {
+            System.out.println("Item name or description cannot be empty.");
+            return false;
+        }
+
+        updateSlot(slotAt(itemIndex), newItemName, newDescription, priority);
+        publishSnapshot();
+        return true;
+    }
+
+    /***************************************************************
+    *function: removeItemById
+    *purpose: Removes the item with the given id, but only if it
+    *         still has the expected version (or expectedVersion is
+    *         ANY_VERSION). Returns false if the item is gone or was
+    *         changed since the caller read it.
+    ****************************************************************/
+    public synchronized boolean removeItemById(long itemId, long expectedVersion)
+    {
+        int slot = slotOf(itemId, expectedVersion);
+        if (slot < 0)
+        {
+            return false;
+        }
+
+        removeSlot(slot);
+        publishSnapshot();
+        return true;
+    }
+
+    /***************************************************************
+    *function: setPriority
+    *purpose: Gives the item at a specific index a new priority. If
+    *         the index is invalid, an error message is displayed and
+    *         false is returned.
+    ****************************************************************/
+    public synchronized boolean setPriority(int itemIndex, int priority)
+    {
+        if (itemIndex < 0 || itemIndex >= live)
+        {
+            System.out.println("Invalid item index.");
+            return false;
+        }
+
+        prioritySlot(slotAt(itemIndex), priority);
+        publishSnapshot();
+        return true;
+    }
+
+    /***************************************************************
+    *function: setPriorityById
+    *purpose: Gives the item with the given id a new priority, but
+    *         only if it still has the expected version (or
+    *         expectedVersion is ANY_VERSION). Like an edit, this
+    *         raises the item's version. Returns false if the item is
+    *         gone or was changed since the caller read it.
+    ****************************************************************/
+    public synchronized boolean setPriorityById(long itemId, long expectedVersion, int priority)
+    {
+        int slot = slotOf(itemId, expectedVersion);
+        if (slot < 0)
+        {
+            return false;
+        }
+
+        prioritySlot(slot, priority);
+        publishSnapshot();
+        return true;
+    }
+
+    /***************************************************************
+    *function: rankOf
+    *purpose: Returns the rank of the item with the given id, 0 for
+    *         the most wanted item, or -1 if it is not on the list.
+    ****************************************************************/
+    public synchronized int rankOf(long itemId)
+    {
+        int slot = slotsById.get(itemId);
+        return slot < 0 ? -1 : ranks.rank(slot);
+    }
+
+    /***************************************************************
+    *function: itemAtRank
+    *purpose: Returns the item with the given rank, 0 for the most
+    *         wanted item, or null if the rank is out of range.
+    ****************************************************************/
+    public synchronized WishlistItem itemAtRank(int rank)
+    {
+        return rank < 0 || rank >= live ? null : slots.item(ranks.select(rank));
+    }
+
+    /***************************************************************
+    *function: topItems
+    *purpose: Returns the n most wanted items, highest priority first
+    *         and, for equal priorities, in the order they were added.
+    ****************************************************************/
+    public synchronized List<WishlistItem> topItems(int n)
+    {
+        List<WishlistItem> top = new ArrayList<>(Math.max(0, Math.min(n, live)));
+        ranks.collect(n, top);
+        return top;
+    }
+
+    /***************************************************************
+    *function: nextByRank
+    *purpose: Returns the item ranked right after the given one, or
+    *         the most wanted item if previous is null, or null at the
+    *         end. The position is found from previous's priority and
+    *         id, so it still works if previous has been changed or
+    *         removed meanwhile: the walk goes on from where that item
+    *         was ranked.
+    ****************************************************************/
+    public synchronized WishlistItem nextByRank(WishlistItem previous)
+    {
+        int slot = previous == null ? ranks.first() : ranks.firstAfter(previous.getPriority(), previous.getId());
+        return slot < 0 ? null : slots.item(slot);
+    }
+
+    /***************************************************************
+    *function: getItem
+    *purpose: Returns the item with the given id, with its current
+    *         version, or null if it is no longer on the list.
+    ****************************************************************/
+    public synchronized WishlistItem getItem(long itemId)
+    {
+        int slot = slotsById.get(itemId);
+        return slot < 0 ? null : slots.item(slot);
+    }
+
+    /***************************************************************
+    *function: indexOfItem
+    *purpose: Returns the list position of the item with the given
+    *         id, or -1 if it is no longer on the list.
+    ****************************************************************/
+    public synchronized int indexOfItem(long itemId)
+    {
+        int slot = slotsById.get(itemId);
+        return slot < 0 ? -1 : treePrefix(slot) - 1;
+    }
+
+    /***************************************************************
+    *function: restore
+    *purpose: Refills a new, empty wishlist with items saved earlier
+    *         and gives it back the version and journal position it
+    *         had, so versions keep growing across a save and load.
+    *         Items keep their saved ids and versions, and new items
+    *         get ids from savedNextItemId up. Fires no events; used
+    *         by WishlistCache before anyone is listening.
+    ****************************************************************/
+    synchronized void restore(List<WishlistItem> items, long savedVersion, long savedJournalSeq,
+            long savedNextItemId)
+    {
+        nextItemId = Math.max(nextItemId, savedNextItemId);
+        reserve(used + items.size());
+        for (WishlistItem item : items)
+        {
+            appendSaved(item, null);
+        }
+        version = savedVersion;
+        journalSeq = savedJournalSeq;
+        working = null;
+        snapshot = null;
+    }
+
+    /***************************************************************
+    *function: getItems
+    *purpose: Returns a read-only view of the items currently in the
+    *         wishlist. The view follows later changes. Iterate it
+    *         while holding the wishlist's lock if other sessions may
+    *         be changing it, and use the wishlist's own methods to
+    *         make changes. Use snapshot for a copy that can be read
+    *         without a lock.
+    ****************************************************************/
+    public List<WishlistItem> getItems()
+    {
+        return itemsView;
+    }
+
+    /***************************************************************
+    *function: searchItem
+    *purpose: Searches for an item in the wishlist by its name.
+    *         If found, it returns the WishlistItem; otherwise,
+    *         it returns null. With duplicate names the first item
+    *         in the list is returned.
+    ****************************************************************/
+    public synchronized WishlistItem searchItem(String itemName)
+    {
+        int slot = firstSlot(itemName);
+        return slot < 0 ? null : slots.item(slot);
+    }
+
+    /***************************************************************
+    *function: toString
+    *purpose: Overriding toString() method to format the wishlist
+    *         display. It returns a string representation of the
+    *         child's wishlist with each item's name and description.
+    ****************************************************************/
+    @Override
+    public synchronized String toString()
+    {
+        StringBuilder wishlistString = new StringBuilder("Wishlist for " + childName + ":\n");
+
+        for (int slot = 0; slot < used; slot++)
+        {
+            if (slots.isLive(slot))
+            {
+                wishlistString.append(slots.name(slot)).append(": ").append(slots.description(slot)).append("\n");
+            }
+        }
+
+        return wishlistString.toString();
+    }
+
+    /***************************************************************
+    *function: getNextItemId
+    *purpose: Returns the id the next added item will get, for saving
+    *         along with the items.
+    ****************************************************************/
+    synchronized long getNextItemId()
+    {
+        return nextItemId;
+    }
+
+    /***************************************************************
+    *function: appendSaved
+    *purpose: Appends a saved item under its own id and version. An
+    *         item without an id, or whose id is taken, gets a new one.
+    ****************************************************************/
+    private void appendSaved(WishlistItem item, List<WishlistEvent> changes)
+    {
+        long id = item.getId() > 0 && slotsById.get(item.getId()) < 0 ? item.getId() : nextItemId;
+        nextItemId = Math.max(nextItemId, id + 1);
+        appendSlot(id, Math.max(1, item.getVersion()), item.getPriority(), item.getItemName(), item.getDescription(),
+                changes);
+    }
+
+    /***************************************************************
+    *function: appendSlot
+    *purpose: Puts an item with the given id, version and priority
+    *         in the next free slot at the end. The change goes into
+    *         changes when batching, otherwise it is fired at once.
+    ****************************************************************/
+    private void appendSlot(long id, long itemVersion, int priority, String itemName, String description,
+            List<WishlistEvent> changes)
+    {
+        if (used == slots.capacity())
+        {
+            grow();
+        }
+        int slot = used++;
+        slots.set(slot, id, itemVersion, priority, itemName, description);
+        live++;
+        treeUpdate(slot, 1);
+        indexAdd(foldName(itemName), slot);
+        slotsById.put(id, slot);
+        ranks.insert(slot);
+        version++;
+        if (changes != null || !listeners.isEmpty() || working != null)
+        {
+            WishlistItem item = slots.item(slot);
+            if (working != null)
+            {
+                working = working.withAdded(item, version);
+            }
+            fire(changes, WishlistEvent.Type.ADDED, item, null, null, live - 1);
+        }
+    }
+
+    /***************************************************************
+    *function: editSlot
+    *purpose: Updates the item in a slot and moves it to its new
+    *         bucket in the name index if the folded name changed.
+    ****************************************************************/
+    private void editSlot(int slot, String newItemName, String newDescription, List<WishlistEvent> changes)
+    {
+        String oldName = slots.name(slot);
+        String oldDescription = slots.description(slot);
+        String oldKey = foldName(oldName);
+        String newKey = foldName(newItemName);
+        if (!oldKey.equals(newKey))
+        {
+            indexRemove(oldKey, slot);
+            indexAdd(foldName(newItemName), slot);
+        }
+
+        // update the item name and description; the rank does not change
+        slots.set(slot, slots.id(slot), slots.itemVersion(slot) + 1, slots.priority(slot), newItemName,
+                newDescription);
+        changed(slot, oldName, oldDescription, changes);
+    }
+
+    /***************************************************************
+    *function: prioritySlot
+    *purpose: Gives the item in a slot a new priority, taking it out
+    *         of the rank tree and putting it back at its new rank.
+    ****************************************************************/
+    private void prioritySlot(int slot, int priority)
+    {
+        String name = slots.name(slot);
+        String description = slots.description(slot);
+        ranks.remove(slot);
+        slots.set(slot, slots.id(slot), slots.itemVersion(slot) + 1, priority, name, description);
+        ranks.insert(slot);
+        changed(slot, name, description, null);
+    }
+
+    /***************************************************************
+    *function: updateSlot
+    *purpose: Gives the item in a slot a new name, description and
+    *         priority as one edit, moving it in the name index and
+    *         the rank tree only where that changed.
+    ****************************************************************/
+    private void updateSlot(int slot, String newItemName, String newDescription, int priority)
+    {
+        String oldName = slots.name(slot);
+        String oldDescription = slots.description(slot);
+        String oldKey = foldName(oldName);
+        String newKey = foldName(newItemName);
+        if (!oldKey.equals(newKey))
+        {
+            indexRemove(oldKey, slot);
+            indexAdd(foldName(newItemName), slot);
+        }
+
+        boolean reranked = priority != slots.priority(slot);
+        if (reranked)
+        {
+            ranks.remove(slot);
+        }
+        slots.set(slot, slots.id(slot), slots.itemVersion(slot) + 1, priority, newItemName, newDescription);
+        if (reranked)
+        {
+            ranks.insert(slot);
+        }
+        changed(slot, oldName, oldDescription, null);
+    }
+
+    /***************************************************************
+    *function: changed
+    *purpose: Counts an edit of the item in a slot and passes it on
+    *         to the next snapshot and the listeners.
+    ****************************************************************/
+    private void changed(int slot, String oldName, String oldDescription, List<WishlistEvent> changes)
+    {
+        version++;
+        if (changes != null || !listeners.isEmpty() || working != null)
+        {
+            int position = treePrefix(slot) - 1;
+            WishlistItem item = slots.item(slot);
+            if (working != null)
+            {
+                working = working.withEdited(position, item, version);
+            }
+            fire(changes, WishlistEvent.Type.EDITED, item, oldName, oldDescription, position);
+        }
+    }
+
+    /***************************************************************
+    *function: removeSlot
+    *purpose: Empties a slot, drops it from the index and compacts
+    *         the slots once holes outnumber the live items.
+    ****************************************************************/
+    private void removeSlot(int slot)
+    {
+        WishlistItem removed = listeners.isEmpty() ? null : slots.item(slot);
+        int position = listeners.isEmpty() && working == null ? -1 : treePrefix(slot) - 1;
+        indexRemove(foldName(slots.name(slot)), slot);
+        slotsById.remove(slots.id(slot));
+        ranks.remove(slot);
+        slots.clear(slot);
+        live--;
+        treeUpdate(slot, -1);
+        version++;
+        if (working != null)
+        {
+            working = working.withRemoved(position, version);
+        }
+        fire(null, WishlistEvent.Type.REMOVED, removed, null, null, position);
+
+        int holes = used - live;
+        if (holes >= MIN_COMPACT_HOLES && holes > live)
+        {
+            compact();
+        }
+    }
+
+    /***************************************************************
+    *function: removeMatching
+    *purpose: Removes every live slot the test accepts. The test is
+    *         run on every slot first, so a failing test changes
+    *         nothing. Then one pass empties the chosen slots, and the
+    *         Fenwick tree is rebuilt once at the end.
+    ****************************************************************/
+    private List<WishlistEvent> removeMatching(IntPredicate test)
+    {
+        BitSet chosen = new BitSet(used);
+        for (int slot = 0; slot < used; slot++)
+        {
+            if (slots.isLive(slot) && test.test(slot))
+            {
+                chosen.set(slot);
+            }
+        }
+
+        List<WishlistEvent> changes = new ArrayList<>(chosen.cardinality());
+        int kept = 0;  // live items before the current slot that stay
+        for (int slot = 0; slot < used; slot++)
+        {
+            if (!slots.isLive(slot))
+            {
+                continue;
+            }
+            if (!chosen.get(slot))
+            {
+                kept++;
+                continue;
+            }
+
+            WishlistItem removed = slots.item(slot);
+            indexRemove(foldName(removed.getItemName()), slot);
+            slotsById.remove(removed.getId());
+            ranks.remove(slot);
+            slots.clear(slot);
+            live--;
+            version++;
+            if (working != null)
+            {
+                working = working.withRemoved(kept, version);
+            }
+            fire(changes, WishlistEvent.Type.REMOVED, removed, null, null, kept);
+        }
+
+        if (!changes.isEmpty())
+        {
+            int holes = used - live;
+            if (holes >= MIN_COMPACT_HOLES && holes > live)
+            {
+                compact();
+            }
+            else
+            {
+                rebuildTree();
+            }
+        }
+        return finishBatch(changes);
+    }
+
+    /***************************************************************
+    *function: reserve
+    *purpose: Grows the slots once so that at least capacity of them
+    *         exist.
+    ****************************************************************/
+    private void reserve(int capacity)
+    {
+        if (capacity > slots.capacity())
+        {
+            slots.resize(Integer.highestOneBit(capacity - 1) << 1);
+            ranks.resize(slots.capacity());
+            rebuildTree();
+        }
+    }
+
+    /***************************************************************
+    *function: publishSnapshot
+    *purpose: Makes the snapshot built during a change visible to
+    *         readers.
+    ****************************************************************/
+    private void publishSnapshot()
+    {
+        if (working != null)
+        {
+            snapshot = working;
+        }
+    }
+
+    /***************************************************************
+    *function: finishBatch
+    *purpose: Publishes the snapshot once for a whole batch and gives
+    *         every listener all of its changes in one call.
+    ****************************************************************/
+    private List<WishlistEvent> finishBatch(List<WishlistEvent> changes)
+    {
+        publishSnapshot();
+        List<WishlistEvent> result = Collections.unmodifiableList(changes);
+        if (changes.isEmpty())
+        {
+            return result;
+        }
+        for (WishlistListener listener : listeners)
+        {
+            try
+            {
+                listener.wishlistBatchChanged(result);
+            }
+            catch (RuntimeException e)
+            {
+                System.out.println("Wishlist listener failed: " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /***************************************************************
+    *function: fire
+    *purpose: Tells every listener about a change that was just made,
+    *         or adds it to changes when a batch is being made. The
+    *         event carries the item as it was stored by the change;
+    *         stored items are replaced, never changed, so later edits
+    *         do not show through. Does nothing when no one is
+    *         listening and no batch is being made.
+    ****************************************************************/
+    private void fire(List<WishlistEvent> changes, WishlistEvent.Type type, WishlistItem item,
+            String previousItemName, String previousDescription, int position)
+    {
+        if (changes == null && listeners.isEmpty())
+        {
+            return;
+        }
+
+        WishlistEvent event = new WishlistEvent(type, childName, item, previousItemName, previousDescription,
+                position, version);
+        if (changes != null)
+        {
+            changes.add(event);
+            return;
+        }
+        for (WishlistListener listener : listeners)
+        {
+            try
+            {
+                listener.wishlistChanged(event);
+            }
+            catch (RuntimeException e)
+            {
+                System.out.println("Wishlist listener failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: slotOf
+    *purpose: Returns the slot of the item with the given id if it
+    *         has the expected version, or -1.
+    ****************************************************************/
+    private int slotOf(long itemId, long expectedVersion)
+    {
+        int slot = slotsById.get(itemId);
+        if (slot < 0 || (expectedVersion != ANY_VERSION && slots.itemVersion(slot) != expectedVersion))
+        {
+            return -1;
+        }
+        return slot;
+    }
+
+    /***************************************************************
+    *function: firstSlot
+    *purpose: Returns the first slot holding the given name, or -1.
+    ****************************************************************/
+    private int firstSlot(String itemName)
+    {
+        if (itemName == null)
+        {
+            return -1;
+        }
+        return nameIndex.first(foldName(itemName));
+    }
+
+    /***************************************************************
+    *function: slotAt
+    *purpose: Returns the slot holding the item at a list position.
+    *         Without holes the position is the slot.
+    ****************************************************************/
+    private int slotAt(int itemIndex)
+    {
+        if (live == used)
+        {
+            return itemIndex;
+        }
+
+        // walk down the Fenwick tree to the (itemIndex + 1)-th live slot
+        int position = 0;
+        int remaining = itemIndex + 1;
+        int capacity = slots.capacity();
+        for (int step = Integer.highestOneBit(capacity); step > 0; step >>= 1)
+        {
+            int next = position + step;
+            if (next <= capacity && tree[next] < remaining)
+            {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /***************************************************************
+    *function: treeUpdate
+    *purpose: Adds delta to the live count of one slot.
+    ****************************************************************/
+    private void treeUpdate(int slot, int delta)
+    {
+        for (int i = slot + 1; i < tree.length; i += i & -i)
+        {
+            tree[i] += delta;
+        }
+    }
+
+    /***************************************************************
+    *function: treePrefix
+    *purpose: Returns the number of live items in slots 0..slot.
+    ****************************************************************/
+    private int treePrefix(int slot)
+    {
+        int sum = 0;
+        for (int i = slot + 1; i > 0; i -= i & -i)
+        {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /***************************************************************
+    *function: grow
+    *purpose: Doubles the slot array and rebuilds the Fenwick tree
+    *         for the new size.
+    ****************************************************************/
+    private void grow()
+    {
+        slots.resize(slots.capacity() * 2);
+        ranks.resize(slots.capacity());
+        rebuildTree();
+    }
+
+    /***************************************************************
+    *function: compact
+    *purpose: Moves the live items down over the holes, then rebuilds
+    *         the Fenwick tree and the name index for the new slots.
+    *         The id table is updated as items move, and the rank
+    *         tree is renumbered to the new slots.
+    ****************************************************************/
+    private void compact()
+    {
+        int[] moved = new int[used];  // new slot of each old one, -1 for holes
+        int target = 0;
+        for (int slot = 0; slot < used; slot++)
+        {
+            if (!slots.isLive(slot))
+            {
+                moved[slot] = -1;
+                continue;
+            }
+            if (slot != target)
+            {
+                slots.move(slot, target);
+                slotsById.put(slots.id(target), target);
+            }
+            moved[slot] = target++;
+        }
+        used = target;
+        ranks.renumber(moved);
+
+        rebuildTree();
+        nameIndex.clear();
+        for (int slot = 0; slot < used; slot++)
+        {
+            indexAdd(foldName(slots.name(slot)), slot);
+        }
+    }
+
+    /***************************************************************
+    *function: rebuildTree
+    *purpose: Builds the Fenwick tree from the slots in O(n).
+    ****************************************************************/
+    private void rebuildTree()
+    {
+        int capacity = slots.capacity();
+        tree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++)
+        {
+            if (i <= used && slots.isLive(i - 1))
+            {
+                tree[i] += 1;
+            }
+            int parent = i + (i & -i);
+            if (parent <= capacity)
+            {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: indexAdd
+    *purpose: Records that a slot holds a name with the given key.
+    ****************************************************************/
+    private void indexAdd(String key, int slot)
+    {
+        nameIndex.add(key, slot);
+    }
+
+    /***************************************************************
+    *function: indexRemove
+    *purpose: Forgets that a slot holds a name with the given key.
+    ****************************************************************/
+    private void indexRemove(String key, int slot)
+    {
+        nameIndex.remove(key, slot);
+    }
+
+    /***************************************************************
+    *class: NameIndex
+    *purpose: Maps case-folded names to the slots holding them.
+    ****************************************************************/
+    private abstract static class NameIndex
+    {
+        // the first slot holding the key, or -1
+        abstract int first(String key);
+
+        abstract void add(String key, int slot);
+
+        abstract void remove(String key, int slot);
+
+        abstract void clear();
+    }
+
+    /***************************************************************
+    *class: MapNameIndex
+    *purpose: Name index for on-heap storage: a hash map from each
+    *         folded name to a NameBucket of its slots.
+    ****************************************************************/
+    private static final class MapNameIndex extends NameIndex
+    {
+        private final Map<String, NameBucket> buckets = new HashMap<>();  // folded name to its slots
+        private final StringDictionary keys;  // shares the keys of compact wishlists, or null
+
+        MapNameIndex(StringDictionary keys)
+        {
+            this.keys = keys;
+        }
+
+        @Override
+        int first(String key)
+        {
+            NameBucket bucket = buckets.get(key);
+            return bucket == null ? -1 : bucket.slots[0];
+        }
+
+        @Override
+        void add(String key, int slot)
+        {
+            NameBucket bucket = buckets.get(key);
+            if (bucket == null)
+            {
+                buckets.put(keys == null ? key : keys.canonical(key), new NameBucket(slot));
+            }
+            else
+            {
+                bucket.add(slot);
+            }
+        }
+
+        @Override
+        void remove(String key, int slot)
+        {
+            NameBucket bucket = buckets.get(key);
+            if (bucket != null && bucket.remove(slot))
+            {
+                buckets.remove(key);
+                if (keys != null)
+                {
+                    keys.release(key);
+                }
+            }
+        }
+
+        @Override
+        void clear()
+        {
+            if (keys != null)
+            {
+                for (String key : buckets.keySet())
+                {
+                    keys.release(key);
+                }
+            }
+            buckets.clear();
+        }
+    }
+
+    /***************************************************************
+    *class: HashedSlotIndex
+    *purpose: Name index for MAPPED storage that keeps no strings. A
+    *         linear-probing table holds one long per slot, the folded
+    *         name's hash in the high half and slot + 1 in the low
+    *         half, 0 for an empty entry. A lookup checks the names of
+    *         the slots whose hash matches against the stored items.
+    *         The table is at most half full, and removal shifts the
+    *         entries after it back so no tombstones build up.
+    ****************************************************************/
+    private static final class HashedSlotIndex extends NameIndex
+    {
+        private static final int MIN_TABLE = 16;  // smallest table size
+
+        private final SlotStore slots;  // where the names are checked
+        private long[] table;  // hash and slot + 1 per entry, 0 where empty
+        private int size;  // entries in use
+
+        HashedSlotIndex(SlotStore slots)
+        {
+            this.slots = slots;
+            this.table = new long[MIN_TABLE];
+        }
+
+        @Override
+        int first(String key)
+        {
+            int hash = key.hashCode();
+            int mask = table.length - 1;
+            int first = -1;
+            for (int i = home(hash, mask); table[i] != 0; i = (i + 1) & mask)
+            {
+                long entry = table[i];
+                int slot = (int) entry - 1;
+                if ((int) (entry >>> 32) == hash && (first < 0 || slot < first)
+                        && foldName(slots.name(slot)).equals(key))
+                {
+                    first = slot;
+                }
+            }
+            return first;
+        }
+
+        @Override
+        void add(String key, int slot)
+        {
+            if ((size + 1) * 2 > table.length)
+            {
+                long[] old = table;
+                table = new long[old.length * 2];
+                for (long entry : old)
+                {
+                    if (entry != 0)
+                    {
+                        insert(entry);
+                    }
+                }
+            }
+            insert(((long) key.hashCode() << 32) | (slot + 1));
+            size++;
+        }
+
+        @Override
+        void remove(String key, int slot)
+        {
+            long entry = ((long) key.hashCode() << 32) | (slot + 1);
+            int mask = table.length - 1;
+            int hole = home(key.hashCode(), mask);
+            while (table[hole] != entry)
+            {
+                if (table[hole] == 0)
+                {
+                    return;
+                }
+                hole = (hole + 1) & mask;
+            }
+
+            // shift back every later entry of the run that may fill the hole
+            for (int i = (hole + 1) & mask; table[i] != 0; i = (i + 1) & mask)
+            {
+                int home = home((int) (table[i] >>> 32), mask);
+                if (((i - home) & mask) >= ((i - hole) & mask))
+                {
+                    table[hole] = table[i];
+                    hole = i;
+                }
+            }
+            table[hole] = 0;
+            size--;
+        }
+
+        @Override
+        void clear()
+        {
+            table = new long[MIN_TABLE];
+            size = 0;
+        }
+
+        private void insert(long entry)
+        {
+            int mask = table.length - 1;
+            int i = home((int) (entry >>> 32), mask);
+            while (table[i] != 0)
+            {
+                i = (i + 1) & mask;
+            }
+            table[i] = entry;
+        }
+
+        // first table index to probe for a hash
+        private static int home(int hash, int mask)
+        {
+            int mixed = hash * 0x9E3779B9;
+            return (mixed ^ (mixed >>> 16)) & mask;
+        }
+    }
+
+    /***************************************************************
+    *class: NameBucket
+    *purpose: Sorted slots that hold the same folded name. Almost
+    *         every bucket has a single slot; duplicates cost time
+    *         linear only in the number of same-named items.
+    ****************************************************************/
+    private static class NameBucket
+    {
+        private int[] slots;  // slots holding this name, ascending
+        private int count;  // number of slots in use
+
+        NameBucket(int slot)
+        {
+            this.slots = new int[] {slot};
+            this.count = 1;
+        }
+
+        // inserts a slot keeping the array sorted
+        void add(int slot)
+        {
+            if (count == slots.length)
+            {
+                slots = Arrays.copyOf(slots, count * 2);
+            }
+            int at = Arrays.binarySearch(slots, 0, count, slot);
+            at = at < 0 ? -at - 1 : at;
+            System.arraycopy(slots, at, slots, at + 1, count - at);
+            slots[at] = slot;
+            count++;
+        }
+
+        // removes a slot and returns true if the bucket is now empty
+        boolean remove(int slot)
+        {
+            int at = Arrays.binarySearch(slots, 0, count, slot);
+            if (at >= 0)
+            {
+                System.arraycopy(slots, at + 1, slots, at, count - at - 1);
+                count--;
+            }
+            return count == 0;
+        }
+    }
+
+    /***************************************************************
+    *class: SlotById
+    *purpose: Item id to slot, for editItemById and removeItemById.
+    *         A linear-probing table of longs, the id in each entry
+    *         and the slot in a parallel int array, id 0 marking an
+    *         empty entry (ids start at 1). Like HashedSlotIndex it is
+    *         at most half full and removal shifts later entries back.
+    ****************************************************************/
+    private static final class SlotById
+    {
+        private static final int MIN_TABLE = 16;  // smallest table size
+
+        private long[] ids;  // id per entry, 0 where empty
+        private int[] slots;  // slot of the id in the same entry
+        private int size;  // entries in use
+
+        SlotById()
+        {
+            ids = new long[MIN_TABLE];
+            slots = new int[MIN_TABLE];
+        }
+
+        // slot holding the id, or -1
+        int get(long id)
+        {
+            int mask = ids.length - 1;
+            for (int i = home(id, mask); ids[i] != 0; i = (i + 1) & mask)
+            {
+                if (ids[i] == id)
+                {
+                    return slots[i];
+                }
+            }
+            return -1;
+        }
+
+        // adds the id, or moves it to a new slot
+        void put(long id, int slot)
+        {
+            int mask = ids.length - 1;
+            int i = home(id, mask);
+            while (ids[i] != 0 && ids[i] != id)
+            {
+                i = (i + 1) & mask;
+            }
+            if (ids[i] == id)
+            {
+                slots[i] = slot;
+                return;
+            }
+            if ((size + 1) * 2 > ids.length)
+            {
+                long[] oldIds = ids;
+                int[] oldSlots = slots;
+                ids = new long[oldIds.length * 2];
+                slots = new int[oldIds.length * 2];
+                for (int j = 0; j < oldIds.length; j++)
+                {
+                    if (oldIds[j] != 0)
+                    {
+                        insert(oldIds[j], oldSlots[j]);
+                    }
+                }
+            }
+            insert(id, slot);
+            size++;
+        }
+
+        void remove(long id)
+        {
+            int mask = ids.length - 1;
+            int hole = home(id, mask);
+            while (ids[hole] != id)
+            {
+                if (ids[hole] == 0)
+                {
+                    return;
+                }
+                hole = (hole + 1) & mask;
+            }
+
+            // shift back every later entry of the run that may fill the hole
+            for (int i = (hole + 1) & mask; ids[i] != 0; i = (i + 1) & mask)
+            {
+                int home = home(ids[i], mask);
+                if (((i - home) & mask) >= ((i - hole) & mask))
+                {
+                    ids[hole] = ids[i];
+                    slots[hole] = slots[i];
+                    hole = i;
+                }
+            }
+            ids[hole] = 0;
+            size--;
+        }
+
+        private void insert(long id, int slot)
+        {
+            int mask = ids.length - 1;
+            int i = home(id, mask);
+            while (ids[i] != 0)
+            {
+                i = (i + 1) & mask;
+            }
+            ids[i] = id;
+            slots[i] = slot;
+        }
+
+        // first table index to probe for an id
+        private static int home(long id, int mask)
+        {
+            long mixed = id * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32)) & mask;
+        }
+    }
+
+    /***************************************************************
+    *class: RankTree
+    *purpose: Order-statistic treap over the live slots, ranked by
+    *         priority (highest first) and then by item id (oldest
+    *         first). The nodes are the slot numbers themselves: child
+    *         links, subtree sizes and random heap weights are int
+    *         arrays beside the slots, so nothing is allocated per
+    *         item. Insert, remove, rank and select are O(log n)
+    *         expected; insert and remove walk down without changing
+    *         links and only restructure below the node, which is O(1)
+    *         expected. A slot's priority and id must not change while
+    *         it is in the tree; callers take it out and put it back.
+    ****************************************************************/
+    private static final class RankTree
+    {
+        private static final int NIL = -1;  // no node
+
+        private final SlotStore slots;  // where priorities and ids are read
+        private int[] left;  // left child per slot, NIL if none
+        private int[] right;  // right child per slot, NIL if none
+        private int[] size;  // nodes in the subtree under each slot
+        private int[] weight;  // random heap weight per slot, larger nearer the root
+        private int root = NIL;  // top node, NIL when empty
+        private int seed = 0x2545F491;  // xorshift state for the weights
+        private int splitBefore;  // nodes ranked before the key, set by split
+        private int splitAfter;  // the other nodes, set by split
+
+        RankTree(SlotStore slots)
+        {
+            this.slots = slots;
+            int capacity = slots.capacity();
+            left = new int[capacity];
+            right = new int[capacity];
+            size = new int[capacity];
+            weight = new int[capacity];
+        }
+
+        void resize(int capacity)
+        {
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            size = Arrays.copyOf(size, capacity);
+            weight = Arrays.copyOf(weight, capacity);
+        }
+
+        // walks down to where the new weight belongs, then splits only the subtree found there
+        void insert(int slot)
+        {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            weight[slot] = seed;
+            int priority = slots.priority(slot);
+            long id = slots.id(slot);
+
+            int parent = NIL;
+            int node = root;
+            while (node != NIL && weight[node] >= seed)
+            {
+                size[node]++;
+                parent = node;
+                node = before(node, priority, id) ? right[node] : left[node];
+            }
+            split(node, priority, id);
+            left[slot] = splitBefore;
+            right[slot] = splitAfter;
+            size[slot] = 1 + sizeOf(splitBefore) + sizeOf(splitAfter);
+            link(parent, slot, priority, id);
+        }
+
+        // walks down to the slot, then merges its two subtrees in its place
+        void remove(int slot)
+        {
+            int priority = slots.priority(slot);
+            long id = slots.id(slot);
+            int parent = NIL;
+            int node = root;
+            while (node != slot)
+            {
+                size[node]--;
+                parent = node;
+                node = before(node, priority, id) ? right[node] : left[node];
+            }
+            link(parent, merge(left[slot], right[slot]), priority, id);
+        }
+
+        // number of slots ranked before a slot in the tree
+        int rank(int slot)
+        {
+            int priority = slots.priority(slot);
+            long id = slots.id(slot);
+            int rank = 0;
+            int node = root;
+            while (node != slot)
+            {
+                if (before(node, priority, id))
+                {
+                    rank += sizeOf(left[node]) + 1;
+                    node = right[node];
+                }
+                else
+                {
+                    node = left[node];
+                }
+            }
+            return rank + sizeOf(left[slot]);
+        }
+
+        // slot with the given rank, which must be in range
+        int select(int rank)
+        {
+            int node = root;
+            while (true)
+            {
+                int smaller = sizeOf(left[node]);
+                if (rank == smaller)
+                {
+                    return node;
+                }
+                if (rank < smaller)
+                {
+                    node = left[node];
+                }
+                else
+                {
+                    rank -= smaller + 1;
+                    node = right[node];
+                }
+            }
+        }
+
+        // top-ranked slot, or NIL
+        int first()
+        {
+            int node = root;
+            while (node != NIL && left[node] != NIL)
+            {
+                node = left[node];
+            }
+            return node;
+        }
+
+        // first slot ranked after the key, which need not be in the tree, or NIL
+        int firstAfter(int priority, long id)
+        {
+            int found = NIL;
+            int node = root;
+            while (node != NIL)
+            {
+                int nodePriority = slots.priority(node);
+                if (nodePriority < priority || (nodePriority == priority && slots.id(node) > id))
+                {
+                    found = node;
+                    node = left[node];
+                }
+                else
+                {
+                    node = right[node];
+                }
+            }
+            return found;
+        }
+
+        // adds the items of the first n slots in rank order, walking the tree in order
+        void collect(int n, List<WishlistItem> out)
+        {
+            int[] stack = new int[32];
+            int depth = 0;
+            int node = root;
+            while (out.size() < n && (node != NIL || depth > 0))
+            {
+                if (node != NIL)
+                {
+                    if (depth == stack.length)
+                    {
+                        stack = Arrays.copyOf(stack, depth * 2);
+                    }
+                    stack[depth++] = node;
+                    node = left[node];
+                }
+                else
+                {
+                    node = stack[--depth];
+                    out.add(slots.item(node));
+                    node = right[node];
+                }
+            }
+        }
+
+        // follows a compaction: moved holds the new slot of every old one, -1 for holes
+        void renumber(int[] moved)
+        {
+            // new slots are never above old ones, so a forward pass can work in place
+            for (int slot = 0; slot < moved.length; slot++)
+            {
+                int target = moved[slot];
+                if (target >= 0)
+                {
+                    left[target] = left[slot] == NIL ? NIL : moved[left[slot]];
+                    right[target] = right[slot] == NIL ? NIL : moved[right[slot]];
+                    size[target] = size[slot];
+                    weight[target] = weight[slot];
+                }
+            }
+            root = root == NIL ? NIL : moved[root];
+        }
+
+        // puts child under parent (or at the root) on the side the key goes
+        private void link(int parent, int child, int priority, long id)
+        {
+            if (parent == NIL)
+            {
+                root = child;
+            }
+            else if (before(parent, priority, id))
+            {
+                right[parent] = child;
+            }
+            else
+            {
+                left[parent] = child;
+            }
+        }
+
+        // true if the slot ranks before the key
+        private boolean before(int slot, int priority, long id)
+        {
+            int slotPriority = slots.priority(slot);
+            return slotPriority > priority || (slotPriority == priority && slots.id(slot) < id);
+        }
+
+        // splits a subtree into splitBefore and splitAfter around the key
+        private void split(int node, int priority, long id)
+        {
+            if (node == NIL)
+            {
+                splitBefore = NIL;
+                splitAfter = NIL;
+                return;
+            }
+            if (before(node, priority, id))
+            {
+                split(right[node], priority, id);
+                right[node] = splitBefore;
+                splitBefore = node;
+            }
+            else
+            {
+                split(left[node], priority, id);
+                left[node] = splitAfter;
+                splitAfter = node;
+            }
+            size[node] = 1 + sizeOf(left[node]) + sizeOf(right[node]);
+        }
+
+        // joins two subtrees, every node of a ranking before every node of b
+        private int merge(int a, int b)
+        {
+            if (a == NIL)
+            {
+                return b;
+            }
+            if (b == NIL)
+            {
+                return a;
+            }
+            if (weight[a] > weight[b])
+            {
+                right[a] = merge(right[a], b);
+                size[a] = 1 + sizeOf(left[a]) + sizeOf(right[a]);
+                return a;
+            }
+            left[b] = merge(a, left[b]);
+            size[b] = 1 + sizeOf(left[b]) + sizeOf(right[b]);
+            return b;
+        }
+
+        private int sizeOf(int node)
+        {
+            return node == NIL ? 0 : size[node];
+        }
+    }
+
+    /***************************************************************
+    *class: SlotStore
+    *purpose: Where the name and description of each slot are kept.
+    ****************************************************************/
+    private abstract static class SlotStore
+    {
+        abstract int capacity();
+
+        abstract void resize(int capacity);
+
+        abstract boolean isLive(int slot);
+
+        abstract String name(int slot);
+
+        abstract String description(int slot);
+
+        abstract long id(int slot);
+
+        abstract long itemVersion(int slot);
+
+        abstract int priority(int slot);
+
+        // the item in a live slot, as a WishlistItem
+        abstract WishlistItem item(int slot);
+
+        // stores an item in a slot, replacing what was there
+        abstract void set(int slot, long id, long itemVersion, int priority, String itemName, String description);
+
+        abstract void clear(int slot);
+
+        // moves a live slot down to an empty one
+        abstract void move(int from, int to);
+    }
+
+    /***************************************************************
+    *class: ObjectSlots
+    *purpose: STANDARD storage: one WishlistItem per slot, null for an
+    *         empty slot. An edit puts in a new WishlistItem, so an
+    *         item once handed out never changes and snapshots can
+    *         share it.
+    ****************************************************************/
+    private static final class ObjectSlots extends SlotStore
+    {
+        private WishlistItem[] items;  // item per slot, null where empty
+
+        ObjectSlots(int capacity)
+        {
+            items = new WishlistItem[capacity];
+        }
+
+        @Override
+        int capacity()
+        {
+            return items.length;
+        }
+
+        @Override
+        void resize(int capacity)
+        {
+            items = Arrays.copyOf(items, capacity);
+        }
+
+        @Override
+        boolean isLive(int slot)
+        {
+            return items[slot] != null;
+        }
+
+        @Override
+        String name(int slot)
+        {
+            return items[slot].getItemName();
+        }
+
+        @Override
+        String description(int slot)
+        {
+            return items[slot].getDescription();
+        }
+
+        @Override
+        long id(int slot)
+        {
+            return items[slot].getId();
+        }
+
+        @Override
+        long itemVersion(int slot)
+        {
+            return items[slot].getVersion();
+        }
+
+        @Override
+        int priority(int slot)
+        {
+            return items[slot].getPriority();
+        }
+
+        @Override
+        WishlistItem item(int slot)
+        {
+            return items[slot];
+        }
+
+        @Override
+        void set(int slot, long id, long itemVersion, int priority, String itemName, String description)
+        {
+            items[slot] = new WishlistItem(id, itemVersion, itemName, description, priority);
+        }
+
+        @Override
+        void clear(int slot)
+        {
+            items[slot] = null;
+        }
+
+        @Override
+        void move(int from, int to)
+        {
+            if (from != to)
+            {
+                items[to] = items[from];
+                items[from] = null;
+            }
+        }
+    }
+
+    /***************************************************************
+    *class: CodedSlots
+    *purpose: COMPACT storage: two dictionary codes per slot in int
+    *         arrays, EMPTY for an empty slot. Descriptions too long to
+    *         be worth sharing are kept as plain strings in a side
+    *         array, created only when the first one shows up. Item
+    *         ids, versions and priorities sit in arrays beside them.
+    ****************************************************************/
+    private static final class CodedSlots extends SlotStore
+    {
+        private static final int EMPTY = -1;  // name code of an empty slot
+        private static final int UNSHARED = -1;  // description code when the text is in longDescriptions
+
+        private final StringDictionary dictionary = StringDictionary.shared();  // codes to strings
+        private int[] names;  // name code per slot
+        private int[] descriptions;  // description code per slot
+        private String[] longDescriptions;  // unshared descriptions, or null if there are none
+        private long[] ids;  // item id per slot
+        private long[] versions;  // item version per slot
+        private int[] priorities;  // item priority per slot
+
+        CodedSlots(int capacity)
+        {
+            names = new int[capacity];
+            descriptions = new int[capacity];
+            ids = new long[capacity];
+            versions = new long[capacity];
+            priorities = new int[capacity];
+            Arrays.fill(names, EMPTY);
+        }
+
+        @Override
+        int capacity()
+        {
+            return names.length;
+        }
+
+        @Override
+        void resize(int capacity)
+        {
+            int old = names.length;
+            names = Arrays.copyOf(names, capacity);
+            descriptions = Arrays.copyOf(descriptions, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            Arrays.fill(names, old, capacity, EMPTY);
+            if (longDescriptions != null)
+            {
+                longDescriptions = Arrays.copyOf(longDescriptions, capacity);
+            }
+        }
+
+        @Override
+        boolean isLive(int slot)
+        {
+            return names[slot] != EMPTY;
+        }
+
+        @Override
+        String name(int slot)
+        {
+            return dictionary.decode(names[slot]);
+        }
+
+        @Override
+        String description(int slot)
+        {
+            int code = descriptions[slot];
+            return code == UNSHARED ? longDescriptions[slot] : dictionary.decode(code);
+        }
+
+        @Override
+        long id(int slot)
+        {
+            return ids[slot];
+        }
+
+        @Override
+        long itemVersion(int slot)
+        {
+            return versions[slot];
+        }
+
+        @Override
+        int priority(int slot)
+        {
+            return priorities[slot];
+        }
+
+        @Override
+        WishlistItem item(int slot)
+        {
+            return new WishlistItem(ids[slot], versions[slot], name(slot), description(slot), priorities[slot]);
+        }
+
+        @Override
+        void set(int slot, long id, long itemVersion, int priority, String itemName, String description)
+        {
+            // take the new references before giving back the old ones, so an unchanged name is never dropped
+            int name = dictionary.encode(itemName);
+            int shared = StringDictionary.isShareable(description) ? dictionary.encode(description) : UNSHARED;
+            release(slot);
+            ids[slot] = id;
+            versions[slot] = itemVersion;
+            priorities[slot] = priority;
+            names[slot] = name;
+            if (shared != UNSHARED)
+            {
+                descriptions[slot] = shared;
+                if (longDescriptions != null)
+                {
+                    longDescriptions[slot] = null;
+                }
+            }
+            else
+            {
+                if (longDescriptions == null)
+                {
+                    longDescriptions = new String[names.length];
+                }
+                descriptions[slot] = UNSHARED;
+                longDescriptions[slot] = description;
+            }
+        }
+
+        @Override
+        void clear(int slot)
+        {
+            release(slot);
+            names[slot] = EMPTY;
+            if (longDescriptions != null)
+            {
+                longDescriptions[slot] = null;
+            }
+        }
+
+        // gives the slot's dictionary codes back, if it holds an item
+        private void release(int slot)
+        {
+            if (names[slot] == EMPTY)
+            {
+                return;
+            }
+            dictionary.release(names[slot]);
+            if (descriptions[slot] != UNSHARED)
+            {
+                dictionary.release(descriptions[slot]);
+            }
+        }
+
+        // gives back the codes of every slot; the slots are not used after this
+        void releaseAll()
+        {
+            for (int slot = 0; slot < names.length; slot++)
+            {
+                release(slot);
+                names[slot] = EMPTY;
+            }
+        }
+
+        @Override
+        void move(int from, int to)
+        {
+            if (from == to)
+            {
+                return;
+            }
+            names[to] = names[from];
+            descriptions[to] = descriptions[from];
+            ids[to] = ids[from];
+            versions[to] = versions[from];
+            priorities[to] = priorities[from];
+            if (longDescriptions != null)
+            {
+                longDescriptions[to] = longDescriptions[from];
+                longDescriptions[from] = null;
+            }
+            names[from] = EMPTY;  // the codes moved with the item, so nothing is released
+        }
+    }
+
+    /***************************************************************
+    *class: MappedSlots
+    *purpose: MAPPED storage: the record number of each item in a
+    *         WishlistSegmentStore, EMPTY for an empty slot. Records
+    *         are freed as soon as their item is removed or replaced.
+    *         Item ids, versions and priorities are kept in memory, not
+    *         in the records: with the indexes that is about 85 heap
+    *         bytes per item (see the class comment).
+    ****************************************************************/
+    private static final class MappedSlots extends SlotStore
+    {
+        private static final int EMPTY = -1;  // record number of an empty slot
+
+        private final WishlistSegmentStore store;  // where the items live
+        private final int childId;  // the child's id in the store's child directory
+        private int[] records;  // record number per slot
+        private long[] ids;  // item id per slot
+        private long[] versions;  // item version per slot
+        private int[] priorities;  // item priority per slot
+
+        MappedSlots(WishlistSegmentStore store, int childId, int capacity)
+        {
+            this.store = store;
+            this.childId = childId;
+            this.records = new int[capacity];
+            this.ids = new long[capacity];
+            this.versions = new long[capacity];
+            this.priorities = new int[capacity];
+            Arrays.fill(records, EMPTY);
+        }
+
+        @Override
+        int capacity()
+        {
+            return records.length;
+        }
+
+        @Override
+        void resize(int capacity)
+        {
+            int old = records.length;
+            records = Arrays.copyOf(records, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            versions = Arrays.copyOf(versions, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            Arrays.fill(records, old, capacity, EMPTY);
+        }
+
+        @Override
+        boolean isLive(int slot)
+        {
+            return records[slot] != EMPTY;
+        }
+
+        @Override
+        String name(int slot)
+        {
+            return store.readName(records[slot]);
+        }
+
+        @Override
+        String description(int slot)
+        {
+            return store.readDescription(records[slot]);
+        }
+
+        @Override
+        long id(int slot)
+        {
+            return ids[slot];
+        }
+
+        @Override
+        long itemVersion(int slot)
+        {
+            return versions[slot];
+        }
+
+        @Override
+        int priority(int slot)
+        {
+            return priorities[slot];
+        }
+
+        @Override
+        WishlistItem item(int slot)
+        {
+            WishlistItem stored = store.read(records[slot]);
+            return new WishlistItem(ids[slot], versions[slot], stored.getItemName(), stored.getDescription(),
+                    priorities[slot]);
+        }
+
+        @Override
+        void set(int slot, long id, long itemVersion, int priority, String itemName, String description)
+        {
+            ids[slot] = id;
+            versions[slot] = itemVersion;
+            priorities[slot] = priority;
+            int record = records[slot];
+            records[slot] = record == EMPTY ? store.write(childId, itemName, description)
+                    : store.rewrite(record, childId, itemName, description);
+        }
+
+        @Override
+        void clear(int slot)
+        {
+            store.free(records[slot]);
+            records[slot] = EMPTY;
+        }
+
+        @Override
+        void move(int from, int to)
+        {
+            if (from != to)
+            {
+                records[to] = records[from];
+                records[from] = EMPTY;
+                ids[to] = ids[from];
+                versions[to] = versions[from];
+                priorities[to] = priorities[from];
+            }
+        }
+    }
+
+    /***************************************************************
+    *class: ItemsView
+    *purpose: Read-only list over the live items. Positional access
+    *         goes through the Fenwick tree; iteration walks the
+    *         slots directly and skips holes.
+    ****************************************************************/
+    private class ItemsView extends AbstractList<WishlistItem> implements RandomAccess
+    {
+        @Override
+        public WishlistItem get(int index)
+        {
+            synchronized (Wishlist.this)
+            {
+                if (index < 0 || index >= live)
+                {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + live);
+                }
+                return slots.item(slotAt(index));
+            }
+        }
+
+        @Override
+        public int size()
+        {
+            synchronized (Wishlist.this)
+            {
+                return live;
+            }
+        }
+
+        @Override
+        public Iterator<WishlistItem> iterator()
+        {
+            return new Iterator<WishlistItem>()
+            {
+                private int slot = advance(0);  // next live slot to return
+
+                private int advance(int from)
+                {
+                    synchronized (Wishlist.this)
+                    {
+                        while (from < used && !slots.isLive(from))
+                        {
+                            from++;
+                        }
+                        return from;
+                    }
+                }
+
+                @Override
+                public boolean hasNext()
+                {
+                    synchronized (Wishlist.this)
+                    {
+                        return slot < used;
+                    }
+                }
+
+                @Override
+                public WishlistItem next()
+                {
+                    synchronized (Wishlist.this)
+                    {
+                        slot = advance(slot);  // the slot may have been emptied since hasNext
+                        if (slot >= used)
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        WishlistItem item = slots.item(slot);
+                        slot = advance(slot + 1);
+                        return item;
+                    }
+                }
+            };
         }
-        
-        return wishlistString.toString();
     }
 }
\ No newline at end of file
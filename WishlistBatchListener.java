@@ -0,0 +1,24 @@
+/***************************************************************
+*file: WishlistBatchListener.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This interface receives wishlist change events in
+*         batches from an AsyncWishlistListener, on its delivery
+*         thread. Events for one child keep their order.
+*
+****************************************************************/
+
+import java.util.List;
+
+public interface WishlistBatchListener
+{
+    /***************************************************************
+    *function: wishlistsChanged
+    *purpose: Called with every event collected since the last call.
+    ****************************************************************/
+    void wishlistsChanged(List<WishlistEvent> events);
+}
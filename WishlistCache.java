@@ -0,0 +1,795 @@
+/***************************************************************
+*file: WishlistCache.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is the registry of wishlists behind
+*         SantaWishlistApp. It keeps at most a set number of
+*         wishlists in memory. When more are in use, the coldest
+*         one is written to a spill file on disk and dropped, and it
+*         is read back the next time the child is looked up. Loads
+*         of the same child are de-duplicated, so when several
+*         sessions ask for a cold child at once, one of them reads
+*         the file and the others wait for it.
+*
+*         Eviction follows the CLOCK approximation of LRU: each
+*         wishlist in memory has a "used" bit that every lookup
+*         sets, and the clock hand passes over wishlists in the
+*         order they came in, clearing the bit of the ones used
+*         since its last pass and evicting the first it finds
+*         unused. A lookup writes one boolean and takes no lock.
+*
+*         Evicting a wishlist does not invalidate it. A session may
+*         still hold it (the GUI's list model does), so evicted
+*         wishlists are remembered through weak references: while
+*         anyone can still reach one, lookups hand out that same
+*         object instead of reading the file, and a change made to
+*         it puts it straight back in memory (SantaWishlistApp
+*         calls touched from its change forwarder). Each child
+*         therefore has a single live Wishlist at any time, and no
+*         change can be made to a copy that is about to be dropped.
+*
+*         Spill files hold one WishlistCodec record with each
+*         wishlist's items, version and journal position, so
+*         versions keep growing across an eviction. They are
+*         scratch space, deleted when the cache is opened; the
+*         snapshot and journal of WishlistPersistence stay the
+*         durable copy.
+*
+*         A cache without a spill directory never evicts and is the
+*         plain unbounded registry the app always had.
+****************************************************************/
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+public class WishlistCache
+{
+    private static final String SPILL_SUFFIX = ".wishlist";
+
+    private final int capacity;  // most wishlists kept in memory
+    private final Path directory;  // where evicted wishlists are spilled, or null to never evict
+    private final Function<String, Wishlist> factory;  // makes an empty wishlist for a child being reloaded
+    private final WishlistListener forwarder;  // the app's listener, added to every reloaded wishlist
+
+    private final Map<String, Entry> resident;  // wishlists in memory
+    private final Map<String, Spilled> spilled;  // wishlists whose latest state is in a spill file
+    private final Map<String, Detached> detached;  // evicted wishlists that may still be in use
+    private final ReferenceQueue<Wishlist> collected;  // detached wishlists the garbage collector dropped
+    private final Map<String, CompletableFuture<Wishlist>> loading;  // loads in progress, one per child
+    private final Deque<Entry> clock;  // resident wishlists in the order the clock hand visits them
+    private final ReentrantLock evicting;  // held by the one thread evicting at a time
+    private final AtomicLong nextFile;  // numbers the spill files
+
+    private final LongAdder hits = new LongAdder();  // lookups found in memory
+    private final LongAdder misses = new LongAdder();  // lookups that were not
+    private final LongAdder loads = new LongAdder();  // spill files read back
+    private final LongAdder loadNanos = new LongAdder();  // time spent reading them
+    private final LongAdder evictions = new LongAdder();  // wishlists written out and dropped
+    private final LongAdder spillFailures = new LongAdder();  // evictions that could not be written
+
+    /***************************************************************
+    *class: Entry
+    *purpose: A wishlist in memory with its CLOCK "used" bit.
+    ****************************************************************/
+    private static final class Entry
+    {
+        final Wishlist wishlist;  // the child's wishlist
+        volatile boolean used = true;  // looked up since the clock hand last passed
+
+        Entry(Wishlist wishlist)
+        {
+            this.wishlist = wishlist;
+        }
+    }
+
+    /***************************************************************
+    *class: Spilled
+    *purpose: Where an evicted wishlist was written and how many
+    *         items it had.
+    ****************************************************************/
+    private static final class Spilled
+    {
+        final Path file;  // the spill file
+        final int size;  // items in the wishlist
+
+        Spilled(Path file, int size)
+        {
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    /***************************************************************
+    *class: Detached
+    *purpose: Weak reference to an evicted wishlist, remembering the
+    *         child so it can be forgotten once the wishlist is gone.
+    ****************************************************************/
+    private static final class Detached extends WeakReference<Wishlist>
+    {
+        final String childName;  // whose wishlist it was
+
+        Detached(Wishlist wishlist, ReferenceQueue<Wishlist> queue)
+        {
+            super(wishlist, queue);
+            this.childName = wishlist.getChildName();
+        }
+    }
+
+    /***************************************************************
+    *class: Stats
+    *purpose: The cache's counters at one moment.
+    ****************************************************************/
+    public static final class Stats
+    {
+        private final int resident;  // wishlists in memory
+        private final int spilled;  // wishlists on disk
+        private final long hits;  // lookups found in memory
+        private final long misses;  // lookups that were not
+        private final long loads;  // spill files read back
+        private final long loadNanos;  // time spent reading them
+        private final long evictions;  // wishlists written out
+        private final long spillFailures;  // evictions that failed
+
+        Stats(int resident, int spilled, long hits, long misses, long loads, long loadNanos, long evictions,
+                long spillFailures)
+        {
+            this.resident = resident;
+            this.spilled = spilled;
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.loadNanos = loadNanos;
+            this.evictions = evictions;
+            this.spillFailures = spillFailures;
+        }
+
+        public int getResidentCount()
+        {
+            return resident;
+        }
+
+        public int getSpilledCount()
+        {
+            return spilled;
+        }
+
+        public long getHitCount()
+        {
+            return hits;
+        }
+
+        public long getMissCount()
+        {
+            return misses;
+        }
+
+        public double getHitRate()
+        {
+            long lookups = hits + misses;
+            return lookups == 0 ? 1 : hits / (double) lookups;
+        }
+
+        public long getLoadCount()
+        {
+            return loads;
+        }
+
+        public double getAverageLoadMillis()
+        {
+            return loads == 0 ? 0 : loadNanos / 1e6 / loads;
+        }
+
+        public long getEvictionCount()
+        {
+            return evictions;
+        }
+
+        public long getSpillFailureCount()
+        {
+            return spillFailures;
+        }
+
+        /***************************************************************
+        *function: toString
+        *purpose: One-line summary of the counters.
+        ****************************************************************/
+        @Override
+        public String toString()
+        {
+            return String.format("resident=%d, spilled=%d, hits=%d, misses=%d, hitRate=%.3f, loads=%d, "
+                    + "avgLoad=%.3fms, evictions=%d, spillFailures=%d", resident, spilled, hits, misses,
+                    getHitRate(), loads, getAverageLoadMillis(), evictions, spillFailures);
+        }
+    }
+
+    /***************************************************************
+    *function: WishlistCache
+    *purpose: Private constructor, use unbounded or open.
+    ****************************************************************/
+    private WishlistCache(int capacity, Path directory, Function<String, Wishlist> factory,
+            WishlistListener forwarder)
+    {
+        this.capacity = capacity;
+        this.directory = directory;
+        this.factory = factory;
+        this.forwarder = forwarder;
+        resident = new ConcurrentHashMap<>();
+        spilled = new ConcurrentHashMap<>();
+        detached = new ConcurrentHashMap<>();
+        collected = new ReferenceQueue<>();
+        loading = new ConcurrentHashMap<>();
+        clock = new ArrayDeque<>();
+        evicting = new ReentrantLock();
+        nextFile = new AtomicLong();
+    }
+
+    /***************************************************************
+    *function: unbounded
+    *purpose: Returns a registry that keeps every wishlist in memory.
+    ****************************************************************/
+    public static WishlistCache unbounded()
+    {
+        return new WishlistCache(Integer.MAX_VALUE, null, null, null);
+    }
+
+    /***************************************************************
+    *function: open
+    *purpose: Returns a cache that keeps at most capacity wishlists in
+    *         memory and spills the rest to the directory, deleting
+    *         spill files left over from an earlier run. Reloaded
+    *         wishlists are made by the factory, refilled, and given
+    *         the forwarder as their listener.
+    ****************************************************************/
+    public static WishlistCache open(int capacity, Path directory, Function<String, Wishlist> factory,
+            WishlistListener forwarder) throws IOException
+    {
+        if (capacity < 1)
+        {
+            throw new IllegalArgumentException("Invalid cache settings.");
+        }
+        Files.createDirectories(directory);
+        try (var files = Files.newDirectoryStream(directory, "*" + SPILL_SUFFIX))
+        {
+            for (Path file : files)
+            {
+                Files.delete(file);
+            }
+        }
+        return new WishlistCache(capacity, directory, factory, forwarder);
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    /***************************************************************
+    *function: get
+    *purpose: Returns the child's wishlist, reading it back from its
+    *         spill file if it was evicted, or null if the child has
+    *         none.
+    ****************************************************************/
+    public Wishlist get(String childName)
+    {
+        Entry entry = resident.get(childName);
+        if (entry != null)
+        {
+            hit(entry);
+            return entry.wishlist;
+        }
+        if (directory == null)
+        {
+            return null;
+        }
+        misses.increment();
+        Wishlist wishlist = find(childName, null);
+        if (wishlist != null)
+        {
+            admit(wishlist);
+            evictIfNeeded();
+        }
+        return wishlist;
+    }
+
+    /***************************************************************
+    *function: computeIfAbsent
+    *purpose: Returns the child's wishlist, calling create to make one
+    *         if the child has none in memory or on disk. create runs
+    *         at most once per child, while other lookups of that
+    *         child wait.
+    ****************************************************************/
+    public Wishlist computeIfAbsent(String childName, Function<String, Wishlist> create)
+    {
+        Entry entry = resident.get(childName);
+        if (entry != null)
+        {
+            hit(entry);
+            return entry.wishlist;
+        }
+        if (directory == null)
+        {
+            return resident.computeIfAbsent(childName, name -> new Entry(create.apply(name))).wishlist;
+        }
+        misses.increment();
+        Wishlist wishlist = find(childName, create);
+        admit(wishlist);
+        evictIfNeeded();
+        return wishlist;
+    }
+
+    /***************************************************************
+    *function: values
+    *purpose: Returns every child's wishlist. Spilled wishlists are
+    *         read back one at a time as the iteration reaches them,
+    *         without being put back in memory, so walking every
+    *         child does not flush the cache. The view is safe to
+    *         iterate while other sessions make changes.
+    ****************************************************************/
+    public Collection<Wishlist> values()
+    {
+        if (directory == null)
+        {
+            return new AbstractCollection<Wishlist>()
+            {
+                @Override
+                public Iterator<Wishlist> iterator()
+                {
+                    Iterator<Entry> entries = resident.values().iterator();
+                    return new Iterator<Wishlist>()
+                    {
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return entries.hasNext();
+                        }
+
+                        @Override
+                        public Wishlist next()
+                        {
+                            return entries.next().wishlist;
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return resident.size();
+                }
+            };
+        }
+
+        return new AbstractCollection<Wishlist>()
+        {
+            @Override
+            public Iterator<Wishlist> iterator()
+            {
+                Set<String> names = new LinkedHashSet<>(resident.keySet());
+                names.addAll(spilled.keySet());
+                Iterator<String> remaining = names.iterator();
+                return new Iterator<Wishlist>()
+                {
+                    private Wishlist next;  // found ahead by hasNext
+
+                    @Override
+                    public boolean hasNext()
+                    {
+                        while (next == null && remaining.hasNext())
+                        {
+                            next = find(remaining.next(), null);
+                        }
+                        return next != null;
+                    }
+
+                    @Override
+                    public Wishlist next()
+                    {
+                        if (!hasNext())
+                        {
+                            throw new NoSuchElementException();
+                        }
+                        Wishlist result = next;
+                        next = null;
+                        return result;
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                Set<String> names = new LinkedHashSet<>(resident.keySet());
+                names.addAll(spilled.keySet());
+                return names.size();
+            }
+        };
+    }
+
+    /***************************************************************
+    *function: forEachSize
+    *purpose: Reports the item count of every child's wishlist,
+    *         taking the count of a spilled one from when it was
+    *         written, so no file is read.
+    ****************************************************************/
+    public void forEachSize(IntConsumer sizes)
+    {
+        for (Entry entry : resident.values())
+        {
+            sizes.accept(entry.wishlist.getItems().size());
+        }
+        for (Map.Entry<String, Spilled> entry : spilled.entrySet())
+        {
+            if (!resident.containsKey(entry.getKey()))
+            {
+                sizes.accept(entry.getValue().size);
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: touched
+    *purpose: Called while a child's wishlist is locked and has just
+    *         changed. If it had been evicted, it goes back in memory
+    *         and its spill file, now out of date, is dropped. Returns
+    *         the wishlist, or null if it is not known here.
+    ****************************************************************/
+    public Wishlist touched(String childName)
+    {
+        Entry entry = resident.get(childName);
+        if (directory == null)
+        {
+            return entry == null ? null : entry.wishlist;
+        }
+        if (entry != null)
+        {
+            hit(entry);
+            return entry.wishlist;
+        }
+        Detached reference = detached.get(childName);
+        Wishlist wishlist = reference == null ? null : reference.get();
+        if (wishlist != null)
+        {
+            admit(wishlist);
+        }
+        return wishlist;
+    }
+
+    /***************************************************************
+    *function: clear
+    *purpose: Forgets every wishlist and deletes the spill files.
+    *         Only used while restoring saved state.
+    ****************************************************************/
+    public void clear()
+    {
+        resident.clear();
+        detached.clear();
+        synchronized (clock)
+        {
+            clock.clear();
+        }
+        for (String childName : new ArrayList<>(spilled.keySet()))
+        {
+            deleteSpill(spilled.remove(childName));
+        }
+    }
+
+    /***************************************************************
+    *function: getStats
+    *purpose: Returns the hit, miss, load and eviction counters.
+    ****************************************************************/
+    public Stats getStats()
+    {
+        int onDisk = 0;
+        for (String childName : spilled.keySet())
+        {
+            if (!resident.containsKey(childName))
+            {
+                onDisk++;
+            }
+        }
+        return new Stats(resident.size(), onDisk, hits.sum(), misses.sum(), loads.sum(), loadNanos.sum(),
+                evictions.sum(), spillFailures.sum());
+    }
+
+    // counts a hit and sets the entry's used bit, writing only when it was clear; free when never evicting
+    private void hit(Entry entry)
+    {
+        if (directory == null)
+        {
+            return;
+        }
+        hits.increment();
+        if (!entry.used)
+        {
+            entry.used = true;
+        }
+    }
+
+    /***************************************************************
+    *function: find
+    *purpose: Returns the child's single live wishlist: the one in
+    *         memory, an evicted one still in use, one read back from
+    *         its spill file, or a new one from create. Only one
+    *         thread per child gets past the first checks; the others
+    *         wait for its answer. A wishlist read back here is not in
+    *         memory yet and is remembered as detached.
+    ****************************************************************/
+    private Wishlist find(String childName, Function<String, Wishlist> create)
+    {
+        while (true)
+        {
+            Wishlist found = findLive(childName);
+            if (found != null)
+            {
+                return found;
+            }
+
+            CompletableFuture<Wishlist> mine = new CompletableFuture<>();
+            CompletableFuture<Wishlist> other = loading.putIfAbsent(childName, mine);
+            if (other != null)
+            {
+                // someone else is loading this child; use their answer unless we must create it
+                Wishlist theirs = other.join();
+                if (theirs != null || create == null)
+                {
+                    return theirs;
+                }
+                continue;
+            }
+
+            try
+            {
+                found = findLive(childName);
+                if (found == null && spilled.containsKey(childName))
+                {
+                    found = load(childName);
+                }
+                if (found == null && create != null)
+                {
+                    found = create.apply(childName);
+                    detached.put(childName, new Detached(found, collected));
+                }
+                mine.complete(found);
+                return found;
+            }
+            catch (RuntimeException e)
+            {
+                mine.completeExceptionally(e);
+                throw e;
+            }
+            finally
+            {
+                loading.remove(childName, mine);
+            }
+        }
+    }
+
+    // the wishlist in memory or an evicted one still reachable, or null
+    private Wishlist findLive(String childName)
+    {
+        expungeCollected();
+        Entry entry = resident.get(childName);
+        if (entry != null)
+        {
+            return entry.wishlist;
+        }
+        Detached reference = detached.get(childName);
+        return reference == null ? null : reference.get();
+    }
+
+    /***************************************************************
+    *function: load
+    *purpose: Reads a spilled wishlist back into a new Wishlist. Only
+    *         called when no live wishlist exists for the child, so
+    *         the file cannot change meanwhile.
+    ****************************************************************/
+    private Wishlist load(String childName)
+    {
+        Spilled spill = spilled.get(childName);
+        long start = System.nanoTime();
+        try
+        {
+            WishlistCodec.Decoder in = new WishlistCodec.Decoder(ByteBuffer.wrap(Files.readAllBytes(spill.file)));
+            if (!in.next() || !childName.equals(in.getChildName()))
+            {
+                throw new IOException("not the spill file of " + childName);
+            }
+            long version = in.getVersion();
+            long journalSeq = in.getJournalSeq();
+            long nextItemId = in.getNextItemId();
+            List<WishlistItem> items = in.readItems();
+
+            Wishlist wishlist = factory.apply(childName);
+            wishlist.restore(items, version, journalSeq, nextItemId);
+            wishlist.addListener(forwarder);
+            detached.put(childName, new Detached(wishlist, collected));
+            loads.increment();
+            loadNanos.add(System.nanoTime() - start);
+            return wishlist;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Could not load the wishlist of " + childName, e);
+        }
+    }
+
+    /***************************************************************
+    *function: admit
+    *purpose: Puts a live wishlist back in memory, under its lock so
+    *         it cannot be evicted halfway, and drops its spill file.
+    ****************************************************************/
+    private void admit(Wishlist wishlist)
+    {
+        String childName = wishlist.getChildName();
+        synchronized (wishlist)
+        {
+            if (resident.containsKey(childName))
+            {
+                return;
+            }
+            Entry entry = new Entry(wishlist);
+            resident.put(childName, entry);
+            synchronized (clock)
+            {
+                clock.addLast(entry);
+            }
+            detached.remove(childName);
+            deleteSpill(spilled.remove(childName));
+        }
+    }
+
+    /***************************************************************
+    *function: evictIfNeeded
+    *purpose: Evicts wishlists while there are more in memory than the
+    *         capacity. One thread evicts at a time; the others carry
+    *         on. Must not be called while holding a wishlist's lock.
+    ****************************************************************/
+    private void evictIfNeeded()
+    {
+        while (resident.size() > capacity && evicting.tryLock())
+        {
+            try
+            {
+                while (resident.size() > capacity)
+                {
+                    Entry victim = nextVictim();
+                    if (victim == null)
+                    {
+                        return;
+                    }
+                    evict(victim);
+                }
+            }
+            finally
+            {
+                evicting.unlock();
+            }
+        }
+    }
+
+    // moves the clock hand to the first unused entry still in memory, giving used ones a second chance
+    private Entry nextVictim()
+    {
+        synchronized (clock)
+        {
+            for (int passes = 2 * clock.size() + 1; passes > 0 && !clock.isEmpty(); passes--)
+            {
+                Entry entry = clock.pollFirst();
+                if (resident.get(entry.wishlist.getChildName()) != entry)
+                {
+                    continue;
+                }
+                if (entry.used)
+                {
+                    entry.used = false;
+                    clock.addLast(entry);
+                    continue;
+                }
+                return entry;
+            }
+            return null;
+        }
+    }
+
+    /***************************************************************
+    *function: evict
+    *purpose: Writes the wishlist to a new spill file and drops it
+    *         from memory, all under its lock. It is remembered as
+    *         detached before it leaves memory, so a lookup always
+    *         finds it in one place or the other. If the file cannot
+    *         be written the wishlist stays in memory.
+    ****************************************************************/
+    private void evict(Entry victim)
+    {
+        Wishlist wishlist = victim.wishlist;
+        String childName = wishlist.getChildName();
+        synchronized (wishlist)
+        {
+            if (resident.get(childName) != victim)
+            {
+                return;
+            }
+            Path file = directory.resolve(nextFile.incrementAndGet() + SPILL_SUFFIX);
+            try
+            {
+                int itemCount = wishlist.getItems().size();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                        WishlistCodec.Encoder out = new WishlistCodec.Encoder(channel, false))
+                {
+                    out.write(wishlist);
+                }
+                deleteSpill(spilled.put(childName, new Spilled(file, itemCount)));
+            }
+            catch (IOException e)
+            {
+                spillFailures.increment();
+                victim.used = true;
+                synchronized (clock)
+                {
+                    clock.addLast(victim);
+                }
+                System.out.println("Could not spill the wishlist of " + childName + ": " + e.getMessage());
+                return;
+            }
+            detached.put(childName, new Detached(wishlist, collected));
+            resident.remove(childName, victim);
+            evictions.increment();
+        }
+    }
+
+    // forgets evicted wishlists the garbage collector has dropped; their spill files are now the only copy
+    private void expungeCollected()
+    {
+        Detached reference;
+        while ((reference = (Detached) collected.poll()) != null)
+        {
+            detached.remove(reference.childName, reference);
+        }
+    }
+
+    private void deleteSpill(Spilled spill)
+    {
+        if (spill == null)
+        {
+            return;
+        }
+        try
+        {
+            Files.deleteIfExists(spill.file);
+        }
+        catch (IOException e)
+        {
+            System.out.println("Could not delete spill file " + spill.file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,606 @@
+/***************************************************************
+*file: WishlistCodec.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is the binary format for wishlists, shared by
+*         the snapshots of WishlistPersistence, the spill files of
+*         WishlistCache and anything else that needs to move
+*         wishlists around quickly. Unlike the text export it is
+*         compact, fast to parse and round-trips exactly.
+*
+*         A stream starts with a header (magic "SWBC", the schema
+*         version and flags) followed by blocks. Each block starts
+*         with its raw length, stored length and CRC32C, and holds
+*         whole records; a block of length 0 ends the stream, so a
+*         cut-off file is noticed. With compression on, blocks are
+*         deflated, unless that would not make them smaller.
+*
+*         A record is one wishlist: its length, the child's name,
+*         version, journal position, next item id and item count,
+*         then the id, version, priority, name and description of
+*         every item. Strings are UTF-8 with a varint length in
+*         front; numbers are varints. Streams of any other schema
+*         version are refused.
+*
+*         Encoder streams records through one block buffer to a
+*         channel. Decoder reads records in place from a ByteBuffer
+*         or a memory-mapped file: nothing is copied until a string
+*         is asked for, and the items of a record that is not read
+*         are skipped by its length.
+****************************************************************/
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public final class WishlistCodec
+{
+    public static final int VERSION = 3;  // schema version written in every header
+    private static final int MAGIC = 0x53574243;  // "SWBC"
+    private static final int FLAG_DEFLATE = 1;  // blocks may be deflated
+    private static final int HEADER_BYTES = 6;  // magic, version and flags
+    private static final int BLOCK_HEADER_BYTES = 12;  // raw length, stored length and CRC32C
+    private static final int BLOCK_SIZE = 64 * 1024;  // records gathered before a block is written
+
+    private WishlistCodec()
+    {
+    }
+
+    /***************************************************************
+    *class: Encoder
+    *purpose: Writes records to a channel, a block at a time. A
+    *         record is never split between blocks, so a block can
+    *         be larger than BLOCK_SIZE when one wishlist is.
+    ****************************************************************/
+    public static final class Encoder implements AutoCloseable
+    {
+        private final WritableByteChannel channel;  // where blocks go
+        private final Deflater deflater;  // compresses blocks, or null
+        private final CRC32C crc = new CRC32C();  // checksum of each raw block
+        private ByteBuffer block;  // records of the block being filled
+        private ByteBuffer stored;  // deflated block waiting to be written
+        private boolean finished;  // true once the end of the stream is written
+
+        /***************************************************************
+        *function: Encoder
+        *purpose: Constructor that writes the header. The channel is
+        *         not closed by the encoder.
+        ****************************************************************/
+        public Encoder(WritableByteChannel channel, boolean compress) throws IOException
+        {
+            this.channel = channel;
+            this.deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+            this.block = ByteBuffer.allocate(BLOCK_SIZE + BLOCK_SIZE / 4);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAGIC).put((byte) VERSION).put((byte) (compress ? FLAG_DEFLATE : 0)).flip();
+            writeFully(header);
+        }
+
+        /***************************************************************
+        *function: write
+        *purpose: Adds one wishlist as it is now. Its lock is held only
+        *         while the record is put in the block buffer.
+        ****************************************************************/
+        public void write(Wishlist wishlist) throws IOException
+        {
+            synchronized (wishlist)
+            {
+                putRecord(wishlist.getChildName(), wishlist.getVersion(), wishlist.journalSeq,
+                        wishlist.getNextItemId(), wishlist.getItems());
+            }
+            flushIfFull();
+        }
+
+        /***************************************************************
+        *function: write
+        *purpose: Adds one wishlist snapshot, with no journal position.
+        ****************************************************************/
+        public void write(WishlistSnapshot wishlist) throws IOException
+        {
+            write(wishlist.getChildName(), wishlist.getVersion(), -1, wishlist.getItems());
+        }
+
+        /***************************************************************
+        *function: write
+        *purpose: Adds one wishlist given by its parts. The next item
+        *         id saved is one past the largest item id.
+        ****************************************************************/
+        public void write(String childName, long version, long journalSeq, List<WishlistItem> items)
+                throws IOException
+        {
+            long nextItemId = 0;
+            for (WishlistItem item : items)
+            {
+                nextItemId = Math.max(nextItemId, item.getId() + 1);
+            }
+            putRecord(childName, version, journalSeq, nextItemId, items);
+            flushIfFull();
+        }
+
+        /***************************************************************
+        *function: finish
+        *purpose: Writes the last block and the end of the stream.
+        *         Nothing can be written after it.
+        ****************************************************************/
+        public void finish() throws IOException
+        {
+            if (finished)
+            {
+                return;
+            }
+            flushBlock();
+            writeFully(ByteBuffer.allocate(BLOCK_HEADER_BYTES));
+            finished = true;
+        }
+
+        /***************************************************************
+        *function: close
+        *purpose: Finishes the stream if needed and frees the deflater.
+        ****************************************************************/
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                finish();
+            }
+            finally
+            {
+                if (deflater != null)
+                {
+                    deflater.end();
+                }
+            }
+        }
+
+        // puts one record in the block buffer, its length filled in at the end
+        private void putRecord(String childName, long version, long journalSeq, long nextItemId,
+                List<WishlistItem> items)
+        {
+            if (finished)
+            {
+                throw new IllegalStateException("Encoder already finished.");
+            }
+            int start = block.position();
+            ensure(4);
+            block.putInt(0);
+            putString(childName);
+            putVarLong(version);
+            putVarLong((journalSeq << 1) ^ (journalSeq >> 63));  // zigzag, as -1 means none
+            putVarLong(nextItemId);
+            putVarLong(items.size());
+            for (WishlistItem item : items)
+            {
+                putVarLong(item.getId());
+                putVarLong(item.getVersion());
+                int priority = item.getPriority();
+                putVarLong(((priority << 1) ^ (priority >> 31)) & 0xFFFFFFFFL);  // zigzag
+                putString(item.getItemName());
+                putString(item.getDescription());
+            }
+            block.putInt(start, block.position() - start - 4);
+        }
+
+        private void putString(String value)
+        {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(5 + bytes.length);
+            putVarLong(bytes.length);
+            block.put(bytes);
+        }
+
+        private void putVarLong(long value)
+        {
+            ensure(10);
+            while ((value & ~0x7FL) != 0)
+            {
+                block.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            block.put((byte) value);
+        }
+
+        // grows the block buffer so one more piece of a large record fits
+        private void ensure(int bytes)
+        {
+            if (block.remaining() < bytes)
+            {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(block.capacity() * 2, block.position() + bytes));
+                block.flip();
+                block = larger.put(block);
+            }
+        }
+
+        private void flushIfFull() throws IOException
+        {
+            if (block.position() >= BLOCK_SIZE)
+            {
+                flushBlock();
+            }
+        }
+
+        // writes the records gathered so far as one block, deflated if that makes it smaller
+        private void flushBlock() throws IOException
+        {
+            if (block.position() == 0)
+            {
+                return;
+            }
+            block.flip();
+            int rawLength = block.remaining();
+            crc.reset();
+            crc.update(block.duplicate());
+
+            ByteBuffer payload = block;
+            if (deflater != null)
+            {
+                if (stored == null || stored.capacity() < rawLength)
+                {
+                    stored = ByteBuffer.allocate(rawLength);
+                }
+                stored.clear();
+                deflater.reset();
+                deflater.setInput(block.duplicate());
+                deflater.finish();
+                while (!deflater.finished() && stored.hasRemaining())
+                {
+                    deflater.deflate(stored);
+                }
+                if (deflater.finished() && stored.position() < rawLength)
+                {
+                    payload = stored.flip();
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+            header.putInt(rawLength).putInt(payload.remaining()).putInt((int) crc.getValue()).flip();
+            writeFully(header);
+            writeFully(payload);
+            if (block.capacity() > 4 * BLOCK_SIZE)
+            {
+                block = ByteBuffer.allocate(BLOCK_SIZE + BLOCK_SIZE / 4);  // let one huge record's buffer go
+            }
+            block.clear();
+        }
+
+        private void writeFully(ByteBuffer buffer) throws IOException
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /***************************************************************
+    *class: Decoder
+    *purpose: Reads records one at a time from encoded bytes. next
+    *         moves to the next record and reads its child name,
+    *         version, journal position, next item id and item count;
+    *         readItems decodes its items if they are wanted.
+    ****************************************************************/
+    public static final class Decoder
+    {
+        private final ByteBuffer source;  // the encoded stream, at the next block
+        private final Inflater inflater;  // for deflated blocks, or null
+        private final CRC32C crc = new CRC32C();  // checks each block
+        private ByteBuffer block;  // the current block: a slice of source, or inflated
+        private ByteBuffer inflated;  // reused buffer for deflated blocks
+        private byte[] scratch = new byte[256];  // string bytes from buffers without an array
+        private int recordEnd;  // where the current record ends in the block
+        private boolean ended;  // true once the end of the stream was read
+
+        private String childName;  // current record's child
+        private long version;  // current record's version
+        private long journalSeq;  // current record's journal position, or -1
+        private long nextItemId;  // current record's next item id
+        private int itemCount;  // current record's items
+        private boolean itemsRead;  // true once readItems was called for the current record
+
+        /***************************************************************
+        *function: Decoder
+        *purpose: Constructor that checks the header at the buffer's
+        *         position. The buffer is not changed.
+        ****************************************************************/
+        public Decoder(ByteBuffer source) throws IOException
+        {
+            this.source = source.slice();
+            if (this.source.remaining() < HEADER_BYTES || this.source.getInt() != MAGIC)
+            {
+                throw new IOException("not a wishlist stream");
+            }
+            int version = this.source.get();
+            if (version != VERSION)
+            {
+                throw new IOException("unsupported wishlist stream version " + version);
+            }
+            int flags = this.source.get();
+            this.inflater = (flags & FLAG_DEFLATE) != 0 ? new Inflater() : null;
+        }
+
+        /***************************************************************
+        *function: open
+        *purpose: Maps a file read-only and returns a decoder over it.
+        *         The mapping is released when the decoder is garbage.
+        ****************************************************************/
+        public static Decoder open(Path file) throws IOException
+        {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+            {
+                return new Decoder(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        /***************************************************************
+        *function: next
+        *purpose: Moves to the next record. Returns false at the end of
+        *         the stream. Throws IOException if the data is cut off
+        *         or damaged.
+        ****************************************************************/
+        public boolean next() throws IOException
+        {
+            try
+            {
+                if (block != null)
+                {
+                    block.position(recordEnd);
+                }
+                while (block == null || !block.hasRemaining())
+                {
+                    if (ended || !nextBlock())
+                    {
+                        return false;
+                    }
+                }
+                int length = block.getInt();
+                if (length < 0 || length > block.remaining())
+                {
+                    throw new IOException("damaged wishlist record");
+                }
+                recordEnd = block.position() + length;
+                childName = getString();
+                version = getVarLong();
+                long zigzag = getVarLong();
+                journalSeq = (zigzag >>> 1) ^ -(zigzag & 1);
+                nextItemId = getVarLong();
+                long count = getVarLong();
+                if (count < 0 || count > length)
+                {
+                    throw new IOException("damaged wishlist record");
+                }
+                itemCount = (int) count;
+                itemsRead = false;
+                return true;
+            }
+            catch (BufferUnderflowException | IllegalArgumentException e)
+            {
+                throw new IOException("damaged wishlist record", e);
+            }
+        }
+
+        public String getChildName()
+        {
+            return childName;
+        }
+
+        public long getVersion()
+        {
+            return version;
+        }
+
+        public long getJournalSeq()
+        {
+            return journalSeq;
+        }
+
+        public long getNextItemId()
+        {
+            return nextItemId;
+        }
+
+        public int getItemCount()
+        {
+            return itemCount;
+        }
+
+        /***************************************************************
+        *function: readItems
+        *purpose: Decodes the items of the current record. Can be
+        *         called once per record.
+        ****************************************************************/
+        public List<WishlistItem> readItems() throws IOException
+        {
+            if (itemsRead)
+            {
+                throw new IllegalStateException("Items already read.");
+            }
+            itemsRead = true;
+            try
+            {
+                List<WishlistItem> items = new ArrayList<>(itemCount);
+                for (int i = 0; i < itemCount; i++)
+                {
+                    long id = getVarLong();
+                    long itemVersion = getVarLong();
+                    int zigzag = (int) getVarLong();
+                    int priority = (zigzag >>> 1) ^ -(zigzag & 1);
+                    items.add(new WishlistItem(id, itemVersion, getString(), getString(), priority));
+                }
+                if (block.position() != recordEnd)
+                {
+                    throw new IOException("damaged wishlist record");
+                }
+                return items;
+            }
+            catch (BufferUnderflowException | IllegalArgumentException e)
+            {
+                throw new IOException("damaged wishlist record", e);
+            }
+        }
+
+        // reads the next block header and makes its records current; false at the end of the stream
+        private boolean nextBlock() throws IOException
+        {
+            if (source.remaining() < BLOCK_HEADER_BYTES)
+            {
+                throw new IOException("wishlist stream is cut off");
+            }
+            int rawLength = source.getInt();
+            int storedLength = source.getInt();
+            int checksum = source.getInt();
+            if (rawLength == 0 && storedLength == 0)
+            {
+                ended = true;
+                return false;
+            }
+            if (rawLength < 0 || storedLength <= 0 || storedLength > source.remaining()
+                    || (storedLength != rawLength && inflater == null))
+            {
+                throw new IOException("damaged wishlist block");
+            }
+
+            ByteBuffer payload = source.slice(source.position(), storedLength);
+            source.position(source.position() + storedLength);
+            if (storedLength == rawLength)
+            {
+                block = payload;
+            }
+            else
+            {
+                block = inflate(payload, rawLength);
+            }
+            crc.reset();
+            crc.update(block.duplicate());
+            if ((int) crc.getValue() != checksum)
+            {
+                throw new IOException("wishlist block checksum mismatch");
+            }
+            return true;
+        }
+
+        private ByteBuffer inflate(ByteBuffer payload, int rawLength) throws IOException
+        {
+            if (inflated == null || inflated.capacity() < rawLength)
+            {
+                inflated = ByteBuffer.allocate(Math.max(rawLength, BLOCK_SIZE + BLOCK_SIZE / 4));
+            }
+            inflated.clear().limit(rawLength);
+            inflater.reset();
+            inflater.setInput(payload);
+            try
+            {
+                while (inflated.hasRemaining() && !inflater.finished())
+                {
+                    if (inflater.inflate(inflated) == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    {
+                        break;
+                    }
+                }
+            }
+            catch (DataFormatException e)
+            {
+                throw new IOException("damaged wishlist block", e);
+            }
+            if (inflated.hasRemaining() || !inflater.finished())
+            {
+                throw new IOException("damaged wishlist block");
+            }
+            return inflated.flip();
+        }
+
+        // decodes a string straight from the block's array when it has one
+        private String getString() throws IOException
+        {
+            long length = getVarLong();
+            if (length < 0 || length > block.remaining())
+            {
+                throw new IOException("damaged wishlist record");
+            }
+            int size = (int) length;
+            String value;
+            if (block.hasArray())
+            {
+                value = new String(block.array(), block.arrayOffset() + block.position(), size,
+                        StandardCharsets.UTF_8);
+                block.position(block.position() + size);
+            }
+            else
+            {
+                if (scratch.length < size)
+                {
+                    scratch = new byte[Math.max(size, scratch.length * 2)];
+                }
+                block.get(scratch, 0, size);
+                value = new String(scratch, 0, size, StandardCharsets.UTF_8);
+            }
+            return value;
+        }
+
+        private long getVarLong() throws IOException
+        {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7)
+            {
+                byte b = block.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0)
+                {
+                    return value;
+                }
+            }
+            throw new IOException("damaged wishlist record");
+        }
+    }
+
+    /***************************************************************
+    *function: writeAll
+    *purpose: Writes every wishlist in the app, from one snapshot, to
+    *         the target file. Returns the number of bytes written.
+    ****************************************************************/
+    public static long writeAll(SantaWishlistApp app, Path target, boolean compress) throws IOException
+    {
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                Encoder out = new Encoder(file, compress))
+        {
+            for (WishlistSnapshot wishlist : app.snapshot().getWishlists())
+            {
+                out.write(wishlist);
+            }
+            out.finish();
+            return file.position();
+        }
+    }
+
+    /***************************************************************
+    *function: readAll
+    *purpose: Adds every wishlist in the file to the app, creating
+    *         children as needed. Returns the number of items added.
+    ****************************************************************/
+    public static long readAll(Path source, SantaWishlistApp app) throws IOException
+    {
+        Decoder in = Decoder.open(source);
+        long added = 0;
+        while (in.next())
+        {
+            app.createWishlistForChild(in.getChildName());
+            added += app.addItems(in.getChildName(), in.readItems());
+        }
+        return added;
+    }
+}
@@ -0,0 +1,100 @@
+/***************************************************************
+*file: WishlistDelivery.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is one wishlist on its way to Santa. It holds
+*         a copy of the child's items taken when the wishlist was
+*         sent, so later changes to the wishlist do not change what
+*         is delivered.
+*
+****************************************************************/
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class WishlistDelivery
+{
+    private final String childName;  // child who sent the wishlist
+    private final List<WishlistItem> items;  // copy of the items at send time
+    private final Instant sentAt;  // when the wishlist was sent
+
+    /***************************************************************
+    *function: WishlistDelivery
+    *purpose: Constructor that stores the child's name, the items
+    *         and the time the wishlist was sent.
+    ****************************************************************/
+    public WishlistDelivery(String childName, List<WishlistItem> items, Instant sentAt)
+    {
+        this.childName = childName;
+        this.items = Collections.unmodifiableList(items);
+        this.sentAt = sentAt;
+    }
+
+    /***************************************************************
+    *function: of
+    *purpose: Copies the wishlist's items under the child's lock and
+    *         wraps them in a delivery stamped with the current time.
+    ****************************************************************/
+    public static WishlistDelivery of(Wishlist wishlist)
+    {
+        List<WishlistItem> copy;
+        synchronized (wishlist)
+        {
+            copy = new ArrayList<>(wishlist.getItems().size());
+            for (WishlistItem item : wishlist.getItems())
+            {
+                copy.add(new WishlistItem(item.getItemName(), item.getDescription()));
+            }
+        }
+        return new WishlistDelivery(wishlist.getChildName(), copy, Instant.now());
+    }
+
+    /***************************************************************
+    *function: getChildName
+    *purpose: Getter method for the child's name.
+    ****************************************************************/
+    public String getChildName()
+    {
+        return childName;
+    }
+
+    /***************************************************************
+    *function: getItems
+    *purpose: Getter method for the copied items.
+    ****************************************************************/
+    public List<WishlistItem> getItems()
+    {
+        return items;
+    }
+
+    /***************************************************************
+    *function: getSentAt
+    *purpose: Getter method for the time the wishlist was sent.
+    ****************************************************************/
+    public Instant getSentAt()
+    {
+        return sentAt;
+    }
+
+    /***************************************************************
+    *function: toString
+    *purpose: Formats the delivery the same way Wishlist.toString
+    *         formats a wishlist, with the send time in the header.
+    ****************************************************************/
+    @Override
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder("Wishlist for " + childName + " (sent " + sentAt + "):\n");
+        for (WishlistItem item : items)
+        {
+            text.append(item.getItemName()).append(": ").append(item.getDescription()).append("\n");
+        }
+        return text.toString();
+    }
+}
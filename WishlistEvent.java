@@ -0,0 +1,98 @@
+/***************************************************************
+*file: WishlistEvent.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class describes one change to a child's wishlist:
+*         an item was added, edited or removed. It carries the
+*         child, a copy of the item after the change (before it,
+*         for a removal), the item's list position and the
+*         wishlist's version number after the change. Versions
+*         start at 1 and go up by one with every change to that
+*         wishlist, so a consumer can tell if it missed an event.
+*
+****************************************************************/
+
+public class WishlistEvent
+{
+    /***************************************************************
+    *enum: Type
+    *purpose: The kind of change.
+    ****************************************************************/
+    public enum Type
+    {
+        ADDED, EDITED, REMOVED
+    }
+
+    private final Type type;  // kind of change
+    private final String childName;  // child whose wishlist changed
+    private final WishlistItem item;  // copy of the item (after an add or edit, before a removal)
+    private final String previousItemName;  // name before an edit, otherwise null
+    private final String previousDescription;  // description before an edit, otherwise null
+    private final int position;  // list index of the item
+    private final long version;  // wishlist version after the change
+
+    /***************************************************************
+    *function: WishlistEvent
+    *purpose: Constructor that sets every field.
+    ****************************************************************/
+    public WishlistEvent(Type type, String childName, WishlistItem item, String previousItemName,
+            String previousDescription, int position, long version)
+    {
+        this.type = type;
+        this.childName = childName;
+        this.item = item;
+        this.previousItemName = previousItemName;
+        this.previousDescription = previousDescription;
+        this.position = position;
+        this.version = version;
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    public String getChildName()
+    {
+        return childName;
+    }
+
+    public WishlistItem getItem()
+    {
+        return item;
+    }
+
+    public String getPreviousItemName()
+    {
+        return previousItemName;
+    }
+
+    public String getPreviousDescription()
+    {
+        return previousDescription;
+    }
+
+    public int getPosition()
+    {
+        return position;
+    }
+
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /***************************************************************
+    *function: toString
+    *purpose: Short description of the event for logs.
+    ****************************************************************/
+    @Override
+    public String toString()
+    {
+        return type + " " + childName + "[" + position + "] " + item.getItemName() + " (v" + version + ")";
+    }
+}
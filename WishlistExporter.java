@@ -0,0 +1,457 @@
+/***************************************************************
+*file: WishlistExporter.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class exports one wishlist or every wishlist in
+*         SantaWishlistApp to a file as TXT, CSV or JSON, with
+*         optional gzip compression. Items are streamed through a
+*         fixed-size character buffer and byte buffer into an NIO
+*         channel, so memory use does not depend on how many
+*         wishlists or items are exported. Progress is reported to
+*         a listener, and an export can be cancelled by
+*         interrupting the thread running it.
+*
+*         Lists are written from snapshots (see WishlistSnapshot),
+*         so no lock is held while writing and sessions can keep
+*         changing wishlists during a long export. exportAll writes
+*         one AppSnapshot, so the whole file shows a single point
+*         in time.
+****************************************************************/
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+public class WishlistExporter
+{
+    private static final int CHAR_BUFFER = 8 * 1024;  // characters encoded at once
+    private static final int BYTE_BUFFER = 64 * 1024;  // bytes written to the channel at once
+    private static final int PROGRESS_EVERY = 1024;  // items between progress reports
+
+    /***************************************************************
+    *enum: Format
+    *purpose: The file formats the exporter can write.
+    ****************************************************************/
+    public enum Format
+    {
+        TXT(".txt"), CSV(".csv"), JSON(".json");
+
+        private final String extension;  // usual file name extension
+
+        Format(String extension)
+        {
+            this.extension = extension;
+        }
+
+        public String getExtension()
+        {
+            return extension;
+        }
+
+        /***************************************************************
+        *function: forFileName
+        *purpose: Picks the format from a file name such as
+        *         "all.csv" or "all.json.gz". Defaults to TXT.
+        ****************************************************************/
+        public static Format forFileName(String fileName)
+        {
+            String name = fileName.toLowerCase();
+            if (name.endsWith(".gz"))
+            {
+                name = name.substring(0, name.length() - 3);
+            }
+            for (Format format : values())
+            {
+                if (name.endsWith(format.extension))
+                {
+                    return format;
+                }
+            }
+            return TXT;
+        }
+    }
+
+    /***************************************************************
+    *interface: ProgressListener
+    *purpose: Receives the number of items written so far and the
+    *         total number of items being exported.
+    ****************************************************************/
+    public interface ProgressListener
+    {
+        void progress(long itemsWritten, long totalItems);
+    }
+
+    /***************************************************************
+    *function: export
+    *purpose: Writes one wishlist to the target file. Returns the
+    *         number of items written.
+    ****************************************************************/
+    public static long export(Wishlist wishlist, Path target, Format format, boolean gzip,
+            ProgressListener listener) throws IOException
+    {
+        return exportSnapshots(List.of(wishlist.snapshot()), target, format, gzip, listener);
+    }
+
+    /***************************************************************
+    *function: exportAll
+    *purpose: Writes every wishlist in the app to the target file.
+    *         Returns the number of items written.
+    ****************************************************************/
+    public static long exportAll(SantaWishlistApp app, Path target, Format format, boolean gzip,
+            ProgressListener listener) throws IOException
+    {
+        return exportSnapshots(app.snapshot().getWishlists(), target, format, gzip, listener);
+    }
+
+    /***************************************************************
+    *function: export
+    *purpose: Writes the given wishlists to the target file in the
+    *         chosen format, compressing with gzip if asked. Returns
+    *         the number of items written.
+    ****************************************************************/
+    public static long export(Collection<Wishlist> wishlists, Path target, Format format, boolean gzip,
+            ProgressListener listener) throws IOException
+    {
+        List<WishlistSnapshot> snapshots = new ArrayList<>(wishlists.size());
+        for (Wishlist wishlist : wishlists)
+        {
+            snapshots.add(wishlist.snapshot());
+        }
+        return exportSnapshots(snapshots, target, format, gzip, listener);
+    }
+
+    /***************************************************************
+    *function: exportSnapshots
+    *purpose: Writes the given wishlist snapshots to the target file.
+    *         Returns the number of items written.
+    ****************************************************************/
+    public static long exportSnapshots(Collection<WishlistSnapshot> wishlists, Path target, Format format,
+            boolean gzip, ProgressListener listener) throws IOException
+    {
+        long total = 0;
+        for (WishlistSnapshot wishlist : wishlists)
+        {
+            total += wishlist.size();
+        }
+
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                ChannelWriter out = new ChannelWriter(gzip ? gzipChannel(file) : file))
+        {
+            long written = 0;
+            boolean first = true;
+            writeHeader(out, format);
+            for (WishlistSnapshot wishlist : wishlists)
+            {
+                writeChildStart(out, format, wishlist.getChildName(), first);
+                boolean firstItem = true;
+                for (WishlistItem item : wishlist.getItems())
+                {
+                    writeItem(out, format, wishlist.getChildName(), item, firstItem);
+                    firstItem = false;
+                    written++;
+                    if (written % PROGRESS_EVERY == 0)
+                    {
+                        checkInterrupted();
+                        report(listener, written, total);
+                    }
+                }
+                writeChildEnd(out, format);
+                first = false;
+            }
+            writeFooter(out, format);
+            report(listener, written, Math.max(total, written));
+            return written;
+        }
+    }
+
+    // format-specific pieces of the output
+    private static void writeHeader(ChannelWriter out, Format format) throws IOException
+    {
+        if (format == Format.CSV)
+        {
+            out.write("child,item,description\n");
+        }
+        else if (format == Format.JSON)
+        {
+            out.write("[");
+        }
+    }
+
+    private static void writeChildStart(ChannelWriter out, Format format, String childName, boolean first)
+            throws IOException
+    {
+        if (format == Format.TXT)
+        {
+            if (!first)
+            {
+                out.write("\n");
+            }
+            out.write("Wishlist for ").write(childName).write("\n");
+            out.write("Created on: ").write(LocalDate.now().toString()).write("\n\n");
+        }
+        else if (format == Format.JSON)
+        {
+            out.write(first ? "\n  {\"child\": " : ",\n  {\"child\": ");
+            writeJsonString(out, childName);
+            out.write(", \"items\": [");
+        }
+    }
+
+    private static void writeItem(ChannelWriter out, Format format, String childName, WishlistItem item,
+            boolean first) throws IOException
+    {
+        switch (format)
+        {
+            case TXT:
+                out.write(item.getItemName()).write(": ").write(item.getDescription()).write("\n");
+                break;
+            case CSV:
+                writeCsvField(out, childName);
+                out.write(",");
+                writeCsvField(out, item.getItemName());
+                out.write(",");
+                writeCsvField(out, item.getDescription());
+                out.write("\n");
+                break;
+            case JSON:
+                out.write(first ? "\n    {\"name\": " : ",\n    {\"name\": ");
+                writeJsonString(out, item.getItemName());
+                out.write(", \"description\": ");
+                writeJsonString(out, item.getDescription());
+                out.write("}");
+                break;
+        }
+    }
+
+    private static void writeChildEnd(ChannelWriter out, Format format) throws IOException
+    {
+        if (format == Format.JSON)
+        {
+            out.write("]}");
+        }
+    }
+
+    private static void writeFooter(ChannelWriter out, Format format) throws IOException
+    {
+        if (format == Format.JSON)
+        {
+            out.write("\n]\n");
+        }
+    }
+
+    /***************************************************************
+    *function: writeCsvField
+    *purpose: Writes a CSV field, quoting it if it contains a comma,
+    *         quote or line break (RFC 4180).
+    ****************************************************************/
+    private static void writeCsvField(ChannelWriter out, String value) throws IOException
+    {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++)
+        {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote)
+        {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '"')
+            {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    /***************************************************************
+    *function: writeJsonString
+    *purpose: Writes a quoted JSON string with the required escapes.
+    ****************************************************************/
+    private static void writeJsonString(ChannelWriter out, String value) throws IOException
+    {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                    {
+                        out.write(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    // helpers for progress, cancellation and compression
+    private static void report(ProgressListener listener, long written, long total)
+    {
+        if (listener != null)
+        {
+            listener.progress(written, total);
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedIOException
+    {
+        if (Thread.currentThread().isInterrupted())
+        {
+            throw new InterruptedIOException("Export cancelled");
+        }
+    }
+
+    private static WritableByteChannel gzipChannel(FileChannel file) throws IOException
+    {
+        OutputStream raw = Channels.newOutputStream(file);
+        return Channels.newChannel(new GZIPOutputStream(raw, BYTE_BUFFER));
+    }
+
+    /***************************************************************
+    *class: ChannelWriter
+    *purpose: Encodes text to UTF-8 through two fixed buffers and
+    *         writes full buffers to the channel. Closing it flushes
+    *         what is left and closes the channel (which finishes the
+    *         gzip stream when compressing).
+    ****************************************************************/
+    static final class ChannelWriter implements AutoCloseable
+    {
+        private final WritableByteChannel channel;  // where encoded bytes go
+        private final CharsetEncoder encoder;  // UTF-8 encoder, reused
+        private final CharBuffer chars;  // characters waiting to be encoded
+        private final ByteBuffer bytes;  // encoded bytes waiting to be written
+
+        ChannelWriter(WritableByteChannel channel)
+        {
+            this.channel = channel;
+            this.encoder = StandardCharsets.UTF_8.newEncoder();
+            this.chars = CharBuffer.allocate(CHAR_BUFFER);
+            this.bytes = ByteBuffer.allocateDirect(BYTE_BUFFER);
+        }
+
+        ChannelWriter write(String text) throws IOException
+        {
+            int offset = 0;
+            while (offset < text.length())
+            {
+                if (!chars.hasRemaining())
+                {
+                    encode(false);
+                }
+                int count = Math.min(chars.remaining(), text.length() - offset);
+                chars.put(text, offset, offset + count);
+                offset += count;
+            }
+            return this;
+        }
+
+        ChannelWriter write(char c) throws IOException
+        {
+            if (!chars.hasRemaining())
+            {
+                encode(false);
+            }
+            chars.put(c);
+            return this;
+        }
+
+        // encodes the pending characters, writing out full byte buffers
+        private void encode(boolean endOfInput) throws IOException
+        {
+            chars.flip();
+            while (true)
+            {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow())
+                {
+                    drain();
+                }
+                else if (result.isUnderflow())
+                {
+                    break;
+                }
+                else
+                {
+                    result.throwException();
+                }
+            }
+            chars.compact();  // keeps half of a surrogate pair for the next round
+        }
+
+        private void drain() throws IOException
+        {
+            bytes.flip();
+            while (bytes.hasRemaining())
+            {
+                channel.write(bytes);
+            }
+            bytes.clear();
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            try
+            {
+                encode(true);
+                while (encoder.flush(bytes).isOverflow())
+                {
+                    drain();
+                }
+                drain();
+            }
+            finally
+            {
+                channel.close();
+            }
+        }
+    }
+}
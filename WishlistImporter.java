@@ -0,0 +1,698 @@
+/***************************************************************
+*file: WishlistImporter.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This program loads wishlist records into SantaWishlistApp
+*         from CSV or JSON-lines files without the GUI. CSV files
+*         use the same child,item,description layout the exporter
+*         writes; JSON-lines files hold one object per line such as
+*         {"child": "Amy", "name": "Kite", "description": "Red"}.
+*
+*         The calling thread reads each file and cuts it into
+*         chunks of records. Worker threads parse the chunks in
+*         parallel, check every record against the same rules as
+*         Wishlist.addItem and add each chunk's records child by
+*         child with SantaWishlistApp.addItems. Chunks are added in
+*         file order, so every child's items keep the order they
+*         have in the file. Only a fixed number of chunks is in
+*         flight at once, and a CSV record spanning several lines
+*         is cut off at a fixed length and rejected, so memory use
+*         does not grow with the size of the input.
+*
+*         At the end of each file the number of records read,
+*         imported and rejected and the throughput are printed.
+*
+*         Usage: java WishlistImporter [--threads n] [--chunk n]
+*                [--no-save] file...
+*         Without --no-save the saved wishlists are restored first
+*         and the result is saved (see WishlistPersistence).
+****************************************************************/
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WishlistImporter
+{
+    private static final int DEFAULT_CHUNK = 8192;  // records per chunk
+    private static final String CSV_HEADER = "child,item,description";  // header written by the exporter
+    private static final int MAX_RECORD_CHARS = 64 * 1024;  // longest CSV record continued over several lines
+    private static final String OVERRUN = new String("");  // returned by readRecord for a record over the cap
+
+    /***************************************************************
+    *enum: Format
+    *purpose: The file formats the importer can read.
+    ****************************************************************/
+    public enum Format
+    {
+        CSV, JSON_LINES;
+
+        /***************************************************************
+        *function: forFileName
+        *purpose: Picks the format from a file name. Files ending in
+        *         .jsonl, .ndjson or .json are JSON-lines, anything else
+        *         is read as CSV.
+        ****************************************************************/
+        public static Format forFileName(String fileName)
+        {
+            String name = fileName.toLowerCase();
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson") || name.endsWith(".json") ? JSON_LINES : CSV;
+        }
+    }
+
+    /***************************************************************
+    *class: FileReport
+    *purpose: What happened while importing one file.
+    ****************************************************************/
+    public static final class FileReport
+    {
+        private final String fileName;  // file imported
+        private final long records;  // records read
+        private final long imported;  // items added to wishlists
+        private final long rejected;  // records that were malformed or failed the checks
+        private final long bytes;  // size of the file
+        private final long nanos;  // time taken
+
+        FileReport(String fileName, long records, long imported, long rejected, long bytes, long nanos)
+        {
+            this.fileName = fileName;
+            this.records = records;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public String getFileName()
+        {
+            return fileName;
+        }
+
+        public long getRecords()
+        {
+            return records;
+        }
+
+        public long getImported()
+        {
+            return imported;
+        }
+
+        public long getRejected()
+        {
+            return rejected;
+        }
+
+        public double getRecordsPerSecond()
+        {
+            return nanos == 0 ? 0 : records * 1e9 / nanos;
+        }
+
+        public double getMegabytesPerSecond()
+        {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos / (1024 * 1024);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s: %d records, %d imported, %d rejected in %d ms (%.0f records/s, %.1f MB/s)",
+                    fileName, records, imported, rejected, nanos / 1_000_000, getRecordsPerSecond(),
+                    getMegabytesPerSecond());
+        }
+    }
+
+    private final SantaWishlistApp app;  // where records are imported to
+    private final int threads;  // parser threads
+    private final int chunkSize;  // records per chunk
+
+    /***************************************************************
+    *function: WishlistImporter
+    *purpose: Constructor that sets the target app, the number of
+    *         parser threads and the chunk size.
+    ****************************************************************/
+    public WishlistImporter(SantaWishlistApp app, int threads, int chunkSize)
+    {
+        if (threads < 1 || chunkSize < 1)
+        {
+            throw new IllegalArgumentException("Invalid importer settings.");
+        }
+        this.app = app;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /***************************************************************
+    *function: main
+    *purpose: Imports every file named on the command line and prints
+    *         a report per file and a total.
+    ****************************************************************/
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = DEFAULT_CHUNK;
+        boolean save = true;
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--chunk":
+                    chunkSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--no-save":
+                    save = false;
+                    break;
+                default:
+                    files.add(Paths.get(args[i]));
+            }
+        }
+        if (files.isEmpty())
+        {
+            System.out.println("Usage: java WishlistImporter [--threads n] [--chunk n] [--no-save] file...");
+            return;
+        }
+
+        SantaWishlistApp app = SantaWishlistApp.getInstance();
+        WishlistPersistence persistence = save ? WishlistPersistence.openDefault(app) : null;
+        try
+        {
+            WishlistImporter importer = new WishlistImporter(app, threads, chunkSize);
+            long records = 0;
+            long imported = 0;
+            long rejected = 0;
+            long startTime = System.nanoTime();
+            for (Path file : files)
+            {
+                FileReport report = importer.importFile(file);
+                System.out.println(report);
+                records += report.getRecords();
+                imported += report.getImported();
+                rejected += report.getRejected();
+            }
+            System.out.println(String.format("Total: %d records, %d imported, %d rejected in %d ms",
+                    records, imported, rejected, (System.nanoTime() - startTime) / 1_000_000));
+        }
+        finally
+        {
+            if (persistence != null)
+            {
+                persistence.close();
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: importFile
+    *purpose: Imports one file, picking the format from its name.
+    ****************************************************************/
+    public FileReport importFile(Path file) throws IOException, InterruptedException
+    {
+        return importFile(file, Format.forFileName(file.getFileName().toString()));
+    }
+
+    /***************************************************************
+    *function: importFile
+    *purpose: Reads the file in chunks on this thread while the
+    *         worker threads parse and add them. Returns once every
+    *         chunk has been added.
+    ****************************************************************/
+    public FileReport importFile(Path file, Format format) throws IOException, InterruptedException
+    {
+        long startTime = System.nanoTime();
+        ImportRun run = new ImportRun(format);
+        Semaphore inFlight = new Semaphore(threads * 2);  // bounds memory: chunks read but not yet added
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8))
+        {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            int chunkIndex = 0;
+            boolean first = true;
+            String record;
+            while ((record = readRecord(reader, format)) != null && run.failure == null)
+            {
+                if (record == OVERRUN)
+                {
+                    run.records.incrementAndGet();
+                    run.rejected.incrementAndGet();
+                    first = false;
+                    continue;
+                }
+                if (first && format == Format.CSV && record.trim().equalsIgnoreCase(CSV_HEADER))
+                {
+                    first = false;
+                    continue;  // the exporter's header line
+                }
+                first = false;
+                if (record.isBlank())
+                {
+                    continue;
+                }
+
+                chunk.add(record);
+                if (chunk.size() == chunkSize)
+                {
+                    inFlight.acquire();
+                    submit(workers, run, chunk, chunkIndex++, inFlight);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty())
+            {
+                inFlight.acquire();
+                submit(workers, run, chunk, chunkIndex++, inFlight);
+            }
+            run.awaitAdded(chunkIndex);
+        }
+        finally
+        {
+            workers.shutdownNow();
+        }
+
+        if (run.failure != null)
+        {
+            throw new IOException("Import of " + file + " failed: " + run.failure.getMessage(), run.failure);
+        }
+        return new FileReport(file.toString(), run.records.get(), run.imported.get(), run.rejected.get(),
+                Files.size(file), System.nanoTime() - startTime);
+    }
+
+    /***************************************************************
+    *function: submit
+    *purpose: Hands one chunk to the workers. The chunk is parsed at
+    *         once and added when every earlier chunk has been added.
+    ****************************************************************/
+    private void submit(ExecutorService workers, ImportRun run, List<String> chunk, int chunkIndex,
+            Semaphore inFlight)
+    {
+        workers.execute(() -> {
+            try
+            {
+                Map<String, List<WishlistItem>> parsed = run.parse(chunk);
+                run.awaitTurn(chunkIndex);
+                try
+                {
+                    if (run.failure == null)
+                    {
+                        run.add(parsed);
+                    }
+                }
+                finally
+                {
+                    run.finishTurn();
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (RuntimeException e)
+            {
+                run.fail(e);
+            }
+            finally
+            {
+                inFlight.release();
+            }
+        });
+    }
+
+    /***************************************************************
+    *function: readRecord
+    *purpose: Reads one record. A CSV record continues onto the next
+    *         line while a quoted field is still open; as in RFC 4180
+    *         only a quote at the start of a field opens one, so a
+    *         stray quote inside a field is just a character. A record
+    *         that grows past MAX_RECORD_CHARS is dropped and OVERRUN
+    *         is returned, and reading goes on with the next line.
+    ****************************************************************/
+    private static String readRecord(BufferedReader reader, Format format) throws IOException
+    {
+        String line = reader.readLine();
+        if (line == null || format != Format.CSV || !stillQuoted(line, false))
+        {
+            return line;
+        }
+
+        StringBuilder record = new StringBuilder(line);
+        boolean quoted = true;
+        String next;
+        while (quoted && (next = reader.readLine()) != null)
+        {
+            if (record.length() + 1 + next.length() > MAX_RECORD_CHARS)
+            {
+                return OVERRUN;
+            }
+            record.append('\n').append(next);
+            quoted = stillQuoted(next, true);
+        }
+        return record.toString();
+    }
+
+    // whether a quoted field is open at the end of the line, given whether one was open at its start
+    private static boolean stillQuoted(String line, boolean quoted)
+    {
+        boolean fieldStart = !quoted;
+        for (int i = 0; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"')
+                {
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+            }
+            else if (c == '"' && fieldStart)
+            {
+                quoted = true;
+                fieldStart = false;
+            }
+            else
+            {
+                fieldStart = c == ',';
+            }
+        }
+        return quoted;
+    }
+
+    /***************************************************************
+    *class: ImportRun
+    *purpose: State shared by the workers while importing one file:
+    *         the counters and the turn that makes chunks get added
+    *         in file order.
+    ****************************************************************/
+    private final class ImportRun
+    {
+        final Format format;  // format of the file
+        final AtomicLong records = new AtomicLong();  // records parsed
+        final AtomicLong imported = new AtomicLong();  // items added
+        final AtomicLong rejected = new AtomicLong();  // records rejected
+        volatile RuntimeException failure;  // first unexpected error, stops the import
+        private int nextChunk;  // index of the chunk whose turn it is (guarded by this)
+
+        ImportRun(Format format)
+        {
+            this.format = format;
+        }
+
+        // parses a chunk into items grouped by child, counting rejects
+        Map<String, List<WishlistItem>> parse(List<String> chunk)
+        {
+            Map<String, List<WishlistItem>> byChild = new LinkedHashMap<>();
+            for (String record : chunk)
+            {
+                String[] fields = format == Format.CSV ? parseCsv(record) : parseJsonLine(record);
+                if (fields == null || fields[0] == null || fields[0].isBlank() || !Wishlist.isValid(fields[1], fields[2]))
+                {
+                    rejected.incrementAndGet();
+                    continue;
+                }
+                byChild.computeIfAbsent(fields[0], child -> new ArrayList<>())
+                        .add(new WishlistItem(fields[1], fields[2]));
+            }
+            records.addAndGet(chunk.size());
+            return byChild;
+        }
+
+        // adds a parsed chunk, one batch per child
+        void add(Map<String, List<WishlistItem>> byChild)
+        {
+            for (Map.Entry<String, List<WishlistItem>> entry : byChild.entrySet())
+            {
+                app.createWishlistForChild(entry.getKey());
+                int added = app.addItems(entry.getKey(), entry.getValue());
+                imported.addAndGet(Math.max(0, added));
+                rejected.addAndGet(entry.getValue().size() - Math.max(0, added));
+            }
+        }
+
+        synchronized void awaitTurn(int chunkIndex) throws InterruptedException
+        {
+            while (nextChunk != chunkIndex && failure == null)
+            {
+                wait();
+            }
+        }
+
+        synchronized void finishTurn()
+        {
+            nextChunk++;
+            notifyAll();
+        }
+
+        synchronized void awaitAdded(int chunkCount) throws InterruptedException
+        {
+            while (nextChunk < chunkCount && failure == null)
+            {
+                wait();
+            }
+        }
+
+        synchronized void fail(RuntimeException e)
+        {
+            if (failure == null)
+            {
+                failure = e;
+            }
+            notifyAll();
+        }
+    }
+
+    /***************************************************************
+    *function: parseCsv
+    *purpose: Splits a CSV record (RFC 4180) into child, item and
+    *         description. Returns null if it does not have exactly
+    *         three fields.
+    ****************************************************************/
+    static String[] parseCsv(String record)
+    {
+        String[] fields = new String[3];
+        int count = 0;
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean fieldStart = true;  // only a quote here opens a quoted field
+        for (int i = 0; i < record.length(); i++)
+        {
+            char c = record.charAt(i);
+            boolean atStart = fieldStart;
+            fieldStart = false;
+            if (quoted)
+            {
+                if (c == '"' && i + 1 < record.length() && record.charAt(i + 1) == '"')
+                {
+                    field.append('"');
+                    i++;
+                }
+                else if (c == '"')
+                {
+                    quoted = false;
+                }
+                else
+                {
+                    field.append(c);
+                }
+            }
+            else if (c == '"' && atStart)
+            {
+                quoted = true;
+            }
+            else if (c == ',')
+            {
+                if (count == 2)
+                {
+                    return null;
+                }
+                fields[count++] = field.toString();
+                field.setLength(0);
+                fieldStart = true;
+            }
+            else if (c != '\r')
+            {
+                field.append(c);
+            }
+        }
+        if (quoted || count != 2)
+        {
+            return null;
+        }
+        fields[2] = field.toString();
+        return fields;
+    }
+
+    /***************************************************************
+    *function: parseJsonLine
+    *purpose: Reads a flat JSON object with string values and returns
+    *         its child, name (or item) and description. Other keys
+    *         are ignored. Returns null if the line is not such an
+    *         object.
+    ****************************************************************/
+    static String[] parseJsonLine(String line)
+    {
+        Map<String, String> object = parseJsonObject(line);
+        if (object == null)
+        {
+            return null;
+        }
+        String name = object.containsKey("name") ? object.get("name") : object.get("item");
+        return new String[] {object.get("child"), name, object.get("description")};
+    }
+
+    /***************************************************************
+    *function: parseJsonObject
+    *purpose: Reads a flat JSON object whose values are all strings
+    *         and returns its keys and values in order. A key given
+    *         twice keeps its last value. Returns null if the text is
+    *         not such an object.
+    ****************************************************************/
+    static Map<String, String> parseJsonObject(String text)
+    {
+        Map<String, String> object = new LinkedHashMap<>();
+        int[] at = {skipSpace(text, 0)};
+        if (at[0] >= text.length() || text.charAt(at[0]) != '{')
+        {
+            return null;
+        }
+        at[0] = skipSpace(text, at[0] + 1);
+        if (at[0] < text.length() && text.charAt(at[0]) == '}')
+        {
+            return skipSpace(text, at[0] + 1) == text.length() ? object : null;
+        }
+
+        while (true)
+        {
+            String key = readJsonString(text, at);
+            at[0] = skipSpace(text, at[0]);
+            if (key == null || at[0] >= text.length() || text.charAt(at[0]) != ':')
+            {
+                return null;
+            }
+            at[0] = skipSpace(text, at[0] + 1);
+            String value = readJsonString(text, at);
+            if (value == null)
+            {
+                return null;
+            }
+            object.put(key, value);
+
+            at[0] = skipSpace(text, at[0]);
+            if (at[0] >= text.length())
+            {
+                return null;
+            }
+            char c = text.charAt(at[0]);
+            if (c == '}')
+            {
+                return skipSpace(text, at[0] + 1) == text.length() ? object : null;
+            }
+            if (c != ',')
+            {
+                return null;
+            }
+            at[0] = skipSpace(text, at[0] + 1);
+        }
+    }
+
+    // reads a JSON string starting at at[0] and moves at[0] past it, or returns null
+    private static String readJsonString(String line, int[] at)
+    {
+        int i = at[0];
+        if (i >= line.length() || line.charAt(i) != '"')
+        {
+            return null;
+        }
+        StringBuilder value = new StringBuilder();
+        for (i++; i < line.length(); i++)
+        {
+            char c = line.charAt(i);
+            if (c == '"')
+            {
+                at[0] = i + 1;
+                return value.toString();
+            }
+            if (c != '\\')
+            {
+                value.append(c);
+                continue;
+            }
+            if (++i >= line.length())
+            {
+                return null;
+            }
+            switch (line.charAt(i))
+            {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(line.charAt(i));
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (i + 4 >= line.length())
+                    {
+                        return null;
+                    }
+                    try
+                    {
+                        value.append((char) Integer.parseInt(line.substring(i + 1, i + 5), 16));
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        return null;
+                    }
+                    i += 4;
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return null;
+    }
+
+    // index of the first non-space character at or after from
+    private static int skipSpace(String line, int from)
+    {
+        while (from < line.length() && Character.isWhitespace(line.charAt(from)))
+        {
+            from++;
+        }
+        return from;
+    }
+}
@@ -4,63 +4,112 @@
 *		  Marie Philavong, and Brandon Shippy
 *class: CS 4800 - Software Engineering
 *assignment: Final Project
-*date last modified: 01/14/25
+*date last modified: 10/17/26
 *
 *purpose: This class represents an item on a child's wishlist.
 *         It stores the name and description of the item and 
-*         provides getter and setter methods to access and 
-*         modify these attributes.
+*         provides getter methods to access these attributes.
+*         Items never change once made; Wishlist hands out the
+*         items it stores, so an edit goes through the wishlist,
+*         which stores a new item in place of the old one.
+*
+*         Items handed out by a Wishlist also carry the item's id,
+*         which stays the same for as long as the item is on the
+*         list, and its version, which every edit raises. Together
+*         they let a caller edit or remove exactly the item it saw
+*         (see Wishlist.editItemById).
+*
+*         An item also has a priority, higher meaning more wanted,
+*         which orders the items of a wishlist by rank (see
+*         Wishlist.topItems). Items get priority 0 unless told
+*         otherwise.
 *
 ****************************************************************/
 
 public class WishlistItem
 {
-    private String itemName;	// name of the item
-    private String description;	// description of the item
+    private final String itemName;	// name of the item
+    private final String description;	// description of the item
+    private final long id;	// the item's id in its wishlist, 0 if it was never in one
+    private final long version;	// the item's version in its wishlist, 0 if it was never in one
+    private final int priority;	// how much the item is wanted, higher first
 
     /***************************************************************
     *function: WishlistItem
     *purpose: Constructor that initializes the item name and description.
     ****************************************************************/
     public WishlistItem(String itemName, String description)
+    {
+        this(0, 0, itemName, description, 0);
+    }
+
+    /***************************************************************
+    *function: WishlistItem
+    *purpose: Constructor that also sets the item's priority.
+    ****************************************************************/
+    public WishlistItem(String itemName, String description, int priority)
+    {
+        this(0, 0, itemName, description, priority);
+    }
+
+    /***************************************************************
+    *function: WishlistItem
+    *purpose: Constructor used by Wishlist for an item it holds.
+    ****************************************************************/
+    WishlistItem(long id, long version, String itemName, String description, int priority)
     {
         this.itemName = itemName;
         this.description = description;
+        this.id = id;
+        this.version = version;
+        this.priority = priority;
     }
 
     /***************************************************************
-    *function: getItemName
-    *purpose: Getter method for the item name.
+    *function: getId
+    *purpose: Returns the item's id in its wishlist, or 0 for an item
+    *         that did not come from a wishlist.
     ****************************************************************/
-    public String getItemName()
+    public long getId()
     {
-        return itemName;
+        return id;
     }
 
     /***************************************************************
-    *function: setItemName
-    *purpose: Setter method to modify the item name.
+    *function: getVersion
+    *purpose: Returns the item's version: 1 when added, one more for
+    *         every edit. 0 for an item that did not come from a
+    *         wishlist.
     ****************************************************************/
-    public void setItemName(String itemName)
+    public long getVersion()
     {
-        this.itemName = itemName;
+        return version;
     }
 
     /***************************************************************
-    *function: getDescription
-    *purpose: Getter method for the item description.
+    *function: getPriority
+    *purpose: Returns the item's priority; higher means more wanted.
     ****************************************************************/
-    public String getDescription()
+    public int getPriority()
     {
-        return description;
+        return priority;
     }
 
     /***************************************************************
-    *function: setDescription
-    *purpose: Setter method to modify the item description.
+    *function: getItemName
+    *purpose: Getter method for the item name.
     ****************************************************************/
-    public void setDescription(String description)
+    public String getItemName()
     {
-        this.description = description;
+        return itemName;
+    }
+
+    /***************************************************************
+    *function: getDescription
+    *purpose: Getter method for the item description.
+    ****************************************************************/
+    public String getDescription()
+    {
+        return description;
     }
 }
\ No newline at end of file
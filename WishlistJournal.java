@@ -0,0 +1,623 @@
+/***************************************************************
+*file: WishlistJournal.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is the write-ahead journal for Santa's
+*         Wishlist application. Every create, add, edit and remove
+*         that changes a wishlist is appended as one record. A
+*         single writer thread drains all pending records at once
+*         and writes them in one go (group commit), then forces
+*         them to disk according to the fsync policy.
+*
+*         The journal is split into numbered segment files. A
+*         snapshot rotates to a new segment, after which the older
+*         segments are no longer needed. Segments are read back
+*         through a memory-mapped buffer, and reading stops at the
+*         first torn or corrupt record.
+*
+*         Record layout: length (int), CRC32 of the body (int),
+*         then the body: sequence number (long), operation (byte),
+*         index (int), child name, the operation's strings and the
+*         item priority (int). Strings are an int byte count
+*         followed by UTF-8 bytes.
+****************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+public class WishlistJournal implements AutoCloseable
+{
+    /***************************************************************
+    *enum: FsyncPolicy
+    *purpose: When the journal forces written records to disk.
+    *         ALWAYS makes every mutation wait until its group is on
+    *         disk, INTERVAL forces at most once per interval in the
+    *         background, and NEVER leaves it to the operating system
+    *         (records are still forced on close).
+    ****************************************************************/
+    public enum FsyncPolicy
+    {
+        ALWAYS, INTERVAL, NEVER
+    }
+
+    static final byte OP_CREATE = 1;  // child
+    static final byte OP_ADD = 2;  // child, name, description, priority
+    static final byte OP_EDIT_INDEX = 3;  // child, index, new name, new description
+    static final byte OP_EDIT_NAME = 4;  // child, name, new name, new description
+    static final byte OP_REMOVE_INDEX = 5;  // child, index
+    static final byte OP_REMOVE_NAME = 6;  // child, name
+    static final byte OP_PRIORITY_INDEX = 7;  // child, index, priority
+    static final byte OP_UPDATE_INDEX = 8;  // child, index, new name, new description, priority
+
+    private static final int HEADER_BYTES = 8;  // length and CRC in front of every record
+    private static final int BUFFER_BYTES = 64 * 1024;  // write buffer for one group commit
+    private static final int MAX_BATCH = 4096;  // records taken from the queue at once
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Object STOP = new Object();  // queued by close; the writer stops once it reaches it
+
+    private final Path directory;  // folder holding the segment files
+    private final FsyncPolicy policy;  // when written records are forced to disk
+    private final long fsyncIntervalMillis;  // how often INTERVAL forces records
+    private final LinkedBlockingQueue<Object> queue;  // records and rotation requests waiting to be written
+    private final ReentrantLock appendLock;  // keeps sequence order and queue order the same
+    private final Object durableLock;  // monitor that ALWAYS callers wait on
+    private final Thread writer;  // background thread doing the group commits
+
+    private long nextSeq;  // sequence number for the next record (guarded by appendLock)
+    private volatile long durableSeq;  // highest sequence number known to be written (and forced)
+    private volatile IOException failure;  // first write error, reported to all later callers
+    private FileChannel channel;  // current segment (writer thread only)
+    private int segment;  // number of the current segment (writer thread only)
+    private long lastForce;  // time of the last force, for INTERVAL
+    private boolean dirty;  // records written since the last force (writer thread only)
+
+    /***************************************************************
+    *class: Entry
+    *purpose: One journal record. Fields that an operation does not
+    *         use are null or -1.
+    ****************************************************************/
+    static final class Entry
+    {
+        final long seq;  // position of the record in the journal
+        final byte op;  // one of the OP_ constants
+        final String childName;  // child the operation applies to
+        final String itemName;  // item name the operation looks up or adds
+        final String newItemName;  // new name for edits
+        final String description;  // description for adds and edits
+        final int index;  // list index for index-based operations
+        final int priority;  // item priority for adds and priority changes
+
+        Entry(long seq, byte op, String childName, String itemName, String newItemName, String description, int index,
+                int priority)
+        {
+            this.seq = seq;
+            this.op = op;
+            this.childName = childName;
+            this.itemName = itemName;
+            this.newItemName = newItemName;
+            this.description = description;
+            this.index = index;
+            this.priority = priority;
+        }
+    }
+
+    /***************************************************************
+    *class: Rotation
+    *purpose: Marker queued by rotate(). The writer closes the
+    *         current segment when it reaches the marker, so every
+    *         record queued before it ends up in an older segment.
+    ****************************************************************/
+    private static final class Rotation
+    {
+        final CompletableFuture<Integer> done = new CompletableFuture<>();
+    }
+
+    /***************************************************************
+    *function: WishlistJournal
+    *purpose: Opens a new segment with the given number in the
+    *         directory and starts the writer thread. nextSeq is the
+    *         first sequence number handed out.
+    ****************************************************************/
+    public WishlistJournal(Path directory, int segment, long nextSeq, FsyncPolicy policy, long fsyncIntervalMillis)
+            throws IOException
+    {
+        this.directory = directory;
+        this.policy = policy;
+        this.fsyncIntervalMillis = Math.max(1, fsyncIntervalMillis);
+        this.queue = new LinkedBlockingQueue<>();
+        this.appendLock = new ReentrantLock();
+        this.durableLock = new Object();
+        this.nextSeq = nextSeq;
+        this.durableSeq = nextSeq - 1;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+        this.lastForce = System.currentTimeMillis();
+
+        writer = new Thread(this::writeLoop, "wishlist-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /***************************************************************
+    *function: append
+    *purpose: Queues one record and returns its sequence number. The
+    *         record is written by the writer thread; use awaitDurable
+    *         to wait for it when the policy is ALWAYS.
+    ****************************************************************/
+    public long append(byte op, String childName, String itemName, String newItemName, String description, int index,
+            int priority)
+    {
+        appendLock.lock();
+        try
+        {
+            long seq = nextSeq++;
+            queue.add(new Entry(seq, op, childName, itemName, newItemName, description, index, priority));
+            return seq;
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+    }
+
+    /***************************************************************
+    *function: awaitDurable
+    *purpose: With the ALWAYS policy, blocks until the record with the
+    *         given sequence number is on disk. Returns at once for
+    *         the other policies. Throws if the journal failed.
+    ****************************************************************/
+    public void awaitDurable(long seq) throws IOException
+    {
+        if (policy == FsyncPolicy.ALWAYS)
+        {
+            synchronized (durableLock)
+            {
+                while (durableSeq < seq && failure == null)
+                {
+                    try
+                    {
+                        durableLock.wait();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("Interrupted while waiting for the journal", e);
+                    }
+                }
+            }
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /***************************************************************
+    *function: lastSeq
+    *purpose: Returns the sequence number of the newest record
+    *         appended so far, or one less than the first if none.
+    ****************************************************************/
+    public long lastSeq()
+    {
+        appendLock.lock();
+        try
+        {
+            return nextSeq - 1;
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+    }
+
+    /***************************************************************
+    *function: rotate
+    *purpose: Closes the current segment after every record queued so
+    *         far and starts the next one. Returns the number of the
+    *         new segment; all older segments are complete on disk.
+    ****************************************************************/
+    public int rotate() throws IOException
+    {
+        Rotation rotation = new Rotation();
+        appendLock.lock();
+        try
+        {
+            queue.add(rotation);
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+
+        try
+        {
+            return rotation.done.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while rotating the journal", e);
+        }
+        catch (java.util.concurrent.ExecutionException e)
+        {
+            throw new IOException("Journal rotation failed", e.getCause());
+        }
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Writes and forces everything still queued, then stops
+    *         the writer thread and closes the segment. The writer is
+    *         stopped by a marker queued after the last record rather
+    *         than by an interrupt, which would close the channel in
+    *         the middle of a write. Records appended after close are
+    *         not written.
+    ****************************************************************/
+    @Override
+    public void close() throws IOException
+    {
+        appendLock.lock();
+        try
+        {
+            queue.add(STOP);
+        }
+        finally
+        {
+            appendLock.unlock();
+        }
+        try
+        {
+            writer.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /***************************************************************
+    *function: writeLoop
+    *purpose: Body of the writer thread. Takes every queued record at
+    *         once, writes them through one buffer, forces according
+    *         to the policy and then releases the waiting callers.
+    ****************************************************************/
+    private void writeLoop()
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        List<Object> batch = new ArrayList<>();
+
+        try
+        {
+            boolean stopped = false;
+            while (!stopped)
+            {
+                Object first;
+                try
+                {
+                    first = queue.poll(fsyncIntervalMillis, TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    continue;  // nothing interrupts the writer; close() queues STOP instead
+                }
+
+                long written = -1;
+                if (first != null)
+                {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH);
+                    for (Object next : batch)
+                    {
+                        if (next instanceof Entry)
+                        {
+                            Entry entry = (Entry) next;
+                            encode(entry, buffer);
+                            written = entry.seq;
+                        }
+                        else if (next == STOP)
+                        {
+                            stopped = true;
+                            break;
+                        }
+                        else
+                        {
+                            flush(buffer);
+                            channel.force(false);
+                            channel.close();
+                            segment++;
+                            channel = openSegment(segment);
+                            ((Rotation) next).done.complete(segment);
+                        }
+                    }
+                    batch.clear();
+                    flush(buffer);
+                }
+
+                dirty |= written >= 0;
+                long now = System.currentTimeMillis();
+                boolean force = policy == FsyncPolicy.ALWAYS
+                        || (policy == FsyncPolicy.INTERVAL && now - lastForce >= fsyncIntervalMillis);
+                if (force && dirty)
+                {
+                    channel.force(false);
+                    lastForce = now;
+                    dirty = false;
+                }
+                if (written >= 0)
+                {
+                    publishDurable(written);
+                }
+            }
+            channel.force(false);
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            failure = e;
+            System.out.println("Wishlist journal failed: " + e.getMessage());
+            for (Object pending : batch)
+            {
+                if (pending instanceof Rotation)
+                {
+                    ((Rotation) pending).done.completeExceptionally(e);
+                }
+            }
+            publishDurable(durableSeq);
+        }
+    }
+
+    /***************************************************************
+    *function: publishDurable
+    *purpose: Records how far the journal has been written and wakes
+    *         the callers waiting in awaitDurable.
+    ****************************************************************/
+    private void publishDurable(long seq)
+    {
+        synchronized (durableLock)
+        {
+            durableSeq = seq;
+            durableLock.notifyAll();
+        }
+    }
+
+    /***************************************************************
+    *function: encode
+    *purpose: Appends one record to the buffer, flushing the buffer to
+    *         the channel first if the record does not fit.
+    ****************************************************************/
+    private void encode(Entry entry, ByteBuffer buffer) throws IOException
+    {
+        byte[] body = encodeBody(entry);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        if (buffer.remaining() < HEADER_BYTES + body.length)
+        {
+            flush(buffer);
+        }
+        if (buffer.capacity() < HEADER_BYTES + body.length)
+        {
+            // oversized record: write it straight through
+            ByteBuffer large = ByteBuffer.allocate(HEADER_BYTES + body.length);
+            large.putInt(body.length).putInt((int) crc.getValue()).put(body).flip();
+            while (large.hasRemaining())
+            {
+                channel.write(large);
+            }
+            return;
+        }
+        buffer.putInt(body.length).putInt((int) crc.getValue()).put(body);
+    }
+
+    /***************************************************************
+    *function: encodeBody
+    *purpose: Serializes the body of one record.
+    ****************************************************************/
+    private static byte[] encodeBody(Entry entry)
+    {
+        byte[] child = utf8(entry.childName);
+        byte[] name = utf8(entry.itemName);
+        byte[] newName = utf8(entry.newItemName);
+        byte[] description = utf8(entry.description);
+
+        ByteBuffer body = ByteBuffer.allocate(8 + 1 + 4 + 4 * 4 + 4 + length(child) + length(name)
+                + length(newName) + length(description));
+        body.putLong(entry.seq).put(entry.op).putInt(entry.index);
+        putString(body, child);
+        putString(body, name);
+        putString(body, newName);
+        putString(body, description);
+        body.putInt(entry.priority);
+        return body.array();
+    }
+
+    /***************************************************************
+    *function: flush
+    *purpose: Writes the buffered bytes to the current segment.
+    ****************************************************************/
+    private void flush(ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /***************************************************************
+    *function: openSegment
+    *purpose: Opens (or creates) a segment file for appending.
+    ****************************************************************/
+    private FileChannel openSegment(int number) throws IOException
+    {
+        return FileChannel.open(segmentPath(directory, number), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /***************************************************************
+    *function: segmentPath
+    *purpose: Returns the file name used for a segment number.
+    ****************************************************************/
+    static Path segmentPath(Path directory, int number)
+    {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /***************************************************************
+    *function: listSegments
+    *purpose: Returns the numbers of all segments in the directory,
+    *         in ascending order.
+    ****************************************************************/
+    static List<Integer> listSegments(Path directory) throws IOException
+    {
+        return listNumbered(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX);
+    }
+
+    /***************************************************************
+    *function: listNumbered
+    *purpose: Returns the numbers of all files named prefix, number,
+    *         suffix in the directory, in ascending order.
+    ****************************************************************/
+    static List<Integer> listNumbered(Path directory, String prefix, String suffix) throws IOException
+    {
+        List<Integer> numbers = new ArrayList<>();
+        try (var files = Files.list(directory))
+        {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(prefix) && name.endsWith(suffix))
+                    .forEach(name -> numbers.add(Integer.parseInt(
+                            name.substring(prefix.length(), name.length() - suffix.length()))));
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    /***************************************************************
+    *function: readSegment
+    *purpose: Maps a segment file and hands every valid record to the
+    *         consumer in order. Reading stops at the first record that
+    *         is cut off or fails its checksum, which is where a crash
+    *         interrupted the last write. Returns the highest sequence
+    *         number read, or -1 if the segment held no records.
+    ****************************************************************/
+    static long readSegment(Path file, Consumer<Entry> consumer) throws IOException
+    {
+        long lastSeq = -1;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            long size = in.size();
+            long offset = 0;
+            while (offset < size)
+            {
+                // map in windows so segments larger than 2 GB still work
+                long window = Math.min(size - offset, Integer.MAX_VALUE);
+                MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, offset, window);
+                int consumed = 0;
+                while (map.remaining() >= HEADER_BYTES)
+                {
+                    int start = map.position();
+                    int length = map.getInt();
+                    int checksum = map.getInt();
+                    if (length < 0 || length > map.remaining())
+                    {
+                        map.position(start);
+                        break;
+                    }
+                    ByteBuffer body = map.slice(map.position(), length);
+                    CRC32 crc = new CRC32();
+                    crc.update(body.duplicate());
+                    if ((int) crc.getValue() != checksum)
+                    {
+                        System.out.println("Journal " + file.getFileName() + " ends with a damaged record; ignoring the rest.");
+                        return lastSeq;
+                    }
+                    Entry entry = decodeBody(body);
+                    consumer.accept(entry);
+                    lastSeq = entry.seq;
+                    map.position(map.position() + length);
+                    consumed = map.position();
+                }
+                if (consumed == 0)
+                {
+                    break;  // the rest of the file is a torn record
+                }
+                offset += consumed;
+            }
+        }
+        return lastSeq;
+    }
+
+    /***************************************************************
+    *function: decodeBody
+    *purpose: Reads the body of one record written by encodeBody.
+    ****************************************************************/
+    private static Entry decodeBody(ByteBuffer body)
+    {
+        long seq = body.getLong();
+        byte op = body.get();
+        int index = body.getInt();
+        String child = getString(body);
+        String name = getString(body);
+        String newName = getString(body);
+        String description = getString(body);
+        int priority = body.getInt();
+        return new Entry(seq, op, child, name, newName, description, index, priority);
+    }
+
+    // string helpers: a length of -1 stands for null
+    private static byte[] utf8(String value)
+    {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes)
+    {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes)
+    {
+        if (bytes == null)
+        {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length < 0)
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+/** *************************************************************
+ *file: WishlistListModel.java
+ *authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+ *		  Marie Philavong, and Brandon Shippy
+ *class: CS 4800 - Software Engineering
+ *assignment: Final Project
+ *date last modified: 10/17/26
+ *
+ *purpose: This class is the list model behind the wishlist view in
+ *         SantaWishlistGUI. It reads rows from the child's wishlist
+ *         snapshots, which share their items, instead of copying
+ *         them, and it fires one
+ *         interval event per change, so a JList repaints only the
+ *         rows that were added, edited or removed. Together with a
+ *         fixed cell size the JList only ever touches the visible
+ *         rows, which keeps scrolling smooth at 100k+ items.
+ *
+ *         The model listens to the wishlist's change events and
+ *         replays them on the event dispatch thread, so changes made
+ *         by any session show up without the view asking for them.
+ *         The rows come from a WishlistSnapshot that only the event
+ *         dispatch thread replaces, one event at a time, so the size
+ *         the JList sees always matches the events it has been sent,
+ *         however far the wishlist itself has moved on. If several
+ *         changes landed before the view caught up, they are shown
+ *         as one reload.
+ *
+ *************************************************************** */
+import java.util.List;
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+
+public class WishlistListModel extends AbstractListModel<WishlistItem> implements WishlistListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient Wishlist wishlist;  // wishlist shown, or null for an empty view
+    private transient WishlistSnapshot rows;  // rows the view has been told about, or null (event dispatch thread only)
+
+    /**
+     * *************************************************************
+     * function: WishlistListModel purpose: Constructor for an empty
+     * view. setWishlist picks the wishlist to show and starts listening
+     * to it, so the model is never handed out half-built.
+     * **************************************************************
+     */
+    public WishlistListModel() {
+    }
+
+    /**
+     * *************************************************************
+     * function: getSize purpose: Returns the number of rows the view has
+     * been told about.
+     * **************************************************************
+     */
+    @Override
+    public int getSize() {
+        return rows == null ? 0 : rows.size();
+    }
+
+    /**
+     * *************************************************************
+     * function: getElementAt purpose: Returns the item at a row, or null
+     * for a row that is not there.
+     * **************************************************************
+     */
+    @Override
+    public WishlistItem getElementAt(int index) {
+        return rows == null || index < 0 || index >= rows.size() ? null : rows.getItems().get(index);
+    }
+
+    /**
+     * *************************************************************
+     * function: setWishlist purpose: Switches to another wishlist and
+     * tells the view to reload everything. Call it on the event
+     * dispatch thread.
+     * **************************************************************
+     */
+    public void setWishlist(Wishlist wishlist) {
+        if (wishlist == this.wishlist) {
+            return;
+        }
+        if (this.wishlist != null) {
+            this.wishlist.removeListener(this);
+        }
+        this.wishlist = wishlist;
+        if (wishlist != null) {
+            wishlist.addListener(this);
+        }
+        reload(wishlist == null ? null : wishlist.snapshot());
+    }
+
+    /**
+     * *************************************************************
+     * function: wishlistChanged purpose: Called by the wishlist (on the
+     * thread that changed it) and replays the change on the event
+     * dispatch thread. Events from a wishlist the model has since left
+     * are ignored.
+     * **************************************************************
+     */
+    @Override
+    public void wishlistChanged(WishlistEvent event) {
+        SwingUtilities.invokeLater(() -> replay(event));
+    }
+
+    /**
+     * *************************************************************
+     * function: wishlistBatchChanged purpose: Replays all of a batch's
+     * changes in one trip to the event dispatch thread.
+     * **************************************************************
+     */
+    @Override
+    public void wishlistBatchChanged(List<WishlistEvent> events) {
+        SwingUtilities.invokeLater(() -> {
+            for (WishlistEvent event : events) {
+                replay(event);
+            }
+        });
+    }
+
+    /**
+     * *************************************************************
+     * function: replay purpose: Moves the rows on to include one
+     * change and tells the view, unless the change is for a wishlist
+     * the model has since left or the rows already include it. If the
+     * change is the only one since the rows were taken, the view hears
+     * about that one row; if more changes have landed since, the rows
+     * jump to the newest snapshot and the view reloads.
+     * **************************************************************
+     */
+    private void replay(WishlistEvent event) {
+        if (wishlist == null || !wishlist.getChildName().equals(event.getChildName())
+                || (rows != null && event.getVersion() <= rows.getVersion())) {
+            return;
+        }
+        WishlistSnapshot latest = wishlist.snapshot();
+        if (latest.getVersion() < event.getVersion()) {
+            // the wishlist publishes its snapshot just after telling listeners; try again shortly
+            SwingUtilities.invokeLater(() -> replay(event));
+            return;
+        }
+        if (rows == null || latest.getVersion() != event.getVersion()
+                || event.getVersion() != rows.getVersion() + 1) {
+            reload(latest);
+            return;
+        }
+
+        rows = latest;
+        int position = event.getPosition();
+        switch (event.getType()) {
+            case ADDED:
+                fireIntervalAdded(this, position, position);
+                break;
+            case EDITED:
+                fireContentsChanged(this, position, position);
+                break;
+            case REMOVED:
+                fireIntervalRemoved(this, position, position);
+                break;
+        }
+    }
+
+    /**
+     * *************************************************************
+     * function: reload purpose: Switches the rows to a new snapshot (or
+     * none) and tells the view every row may have changed. The old rows
+     * are dropped first, so the size always matches what was sent.
+     * **************************************************************
+     */
+    private void reload(WishlistSnapshot newRows) {
+        int oldSize = getSize();
+        rows = null;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        rows = newRows;
+        int newSize = getSize();
+        if (newSize > 0) {
+            fireIntervalAdded(this, 0, newSize - 1);
+        }
+    }
+}
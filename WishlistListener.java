@@ -0,0 +1,44 @@
+/***************************************************************
+*file: WishlistListener.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This interface receives wishlist change events as they
+*         happen. It is called on the thread making the change,
+*         while that child's lock is held, so events for one child
+*         arrive in order. Listeners must be quick and must not
+*         block; hand slow work to an AsyncWishlistListener.
+*
+*         The changes made by one batch call (such as
+*         Wishlist.addItems) arrive together in a single call to
+*         wishlistBatchChanged.
+*
+****************************************************************/
+
+import java.util.List;
+
+public interface WishlistListener
+{
+    /***************************************************************
+    *function: wishlistChanged
+    *purpose: Called once for every change made on its own.
+    ****************************************************************/
+    void wishlistChanged(WishlistEvent event);
+
+    /***************************************************************
+    *function: wishlistBatchChanged
+    *purpose: Called once for all the changes of one batch, in the
+    *         order they were made. By default each event is passed
+    *         to wishlistChanged.
+    ****************************************************************/
+    default void wishlistBatchChanged(List<WishlistEvent> events)
+    {
+        for (WishlistEvent event : events)
+        {
+            wishlistChanged(event);
+        }
+    }
+}
@@ -0,0 +1,329 @@
+/***************************************************************
+*file: WishlistLoadTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This program is a load test for WishlistServer. It
+*         creates a wishlist with a few items for every child, then
+*         keeps the given number of keep-alive connections busy with
+*         a mix of reads, searches, adds, edits, removes and sends
+*         for random children. At the end it prints the throughput
+*         and the p50, p99 and p99.9 latency of every operation.
+*
+*         Without a URL it starts a server on a free local port
+*         around a fresh in-memory app whose deliveries go nowhere,
+*         so only the HTTP path and the backend are measured.
+*
+*         Usage: java WishlistLoadTest [seconds] [children] [connections] [url]
+*
+****************************************************************/
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WishlistLoadTest
+{
+    private static final int STARTING_ITEMS = 3;  // items each child starts with
+    private static final LatencyHistogram OVERALL = new LatencyHistogram();  // time per request of any kind
+    private static final LongAdder IO_ERRORS = new LongAdder();  // requests that got no answer at all
+
+    /***************************************************************
+    *enum: Operation
+    *purpose: The requests in the mix, with the share of each.
+    ****************************************************************/
+    private enum Operation
+    {
+        GET_WISHLIST(20), SEARCH_ITEM(20), ADD_ITEM(25), EDIT_ITEM(15), REMOVE_ITEM(15), SEND_WISHLIST(5);
+
+        final int percent;  // share of the mix
+        final LatencyHistogram latency = new LatencyHistogram();  // time per request
+        final LongAdder failures = new LongAdder();  // answers other than 2xx or an expected 404
+
+        Operation(int percent)
+        {
+            this.percent = percent;
+        }
+    }
+
+    private final HttpClient client;  // shares keep-alive connections between requests
+    private final String baseUrl;  // e.g. http://127.0.0.1:8080
+    private final int children;  // children taking part
+    private final AtomicLong nextItem = new AtomicLong();  // makes every added item name unique
+
+    private WishlistLoadTest(HttpClient client, String baseUrl, int children)
+    {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.children = children;
+    }
+
+    /***************************************************************
+    *function: main
+    *purpose: Sets up the children, runs the mix for the given time
+    *         and prints the results.
+    ****************************************************************/
+    public static void main(String[] args) throws Exception
+    {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int children = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        String url = args.length > 3 ? args[3] : null;
+
+        WishlistServer server = null;
+        if (url == null)
+        {
+            WishlistServer.tuneHttpServer();
+            SantaWishlistApp app = new SantaWishlistApp();
+            app.setDeliveryPipeline(DeliveryPipeline.withDefaults(batch -> { }));
+            server = new WishlistServer(app, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            server.start();
+            url = "http://127.0.0.1:" + server.getPort();
+        }
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(clientThreads)
+                    .build();
+            WishlistLoadTest test = new WishlistLoadTest(client, url, children);
+
+            System.out.println("Wishlist load test: " + url + ", " + children + " children, "
+                    + connections + " connections, " + seconds + "s");
+            long begin = System.nanoTime();
+            test.setUp(connections);
+            System.out.printf("Set up %d children with %d items each in %.1fs%n", children, STARTING_ITEMS,
+                    (System.nanoTime() - begin) / 1e9);
+
+            for (Operation operation : Operation.values())
+            {
+                operation.latency.reset();
+            }
+            OVERALL.reset();
+            double elapsed = test.run(connections, seconds);
+            printResults(elapsed);
+        }
+        finally
+        {
+            if (server != null)
+            {
+                server.close();
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: setUp
+    *purpose: Creates every child's wishlist and starting items,
+    *         with at most the given number of requests in flight.
+    ****************************************************************/
+    private void setUp(int connections) throws InterruptedException
+    {
+        Semaphore inFlight = new Semaphore(connections);
+        try (ExecutorService setUpThreads = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int c = 0; c < children; c++)
+            {
+                String child = childName(c);
+                inFlight.acquire();
+                setUpThreads.execute(() -> {
+                    try
+                    {
+                        send("POST", "/wishlists", "{\"child\":\"" + child + "\"}");
+                        for (int i = 0; i < STARTING_ITEMS; i++)
+                        {
+                            send("POST", itemsPath(child), item("toy-" + i, "starting item " + i));
+                        }
+                    }
+                    catch (IOException | InterruptedException e)
+                    {
+                        System.out.println("Set up failed for " + child + ": " + e.getMessage());
+                    }
+                    finally
+                    {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: run
+    *purpose: Keeps one client per connection sending requests for
+    *         random children until the time is up. Returns the
+    *         seconds taken.
+    ****************************************************************/
+    private double run(int connections, int seconds) throws InterruptedException
+    {
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Thread> clients = new ArrayList<>();
+        long begin = System.nanoTime();
+        for (int t = 0; t < connections; t++)
+        {
+            clients.add(Thread.ofVirtual().name("load-" + t).start(() -> {
+                while (running.get())
+                {
+                    try
+                    {
+                        request(pick());
+                    }
+                    catch (IOException e)
+                    {
+                        IO_ERRORS.increment();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                }
+            }));
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread client : clients)
+        {
+            client.join();
+        }
+        return (System.nanoTime() - begin) / 1e9;
+    }
+
+    /***************************************************************
+    *function: request
+    *purpose: Sends one request of the operation for a random child
+    *         and records its latency. Removing or editing an item
+    *         someone else just removed is an expected 404.
+    ****************************************************************/
+    private void request(Operation operation) throws IOException, InterruptedException
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String child = childName(random.nextInt(children));
+        String target = itemsPath(child) + "/toy-" + random.nextInt(STARTING_ITEMS);
+        long start = System.nanoTime();
+        int status;
+        switch (operation)
+        {
+            case GET_WISHLIST:
+                status = send("GET", "/wishlists/" + encode(child), null);
+                break;
+            case SEARCH_ITEM:
+                status = send("GET", target, null);
+                break;
+            case ADD_ITEM:
+                status = send("POST", itemsPath(child), item("toy-" + random.nextInt(STARTING_ITEMS),
+                        "extra item " + nextItem.incrementAndGet()));
+                break;
+            case EDIT_ITEM:
+                status = send("PUT", target, "{\"description\":\"edited " + nextItem.incrementAndGet() + "\"}");
+                break;
+            case REMOVE_ITEM:
+                status = send("DELETE", target, null);
+                break;
+            default:
+                status = send("POST", "/wishlists/" + encode(child) + "/send", "");
+                break;
+        }
+        long nanos = System.nanoTime() - start;
+        operation.latency.record(nanos);
+        OVERALL.record(nanos);
+        if (status / 100 != 2 && status != 404)
+        {
+            operation.failures.increment();
+        }
+    }
+
+    // picks an operation by its share of the mix
+    private static Operation pick()
+    {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Operation operation : Operation.values())
+        {
+            roll -= operation.percent;
+            if (roll < 0)
+            {
+                return operation;
+            }
+        }
+        return Operation.GET_WISHLIST;
+    }
+
+    // sends a request and returns the status, reading the whole body so the connection can be reused
+    private int send(String method, String path, String body) throws IOException, InterruptedException
+    {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (body == null)
+        {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        else
+        {
+            request.method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .header("Content-Type", "application/json");
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static String childName(int index)
+    {
+        return "child-" + index;
+    }
+
+    private static String itemsPath(String child)
+    {
+        return "/wishlists/" + encode(child) + "/items";
+    }
+
+    private static String item(String name, String description)
+    {
+        return "{\"name\":\"" + name + "\",\"description\":\"" + description + "\"}";
+    }
+
+    private static String encode(String segment)
+    {
+        return URLEncoder.encode(segment, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    /***************************************************************
+    *function: printResults
+    *purpose: Prints requests per second and the latency percentiles
+    *         of each operation, in milliseconds.
+    ****************************************************************/
+    private static void printResults(double elapsed)
+    {
+        System.out.printf("%-14s %10s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "req/sec", "p50 ms", "p99 ms", "p99.9 ms", "failed");
+        long failed = IO_ERRORS.sum();
+        for (Operation operation : Operation.values())
+        {
+            printRow(operation.name().toLowerCase(), operation.latency.snapshot(), elapsed, operation.failures.sum());
+            failed += operation.failures.sum();
+        }
+        printRow("total", OVERALL.snapshot(), elapsed, failed);
+    }
+
+    private static void printRow(String name, LatencyHistogram.Snapshot latency, double elapsed, long failed)
+    {
+        System.out.printf("%-14s %10d %10.0f %9.2f %9.2f %9.2f %9d%n", name, latency.getCount(),
+                latency.getCount() / elapsed, latency.valueAtPercentile(50) / 1e6,
+                latency.valueAtPercentile(99) / 1e6, latency.valueAtPercentile(99.9) / 1e6, failed);
+    }
+}
@@ -0,0 +1,445 @@
+/***************************************************************
+*file: WishlistMetrics.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class counts and times the operations of
+*         SantaWishlistApp. Each operation has a striped counter
+*         (LongAdder) and a LatencyHistogram. Gauges for the number
+*         of children, the total items and the longest wishlist are
+*         worked out from the watched app when they are read.
+*
+*         The numbers are shown through JMX as
+*         SantaWishlist:type=Metrics and, in the Prometheus text
+*         format, at http://127.0.0.1:<port>/metrics. The server
+*         only listens on the loopback address.
+*
+*         Metrics are off unless the JVM is started with
+*         -Dsanta.metrics=true. The switch is a static final field,
+*         so when it is off the JIT removes the timing calls from
+*         the hot path altogether.
+*
+*         Settings (system properties):
+*           santa.metrics        true to collect metrics (false)
+*           santa.metrics.port   HTTP port, or -1 for none (9404)
+****************************************************************/
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public final class WishlistMetrics
+{
+    public static final boolean ENABLED = Boolean.getBoolean("santa.metrics");  // collect metrics at all
+    private static final String OBJECT_NAME = "SantaWishlist:type=Metrics";
+
+    private static final LongAdder[] COUNTS = new LongAdder[Operation.values().length];  // calls per operation
+    private static final LatencyHistogram[] LATENCIES = new LatencyHistogram[Operation.values().length];
+    private static volatile SantaWishlistApp watched;  // app the gauges are read from
+    private static HttpServer server;  // the /metrics endpoint, or null (guarded by WishlistMetrics.class)
+
+    static
+    {
+        if (ENABLED)
+        {
+            for (Operation operation : Operation.values())
+            {
+                COUNTS[operation.ordinal()] = new LongAdder();
+                LATENCIES[operation.ordinal()] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /***************************************************************
+    *enum: Operation
+    *purpose: The SantaWishlistApp operations that are measured.
+    ****************************************************************/
+    public enum Operation
+    {
+        CREATE_WISHLIST("createWishlist"),
+        ADD_ITEM("addItem"),
+        ADD_ITEMS("addItems"),
+        EDIT_ITEM("editItem"),
+        EDIT_ITEMS("editItems"),
+        REMOVE_ITEM("removeItem"),
+        REMOVE_ITEMS("removeItems"),
+        SEARCH_ITEM("searchItem"),
+        SEND_WISHLIST("sendWishlist");
+
+        private final String label;  // name shown in JMX and HTTP
+
+        Operation(String label)
+        {
+            this.label = label;
+        }
+
+        public String getLabel()
+        {
+            return label;
+        }
+    }
+
+    /***************************************************************
+    *class: OperationStats
+    *purpose: The count and latencies of one operation, in
+    *         microseconds. Latencies are within about 3%.
+    ****************************************************************/
+    public static final class OperationStats
+    {
+        private final long count;  // calls made
+        private final double meanMicros;  // average latency
+        private final double p50Micros;  // median latency
+        private final double p99Micros;  // 99th percentile latency
+        private final double p999Micros;  // 99.9th percentile latency
+        private final double maxMicros;  // slowest call
+
+        OperationStats(long count, LatencyHistogram.Snapshot latency)
+        {
+            this.count = count;
+            this.meanMicros = latency.getMean() / 1000.0;
+            this.p50Micros = latency.valueAtPercentile(50) / 1000.0;
+            this.p99Micros = latency.valueAtPercentile(99) / 1000.0;
+            this.p999Micros = latency.valueAtPercentile(99.9) / 1000.0;
+            this.maxMicros = latency.getMax() / 1000.0;
+        }
+
+        public long getCount()
+        {
+            return count;
+        }
+
+        public double getMeanMicros()
+        {
+            return meanMicros;
+        }
+
+        public double getP50Micros()
+        {
+            return p50Micros;
+        }
+
+        public double getP99Micros()
+        {
+            return p99Micros;
+        }
+
+        public double getP999Micros()
+        {
+            return p999Micros;
+        }
+
+        public double getMaxMicros()
+        {
+            return maxMicros;
+        }
+    }
+
+    private WishlistMetrics()
+    {
+    }
+
+    /***************************************************************
+    *function: start
+    *purpose: Returns the time an operation starts, or 0 when metrics
+    *         are off.
+    ****************************************************************/
+    public static long start()
+    {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /***************************************************************
+    *function: record
+    *purpose: Counts one call of an operation that began at start.
+    *         Does nothing when metrics are off.
+    ****************************************************************/
+    public static void record(Operation operation, long start)
+    {
+        if (ENABLED)
+        {
+            COUNTS[operation.ordinal()].increment();
+            LATENCIES[operation.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    /***************************************************************
+    *function: watch
+    *purpose: Reads the gauges from the given app and, the first time,
+    *         publishes the metrics through JMX and HTTP. Does
+    *         nothing when metrics are off.
+    ****************************************************************/
+    public static synchronized void watch(SantaWishlistApp app)
+    {
+        if (!ENABLED)
+        {
+            return;
+        }
+        boolean first = watched == null;
+        watched = app;
+        if (first)
+        {
+            registerMBean();
+            int port = Integer.getInteger("santa.metrics.port", 9404);
+            if (port >= 0)
+            {
+                startServer(port);
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: getPort
+    *purpose: Returns the port the HTTP endpoint listens on, or -1.
+    ****************************************************************/
+    public static synchronized int getPort()
+    {
+        return server == null ? -1 : server.getAddress().getPort();
+    }
+
+    /***************************************************************
+    *function: stats
+    *purpose: Returns the stats of every operation, in declaration
+    *         order. Empty when metrics are off.
+    ****************************************************************/
+    public static Map<String, OperationStats> stats()
+    {
+        Map<String, OperationStats> stats = new LinkedHashMap<>();
+        if (ENABLED)
+        {
+            for (Operation operation : Operation.values())
+            {
+                stats.put(operation.getLabel(), new OperationStats(COUNTS[operation.ordinal()].sum(),
+                        LATENCIES[operation.ordinal()].snapshot()));
+            }
+        }
+        return stats;
+    }
+
+    /***************************************************************
+    *function: reset
+    *purpose: Starts every count and latency over from zero.
+    ****************************************************************/
+    public static void reset()
+    {
+        if (ENABLED)
+        {
+            for (Operation operation : Operation.values())
+            {
+                COUNTS[operation.ordinal()].reset();
+                LATENCIES[operation.ordinal()].reset();
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: render
+    *purpose: Returns every metric in the Prometheus text format.
+    *         Latencies are in seconds, as Prometheus expects.
+    ****************************************************************/
+    public static String render()
+    {
+        StringBuilder text = new StringBuilder();
+        Map<String, OperationStats> stats = stats();
+        text.append("# HELP santa_operations_total Calls of each SantaWishlistApp operation.\n");
+        text.append("# TYPE santa_operations_total counter\n");
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet())
+        {
+            line(text, "santa_operations_total", entry.getKey(), null, entry.getValue().getCount());
+        }
+        text.append("# HELP santa_operation_latency_seconds Latency of each SantaWishlistApp operation.\n");
+        text.append("# TYPE santa_operation_latency_seconds summary\n");
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet())
+        {
+            OperationStats op = entry.getValue();
+            line(text, "santa_operation_latency_seconds", entry.getKey(), "0.5", op.getP50Micros() / 1e6);
+            line(text, "santa_operation_latency_seconds", entry.getKey(), "0.99", op.getP99Micros() / 1e6);
+            line(text, "santa_operation_latency_seconds", entry.getKey(), "0.999", op.getP999Micros() / 1e6);
+            line(text, "santa_operation_latency_seconds_sum", entry.getKey(), null,
+                    op.getMeanMicros() * op.getCount() / 1e6);
+            line(text, "santa_operation_latency_seconds_count", entry.getKey(), null, op.getCount());
+        }
+        text.append("# TYPE santa_operation_latency_max_seconds gauge\n");
+        for (Map.Entry<String, OperationStats> entry : stats.entrySet())
+        {
+            line(text, "santa_operation_latency_max_seconds", entry.getKey(), null,
+                    entry.getValue().getMaxMicros() / 1e6);
+        }
+
+        Gauges gauges = gauges();
+        text.append("# TYPE santa_children gauge\n");
+        line(text, "santa_children", null, null, gauges.children);
+        text.append("# TYPE santa_items gauge\n");
+        line(text, "santa_items", null, null, gauges.items);
+        text.append("# TYPE santa_largest_wishlist_items gauge\n");
+        line(text, "santa_largest_wishlist_items", null, null, gauges.largest);
+        return text.toString();
+    }
+
+    /***************************************************************
+    *class: Gauges
+    *purpose: Sizes read from the watched app in one pass.
+    ****************************************************************/
+    private static final class Gauges
+    {
+        int children;  // children with a wishlist
+        long items;  // items over all wishlists
+        int largest;  // items in the longest wishlist
+    }
+
+    // walks the sizes of the watched app's wishlists, without reading spilled ones back
+    private static Gauges gauges()
+    {
+        Gauges gauges = new Gauges();
+        SantaWishlistApp app = watched;
+        if (app != null)
+        {
+            app.forEachWishlistSize(size -> {
+                gauges.children++;
+                gauges.items += size;
+                gauges.largest = Math.max(gauges.largest, size);
+            });
+        }
+        return gauges;
+    }
+
+    private static void line(StringBuilder text, String name, String operation, String quantile, double value)
+    {
+        text.append(name);
+        if (operation != null)
+        {
+            text.append("{operation=\"").append(operation).append('"');
+            if (quantile != null)
+            {
+                text.append(",quantile=\"").append(quantile).append('"');
+            }
+            text.append('}');
+        }
+        text.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+        {
+            text.append((long) value);
+        }
+        else
+        {
+            text.append(String.format(Locale.ROOT, "%.9f", value));
+        }
+        text.append('\n');
+    }
+
+    /***************************************************************
+    *function: registerMBean
+    *purpose: Publishes the metrics to the platform MBean server.
+    ****************************************************************/
+    private static void registerMBean()
+    {
+        WishlistMetricsMXBean bean = new WishlistMetricsMXBean()
+        {
+            @Override
+            public int getChildCount()
+            {
+                return gauges().children;
+            }
+
+            @Override
+            public long getTotalItems()
+            {
+                return gauges().items;
+            }
+
+            @Override
+            public int getLargestList()
+            {
+                return gauges().largest;
+            }
+
+            @Override
+            public Map<String, OperationStats> getOperations()
+            {
+                return stats();
+            }
+
+            @Override
+            public void reset()
+            {
+                WishlistMetrics.reset();
+            }
+        };
+        try
+        {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(bean, new ObjectName(OBJECT_NAME));
+        }
+        catch (JMException e)
+        {
+            System.out.println("Could not register wishlist metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    /***************************************************************
+    *function: startServer
+    *purpose: Starts the /metrics endpoint on the loopback address.
+    *         The server is started from a daemon thread so its
+    *         dispatcher thread is a daemon too and never keeps the
+    *         JVM alive.
+    ****************************************************************/
+    private static void startServer(int port)
+    {
+        Thread starter = new Thread(() -> {
+            try
+            {
+                HttpServer created = HttpServer.create(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+                created.createContext("/metrics", WishlistMetrics::handle);
+                created.start();
+                server = created;
+            }
+            catch (IOException e)
+            {
+                System.out.println("Could not start the metrics endpoint on port " + port + ": " + e.getMessage());
+            }
+        }, "wishlist-metrics-start");
+        starter.setDaemon(true);
+        starter.start();
+        try
+        {
+            starter.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // answers GET /metrics
+    private static void handle(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            if (!"GET".equals(exchange.getRequestMethod()))
+            {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody())
+            {
+                out.write(body);
+            }
+        }
+    }
+}
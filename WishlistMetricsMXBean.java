@@ -0,0 +1,32 @@
+/***************************************************************
+*file: WishlistMetricsMXBean.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This interface is what JMX tools such as JConsole see of
+*         WishlistMetrics, under the name
+*         SantaWishlist:type=Metrics.
+****************************************************************/
+
+import java.util.Map;
+
+public interface WishlistMetricsMXBean
+{
+    // number of children with a wishlist
+    int getChildCount();
+
+    // items over all wishlists
+    long getTotalItems();
+
+    // items in the longest wishlist
+    int getLargestList();
+
+    // counts and latencies per SantaWishlistApp operation, by operation name
+    Map<String, WishlistMetrics.OperationStats> getOperations();
+
+    // starts every count and latency over from zero
+    void reset();
+}
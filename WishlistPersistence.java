@@ -0,0 +1,325 @@
+/***************************************************************
+*file: WishlistPersistence.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class keeps SantaWishlistApp's wishlists on disk
+*         between runs. On open it loads the newest snapshot,
+*         replays the journal segments written after it and then
+*         attaches a fresh WishlistJournal to the app. While
+*         running it writes a compact snapshot on a fixed schedule
+*         and deletes the journal segments the snapshot replaces,
+*         so restart time depends on the journal tail rather than
+*         on the whole history.
+*
+*         Snapshots are taken one child at a time under that
+*         child's lock, together with the sequence number of the
+*         last journal record applied to it. Replay skips every
+*         record the snapshot already contains, so no global lock
+*         is needed to get a consistent restore.
+*
+*         Snapshot files are WishlistCodec streams and are read
+*         from a memory-mapped file.
+*
+*         Settings (system properties, used by openDefault):
+*           santa.data.dir            folder for data (santa-data)
+*           santa.journal.fsync       ALWAYS, INTERVAL or NEVER (INTERVAL)
+*           santa.journal.fsyncMillis interval for INTERVAL (200)
+*           santa.snapshot.millis     time between snapshots (60000)
+****************************************************************/
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class WishlistPersistence implements AutoCloseable
+{
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".dat";
+
+    private final SantaWishlistApp app;  // the registry being persisted
+    private final Path directory;  // folder holding snapshots and journal segments
+    private final WishlistJournal journal;  // journal attached to the app
+    private final ScheduledExecutorService scheduler;  // runs the periodic snapshots
+    private long lastSnapshotSeq;  // last journal sequence covered by a snapshot (guarded by this)
+
+    /***************************************************************
+    *function: WishlistPersistence
+    *purpose: Private constructor, use open or openDefault.
+    ****************************************************************/
+    private WishlistPersistence(SantaWishlistApp app, Path directory, WishlistJournal journal, long lastSeq,
+            long snapshotIntervalMillis)
+    {
+        this.app = app;
+        this.directory = directory;
+        this.journal = journal;
+        this.lastSnapshotSeq = lastSeq;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wishlist-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMillis, snapshotIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /***************************************************************
+    *function: openDefault
+    *purpose: Opens persistence for the app using the settings in the
+    *         system properties listed at the top of this file.
+    ****************************************************************/
+    public static WishlistPersistence openDefault(SantaWishlistApp app) throws IOException
+    {
+        Path directory = Paths.get(System.getProperty("santa.data.dir", "santa-data"));
+        WishlistJournal.FsyncPolicy policy = WishlistJournal.FsyncPolicy.valueOf(
+                System.getProperty("santa.journal.fsync", "INTERVAL"));
+        long fsyncMillis = Long.getLong("santa.journal.fsyncMillis", 200);
+        long snapshotMillis = Long.getLong("santa.snapshot.millis", 60_000);
+        return open(app, directory, policy, fsyncMillis, snapshotMillis);
+    }
+
+    /***************************************************************
+    *function: open
+    *purpose: Restores the app from the newest snapshot and the journal
+    *         segments after it, then attaches a new journal segment
+    *         and starts the snapshot schedule. The app should be empty.
+    ****************************************************************/
+    public static WishlistPersistence open(SantaWishlistApp app, Path directory, WishlistJournal.FsyncPolicy policy,
+            long fsyncIntervalMillis, long snapshotIntervalMillis) throws IOException
+    {
+        Files.createDirectories(directory);
+        long startTime = System.nanoTime();
+
+        // load the newest snapshot that reads back cleanly
+        int firstSegment = 0;
+        long maxSeq = -1;
+        List<Integer> snapshots = WishlistJournal.listNumbered(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        for (int i = snapshots.size() - 1; i >= 0; i--)
+        {
+            try
+            {
+                maxSeq = readSnapshot(app, snapshotPath(directory, snapshots.get(i)));
+                firstSegment = snapshots.get(i);
+                break;
+            }
+            catch (IOException e)
+            {
+                System.out.println("Skipping unreadable snapshot " + snapshots.get(i) + ": " + e.getMessage());
+                app.clearForRestore();
+            }
+        }
+
+        // replay the journal tail written after that snapshot
+        int lastSegment = firstSegment - 1;
+        long replayed = 0;
+        for (int segment : WishlistJournal.listSegments(directory))
+        {
+            lastSegment = Math.max(lastSegment, segment);
+            if (segment < firstSegment)
+            {
+                continue;
+            }
+            long[] count = {0};
+            long segmentMax = WishlistJournal.readSegment(WishlistJournal.segmentPath(directory, segment), entry -> {
+                if (apply(app, entry))
+                {
+                    count[0]++;
+                }
+            });
+            maxSeq = Math.max(maxSeq, segmentMax);
+            replayed += count[0];
+        }
+
+        // never append after a possibly torn record: always start a new segment
+        WishlistJournal journal = new WishlistJournal(directory, lastSegment + 1, maxSeq + 1, policy,
+                fsyncIntervalMillis);
+        app.attachJournal(journal);
+
+        System.out.println("Restored " + app.getWishlists().size() + " wishlists (" + replayed
+                + " journal records replayed) in " + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+        return new WishlistPersistence(app, directory, journal, maxSeq, snapshotIntervalMillis);
+    }
+
+    /***************************************************************
+    *function: snapshot
+    *purpose: Rotates the journal, writes every wishlist to a new
+    *         snapshot file and deletes the snapshots and segments
+    *         that it replaces. Does nothing if nothing changed.
+    ****************************************************************/
+    public synchronized void snapshot() throws IOException
+    {
+        long lastSeq = journal.lastSeq();
+        if (lastSeq <= lastSnapshotSeq)
+        {
+            return;
+        }
+
+        // every record in older segments is already applied to its wishlist
+        int firstSegment = journal.rotate();
+
+        Path target = snapshotPath(directory, firstSegment);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel file = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+                WishlistCodec.Encoder out = new WishlistCodec.Encoder(file, false))
+        {
+            for (Wishlist wishlist : app.getWishlists())
+            {
+                out.write(wishlist);
+            }
+            out.finish();
+            file.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        for (int older : WishlistJournal.listNumbered(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX))
+        {
+            if (older < firstSegment)
+            {
+                Files.deleteIfExists(snapshotPath(directory, older));
+            }
+        }
+        for (int segment : WishlistJournal.listSegments(directory))
+        {
+            if (segment < firstSegment)
+            {
+                Files.deleteIfExists(WishlistJournal.segmentPath(directory, segment));
+            }
+        }
+        lastSnapshotSeq = lastSeq;
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Stops the schedule, writes a final snapshot and closes
+    *         the journal. The app keeps running without persistence.
+    ****************************************************************/
+    @Override
+    public void close() throws IOException
+    {
+        scheduler.shutdown();
+        try
+        {
+            snapshot();
+        }
+        finally
+        {
+            app.attachJournal(null);
+            journal.close();
+        }
+    }
+
+    /***************************************************************
+    *function: snapshotQuietly
+    *purpose: Scheduled snapshot; reports errors instead of throwing
+    *         so the schedule keeps running.
+    ****************************************************************/
+    private void snapshotQuietly()
+    {
+        try
+        {
+            snapshot();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Wishlist snapshot failed: " + e.getMessage());
+        }
+    }
+
+    /***************************************************************
+    *function: readSnapshot
+    *purpose: Loads every wishlist in a snapshot file into the app and
+    *         returns the highest journal sequence number it covers.
+    ****************************************************************/
+    private static long readSnapshot(SantaWishlistApp app, Path file) throws IOException
+    {
+        long maxSeq = -1;
+        WishlistCodec.Decoder in = WishlistCodec.Decoder.open(file);
+        while (in.next())
+        {
+            String childName = in.getChildName();
+            app.createWishlistForChild(childName);
+            Wishlist wishlist = app.getWishlist(childName);
+            List<WishlistItem> items = in.readItems();
+            synchronized (wishlist)  // the cache cannot spill it between the items and the sequence number
+            {
+                wishlist.reloadItems(items, in.getNextItemId());
+                wishlist.journalSeq = in.getJournalSeq();
+            }
+            maxSeq = Math.max(maxSeq, in.getJournalSeq());
+        }
+        return maxSeq;
+    }
+
+    /***************************************************************
+    *function: apply
+    *purpose: Replays one journal record against the app, skipping
+    *         records the wishlist already contains. Returns true if
+    *         the record was applied.
+    ****************************************************************/
+    private static boolean apply(SantaWishlistApp app, WishlistJournal.Entry entry)
+    {
+        Wishlist wishlist = app.getWishlist(entry.childName);
+        if (entry.op == WishlistJournal.OP_CREATE)
+        {
+            if (wishlist != null)
+            {
+                return false;
+            }
+            app.createWishlistForChild(entry.childName);
+            app.getWishlist(entry.childName).journalSeq = entry.seq;
+            return true;
+        }
+        if (wishlist == null || entry.seq <= wishlist.journalSeq)
+        {
+            return false;
+        }
+
+        switch (entry.op)
+        {
+            case WishlistJournal.OP_ADD:
+                wishlist.addItem(entry.itemName, entry.description, entry.priority);
+                break;
+            case WishlistJournal.OP_EDIT_INDEX:
+                wishlist.editItem(entry.index, entry.newItemName, entry.description);
+                break;
+            case WishlistJournal.OP_EDIT_NAME:
+                wishlist.editItem(entry.itemName, entry.newItemName, entry.description);
+                break;
+            case WishlistJournal.OP_REMOVE_INDEX:
+                wishlist.removeItem(entry.index);
+                break;
+            case WishlistJournal.OP_REMOVE_NAME:
+                wishlist.removeItem(entry.itemName);
+                break;
+            case WishlistJournal.OP_PRIORITY_INDEX:
+                wishlist.setPriority(entry.index, entry.priority);
+                break;
+            case WishlistJournal.OP_UPDATE_INDEX:
+                wishlist.updateItem(entry.index, entry.newItemName, entry.description, entry.priority);
+                break;
+            default:
+                System.out.println("Unknown journal operation " + entry.op + "; skipping.");
+                return false;
+        }
+        wishlist.journalSeq = entry.seq;
+        return true;
+    }
+
+    // file naming helper
+    private static Path snapshotPath(Path directory, int number)
+    {
+        return directory.resolve(String.format("%s%06d%s", SNAPSHOT_PREFIX, number, SNAPSHOT_SUFFIX));
+    }
+}
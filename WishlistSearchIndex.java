@@ -0,0 +1,578 @@
+/***************************************************************
+*file: WishlistSearchIndex.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is a full-text index over the names and
+*         descriptions of every item in every wishlist, so Santa
+*         can search the whole dataset without scanning each list.
+*         Text is split into lower-case words, and each word points
+*         to the items containing it (an inverted index). The index
+*         follows the wishlists through their change events, a few
+*         milliseconds behind (see WishlistTracker).
+*
+*         A query is one or more words, and an item matches when
+*         every query word matches one of its words, either
+*         exactly, as a prefix ("leg" finds "lego"), or, for words
+*         of four letters or more, with one typo (a letter added,
+*         dropped, changed or two letters swapped). Typos are found
+*         through a second index of each word with one letter
+*         deleted, so no word list is scanned. Matches in the name
+*         score higher than in the description, exact matches
+*         higher than prefixes and prefixes higher than typos.
+*         Results come back one page at a time.
+*
+*         Searches share a read lock; changes, applied on the
+*         tracker's own thread, take the write lock briefly.
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class WishlistSearchIndex extends WishlistTracker
+{
+    private static final int MIN_PREFIX = 2;  // shortest query word matched as a prefix
+    private static final int MIN_FUZZY = 4;  // shortest query word matched with a typo
+    private static final int MAX_EXPANSIONS = 1000;  // most index words one query word may expand to
+    private static final int EXACT_SCORE = 4;  // score of an exact word match
+    private static final int PREFIX_SCORE = 2;  // score of a prefix match
+    private static final int FUZZY_SCORE = 1;  // score of a match with one typo
+    private static final int NAME_WEIGHT = 2;  // matches in the name count this many times
+
+    private static final Comparator<SearchHit> BEST_FIRST = (a, b) -> a.score != b.score
+            ? Integer.compare(b.score, a.score)
+            : a.childName.equals(b.childName) ? a.itemName.compareTo(b.itemName)
+            : a.childName.compareTo(b.childName);  // higher score first, then by child and item
+
+    private final Map<String, Doc> docs = new HashMap<>();  // indexed items by key
+    private final TreeMap<String, Set<Doc>> postings = new TreeMap<>();  // word to the items containing it
+    private final Map<String, Set<String>> deletions = new HashMap<>();  // word with one letter deleted to words
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();  // guards the maps above
+
+    /***************************************************************
+    *class: Doc
+    *purpose: One indexed item. Identical items in one wishlist share
+    *         a doc and are counted in copies.
+    ****************************************************************/
+    private static final class Doc
+    {
+        final String childName;  // child whose wishlist has the item
+        final String itemName;  // item name
+        final String description;  // item description
+        final String[] words;  // distinct words, those in the name first
+        final int nameWords;  // number of leading words that come from the name
+        int copies;  // number of identical items
+
+        Doc(String childName, String itemName, String description)
+        {
+            this.childName = childName;
+            this.itemName = itemName;
+            this.description = description;
+            Set<String> name = tokenize(itemName);
+            Set<String> rest = tokenize(description);
+            rest.removeAll(name);
+            this.words = new String[name.size() + rest.size()];
+            int i = 0;
+            for (String word : name)
+            {
+                words[i++] = word;
+            }
+            for (String word : rest)
+            {
+                words[i++] = word;
+            }
+            this.nameWords = name.size();
+        }
+    }
+
+    /***************************************************************
+    *class: SearchHit
+    *purpose: One matching item and its score.
+    ****************************************************************/
+    public static final class SearchHit
+    {
+        private final String childName;  // child whose wishlist has the item
+        private final String itemName;  // item name
+        private final String description;  // item description
+        private final int score;  // higher is a better match
+
+        SearchHit(String childName, String itemName, String description, int score)
+        {
+            this.childName = childName;
+            this.itemName = itemName;
+            this.description = description;
+            this.score = score;
+        }
+
+        public String getChildName()
+        {
+            return childName;
+        }
+
+        public String getItemName()
+        {
+            return itemName;
+        }
+
+        public String getDescription()
+        {
+            return description;
+        }
+
+        public int getScore()
+        {
+            return score;
+        }
+
+        @Override
+        public String toString()
+        {
+            return childName + ": " + itemName + ": " + description;
+        }
+    }
+
+    /***************************************************************
+    *class: SearchResults
+    *purpose: One page of hits and the total number of hits.
+    ****************************************************************/
+    public static final class SearchResults
+    {
+        private final List<SearchHit> hits;  // hits on this page, best first
+        private final int totalHits;  // hits on every page
+        private final int page;  // page number, from 0
+        private final int pageSize;  // hits per page
+
+        SearchResults(List<SearchHit> hits, int totalHits, int page, int pageSize)
+        {
+            this.hits = hits;
+            this.totalHits = totalHits;
+            this.page = page;
+            this.pageSize = pageSize;
+        }
+
+        public List<SearchHit> getHits()
+        {
+            return hits;
+        }
+
+        public int getTotalHits()
+        {
+            return totalHits;
+        }
+
+        public int getPage()
+        {
+            return page;
+        }
+
+        public int getPageCount()
+        {
+            return (totalHits + pageSize - 1) / pageSize;
+        }
+
+        public boolean hasNextPage()
+        {
+            return page + 1 < getPageCount();
+        }
+    }
+
+    /***************************************************************
+    *function: search
+    *purpose: Returns one page of the items matching every word of
+    *         the query, best first. Pages are numbered from 0.
+    ****************************************************************/
+    public SearchResults search(String query, int page, int pageSize)
+    {
+        if (page < 0 || pageSize < 1)
+        {
+            throw new IllegalArgumentException("Invalid page.");
+        }
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty())
+        {
+            return new SearchResults(Collections.emptyList(), 0, page, pageSize);
+        }
+
+        // only the hits up to the end of the requested page are kept, worst on top
+        int keep = (int) Math.min((long) (page + 1) * pageSize, Integer.MAX_VALUE);
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(BEST_FIRST.reversed());
+        int totalHits = 0;
+        lock.readLock().lock();
+        try
+        {
+            // gather candidates through the rarest term, then check the others item by item
+            List<Map<String, Integer>> expansions = new ArrayList<>(terms.size());
+            int rarest = 0;
+            long rarestSize = Long.MAX_VALUE;
+            for (int i = 0; i < terms.size(); i++)
+            {
+                Map<String, Integer> expansion = expand(terms.get(i));
+                if (expansion.isEmpty())
+                {
+                    return new SearchResults(Collections.emptyList(), 0, page, pageSize);
+                }
+                expansions.add(expansion);
+                long size = 0;
+                for (String word : expansion.keySet())
+                {
+                    size += postings.get(word).size();
+                }
+                if (size < rarestSize)
+                {
+                    rarest = i;
+                    rarestSize = size;
+                }
+            }
+
+            // an item reached through several words of the rarest term is taken only at its first one
+            Map<String, Integer> rarestExpansion = expansions.get(rarest);
+            for (String word : rarestExpansion.keySet())
+            {
+                for (Doc doc : postings.get(word))
+                {
+                    if (rarestExpansion.size() > 1 && !word.equals(firstMatch(doc, rarestExpansion)))
+                    {
+                        continue;
+                    }
+                    int score = 0;
+                    for (Map<String, Integer> expansion : expansions)
+                    {
+                        int termScore = score(doc, expansion);
+                        if (termScore == 0)
+                        {
+                            score = 0;
+                            break;
+                        }
+                        score += termScore;
+                    }
+                    if (score == 0)
+                    {
+                        continue;
+                    }
+                    totalHits += doc.copies;
+                    if (best.size() >= keep && !beats(score, doc, best.peek()))
+                    {
+                        continue;
+                    }
+                    SearchHit hit = new SearchHit(doc.childName, doc.itemName, doc.description, score);
+                    for (int copy = 0; copy < doc.copies
+                            && (best.size() < keep || beats(score, doc, best.peek())); copy++)
+                    {
+                        best.add(hit);
+                        if (best.size() > keep)
+                        {
+                            best.poll();
+                        }
+                    }
+                }
+            }
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+
+        List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        int from = (int) Math.min((long) page * pageSize, hits.size());
+        return new SearchResults(new ArrayList<>(hits.subList(from, hits.size())), totalHits, page, pageSize);
+    }
+
+    /***************************************************************
+    *function: getWordCount
+    *purpose: Returns the number of different words indexed.
+    ****************************************************************/
+    public int getWordCount()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return postings.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    // changes coming from the wishlists
+    @Override
+    protected void itemAdded(String childName, WishlistItem item)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            add(childName, item.getItemName(), item.getDescription());
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void itemRemoved(String childName, WishlistItem item)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            remove(childName, item.getItemName(), item.getDescription());
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    protected void itemEdited(String childName, String previousItemName, String previousDescription,
+            WishlistItem item)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            remove(childName, previousItemName, previousDescription);
+            add(childName, item.getItemName(), item.getDescription());
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /***************************************************************
+    *function: tokenize
+    *purpose: Splits text into lower-case words of letters and digits.
+    ****************************************************************/
+    static Set<String> tokenize(String text)
+    {
+        Set<String> words = new HashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++)
+        {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0)
+            {
+                start = i;
+            }
+            else if (!wordChar && start >= 0)
+            {
+                words.add(Wishlist.foldName(text.substring(start, i)));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /***************************************************************
+    *function: expand
+    *purpose: Returns the index words a query word matches, each with
+    *         the score of the best way it matches.
+    ****************************************************************/
+    private Map<String, Integer> expand(String term)
+    {
+        Map<String, Integer> expansion = new HashMap<>();
+        if (term.length() >= MIN_FUZZY)
+        {
+            for (String variant : deletionsOf(term, true))
+            {
+                if (!variant.equals(term) && postings.containsKey(variant))
+                {
+                    expansion.put(variant, FUZZY_SCORE);  // the query has one letter too many
+                }
+                for (String word : deletions.getOrDefault(variant, Collections.emptySet()))
+                {
+                    if (withinOneEdit(term, word))
+                    {
+                        expansion.put(word, FUZZY_SCORE);
+                    }
+                }
+            }
+        }
+        if (term.length() >= MIN_PREFIX)
+        {
+            for (String word : postings.subMap(term, true, term + Character.MAX_VALUE, false).keySet())
+            {
+                if (expansion.size() >= MAX_EXPANSIONS)
+                {
+                    break;
+                }
+                expansion.put(word, PREFIX_SCORE);
+            }
+        }
+        if (postings.containsKey(term))
+        {
+            expansion.put(term, EXACT_SCORE);
+        }
+        return expansion;
+    }
+
+    // best score of a doc for one query word, 0 if none of its words match
+    private static int score(Doc doc, Map<String, Integer> expansion)
+    {
+        int best = 0;
+        for (int i = 0; i < doc.words.length; i++)
+        {
+            Integer score = expansion.get(doc.words[i]);
+            if (score != null)
+            {
+                best = Math.max(best, i < doc.nameWords ? score * NAME_WEIGHT : score);
+            }
+        }
+        return best;
+    }
+
+    // true if a doc with this score ranks before the hit
+    private static boolean beats(int score, Doc doc, SearchHit hit)
+    {
+        if (score != hit.score)
+        {
+            return score > hit.score;
+        }
+        int byChild = doc.childName.compareTo(hit.childName);
+        return byChild != 0 ? byChild < 0 : doc.itemName.compareTo(hit.itemName) < 0;
+    }
+
+    // the smallest of a doc's words that the expansion contains
+    private static String firstMatch(Doc doc, Map<String, Integer> expansion)
+    {
+        String first = null;
+        for (String word : doc.words)
+        {
+            if (expansion.containsKey(word) && (first == null || word.compareTo(first) < 0))
+            {
+                first = word;
+            }
+        }
+        return first;
+    }
+
+    // indexes one more copy of an item
+    private void add(String childName, String itemName, String description)
+    {
+        String key = docKey(childName, itemName, description);
+        Doc doc = docs.get(key);
+        if (doc != null)
+        {
+            doc.copies++;
+            return;
+        }
+
+        doc = new Doc(childName, itemName, description);
+        doc.copies = 1;
+        docs.put(key, doc);
+        for (String word : doc.words)
+        {
+            Set<Doc> posting = postings.get(word);
+            if (posting == null)
+            {
+                posting = new HashSet<>();
+                postings.put(word, posting);
+                for (String variant : deletionsOf(word, false))
+                {
+                    deletions.computeIfAbsent(variant, v -> new HashSet<>()).add(word);
+                }
+            }
+            posting.add(doc);
+        }
+    }
+
+    // drops one copy of an item, and words no item uses any more
+    private void remove(String childName, String itemName, String description)
+    {
+        String key = docKey(childName, itemName, description);
+        Doc doc = docs.get(key);
+        if (doc == null || --doc.copies > 0)
+        {
+            return;
+        }
+
+        docs.remove(key);
+        for (String word : doc.words)
+        {
+            Set<Doc> posting = postings.get(word);
+            if (posting != null && posting.remove(doc) && posting.isEmpty())
+            {
+                postings.remove(word);
+                for (String variant : deletionsOf(word, false))
+                {
+                    Set<String> words = deletions.get(variant);
+                    if (words != null && words.remove(word) && words.isEmpty())
+                    {
+                        deletions.remove(variant);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String docKey(String childName, String itemName, String description)
+    {
+        return childName + '\u0000' + itemName + '\u0000' + description;
+    }
+
+    // the word with each letter deleted in turn, plus the word itself when asked
+    private static Set<String> deletionsOf(String word, boolean includeWord)
+    {
+        Set<String> variants = new HashSet<>();
+        if (word.length() < MIN_FUZZY)
+        {
+            return variants;
+        }
+        if (includeWord)
+        {
+            variants.add(word);
+        }
+        for (int i = 0; i < word.length(); i++)
+        {
+            variants.add(word.substring(0, i) + word.substring(i + 1));
+        }
+        return variants;
+    }
+
+    /***************************************************************
+    *function: withinOneEdit
+    *purpose: Returns true if b differs from a by at most one added,
+    *         dropped or changed letter, or two swapped neighbours.
+    ****************************************************************/
+    static boolean withinOneEdit(String a, String b)
+    {
+        int lengthDifference = a.length() - b.length();
+        if (Math.abs(lengthDifference) > 1)
+        {
+            return false;
+        }
+
+        int i = 0;
+        while (i < a.length() && i < b.length() && a.charAt(i) == b.charAt(i))
+        {
+            i++;
+        }
+        if (lengthDifference > 0)
+        {
+            return a.regionMatches(i + 1, b, i, b.length() - i);
+        }
+        if (lengthDifference < 0)
+        {
+            return b.regionMatches(i + 1, a, i, a.length() - i);
+        }
+        if (i == a.length() || a.regionMatches(i + 1, b, i + 1, a.length() - i - 1))
+        {
+            return true;
+        }
+        return i + 1 < a.length() && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+                && a.regionMatches(i + 2, b, i + 2, a.length() - i - 2);
+    }
+}
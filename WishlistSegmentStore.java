@@ -0,0 +1,457 @@
+/***************************************************************
+*file: WishlistSegmentStore.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class keeps wishlist items off the Java heap, in
+*         segment files that are memory-mapped into the process.
+*         The names and descriptions of MAPPED wishlists live in the
+*         mapped files, so the operating system pages the text in
+*         and out as needed and it does not count against -Xmx. The
+*         garbage collector never sees the item strings, so its
+*         pauses barely grow with the number of items. The slots and
+*         indexes of each wishlist stay on the heap, about 85 bytes
+*         per item (see Wishlist), so the item count is still
+*         bounded by the heap.
+*
+*         Each segment file holds SEGMENT_RECORDS records of
+*         RECORD_SIZE bytes. Record layout:
+*           0  int   next record in the chain, or -1
+*           4  byte  FREE, HEAD or MORE
+*           8  int   child id                       (HEAD only)
+*           12 int   UTF-8 bytes in the item name   (HEAD only)
+*           16 int   UTF-8 bytes in the description (HEAD only)
+*           20       name then description bytes; a MORE record
+*                    carries on with the bytes from offset 8
+*         Most items fit in one record. Longer ones continue in a
+*         chain of MORE records.
+*
+*         Removed records go on a free list, chained through their
+*         next field, and are handed out again before the files
+*         grow. The child directory gives every child a small id,
+*         which is stored in each item's head record.
+*
+*         The files are scratch space: the saved state lives in the
+*         snapshot and journal (see WishlistPersistence), so open
+*         starts from empty files and close deletes them.
+*
+*         Allocating and freeing records locks the store. Reading
+*         and writing a record's bytes does not; each record is
+*         only touched by the wishlist that owns it, under that
+*         wishlist's lock.
+****************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class WishlistSegmentStore implements AutoCloseable
+{
+    public static final int RECORD_SIZE = 64;  // bytes per record
+    private static final int SEGMENT_SHIFT = 17;  // 131,072 records (8 MB) per segment file
+    private static final int SEGMENT_RECORDS = 1 << SEGMENT_SHIFT;
+    private static final long SEGMENT_BYTES = (long) SEGMENT_RECORDS * RECORD_SIZE;
+    private static final String SEGMENT_PREFIX = "items-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final int NEXT = 0;  // offset of the next record field
+    private static final int KIND = 4;  // offset of the record kind
+    private static final int CHILD = 8;  // offset of the child id in a head record
+    private static final int NAME_BYTES = 12;  // offset of the name length in a head record
+    private static final int DESCRIPTION_BYTES = 16;  // offset of the description length in a head record
+    private static final int HEAD_DATA = 20;  // first data byte of a head record
+    private static final int MORE_DATA = 8;  // first data byte of a MORE record
+    private static final byte FREE = 0;
+    private static final byte HEAD = 1;
+    private static final byte MORE = 2;
+    private static final int NONE = -1;  // end of a chain
+
+    private final Path directory;  // folder holding the segment files
+    private final List<FileChannel> channels;  // one open channel per segment file (guarded by this)
+    private volatile MappedByteBuffer[] segments;  // the mapped segment files
+    private int nextRecord;  // records handed out from the end of the files so far (guarded by this)
+    private int freeHead;  // first record on the free list, or NONE (guarded by this)
+    private int freeRecords;  // records on the free list (guarded by this)
+    private final Map<String, Integer> childIds;  // child directory: name to id (guarded by this)
+    private final List<String> childNames;  // child directory: id to name (guarded by this)
+
+    /***************************************************************
+    *function: WishlistSegmentStore
+    *purpose: Private constructor, use open.
+    ****************************************************************/
+    private WishlistSegmentStore(Path directory)
+    {
+        this.directory = directory;
+        this.channels = new ArrayList<>();
+        this.segments = new MappedByteBuffer[0];
+        this.freeHead = NONE;
+        this.childIds = new HashMap<>();
+        this.childNames = new ArrayList<>();
+    }
+
+    /***************************************************************
+    *function: open
+    *purpose: Opens an empty store in the given folder, deleting any
+    *         segment files left behind by an earlier run.
+    ****************************************************************/
+    public static WishlistSegmentStore open(Path directory) throws IOException
+    {
+        Files.createDirectories(directory);
+        try (var files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX))
+        {
+            for (Path file : files)
+            {
+                Files.delete(file);
+            }
+        }
+        return new WishlistSegmentStore(directory);
+    }
+
+    /***************************************************************
+    *function: childId
+    *purpose: Returns the child's id in the child directory, giving
+    *         the child a new id the first time it is seen.
+    ****************************************************************/
+    public synchronized int childId(String childName)
+    {
+        Integer id = childIds.get(childName);
+        if (id == null)
+        {
+            id = childNames.size();
+            childIds.put(childName, id);
+            childNames.add(childName);
+        }
+        return id;
+    }
+
+    /***************************************************************
+    *function: childName
+    *purpose: Returns the name of the child with the given id.
+    ****************************************************************/
+    public synchronized String childName(int childId)
+    {
+        return childNames.get(childId);
+    }
+
+    /***************************************************************
+    *function: childOf
+    *purpose: Returns the name of the child who owns an item record.
+    ****************************************************************/
+    public String childOf(int record)
+    {
+        return childName(buffer(record).getInt(offset(record) + CHILD));
+    }
+
+    /***************************************************************
+    *function: write
+    *purpose: Stores an item for a child and returns its record.
+    ****************************************************************/
+    public int write(int childId, String itemName, String description)
+    {
+        byte[] name = itemName.getBytes(StandardCharsets.UTF_8);
+        byte[] text = description.getBytes(StandardCharsets.UTF_8);
+        int head = allocate(recordsFor(name.length + text.length));
+
+        ByteBuffer buffer = buffer(head);
+        int base = offset(head);
+        buffer.put(base + KIND, HEAD);
+        buffer.putInt(base + CHILD, childId);
+        buffer.putInt(base + NAME_BYTES, name.length);
+        buffer.putInt(base + DESCRIPTION_BYTES, text.length);
+
+        // copy the name, then the description, along the chain
+        int record = head;
+        int at = HEAD_DATA;
+        int copied = 0;
+        int total = name.length + text.length;
+        while (copied < total)
+        {
+            if (at == RECORD_SIZE)
+            {
+                record = buffer.getInt(base + NEXT);
+                buffer = buffer(record);
+                base = offset(record);
+                buffer.put(base + KIND, MORE);
+                at = MORE_DATA;
+            }
+            int length = Math.min(RECORD_SIZE - at, total - copied);
+            if (copied < name.length)
+            {
+                length = Math.min(length, name.length - copied);
+                buffer.put(base + at, name, copied, length);
+            }
+            else
+            {
+                buffer.put(base + at, text, copied - name.length, length);
+            }
+            at += length;
+            copied += length;
+        }
+        return head;
+    }
+
+    /***************************************************************
+    *function: rewrite
+    *purpose: Replaces the item in a record and returns the record
+    *         now holding it, which may be a different one.
+    ****************************************************************/
+    public int rewrite(int head, int childId, String itemName, String description)
+    {
+        free(head);
+        return write(childId, itemName, description);
+    }
+
+    /***************************************************************
+    *function: readName
+    *purpose: Returns the item name stored in a record.
+    ****************************************************************/
+    public String readName(int head)
+    {
+        int length = buffer(head).getInt(offset(head) + NAME_BYTES);
+        return new String(readBytes(head, 0, length), StandardCharsets.UTF_8);
+    }
+
+    /***************************************************************
+    *function: readDescription
+    *purpose: Returns the description stored in a record.
+    ****************************************************************/
+    public String readDescription(int head)
+    {
+        ByteBuffer buffer = buffer(head);
+        int base = offset(head);
+        int skip = buffer.getInt(base + NAME_BYTES);
+        int length = buffer.getInt(base + DESCRIPTION_BYTES);
+        return new String(readBytes(head, skip, length), StandardCharsets.UTF_8);
+    }
+
+    /***************************************************************
+    *function: read
+    *purpose: Returns the item stored in a record as a WishlistItem.
+    ****************************************************************/
+    public WishlistItem read(int head)
+    {
+        ByteBuffer buffer = buffer(head);
+        int base = offset(head);
+        int nameLength = buffer.getInt(base + NAME_BYTES);
+        byte[] bytes = readBytes(head, 0, nameLength + buffer.getInt(base + DESCRIPTION_BYTES));
+        return new WishlistItem(new String(bytes, 0, nameLength, StandardCharsets.UTF_8),
+                new String(bytes, nameLength, bytes.length - nameLength, StandardCharsets.UTF_8));
+    }
+
+    /***************************************************************
+    *function: free
+    *purpose: Puts a record and the rest of its chain on the free
+    *         list.
+    ****************************************************************/
+    public void free(int head)
+    {
+        // mark the chain free and find its end, outside the lock
+        int count = 1;
+        int tail = head;
+        buffer(head).put(offset(head) + KIND, FREE);
+        for (int next = buffer(tail).getInt(offset(tail) + NEXT); next != NONE;
+                next = buffer(tail).getInt(offset(tail) + NEXT))
+        {
+            tail = next;
+            buffer(tail).put(offset(tail) + KIND, FREE);
+            count++;
+        }
+
+        synchronized (this)
+        {
+            buffer(tail).putInt(offset(tail) + NEXT, freeHead);
+            freeHead = head;
+            freeRecords += count;
+        }
+    }
+
+    /***************************************************************
+    *function: clear
+    *purpose: Frees every record at once. Only for use when no
+    *         wishlist refers to the store's records any more.
+    ****************************************************************/
+    public synchronized void clear()
+    {
+        nextRecord = 0;
+        freeHead = NONE;
+        freeRecords = 0;
+    }
+
+    /***************************************************************
+    *function: getLiveRecords
+    *purpose: Returns the number of records holding items.
+    ****************************************************************/
+    public synchronized long getLiveRecords()
+    {
+        return nextRecord - freeRecords;
+    }
+
+    /***************************************************************
+    *function: getFreeRecords
+    *purpose: Returns the number of records waiting to be reused.
+    ****************************************************************/
+    public synchronized long getFreeRecords()
+    {
+        return freeRecords;
+    }
+
+    /***************************************************************
+    *function: getMappedBytes
+    *purpose: Returns the size of all the segment files.
+    ****************************************************************/
+    public long getMappedBytes()
+    {
+        return segments.length * SEGMENT_BYTES;
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Closes and deletes the segment files. The store cannot
+    *         be used afterwards.
+    ****************************************************************/
+    @Override
+    public synchronized void close() throws IOException
+    {
+        segments = new MappedByteBuffer[0];
+        for (int segment = 0; segment < channels.size(); segment++)
+        {
+            channels.get(segment).close();
+            Files.deleteIfExists(segmentPath(segment));
+        }
+        channels.clear();
+    }
+
+    /***************************************************************
+    *function: allocate
+    *purpose: Takes count records, from the free list first, and
+    *         returns the first one, each linked to the next.
+    ****************************************************************/
+    private synchronized int allocate(int count)
+    {
+        int head = NONE;
+        int last = NONE;
+        for (int i = 0; i < count; i++)
+        {
+            int record;
+            if (freeHead != NONE)
+            {
+                record = freeHead;
+                freeHead = buffer(record).getInt(offset(record) + NEXT);
+                freeRecords--;
+            }
+            else
+            {
+                if (nextRecord == Integer.MAX_VALUE)
+                {
+                    throw new IllegalStateException("Wishlist segment store is full.");
+                }
+                record = nextRecord++;
+                if (record >>> SEGMENT_SHIFT == segments.length)
+                {
+                    addSegment();
+                }
+            }
+
+            if (last == NONE)
+            {
+                head = record;
+            }
+            else
+            {
+                buffer(last).putInt(offset(last) + NEXT, record);
+            }
+            last = record;
+        }
+        buffer(last).putInt(offset(last) + NEXT, NONE);
+        return head;
+    }
+
+    /***************************************************************
+    *function: addSegment
+    *purpose: Creates and maps the next segment file. The file is
+    *         sparse, so disk space is used only as records are
+    *         written.
+    ****************************************************************/
+    private void addSegment()
+    {
+        int segment = segments.length;
+        try
+        {
+            FileChannel channel = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENT_BYTES);
+            channels.add(channel);
+            MappedByteBuffer[] grown = Arrays.copyOf(segments, segment + 1);
+            grown[segment] = mapped;
+            segments = grown;
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException("Could not map wishlist segment " + segment + ": " + e.getMessage(), e);
+        }
+    }
+
+    // copies length data bytes, starting skip bytes into the item's data
+    private byte[] readBytes(int head, int skip, int length)
+    {
+        byte[] bytes = new byte[length];
+        int record = head;
+        int at = HEAD_DATA + skip;
+        while (at >= RECORD_SIZE)
+        {
+            // skip whole records until reaching the first byte wanted
+            at -= RECORD_SIZE - MORE_DATA;
+            record = buffer(record).getInt(offset(record) + NEXT);
+        }
+
+        int copied = 0;
+        while (copied < length)
+        {
+            if (at == RECORD_SIZE)
+            {
+                record = buffer(record).getInt(offset(record) + NEXT);
+                at = MORE_DATA;
+            }
+            int chunk = Math.min(RECORD_SIZE - at, length - copied);
+            buffer(record).get(offset(record) + at, bytes, copied, chunk);
+            at += chunk;
+            copied += chunk;
+        }
+        return bytes;
+    }
+
+    // records needed for an item with this many data bytes
+    private static int recordsFor(int dataBytes)
+    {
+        int extra = dataBytes - (RECORD_SIZE - HEAD_DATA);
+        return extra <= 0 ? 1 : 1 + (extra + RECORD_SIZE - MORE_DATA - 1) / (RECORD_SIZE - MORE_DATA);
+    }
+
+    private ByteBuffer buffer(int record)
+    {
+        return segments[record >>> SEGMENT_SHIFT];
+    }
+
+    private static int offset(int record)
+    {
+        return (record & (SEGMENT_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    private Path segmentPath(int segment)
+    {
+        return directory.resolve(String.format("%s%05d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,783 @@
+/***************************************************************
+*file: WishlistServer.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class runs SantaWishlistApp as a headless JSON API
+*         over HTTP, so many children can use one backend without
+*         a Swing window each. Every request is served on its own
+*         virtual thread, so a request that waits (for the journal
+*         or a delivery) costs a few hundred bytes instead of a
+*         platform thread, and connections are kept alive between
+*         requests.
+*
+*         Request bodies are flat JSON objects with string values;
+*         responses are JSON objects:
+*
+*           POST   /wishlists                      {"child"}
+*           GET    /wishlists/{child}
+*           POST   /wishlists/{child}/items        {"name", "description", "priority" (optional)}
+*           GET    /wishlists/{child}/items/{name}
+*           PUT    /wishlists/{child}/items/{name} {"name" (optional), "description",
+*                                                   "priority" (optional)}
+*           DELETE /wishlists/{child}/items/{name}
+*           GET    /wishlists/{child}/top?n=10
+*           POST   /wishlists/{child}/send
+*           GET    /search?q=words&page=0&size=20
+*           GET    /top?n=10
+*
+*         Priorities are whole numbers, sent as strings like every
+*         other value; higher means more wanted. The top routes list
+*         the n most wanted items of one child or of every child.
+*
+*         Items carry their id and version. POST, GET and PUT of an
+*         item send them as the ETag "id.version"; a PUT or DELETE with that value
+*         in If-Match only goes through if nobody changed or removed
+*         the item since, and otherwise fails with 412, so two
+*         clients editing the same child cannot overwrite each other
+*         unnoticed. Without If-Match the item is changed whatever
+*         its version.
+*
+*         Errors come back as {"error": "..."} with a 4xx or 5xx
+*         status.
+*
+*         Usage: java WishlistServer [--host address] [--port n]
+*                (or java SantaWishlistGUI --server ...)
+*
+*         Saved wishlists are restored at startup and saved at exit,
+*         as in the GUI, and sent wishlists are appended to
+*         deliveries.txt in santa.data.dir.
+****************************************************************/
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class WishlistServer implements AutoCloseable
+{
+    private static final int MAX_BODY_BYTES = 64 * 1024;  // larger request bodies are refused
+    private static final int MAX_PAGE_SIZE = 100;  // most search hits returned at once
+
+    private final SantaWishlistApp app;  // backend every request goes to
+    private final HttpServer server;  // accepts connections and parses requests
+    private final ExecutorService executor;  // one virtual thread per request
+
+    /***************************************************************
+    *class: HttpError
+    *purpose: Ends a request early with an error status and message.
+    ****************************************************************/
+    private static final class HttpError extends Exception
+    {
+        private static final long serialVersionUID = 1L;
+
+        final int status;  // HTTP status to answer with
+
+        HttpError(int status, String message)
+        {
+            super(message, null, false, false);
+            this.status = status;
+        }
+    }
+
+    /***************************************************************
+    *function: WishlistServer
+    *purpose: Constructor that binds the server to an address. Port 0
+    *         picks a free port. Call start to begin serving.
+    ****************************************************************/
+    public WishlistServer(SantaWishlistApp app, InetSocketAddress address) throws IOException
+    {
+        this.app = app;
+        this.server = HttpServer.create(address, 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /***************************************************************
+    *function: main
+    *purpose: Restores saved wishlists and serves the API until the
+    *         JVM is stopped.
+    ****************************************************************/
+    public static void main(String[] args) throws IOException
+    {
+        String host = null;
+        int port = 8080;
+        for (int i = 0; i < args.length; i++)
+        {
+            if ("--host".equals(args[i]) && i + 1 < args.length)
+            {
+                host = args[++i];
+            }
+            else if ("--port".equals(args[i]) && i + 1 < args.length)
+            {
+                port = Integer.parseInt(args[++i]);
+            }
+            else
+            {
+                System.out.println("Usage: java WishlistServer [--host address] [--port n]");
+                return;
+            }
+        }
+        tuneHttpServer();
+
+        SantaWishlistApp app = SantaWishlistApp.getInstance();
+        WishlistPersistence persistence = null;
+        try
+        {
+            persistence = WishlistPersistence.openDefault(app);
+        }
+        catch (IOException e)
+        {
+            // keep going without persistence rather than refusing to start
+            System.out.println("Could not restore saved wishlists: " + e.getMessage());
+        }
+        Path dataDirectory = Paths.get(System.getProperty("santa.data.dir", "santa-data"));
+        try
+        {
+            Files.createDirectories(dataDirectory);
+            FileDeliverySink deliveries = new FileDeliverySink(dataDirectory.resolve("deliveries.txt"));
+            app.setDeliveryPipeline(DeliveryPipeline.withDefaults(deliveries));
+        }
+        catch (IOException e)
+        {
+            System.out.println("Could not open the deliveries file, printing deliveries instead: " + e.getMessage());
+        }
+
+        InetAddress address = host == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(host);
+        WishlistServer server = new WishlistServer(app, new InetSocketAddress(address, port));
+        WishlistPersistence saved = persistence;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            if (saved != null)
+            {
+                try
+                {
+                    saved.close();
+                }
+                catch (IOException e)
+                {
+                    System.out.println("Could not save wishlists: " + e.getMessage());
+                }
+            }
+        }, "wishlist-shutdown"));
+        server.start();
+        System.out.println("Santa wishlist server listening on http://" + address.getHostAddress() + ":"
+                + server.getPort() + "/wishlists");
+    }
+
+    /***************************************************************
+    *function: tuneHttpServer
+    *purpose: Sets the JDK HTTP server's defaults for many small
+    *         keep-alive requests, unless they were given on the
+    *         command line: more idle connections kept open and no
+    *         Nagle delay on small responses. Must run before the
+    *         first HttpServer is created.
+    ****************************************************************/
+    static void tuneHttpServer()
+    {
+        if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null)
+        {
+            System.setProperty("sun.net.httpserver.maxIdleConnections", "10000");
+        }
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+        {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    public void start()
+    {
+        server.start();
+    }
+
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /***************************************************************
+    *function: close
+    *purpose: Stops accepting requests, lets the ones in progress
+    *         finish for up to a second, then stops.
+    ****************************************************************/
+    @Override
+    public void close()
+    {
+        server.stop(1);
+        executor.close();
+    }
+
+    /***************************************************************
+    *function: handle
+    *purpose: Runs one request on its virtual thread and always sends
+    *         a response, so the connection can be reused.
+    ****************************************************************/
+    private void handle(HttpExchange exchange) throws IOException
+    {
+        try (exchange)
+        {
+            int status;
+            String body;
+            try
+            {
+                String[] path = splitPath(exchange.getRequestURI().getRawPath());
+                StringBuilder json = new StringBuilder();
+                status = route(exchange, path, json);
+                body = json.length() == 0 ? null : json.toString();
+            }
+            catch (HttpError e)
+            {
+                status = e.status;
+                body = error(e.getMessage());
+            }
+            catch (RuntimeException e)
+            {
+                status = 500;
+                body = error("Internal error: " + e);
+            }
+            respond(exchange, status, body);
+        }
+    }
+
+    /***************************************************************
+    *function: route
+    *purpose: Calls the backend operation for the method and path,
+    *         writes the response object into json and returns the
+    *         status.
+    ****************************************************************/
+    private int route(HttpExchange exchange, String[] path, StringBuilder json) throws IOException, HttpError
+    {
+        String method = exchange.getRequestMethod();
+        if (path.length == 1 && "search".equals(path[0]))
+        {
+            requireMethod(method, "GET");
+            return search(exchange, json);
+        }
+        if (path.length == 1 && "top".equals(path[0]))
+        {
+            requireMethod(method, "GET");
+            return top(exchange, null, json);
+        }
+        if (path.length == 0 || !"wishlists".equals(path[0]))
+        {
+            throw new HttpError(404, "Not found.");
+        }
+
+        if (path.length == 1)
+        {
+            requireMethod(method, "POST");
+            String child = required(readBody(exchange), "child");
+            app.createWishlistForChild(child);
+            writeWishlist(json, wishlistOf(child).snapshot());
+            return 201;
+        }
+
+        String child = path[1];
+        if (path.length == 2)
+        {
+            requireMethod(method, "GET");
+            writeWishlist(json, wishlistOf(child).snapshot());
+            return 200;
+        }
+        if (path.length == 3 && "send".equals(path[2]))
+        {
+            requireMethod(method, "POST");
+            return send(child, json);
+        }
+        if (path.length == 3 && "top".equals(path[2]))
+        {
+            requireMethod(method, "GET");
+            return top(exchange, child, json);
+        }
+        if (!"items".equals(path[2]) || path.length > 4)
+        {
+            throw new HttpError(404, "Not found.");
+        }
+
+        if (path.length == 3)
+        {
+            requireMethod(method, "POST");
+            Map<String, String> fields = readBody(exchange);
+            String name = required(fields, "name");
+            String description = required(fields, "description");
+            int priority = priorityOf(fields, 0);
+            if (!Wishlist.isValid(name, description))
+            {
+                throw new HttpError(400, "Item name or description cannot be empty.");
+            }
+            WishlistItem added = app.addItemAndGet(child, name, description, priority);
+            if (added == null)
+            {
+                throw new HttpError(404, "No wishlist found for " + child + ".");
+            }
+            exchange.getResponseHeaders().set("ETag", etag(added.getId(), added.getVersion()));
+            writeItem(json, added);
+            return 201;
+        }
+
+        String itemName = path[3];
+        switch (method)
+        {
+            case "GET":
+            {
+                WishlistItem item = itemOf(child, itemName, null);
+                exchange.getResponseHeaders().set("ETag", etag(item.getId(), item.getVersion()));
+                writeItem(json, item);
+                return 200;
+            }
+            case "PUT":
+            {
+                Map<String, String> fields = readBody(exchange);
+                String newName = fields.get("name");
+                String description = required(fields, "description");
+                long[] expected = ifMatch(exchange);
+                WishlistItem item = itemOf(child, itemName, expected);
+                int priority = priorityOf(fields, item.getPriority());
+                if (newName == null)
+                {
+                    // keep the item's own name rather than the spelling in the path
+                    newName = item.getItemName();
+                }
+                if (!Wishlist.isValid(newName, description))
+                {
+                    throw new HttpError(400, "Item name or description cannot be empty.");
+                }
+                WishlistItem edited = app.updateItem(child, item.getId(),
+                        expected == null ? Wishlist.ANY_VERSION : expected[1], newName, description, priority);
+                if (edited == null)
+                {
+                    throw changed(itemName, expected);
+                }
+                exchange.getResponseHeaders().set("ETag", etag(edited.getId(), edited.getVersion()));
+                writeItem(json, edited);
+                return 200;
+            }
+            case "DELETE":
+            {
+                long[] expected = ifMatch(exchange);
+                WishlistItem item = itemOf(child, itemName, expected);
+                if (!app.removeItem(child, item.getId(), expected == null ? Wishlist.ANY_VERSION : expected[1]))
+                {
+                    throw changed(itemName, expected);
+                }
+                return 204;
+            }
+            default:
+                throw new HttpError(405, "Method not allowed.");
+        }
+    }
+
+    /***************************************************************
+    *function: send
+    *purpose: Sends the child's wishlist and waits for the delivery.
+    *         Waiting only parks this request's virtual thread.
+    ****************************************************************/
+    private int send(String child, StringBuilder json) throws HttpError
+    {
+        wishlistOf(child);
+        try
+        {
+            app.sendWishlist(child).get();
+        }
+        catch (ExecutionException e)
+        {
+            throw new HttpError(502, "Delivery failed: " + e.getCause().getMessage());
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new HttpError(503, "Server is shutting down.");
+        }
+        json.append("{\"child\":");
+        appendJsonString(json, child);
+        json.append(",\"sent\":true}");
+        return 200;
+    }
+
+    /***************************************************************
+    *function: search
+    *purpose: Answers a full-text search over every wishlist.
+    ****************************************************************/
+    private int search(HttpExchange exchange, StringBuilder json) throws HttpError
+    {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String words = query.getOrDefault("q", "");
+        int page;
+        int size;
+        try
+        {
+            page = Integer.parseInt(query.getOrDefault("page", "0"));
+            size = Integer.parseInt(query.getOrDefault("size", "20"));
+        }
+        catch (NumberFormatException e)
+        {
+            throw new HttpError(400, "Invalid page.");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE)
+        {
+            throw new HttpError(400, "Invalid page.");
+        }
+
+        WishlistSearchIndex.SearchResults results = app.getSearchIndex().search(words, page, size);
+        json.append("{\"total\":").append(results.getTotalHits())
+                .append(",\"page\":").append(results.getPage())
+                .append(",\"pages\":").append(results.getPageCount())
+                .append(",\"hits\":[");
+        List<WishlistSearchIndex.SearchHit> hits = results.getHits();
+        for (int i = 0; i < hits.size(); i++)
+        {
+            WishlistSearchIndex.SearchHit hit = hits.get(i);
+            json.append(i == 0 ? "{" : ",{").append("\"child\":");
+            appendJsonString(json, hit.getChildName());
+            json.append(",\"name\":");
+            appendJsonString(json, hit.getItemName());
+            json.append(",\"description\":");
+            appendJsonString(json, hit.getDescription());
+            json.append('}');
+        }
+        json.append("]}");
+        return 200;
+    }
+
+    /***************************************************************
+    *function: top
+    *purpose: Lists the n most wanted items of one child, or of every
+    *         child when child is null.
+    ****************************************************************/
+    private int top(HttpExchange exchange, String child, StringBuilder json) throws HttpError
+    {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        int n;
+        try
+        {
+            n = Integer.parseInt(query.getOrDefault("n", "10"));
+        }
+        catch (NumberFormatException e)
+        {
+            throw new HttpError(400, "Invalid n.");
+        }
+        if (n < 1 || n > MAX_PAGE_SIZE)
+        {
+            throw new HttpError(400, "Invalid n.");
+        }
+
+        if (child != null)
+        {
+            wishlistOf(child);
+            json.append("{\"child\":");
+            appendJsonString(json, child);
+            json.append(",\"items\":[");
+            List<WishlistItem> items = app.topItems(child, n);
+            for (int i = 0; items != null && i < items.size(); i++)
+            {
+                json.append(i == 0 ? "" : ",");
+                writeItem(json, items.get(i));
+            }
+            json.append("]}");
+            return 200;
+        }
+
+        json.append("{\"wishes\":[");
+        List<RankedWishes.Wish> wishes = app.topWishes(n);
+        for (int i = 0; i < wishes.size(); i++)
+        {
+            json.append(i == 0 ? "{" : ",{").append("\"child\":");
+            appendJsonString(json, wishes.get(i).getChildName());
+            json.append(",\"item\":");
+            writeItem(json, wishes.get(i).getItem());
+            json.append('}');
+        }
+        json.append("]}");
+        return 200;
+    }
+
+    // the child's wishlist, or a 404
+    private Wishlist wishlistOf(String child) throws HttpError
+    {
+        Wishlist wishlist = app.getWishlist(child);
+        if (wishlist == null)
+        {
+            throw new HttpError(404, "No wishlist found for " + child + ".");
+        }
+        return wishlist;
+    }
+
+    /***************************************************************
+    *function: itemOf
+    *purpose: Returns the child's item with the given name. Fails with
+    *         404 if it is missing, or with 412 if an If-Match id and
+    *         version were given and the item no longer has them.
+    ****************************************************************/
+    private WishlistItem itemOf(String child, String itemName, long[] expected) throws HttpError
+    {
+        WishlistItem item = wishlistOf(child).searchItem(itemName);
+        if (item == null
+                || (expected != null && (item.getId() != expected[0] || item.getVersion() != expected[1])))
+        {
+            throw changed(itemName, expected);
+        }
+        return item;
+    }
+
+    // 412 if the client named a version, 404 otherwise
+    private static HttpError changed(String itemName, long[] expected)
+    {
+        return expected == null ? new HttpError(404, "No item named " + itemName + ".")
+                : new HttpError(412, "The item was changed or removed meanwhile.");
+    }
+
+    // the "priority" field as a number, or fallback if it is missing
+    private static int priorityOf(Map<String, String> fields, int fallback) throws HttpError
+    {
+        String value = fields.get("priority");
+        if (value == null)
+        {
+            return fallback;
+        }
+        try
+        {
+            return Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            throw new HttpError(400, "Invalid priority.");
+        }
+    }
+
+    // reads If-Match as {id, version}; null if it is missing or "*"
+    private static long[] ifMatch(HttpExchange exchange) throws HttpError
+    {
+        String value = exchange.getRequestHeaders().getFirst("If-Match");
+        if (value == null || value.trim().equals("*"))
+        {
+            return null;
+        }
+        String tag = value.trim();
+        int dot = tag.indexOf('.');
+        if (tag.length() < 5 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"' || dot < 0)
+        {
+            throw new HttpError(400, "Invalid If-Match.");
+        }
+        try
+        {
+            return new long[] {Long.parseLong(tag.substring(1, dot)),
+                Long.parseLong(tag.substring(dot + 1, tag.length() - 1))};
+        }
+        catch (NumberFormatException e)
+        {
+            throw new HttpError(400, "Invalid If-Match.");
+        }
+    }
+
+    private static String etag(long id, long version)
+    {
+        return "\"" + id + "." + version + "\"";
+    }
+
+    private static void requireMethod(String method, String expected) throws HttpError
+    {
+        if (!expected.equals(method))
+        {
+            throw new HttpError(405, "Method not allowed.");
+        }
+    }
+
+    private static String required(Map<String, String> fields, String key) throws HttpError
+    {
+        String value = fields.get(key);
+        if (value == null)
+        {
+            throw new HttpError(400, "Missing \"" + key + "\".");
+        }
+        return value;
+    }
+
+    /***************************************************************
+    *function: readBody
+    *purpose: Reads the request body as a flat JSON object of strings.
+    ****************************************************************/
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException, HttpError
+    {
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody())
+        {
+            bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (bytes.length > MAX_BODY_BYTES)
+        {
+            throw new HttpError(413, "Request body is too large.");
+        }
+        Map<String, String> fields = WishlistImporter.parseJsonObject(new String(bytes, StandardCharsets.UTF_8));
+        if (fields == null)
+        {
+            throw new HttpError(400, "Body must be a JSON object of strings.");
+        }
+        return fields;
+    }
+
+    // splits /a/b%20c/ into [a, b c]; empty segments are dropped
+    private static String[] splitPath(String rawPath) throws HttpError
+    {
+        List<String> segments = new ArrayList<>();
+        for (String segment : rawPath.split("/"))
+        {
+            if (!segment.isEmpty())
+            {
+                segments.add(decode(segment.replace("+", "%2B")));
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+
+    // reads a=1&b=two into a map; later keys win
+    private static Map<String, String> parseQuery(String rawQuery) throws HttpError
+    {
+        if (rawQuery == null || rawQuery.isEmpty())
+        {
+            return Collections.emptyMap();
+        }
+        Map<String, String> query = new HashMap<>();
+        for (String pair : rawQuery.split("&"))
+        {
+            int equals = pair.indexOf('=');
+            if (equals > 0)
+            {
+                query.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+            }
+        }
+        return query;
+    }
+
+    private static String decode(String text) throws HttpError
+    {
+        try
+        {
+            return URLDecoder.decode(text, StandardCharsets.UTF_8);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new HttpError(400, "Invalid URL encoding.");
+        }
+    }
+
+    /***************************************************************
+    *function: respond
+    *purpose: Sends the status and body with a fixed length, which is
+    *         what lets the client keep the connection open.
+    ****************************************************************/
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException
+    {
+        if (body == null)
+        {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(bytes);
+        }
+    }
+
+    private static void writeWishlist(StringBuilder json, WishlistSnapshot wishlist)
+    {
+        json.append("{\"child\":");
+        appendJsonString(json, wishlist.getChildName());
+        json.append(",\"version\":").append(wishlist.getVersion()).append(",\"items\":[");
+        List<WishlistItem> items = wishlist.getItems();
+        for (int i = 0; i < items.size(); i++)
+        {
+            if (i > 0)
+            {
+                json.append(',');
+            }
+            writeItem(json, items.get(i));
+        }
+        json.append("]}");
+    }
+
+    // the id and version are left out for an item that has none yet
+    private static void writeItem(StringBuilder json, WishlistItem item)
+    {
+        json.append('{');
+        if (item.getId() > 0)
+        {
+            json.append("\"id\":").append(item.getId()).append(",\"version\":").append(item.getVersion()).append(',');
+        }
+        json.append("\"name\":");
+        appendJsonString(json, item.getItemName());
+        json.append(",\"description\":");
+        appendJsonString(json, item.getDescription());
+        json.append(",\"priority\":").append(item.getPriority()).append('}');
+    }
+
+    private static String error(String message)
+    {
+        StringBuilder json = new StringBuilder("{\"error\":");
+        appendJsonString(json, message);
+        return json.append('}').toString();
+    }
+
+    /***************************************************************
+    *function: appendJsonString
+    *purpose: Appends a quoted JSON string with the required escapes.
+    ****************************************************************/
+    static void appendJsonString(StringBuilder json, String value)
+    {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                    {
+                        json.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,108 @@
+/***************************************************************
+*file: WishlistSnapshot.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is a frozen copy of one child's wishlist as it
+*         was at a given version. It never changes, so exports,
+*         reports and Santa's views can read it from any thread
+*         without locking and without seeing a half-made change.
+*
+*         The wishlist makes the next snapshot from the previous
+*         one on every change (see Wishlist.snapshot), and the two
+*         share all but O(log n) of their items list. Items
+*         never change (see WishlistItem), so sharing them is safe.
+****************************************************************/
+
+import java.util.List;
+
+public final class WishlistSnapshot
+{
+    private final String childName;  // the child who owns the wishlist
+    private final long version;  // the wishlist's version when the snapshot was made
+    private final PersistentList<WishlistItem> items;  // the items in list order
+
+    /***************************************************************
+    *function: WishlistSnapshot
+    *purpose: Constructor for a snapshot of the given items.
+    ****************************************************************/
+    WishlistSnapshot(String childName, long version, PersistentList<WishlistItem> items)
+    {
+        this.childName = childName;
+        this.version = version;
+        this.items = items;
+    }
+
+    /***************************************************************
+    *function: getChildName
+    *purpose: Getter method for the child's name.
+    ****************************************************************/
+    public String getChildName()
+    {
+        return childName;
+    }
+
+    /***************************************************************
+    *function: getVersion
+    *purpose: Returns the wishlist version this snapshot shows. It
+    *         matches the version of the last event fired before it.
+    ****************************************************************/
+    public long getVersion()
+    {
+        return version;
+    }
+
+    /***************************************************************
+    *function: getItems
+    *purpose: Returns the items in list order. The list is read-only
+    *         and never changes.
+    ****************************************************************/
+    public List<WishlistItem> getItems()
+    {
+        return items;
+    }
+
+    /***************************************************************
+    *function: size
+    *purpose: Returns the number of items.
+    ****************************************************************/
+    public int size()
+    {
+        return items.size();
+    }
+
+    // the next versions of the snapshot, used by Wishlist
+    WishlistSnapshot withAdded(WishlistItem item, long newVersion)
+    {
+        return new WishlistSnapshot(childName, newVersion, items.plus(item));
+    }
+
+    WishlistSnapshot withEdited(int position, WishlistItem item, long newVersion)
+    {
+        return new WishlistSnapshot(childName, newVersion, items.update(position, item));
+    }
+
+    WishlistSnapshot withRemoved(int position, long newVersion)
+    {
+        return new WishlistSnapshot(childName, newVersion, items.without(position));
+    }
+
+    /***************************************************************
+    *function: toString
+    *purpose: Formats the snapshot the same way Wishlist.toString
+    *         formats a wishlist.
+    ****************************************************************/
+    @Override
+    public String toString()
+    {
+        StringBuilder text = new StringBuilder("Wishlist for " + childName + ":\n");
+        for (WishlistItem item : items)
+        {
+            text.append(item.getItemName()).append(": ").append(item.getDescription()).append("\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,164 @@
+/***************************************************************
+*file: WishlistTracker.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class is the base for views that are built from
+*         every wishlist in SantaWishlistApp and kept up to date
+*         through change events, such as ToyDemand and
+*         WishlistSearchIndex. Subclasses only say what to do when
+*         an item is added, edited or removed.
+*
+*         A tracker listens through SantaWishlistApp.addBatchListener,
+*         so the thread changing a wishlist only queues the event and
+*         never waits for the tracker; the tracker catches up a few
+*         milliseconds later on its own thread. Changes to different
+*         children therefore never meet on a tracker's lock.
+*
+*         When attached, every wishlist is read once, copying its
+*         items under its own lock, and the version it had is
+*         remembered; events at or below that version are already
+*         included and are skipped, however late they arrive. A
+*         wishlist seen for the first time through an event is read
+*         the same way. Reading a wishlist and applying events both
+*         happen under the tracker's update lock, which is only
+*         ever taken before a wishlist's lock, never after.
+****************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public abstract class WishlistTracker implements WishlistBatchListener
+{
+    private static final int MAX_BATCH = 1024;  // most events applied in one go
+
+    private final Map<String, Long> includedVersion;  // child to the version already included
+    private final Object updates = new Object();  // held while reading a wishlist in or applying events
+    private volatile SantaWishlistApp app;  // app being tracked, null until attached
+
+    /***************************************************************
+    *function: WishlistTracker
+    *purpose: Constructor for subclasses.
+    ****************************************************************/
+    protected WishlistTracker()
+    {
+        includedVersion = new ConcurrentHashMap<>();
+    }
+
+    /***************************************************************
+    *function: attach
+    *purpose: Starts following the app's wishlists and includes the
+    *         items they already hold.
+    ****************************************************************/
+    public void attach(SantaWishlistApp app)
+    {
+        this.app = app;
+        app.addBatchListener(this, MAX_BATCH, 0);
+        for (Wishlist wishlist : app.getWishlists())
+        {
+            synchronized (updates)
+            {
+                includeIfNew(wishlist);
+            }
+        }
+    }
+
+    /***************************************************************
+    *function: wishlistsChanged
+    *purpose: Passes a batch of changes on to the subclass, on the
+    *         tracker's own thread.
+    ****************************************************************/
+    @Override
+    public void wishlistsChanged(List<WishlistEvent> events)
+    {
+        synchronized (updates)
+        {
+            for (WishlistEvent event : events)
+            {
+                apply(event);
+            }
+        }
+    }
+
+    // passes one change on to the subclass unless it is already included; the caller holds updates
+    private void apply(WishlistEvent event)
+    {
+        Long included = includedVersion.get(event.getChildName());
+        if (included == null)
+        {
+            // first time we see this child: read its whole list, which includes this change
+            SantaWishlistApp current = app;
+            Wishlist wishlist = current == null ? null : current.getWishlist(event.getChildName());
+            if (wishlist != null)
+            {
+                includeIfNew(wishlist);
+            }
+            return;
+        }
+        if (event.getVersion() <= included)
+        {
+            return;
+        }
+
+        switch (event.getType())
+        {
+            case ADDED:
+                itemAdded(event.getChildName(), event.getItem());
+                break;
+            case REMOVED:
+                itemRemoved(event.getChildName(), event.getItem());
+                break;
+            case EDITED:
+                itemEdited(event.getChildName(), event.getPreviousItemName(), event.getPreviousDescription(),
+                        event.getItem());
+                break;
+        }
+    }
+
+    /***************************************************************
+    *function: itemAdded
+    *purpose: Called for every item added, and for every item already
+    *         in a wishlist when it is first read.
+    ****************************************************************/
+    protected abstract void itemAdded(String childName, WishlistItem item);
+
+    /***************************************************************
+    *function: itemRemoved
+    *purpose: Called for every item removed.
+    ****************************************************************/
+    protected abstract void itemRemoved(String childName, WishlistItem item);
+
+    /***************************************************************
+    *function: itemEdited
+    *purpose: Called for every item edited, with its old name and
+    *         description and the item as it is now.
+    ****************************************************************/
+    protected abstract void itemEdited(String childName, String previousItemName, String previousDescription,
+            WishlistItem item);
+
+    // reads a wishlist's items unless it was read before; the caller holds updates
+    private void includeIfNew(Wishlist wishlist)
+    {
+        if (includedVersion.containsKey(wishlist.getChildName()))
+        {
+            return;
+        }
+        List<WishlistItem> items;
+        long version;
+        synchronized (wishlist)
+        {
+            items = new ArrayList<>(wishlist.getItems());
+            version = wishlist.getVersion();
+        }
+        for (WishlistItem item : items)
+        {
+            itemAdded(wishlist.getChildName(), item);
+        }
+        includedVersion.put(wishlist.getChildName(), version);
+    }
+}
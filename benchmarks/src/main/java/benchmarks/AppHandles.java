@@ -0,0 +1,317 @@
+/***************************************************************
+*file: AppHandles.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: This class lets the benchmarks call Wishlist,
+*         SantaWishlistApp and the file formats. The application
+*         lives in the default package, which JMH refuses to
+*         generate code for and which named packages cannot
+*         import, so every call goes through a static final
+*         MethodHandle. The JIT treats those handles as constants
+*         and inlines the target, so the calls cost the same as
+*         direct ones.
+*
+****************************************************************/
+
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.file.Path;
+
+final class AppHandles
+{
+    private static final MethodHandle NEW_APP;
+    private static final MethodHandle NEW_WISHLIST;
+    private static final Class<? extends Enum> STORAGE;  // Wishlist.Storage
+    private static final MethodHandle WISHLIST_ADD;
+    private static final MethodHandle WISHLIST_SEARCH;
+    private static final MethodHandle WISHLIST_EDIT_INDEX;
+    private static final MethodHandle WISHLIST_EDIT_NAME;
+    private static final MethodHandle WISHLIST_REMOVE_NAME;
+    private static final MethodHandle WISHLIST_TO_STRING;
+    private static final MethodHandle APP_CREATE;
+    private static final MethodHandle APP_ADD;
+    private static final MethodHandle APP_REMOVE;
+    private static final Class<? extends Enum> EXPORT_FORMAT;  // WishlistExporter.Format
+    private static final Class<? extends Enum> IMPORT_FORMAT;  // WishlistImporter.Format
+    private static final MethodHandle EXPORT_ALL;
+    private static final MethodHandle NEW_IMPORTER;
+    private static final MethodHandle IMPORT_FILE;
+    private static final MethodHandle CODEC_WRITE_ALL;
+    private static final MethodHandle CODEC_READ_ALL;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> app = Class.forName("SantaWishlistApp");
+            Class<?> wishlist = Class.forName("Wishlist");
+            Class<?> item = Class.forName("WishlistItem");
+
+            // the app constructor is package-private; both sides are in the unnamed module
+            NEW_APP = MethodHandles.privateLookupIn(app, lookup)
+                    .findConstructor(app, MethodType.methodType(void.class))
+                    .asType(MethodType.methodType(Object.class));
+            STORAGE = Class.forName("Wishlist$Storage").asSubclass(Enum.class);
+            NEW_WISHLIST = lookup.findConstructor(wishlist, MethodType.methodType(void.class, String.class, STORAGE))
+                    .asType(MethodType.methodType(Object.class, String.class, Object.class));
+
+            WISHLIST_ADD = virtual(lookup, wishlist, "addItem", boolean.class, String.class, String.class);
+            WISHLIST_SEARCH = virtual(lookup, wishlist, "searchItem", item, String.class);
+            WISHLIST_EDIT_INDEX = virtual(lookup, wishlist, "editItem", boolean.class, int.class, String.class,
+                    String.class);
+            WISHLIST_EDIT_NAME = virtual(lookup, wishlist, "editItem", boolean.class, String.class, String.class,
+                    String.class);
+            WISHLIST_REMOVE_NAME = virtual(lookup, wishlist, "removeItem", boolean.class, String.class);
+            WISHLIST_TO_STRING = virtual(lookup, wishlist, "toString", String.class);
+            APP_CREATE = virtual(lookup, app, "createWishlistForChild", void.class, String.class);
+            APP_ADD = virtual(lookup, app, "addItem", boolean.class, String.class, String.class, String.class);
+            APP_REMOVE = virtual(lookup, app, "removeItem", boolean.class, String.class, String.class);
+
+            Class<?> exporter = Class.forName("WishlistExporter");
+            Class<?> importer = Class.forName("WishlistImporter");
+            Class<?> codec = Class.forName("WishlistCodec");
+            EXPORT_FORMAT = Class.forName("WishlistExporter$Format").asSubclass(Enum.class);
+            IMPORT_FORMAT = Class.forName("WishlistImporter$Format").asSubclass(Enum.class);
+            EXPORT_ALL = lookup.findStatic(exporter, "exportAll", MethodType.methodType(long.class, app, Path.class,
+                    EXPORT_FORMAT, boolean.class, Class.forName("WishlistExporter$ProgressListener")))
+                    .asType(MethodType.methodType(long.class, Object.class, Path.class, Object.class, boolean.class,
+                            Object.class));
+            NEW_IMPORTER = lookup.findConstructor(importer, MethodType.methodType(void.class, app, int.class,
+                    int.class)).asType(MethodType.methodType(Object.class, Object.class, int.class, int.class));
+            IMPORT_FILE = virtual(lookup, importer, "importFile", Class.forName("WishlistImporter$FileReport"),
+                    Path.class, IMPORT_FORMAT).asType(MethodType.methodType(Object.class, Object.class, Path.class,
+                    Object.class));
+            CODEC_WRITE_ALL = lookup.findStatic(codec, "writeAll", MethodType.methodType(long.class, app, Path.class,
+                    boolean.class)).asType(MethodType.methodType(long.class, Object.class, Path.class, boolean.class));
+            CODEC_READ_ALL = lookup.findStatic(codec, "readAll", MethodType.methodType(long.class, Path.class, app))
+                    .asType(MethodType.methodType(long.class, Path.class, Object.class));
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private AppHandles()
+    {
+    }
+
+    // finds an instance method and erases its receiver (and object return type) to Object
+    private static MethodHandle virtual(MethodHandles.Lookup lookup, Class<?> owner, String name, Class<?> returns,
+            Class<?>... parameters) throws ReflectiveOperationException
+    {
+        MethodHandle handle = lookup.findVirtual(owner, name, MethodType.methodType(returns, parameters));
+        MethodType erased = handle.type().changeParameterType(0, Object.class);
+        if (!returns.isPrimitive())
+        {
+            erased = erased.changeReturnType(returns == String.class ? String.class : Object.class);
+        }
+        return handle.asType(erased);
+    }
+
+    static Object newApp()
+    {
+        try
+        {
+            return (Object) NEW_APP.invokeExact();
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Object newWishlist(String childName, String storage)
+    {
+        try
+        {
+            return (Object) NEW_WISHLIST.invokeExact(childName, (Object) Enum.valueOf(STORAGE, storage));
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean addItem(Object wishlist, String itemName, String description)
+    {
+        try
+        {
+            return (boolean) WISHLIST_ADD.invokeExact(wishlist, itemName, description);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static Object searchItem(Object wishlist, String itemName)
+    {
+        try
+        {
+            return (Object) WISHLIST_SEARCH.invokeExact(wishlist, itemName);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean editItem(Object wishlist, int itemIndex, String newItemName, String newDescription)
+    {
+        try
+        {
+            return (boolean) WISHLIST_EDIT_INDEX.invokeExact(wishlist, itemIndex, newItemName, newDescription);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean editItem(Object wishlist, String itemName, String newItemName, String newDescription)
+    {
+        try
+        {
+            return (boolean) WISHLIST_EDIT_NAME.invokeExact(wishlist, itemName, newItemName, newDescription);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean removeItem(Object wishlist, String itemName)
+    {
+        try
+        {
+            return (boolean) WISHLIST_REMOVE_NAME.invokeExact(wishlist, itemName);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static String wishlistToString(Object wishlist)
+    {
+        try
+        {
+            return (String) WISHLIST_TO_STRING.invokeExact(wishlist);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static void createWishlistForChild(Object app, String childName)
+    {
+        try
+        {
+            APP_CREATE.invokeExact(app, childName);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean addItem(Object app, String childName, String itemName, String description)
+    {
+        try
+        {
+            return (boolean) APP_ADD.invokeExact(app, childName, itemName, description);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static boolean removeItem(Object app, String childName, String itemName)
+    {
+        try
+        {
+            return (boolean) APP_REMOVE.invokeExact(app, childName, itemName);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static long exportAll(Object app, Path target, String format)
+    {
+        try
+        {
+            return (long) EXPORT_ALL.invokeExact(app, target, (Object) Enum.valueOf(EXPORT_FORMAT, format), false,
+                    (Object) null);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static Object importFile(Object app, Path source, String format)
+    {
+        try
+        {
+            Object importer = (Object) NEW_IMPORTER.invokeExact(app, 1, 1024);
+            return (Object) IMPORT_FILE.invokeExact(importer, source, (Object) Enum.valueOf(IMPORT_FORMAT, format));
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static long codecWriteAll(Object app, Path target, boolean compress)
+    {
+        try
+        {
+            return (long) CODEC_WRITE_ALL.invokeExact(app, target, compress);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    static long codecReadAll(Path source, Object app)
+    {
+        try
+        {
+            return (long) CODEC_READ_ALL.invokeExact(source, app);
+        }
+        catch (Throwable t)
+        {
+            throw rethrow(t);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable t)
+    {
+        if (t instanceof RuntimeException)
+        {
+            return (RuntimeException) t;
+        }
+        if (t instanceof Error)
+        {
+            throw (Error) t;
+        }
+        return new RuntimeException(t);
+    }
+}
@@ -0,0 +1,141 @@
+/***************************************************************
+*file: CodecBenchmark.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: JMH benchmarks for saving and loading every wishlist of
+*         an app with 1,000 to 100,000 children: the binary
+*         WishlistCodec, plain and compressed, against the TXT and
+*         CSV text export. Loading reads the file back into a new
+*         app, with WishlistImporter (one thread) for CSV, since
+*         the TXT export cannot be read back at all.
+*
+*         The file sizes are printed once per trial.
+****************************************************************/
+
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CodecBenchmark
+{
+    private static final int ITEMS_PER_CHILD = 4;
+
+    @Param({"1000", "100000"})
+    int children;  // children in the app
+
+    Object app;  // app filled with children
+    Path directory;  // temporary folder for the files
+    Path txt;  // TXT export of the app
+    Path csv;  // CSV export of the app
+    Path binary;  // WishlistCodec file of the app
+    Path compressed;  // deflated WishlistCodec file of the app
+
+    @Setup(Level.Trial)
+    public void fill() throws IOException
+    {
+        app = AppHandles.newApp();
+        for (int c = 0; c < children; c++)
+        {
+            String child = "child-" + c;
+            AppHandles.createWishlistForChild(app, child);
+            for (int i = 0; i < ITEMS_PER_CHILD; i++)
+            {
+                AppHandles.addItem(app, child, "Toy " + (c * 7 + i) % 500, "description of toy " + i + " for " + child);
+            }
+        }
+
+        directory = Files.createTempDirectory("codec-bench");
+        txt = directory.resolve("all.txt");
+        csv = directory.resolve("all.csv");
+        binary = directory.resolve("all.swbc");
+        compressed = directory.resolve("all-deflate.swbc");
+        AppHandles.exportAll(app, txt, "TXT");
+        AppHandles.exportAll(app, csv, "CSV");
+        AppHandles.codecWriteAll(app, binary, false);
+        AppHandles.codecWriteAll(app, compressed, true);
+        System.out.printf("%nbytes: txt=%d csv=%d binary=%d compressed=%d%n", Files.size(txt), Files.size(csv),
+                Files.size(binary), Files.size(compressed));
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException
+    {
+        for (Path file : new Path[] {txt, csv, binary, compressed})
+        {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    // ---- save ----
+
+    @Benchmark
+    public long writeTxt()
+    {
+        return AppHandles.exportAll(app, txt, "TXT");
+    }
+
+    @Benchmark
+    public long writeCsv()
+    {
+        return AppHandles.exportAll(app, csv, "CSV");
+    }
+
+    @Benchmark
+    public long writeBinary()
+    {
+        return AppHandles.codecWriteAll(app, binary, false);
+    }
+
+    @Benchmark
+    public long writeCompressed()
+    {
+        return AppHandles.codecWriteAll(app, compressed, true);
+    }
+
+    // ---- load into a new app ----
+
+    @Benchmark
+    public Object readCsv()
+    {
+        return AppHandles.importFile(AppHandles.newApp(), csv, "CSV");
+    }
+
+    @Benchmark
+    public long readBinary()
+    {
+        return AppHandles.codecReadAll(binary, AppHandles.newApp());
+    }
+
+    @Benchmark
+    public long readCompressed()
+    {
+        return AppHandles.codecReadAll(compressed, AppHandles.newApp());
+    }
+}
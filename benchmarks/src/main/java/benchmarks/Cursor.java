@@ -0,0 +1,33 @@
+/***************************************************************
+*file: Cursor.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Per-thread pseudo-random position for the benchmarks,
+*         so every thread touches different items or children
+*         without sharing a random number generator.
+*
+****************************************************************/
+
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+public class Cursor
+{
+    private long seed = System.nanoTime() | 1;  // xorshift state, never zero
+
+    // returns a position in [0, bound)
+    int next(int bound)
+    {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (int) ((seed >>> 1) % bound);
+    }
+}
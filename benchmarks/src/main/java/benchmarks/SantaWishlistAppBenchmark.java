@@ -0,0 +1,137 @@
+/***************************************************************
+*file: SantaWishlistAppBenchmark.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: JMH benchmarks for the SantaWishlistApp registry:
+*         createWishlistForChild (new and existing children) and
+*         removeItem, with 10 to 1,000,000 children. Contended
+*         variants run one thread per core, either spread across
+*         all children or all hitting the same child, which shows
+*         the cost of the per-child lock.
+*
+*         removeItem is measured together with the addItem that
+*         puts the item back, so every child keeps its items.
+****************************************************************/
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SantaWishlistAppBenchmark
+{
+    private static final int ITEMS_PER_CHILD = 4;
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int children;  // children in the registry
+
+    Object app;  // registry filled with children
+    String[] childNames;  // names of the children
+    String[] itemNames;  // names of each child's items
+    final AtomicLong newChildren = new AtomicLong();  // counter for never-seen child names
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        app = AppHandles.newApp();
+        childNames = new String[children];
+        itemNames = new String[ITEMS_PER_CHILD];
+        for (int i = 0; i < ITEMS_PER_CHILD; i++)
+        {
+            itemNames[i] = "Toy " + i;
+        }
+        for (int c = 0; c < children; c++)
+        {
+            childNames[c] = "child-" + c;
+            AppHandles.createWishlistForChild(app, childNames[c]);
+            for (String item : itemNames)
+            {
+                AppHandles.addItem(app, childNames[c], item, "description");
+            }
+        }
+    }
+
+    // ---- single-threaded ----
+
+    @Benchmark
+    public Object createExistingChild(Cursor cursor)
+    {
+        String child = childNames[cursor.next(children)];
+        AppHandles.createWishlistForChild(app, child);
+        return child;
+    }
+
+    @Benchmark
+    public Object createNewChild()
+    {
+        String child = "new-child-" + newChildren.incrementAndGet();
+        AppHandles.createWishlistForChild(app, child);
+        return child;
+    }
+
+    @Benchmark
+    public boolean removeItem(Cursor cursor)
+    {
+        String child = childNames[cursor.next(children)];
+        String item = itemNames[cursor.next(ITEMS_PER_CHILD)];
+        boolean removed = AppHandles.removeItem(app, child, item);
+        AppHandles.addItem(app, child, item, "put back");
+        return removed;
+    }
+
+    // ---- contended: one thread per core ----
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object createExistingChildContended(Cursor cursor)
+    {
+        return createExistingChild(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object createNewChildContended()
+    {
+        return createNewChild();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean removeItemContended(Cursor cursor)
+    {
+        return removeItem(cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean removeItemSameChild(Cursor cursor)
+    {
+        String item = itemNames[cursor.next(ITEMS_PER_CHILD)];
+        boolean removed = AppHandles.removeItem(app, childNames[0], item);
+        AppHandles.addItem(app, childNames[0], item, "put back");
+        return removed;
+    }
+}
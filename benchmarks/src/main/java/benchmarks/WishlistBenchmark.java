@@ -0,0 +1,151 @@
+/***************************************************************
+*file: WishlistBenchmark.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: JMH benchmarks for the Wishlist hot paths: addItem,
+*         searchItem, editItem, removeItem and toString, on lists
+*         of 10 to 1,000,000 items. Each operation has a single
+*         threaded variant and a contended variant where four
+*         threads share one wishlist (and so one lock). The mixed
+*         group runs three readers against one writer.
+*
+*         removeItem is measured together with the addItem that
+*         puts the item back, and addItem together with the
+*         removeItem that takes the new item off again, so the list
+*         keeps its size throughout an iteration.
+****************************************************************/
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class WishlistBenchmark
+{
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;  // items in the wishlist
+
+    @Param({"STANDARD", "COMPACT"})
+    String storage;  // Wishlist.Storage used
+
+    Object wishlist;  // shared wishlist filled with size items
+    String[] names;  // names of the items, by position
+
+    @Setup(Level.Trial)
+    public void fill()
+    {
+        wishlist = AppHandles.newWishlist("bench-child", storage);
+        names = new String[size];
+        for (int i = 0; i < size; i++)
+        {
+            names[i] = "Toy " + i;
+            AppHandles.addItem(wishlist, names[i], "description of toy " + i);
+        }
+    }
+
+    // ---- single-threaded ----
+
+    @Benchmark
+    public boolean addItem()
+    {
+        AppHandles.addItem(wishlist, "New toy", "a brand new toy");
+        return AppHandles.removeItem(wishlist, "New toy");
+    }
+
+    @Benchmark
+    public Object searchItem(Cursor cursor)
+    {
+        return AppHandles.searchItem(wishlist, names[cursor.next(size)]);
+    }
+
+    @Benchmark
+    public boolean editItemByIndex(Cursor cursor)
+    {
+        int index = cursor.next(size);
+        return AppHandles.editItem(wishlist, index, "Edited " + index, "edited description");
+    }
+
+    @Benchmark
+    public boolean editItemByName(Cursor cursor)
+    {
+        String name = names[cursor.next(size)];
+        return AppHandles.editItem(wishlist, name, name, "edited description");
+    }
+
+    @Benchmark
+    public boolean removeItem(Cursor cursor)
+    {
+        String name = names[cursor.next(size)];
+        AppHandles.removeItem(wishlist, name);
+        return AppHandles.addItem(wishlist, name, "put back");
+    }
+
+    @Benchmark
+    public String toStringList()
+    {
+        return AppHandles.wishlistToString(wishlist);
+    }
+
+    // ---- contended: four threads on one wishlist ----
+
+    @Benchmark
+    @Threads(4)
+    public Object searchItemContended(Cursor cursor)
+    {
+        return searchItem(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean editItemContended(Cursor cursor)
+    {
+        return editItemByName(cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean removeItemContended(Cursor cursor)
+    {
+        return removeItem(cursor);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Object mixedSearch(Cursor cursor)
+    {
+        return searchItem(cursor);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public boolean mixedEdit(Cursor cursor)
+    {
+        return editItemByName(cursor);
+    }
+}
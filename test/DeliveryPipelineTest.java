@@ -0,0 +1,116 @@
+/***************************************************************
+*file: DeliveryPipelineTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests that every send given to DeliveryPipeline is either
+*         delivered or rejected, also when it races with close.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class DeliveryPipelineTest
+{
+    private static final WishlistDelivery DELIVERY = new WishlistDelivery("Amy", List.of(), Instant.EPOCH);
+
+    /***************************************************************
+    *function: submitAfterCloseIsRejected
+    *purpose: Checks that a send made after close fails at once.
+    ****************************************************************/
+    @Test
+    void submitAfterCloseIsRejected()
+    {
+        DeliveryPipeline pipeline = new DeliveryPipeline(batch -> { }, 4, 2, 1, 0);
+        pipeline.close();
+        CompletableFuture<Void> sent = pipeline.submit(DELIVERY);
+        assertTrue(sent.isCompletedExceptionally());
+        assertEquals(0, pipeline.getSubmittedCount());
+    }
+
+    /***************************************************************
+    *function: sendsRacingCloseAllComplete
+    *purpose: Sends from several threads while the pipeline closes and
+    *         checks that every future completes, the delivered ones
+    *         matching what reached the sink.
+    ****************************************************************/
+    @Test
+    void sendsRacingCloseAllComplete() throws Exception
+    {
+        for (int round = 0; round < 20; round++)
+        {
+            AtomicLong reached = new AtomicLong();
+            DeliveryPipeline pipeline = new DeliveryPipeline(batch -> reached.addAndGet(batch.size()), 8, 4, 2, 0);
+            List<CompletableFuture<Void>> sent = new ArrayList<>();
+            List<Thread> senders = new ArrayList<>();
+            for (int t = 0; t < 4; t++)
+            {
+                List<CompletableFuture<Void>> mine = new ArrayList<>();
+                senders.add(Thread.ofPlatform().start(() ->
+                {
+                    for (int i = 0; i < 2_000; i++)
+                    {
+                        mine.add(pipeline.submit(DELIVERY));
+                    }
+                    synchronized (sent)
+                    {
+                        sent.addAll(mine);
+                    }
+                }));
+            }
+            Thread.sleep(1);
+            pipeline.close();
+            for (Thread sender : senders)
+            {
+                sender.join();
+            }
+
+            long delivered = 0;
+            for (CompletableFuture<Void> future : sent)
+            {
+                try
+                {
+                    future.get(5, TimeUnit.SECONDS);
+                    delivered++;
+                }
+                catch (ExecutionException e)
+                {
+                    // rejected by close
+                }
+            }
+            assertEquals(reached.get(), delivered);
+            assertEquals(reached.get(), pipeline.getDeliveredCount());
+        }
+    }
+
+    /***************************************************************
+    *function: failedBatchFailsItsSends
+    *purpose: Checks that a sink error fails the futures of the batch.
+    ****************************************************************/
+    @Test
+    void failedBatchFailsItsSends()
+    {
+        DeliveryPipeline pipeline = new DeliveryPipeline(batch ->
+        {
+            throw new IOException("sleigh is full");
+        }, 4, 2, 1, 0);
+        CompletableFuture<Void> sent = pipeline.submit(DELIVERY);
+        pipeline.close();
+        assertThrows(ExecutionException.class, sent::get);
+        assertEquals(1, pipeline.getFailedCount());
+    }
+}
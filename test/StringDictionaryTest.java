@@ -0,0 +1,110 @@
+/***************************************************************
+*file: StringDictionaryTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests that StringDictionary drops strings once their last
+*         reference is given back, and that compact wishlists give
+*         back every reference they take.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StringDictionaryTest
+{
+    /***************************************************************
+    *function: lastReleaseDropsString
+    *purpose: Checks that a string stays while any reference is out,
+    *         is dropped by the last release and that its code is
+    *         reused.
+    ****************************************************************/
+    @Test
+    void lastReleaseDropsString()
+    {
+        StringDictionary dictionary = new StringDictionary();
+        int bike = dictionary.encode("bike");
+        assertEquals(bike, dictionary.encode(new String("bike")));
+        assertEquals(1, dictionary.size());
+
+        dictionary.release(bike);
+        assertEquals("bike", dictionary.decode(bike));
+        dictionary.release(bike);
+        assertEquals(0, dictionary.size());
+
+        int doll = dictionary.encode("doll");
+        assertEquals(bike, doll);
+        assertEquals("doll", dictionary.decode(doll));
+
+        String key = dictionary.canonical(new String("doll"));
+        assertSame(dictionary.decode(doll), key);
+        dictionary.release(key);
+        dictionary.release(doll);
+        assertEquals(0, dictionary.size());
+    }
+
+    /***************************************************************
+    *function: removedItemsLeaveDictionary
+    *purpose: Adds many uniquely named items to a compact wishlist,
+    *         edits and removes them and checks the shared dictionary
+    *         is back to the size it started at.
+    ****************************************************************/
+    @Test
+    void removedItemsLeaveDictionary()
+    {
+        int items = 50_000;
+        StringDictionary shared = StringDictionary.shared();
+        Wishlist wishlist = new Wishlist("Amy", Wishlist.Storage.COMPACT);
+        synchronized (shared)
+        {
+            int before = shared.size();
+            for (int i = 0; i < items; i++)
+            {
+                wishlist.addItem("Toy " + i, "wish " + i);
+            }
+            assertTrue(shared.size() >= before + 2 * items);
+
+            for (int i = 0; i < items; i += 2)
+            {
+                wishlist.editItem("Toy " + i, "Game " + i, "wish " + i);
+            }
+            for (int i = 0; i < items; i++)
+            {
+                wishlist.removeItem(i % 2 == 0 ? "Game " + i : "Toy " + i);
+            }
+            assertEquals(0, wishlist.getItems().size());
+            assertEquals(before, shared.size());
+        }
+    }
+
+    /***************************************************************
+    *function: droppedWishlistLeavesDictionary
+    *purpose: Checks that the names of a compact wishlist nobody
+    *         refers to any more leave the dictionary once it has been
+    *         collected.
+    ****************************************************************/
+    @Test
+    void droppedWishlistLeavesDictionary() throws InterruptedException
+    {
+        StringDictionary shared = StringDictionary.shared();
+        int before = shared.size();
+        Wishlist wishlist = new Wishlist("Ben", Wishlist.Storage.COMPACT);
+        wishlist.addItem("Dropped toy", "a wish nobody else makes");
+        assertEquals(before + 3, shared.size());
+        wishlist = null;
+
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (shared.size() > before && System.nanoTime() < deadline)
+        {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertTrue(shared.size() <= before);
+    }
+}
@@ -0,0 +1,103 @@
+/***************************************************************
+*file: WishlistCacheTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests that a wishlist the cache spilled to disk comes back
+*         with its items, ids and versions, so compare-and-set edits
+*         made against what a session read before the eviction still
+*         work.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WishlistCacheTest
+{
+    @TempDir
+    Path directory;  // spill folder for each test
+    private String savedDataDir;  // santa.data.dir before the test
+
+    @BeforeEach
+    void useTempDataDir()
+    {
+        savedDataDir = System.getProperty("santa.data.dir");
+        System.setProperty("santa.data.dir", directory.toString());
+    }
+
+    @AfterEach
+    void restoreDataDir()
+    {
+        if (savedDataDir == null)
+        {
+            System.clearProperty("santa.data.dir");
+        }
+        else
+        {
+            System.setProperty("santa.data.dir", savedDataDir);
+        }
+    }
+
+    /***************************************************************
+    *function: reloadKeepsVersions
+    *purpose: Evicts a wishlist, lets it be collected so the next
+    *         lookup has to read the spill file, and checks the
+    *         reloaded list has the same version, ids and item
+    *         versions, and that ids keep counting up after it.
+    ****************************************************************/
+    @Test
+    void reloadKeepsVersions() throws InterruptedException
+    {
+        SantaWishlistApp app = new SantaWishlistApp(Wishlist.Storage.STANDARD, 2);
+        app.createWishlistForChild("Amy");
+        WishlistItem bike = app.addItemAndGet("Amy", "Bike", "red", 5);
+        WishlistItem doll = app.addItemAndGet("Amy", "Doll", "with a hat", 2);
+        WishlistItem edited = app.updateItem("Amy", bike.getId(), bike.getVersion(), "Blue bike", "blue", 6);
+        assertNotNull(edited);
+        long version = app.getWishlist("Amy").getVersion();
+        WeakReference<Wishlist> amy = new WeakReference<>(app.getWishlist("Amy"));
+
+        for (String child : new String[] {"Ben", "Cal", "Dan"})
+        {
+            app.createWishlistForChild(child);
+            app.addItem(child, "Kite", "green");
+        }
+        assertTrue(app.getCacheStats().getEvictionCount() >= 1);
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (amy.get() != null && System.nanoTime() < deadline)
+        {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertNull(amy.get());
+
+        long loads = app.getCacheStats().getLoadCount();
+        Wishlist reloaded = app.getWishlist("Amy");
+        assertEquals(loads + 1, app.getCacheStats().getLoadCount());
+        assertEquals(version, reloaded.getVersion());
+        WishlistItem first = reloaded.getItem(bike.getId());
+        assertEquals("Blue bike", first.getItemName());
+        assertEquals(edited.getVersion(), first.getVersion());
+        assertEquals(6, first.getPriority());
+        assertEquals(doll.getVersion(), reloaded.getItem(doll.getId()).getVersion());
+
+        // an edit based on what was read before the eviction still applies, a stale one does not
+        assertFalse(app.editItem("Amy", bike.getId(), bike.getVersion(), "Red bike", "red"));
+        assertTrue(app.editItem("Amy", bike.getId(), edited.getVersion(), "Red bike", "red"));
+        WishlistItem kite = app.addItemAndGet("Amy", "Kite", "yellow", 1);
+        assertTrue(kite.getId() > doll.getId());
+    }
+}
@@ -0,0 +1,110 @@
+/***************************************************************
+*file: WishlistCasTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests the version-checked edits of Wishlist: a change
+*         made with a stale version is refused and leaves the item
+*         as it was, and of several sessions that read the same
+*         version only one gets its change in.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class WishlistCasTest
+{
+    /***************************************************************
+    *function: staleVersionChangesNothing
+    *purpose: Edits an item once, then tries every by-id change with
+    *         the version from before that edit and checks each is
+    *         refused without touching the item or the wishlist.
+    ****************************************************************/
+    @Test
+    void staleVersionChangesNothing()
+    {
+        for (Wishlist.Storage storage : new Wishlist.Storage[] {Wishlist.Storage.STANDARD, Wishlist.Storage.COMPACT})
+        {
+            Wishlist wishlist = new Wishlist("Amy", storage);
+            WishlistItem read = wishlist.addItemAndGet("Bike", "red", 5);
+            assertTrue(wishlist.editItemById(read.getId(), read.getVersion(), "Blue bike", "blue"));
+            WishlistItem current = wishlist.getItem(read.getId());
+            assertEquals(read.getVersion() + 1, current.getVersion());
+            long version = wishlist.getVersion();
+
+            assertFalse(wishlist.editItemById(read.getId(), read.getVersion(), "Green bike", "green"));
+            assertNull(wishlist.updateItemById(read.getId(), read.getVersion(), "Green bike", "green", 9));
+            assertFalse(wishlist.setPriorityById(read.getId(), read.getVersion(), 9));
+            assertFalse(wishlist.removeItemById(read.getId(), read.getVersion()));
+
+            WishlistItem after = wishlist.getItem(read.getId());
+            assertEquals("Blue bike", after.getItemName());
+            assertEquals("blue", after.getDescription());
+            assertEquals(5, after.getPriority());
+            assertEquals(current.getVersion(), after.getVersion());
+            assertEquals(version, wishlist.getVersion());
+            assertEquals(1, wishlist.getItems().size());
+
+            // the current version, or ANY_VERSION, still works
+            assertNotNull(wishlist.updateItemById(read.getId(), current.getVersion(), "Green bike", "green", 9));
+            assertTrue(wishlist.removeItemById(read.getId(), Wishlist.ANY_VERSION));
+            assertFalse(wishlist.editItemById(read.getId(), Wishlist.ANY_VERSION, "Bike", "gone"));
+        }
+    }
+
+    /***************************************************************
+    *function: oneOfManyRacingEditsWins
+    *purpose: Lets several threads edit the same item with the version
+    *         they all read and checks exactly one edit goes in.
+    ****************************************************************/
+    @Test
+    void oneOfManyRacingEditsWins() throws InterruptedException
+    {
+        Wishlist wishlist = new Wishlist("Amy");
+        for (int round = 0; round < 100; round++)
+        {
+            WishlistItem read = wishlist.addItemAndGet("Toy " + round, "wish", 0);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger wins = new AtomicInteger();
+            List<Thread> sessions = new ArrayList<>();
+            for (int t = 0; t < 8; t++)
+            {
+                String name = "Toy " + round + " by " + t;
+                sessions.add(Thread.ofPlatform().start(() ->
+                {
+                    try
+                    {
+                        start.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        return;
+                    }
+                    if (wishlist.editItemById(read.getId(), read.getVersion(), name, "wish"))
+                    {
+                        wins.incrementAndGet();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Thread session : sessions)
+            {
+                session.join();
+            }
+            assertEquals(1, wins.get());
+            assertEquals(read.getVersion() + 1, wishlist.getItem(read.getId()).getVersion());
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/***************************************************************
+*file: WishlistCodecTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests that WishlistCodec reads back exactly what it wrote
+*         and refuses damaged or cut-off streams.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class WishlistCodecTest
+{
+    private static final int CHILDREN = 50;  // wishlists per stream, enough for several blocks
+    private static final int ITEMS = 200;  // items per wishlist
+
+    /***************************************************************
+    *function: roundTripKeepsEverything
+    *purpose: Writes wishlists with and without compression and checks
+    *         every field of every record and item reads back the same.
+    ****************************************************************/
+    @Test
+    void roundTripKeepsEverything() throws IOException
+    {
+        for (boolean compress : new boolean[] {false, true})
+        {
+            WishlistCodec.Decoder in = new WishlistCodec.Decoder(ByteBuffer.wrap(encode(compress)));
+            for (int child = 0; child < CHILDREN; child++)
+            {
+                assertTrue(in.next());
+                assertEquals("Child " + child + " éè", in.getChildName());
+                assertEquals(child * 7L, in.getVersion());
+                assertEquals(child == 0 ? -1 : child * 1000L, in.getJournalSeq());
+                assertEquals(ITEMS + 1, in.getNextItemId());
+                assertSameItems(items(child), in.readItems());
+            }
+            assertFalse(in.next());
+        }
+    }
+
+    /***************************************************************
+    *function: damagedBlockIsRefused
+    *purpose: Flips one byte inside the first block and checks the
+    *         decoder reports the stream as damaged.
+    ****************************************************************/
+    @Test
+    void damagedBlockIsRefused() throws IOException
+    {
+        for (boolean compress : new boolean[] {false, true})
+        {
+            byte[] stream = encode(compress);
+            stream[6 + 12 + 40] ^= 0x10;  // past the stream and block headers
+            assertThrows(IOException.class, () -> readAll(stream));
+        }
+    }
+
+    /***************************************************************
+    *function: cutOffStreamIsRefused
+    *purpose: Drops the end of the stream and checks the decoder
+    *         notices instead of returning fewer wishlists.
+    ****************************************************************/
+    @Test
+    void cutOffStreamIsRefused() throws IOException
+    {
+        byte[] stream = encode(false);
+        byte[] cut = Arrays.copyOf(stream, stream.length - 12);
+        assertThrows(IOException.class, () -> readAll(cut));
+    }
+
+    // a stream of CHILDREN wishlists
+    private static byte[] encode(boolean compress) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (WishlistCodec.Encoder out = new WishlistCodec.Encoder(Channels.newChannel(bytes), compress))
+        {
+            for (int child = 0; child < CHILDREN; child++)
+            {
+                out.write("Child " + child + " éè", child * 7L, child == 0 ? -1 : child * 1000L,
+                        items(child));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // the items of one child, with negative priorities and non-ASCII text
+    private static List<WishlistItem> items(int child)
+    {
+        List<WishlistItem> items = new ArrayList<>(ITEMS);
+        for (int i = 1; i <= ITEMS; i++)
+        {
+            items.add(new WishlistItem(i, i % 5 + 1, "Toy " + child + "-" + i, "Wish ☃ number " + i,
+                    i % 7 - 3));
+        }
+        return items;
+    }
+
+    // checks two item lists match field by field
+    private static void assertSameItems(List<WishlistItem> expected, List<WishlistItem> actual)
+    {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+        {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getVersion(), actual.get(i).getVersion());
+            assertEquals(expected.get(i).getPriority(), actual.get(i).getPriority());
+            assertEquals(expected.get(i).getItemName(), actual.get(i).getItemName());
+            assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+        }
+    }
+
+    // decodes every record of a stream
+    private static void readAll(byte[] stream) throws IOException
+    {
+        WishlistCodec.Decoder in = new WishlistCodec.Decoder(ByteBuffer.wrap(stream));
+        while (in.next())
+        {
+            in.readItems();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/***************************************************************
+*file: WishlistImporterTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests how WishlistImporter cuts CSV files into records:
+*         quoted fields spanning lines, stray quotes and records
+*         that never end.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WishlistImporterTest
+{
+    @TempDir
+    Path directory;  // fresh folder for each test
+
+    /***************************************************************
+    *function: strayQuoteStaysInItsField
+    *purpose: A quote inside an unquoted field is a plain character,
+    *         so it neither swallows the following records nor fails
+    *         its own.
+    ****************************************************************/
+    @Test
+    void strayQuoteStaysInItsField() throws Exception
+    {
+        StringBuilder csv = new StringBuilder("child,item,description\n");
+        csv.append("Amy,Kite,Red\n");
+        csv.append("Amy,12\" doll,Big\n");
+        for (int i = 0; i < 1000; i++)
+        {
+            csv.append("Child ").append(i % 10).append(",Toy ").append(i).append(",Fun\n");
+        }
+        Path file = write("stray.csv", csv.toString());
+
+        SantaWishlistApp app = new SantaWishlistApp(Wishlist.Storage.STANDARD, 0);
+        WishlistImporter.FileReport report = new WishlistImporter(app, 2, 64).importFile(file);
+        assertEquals(1002, report.getRecords());
+        assertEquals(1002, report.getImported());
+        assertEquals(0, report.getRejected());
+        assertEquals("12\" doll", app.getWishlist("Amy").getItems().get(1).getItemName());
+    }
+
+    /***************************************************************
+    *function: quotedFieldSpansLines
+    *purpose: A field that starts with a quote may hold commas,
+    *         doubled quotes and line breaks.
+    ****************************************************************/
+    @Test
+    void quotedFieldSpansLines() throws Exception
+    {
+        Path file = write("quoted.csv", "Amy,\"Kite, big\",\"Red\nand \"\"fast\"\"\"\nBo,Ball,Blue\n");
+
+        SantaWishlistApp app = new SantaWishlistApp(Wishlist.Storage.STANDARD, 0);
+        WishlistImporter.FileReport report = new WishlistImporter(app, 1, 8).importFile(file);
+        assertEquals(2, report.getImported());
+        WishlistItem kite = app.getWishlist("Amy").getItems().get(0);
+        assertEquals("Kite, big", kite.getItemName());
+        assertEquals("Red\nand \"fast\"", kite.getDescription());
+        assertArrayEquals(new String[] {"Amy", "12\" doll", "Big"}, WishlistImporter.parseCsv("Amy,12\" doll,Big"));
+    }
+
+    /***************************************************************
+    *function: unterminatedQuoteIsCutOff
+    *purpose: A quoted field that is never closed is rejected once
+    *         it passes the length cap, and the records after the
+    *         lines it took are still read.
+    ****************************************************************/
+    @Test
+    void unterminatedQuoteIsCutOff() throws Exception
+    {
+        StringBuilder csv = new StringBuilder("Amy,\"never closed,x\n");
+        for (int i = 0; i < 20_000; i++)
+        {
+            csv.append("Bo,Toy ").append(i).append(",Fun\n");
+        }
+        Path file = write("open.csv", csv.toString());
+
+        SantaWishlistApp app = new SantaWishlistApp(Wishlist.Storage.STANDARD, 0);
+        WishlistImporter.FileReport report = new WishlistImporter(app, 2, 256).importFile(file);
+        assertEquals(1, report.getRejected());
+        assertEquals(report.getRecords() - 1, report.getImported());
+        assertEquals(report.getImported(), app.getWishlist("Bo").getItems().size());
+        assertTrue(report.getImported() > 15_000);  // the cut-off record takes at most 64K characters with it
+    }
+
+    private Path write(String name, String content) throws Exception
+    {
+        Path file = directory.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,80 @@
+/***************************************************************
+*file: WishlistJournalTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests that WishlistJournal writes every appended record
+*         before close returns and reads them back in order.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WishlistJournalTest
+{
+    @TempDir
+    Path directory;  // fresh folder for each test
+
+    /***************************************************************
+    *function: closeWritesEveryQueuedRecord
+    *purpose: Appends many records without waiting for any of them,
+    *         closes at once and checks replay finds exactly those
+    *         records, in order.
+    ****************************************************************/
+    @Test
+    void closeWritesEveryQueuedRecord() throws Exception
+    {
+        int records = 200_000;
+        WishlistJournal journal = new WishlistJournal(directory, 0, 0, WishlistJournal.FsyncPolicy.NEVER, 200);
+        for (int i = 0; i < records; i++)
+        {
+            journal.append(WishlistJournal.OP_ADD, "Amy", "Toy " + i, null, "wish " + i, -1, i % 10);
+        }
+        journal.close();
+
+        List<WishlistJournal.Entry> read = new ArrayList<>();
+        long lastSeq = WishlistJournal.readSegment(WishlistJournal.segmentPath(directory, 0), read::add);
+        assertEquals(records, read.size());
+        assertEquals(records - 1, lastSeq);
+        for (int i = 0; i < records; i++)
+        {
+            WishlistJournal.Entry entry = read.get(i);
+            assertEquals(i, entry.seq);
+            assertEquals("Toy " + i, entry.itemName);
+            assertEquals(i % 10, entry.priority);
+        }
+    }
+
+    /***************************************************************
+    *function: rotationSplitsRecordsBetweenSegments
+    *purpose: Checks that records queued before a rotation land in
+    *         the old segment and later ones in the new segment.
+    ****************************************************************/
+    @Test
+    void rotationSplitsRecordsBetweenSegments() throws Exception
+    {
+        WishlistJournal journal = new WishlistJournal(directory, 0, 0, WishlistJournal.FsyncPolicy.ALWAYS, 200);
+        journal.append(WishlistJournal.OP_CREATE, "Amy", null, null, null, -1, 0);
+        journal.append(WishlistJournal.OP_ADD, "Amy", "Bike", null, "red", -1, 3);
+        assertEquals(1, journal.rotate());
+        journal.awaitDurable(journal.append(WishlistJournal.OP_REMOVE_INDEX, "Amy", null, null, null, 0, 0));
+        journal.close();
+
+        List<WishlistJournal.Entry> first = new ArrayList<>();
+        List<WishlistJournal.Entry> second = new ArrayList<>();
+        WishlistJournal.readSegment(WishlistJournal.segmentPath(directory, 0), first::add);
+        WishlistJournal.readSegment(WishlistJournal.segmentPath(directory, 1), second::add);
+        assertEquals(2, first.size());
+        assertEquals(1, second.size());
+        assertEquals(WishlistJournal.OP_REMOVE_INDEX, second.get(0).op);
+        assertEquals(List.of(0, 1), WishlistJournal.listSegments(directory));
+    }
+}
@@ -0,0 +1,106 @@
+/***************************************************************
+*file: WishlistPersistenceTest.java
+*authors: Sarkis Gafafyan, Damon Mapinda, Vincent Perez,
+*		  Marie Philavong, and Brandon Shippy
+*class: CS 4800 - Software Engineering
+*assignment: Final Project
+*date last modified: 10/17/26
+*
+*purpose: Tests that WishlistPersistence restores the newest
+*         snapshot plus the journal written after it, and skips the
+*         journal records a snapshot already holds.
+****************************************************************/
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WishlistPersistenceTest
+{
+    @TempDir
+    Path directory;  // fresh data folder for each test
+
+    /***************************************************************
+    *function: snapshotPlusTailRestores
+    *purpose: Takes a snapshot, makes more changes and stops without a
+    *         final snapshot, as a crash would, then checks a new app
+    *         gets both the snapshot and the later changes, with the
+    *         ids and versions the items had.
+    ****************************************************************/
+    @Test
+    void snapshotPlusTailRestores() throws Exception
+    {
+        SantaWishlistApp before = new SantaWishlistApp(Wishlist.Storage.STANDARD);
+        WishlistPersistence persistence = open(before);
+        before.createWishlistForChild("Amy");
+        before.addItem("Amy", "Bike", "red", 5);
+        before.editItem("Amy", "Bike", "Red bike", "shiny");
+        persistence.snapshot();
+        before.addItem("Amy", "Doll", "with a hat", 2);
+        before.removeItem("Amy", "Red bike");
+        before.addItem("Amy", "Kite", "blue", 1);
+        // no close: the tail after the snapshot is only in the journal
+
+        SantaWishlistApp after = new SantaWishlistApp(Wishlist.Storage.STANDARD);
+        WishlistPersistence restored = open(after);
+        assertSameItems(before.getWishlist("Amy"), after.getWishlist("Amy"));
+        restored.close();
+    }
+
+    /***************************************************************
+    *function: recordsInSnapshotAreSkipped
+    *purpose: Puts journal records that a snapshot already contains in
+    *         a segment after that snapshot, as happens when a record
+    *         is written while the snapshot is being taken, and checks
+    *         they are not applied a second time.
+    ****************************************************************/
+    @Test
+    void recordsInSnapshotAreSkipped() throws Exception
+    {
+        SantaWishlistApp first = new SantaWishlistApp(Wishlist.Storage.STANDARD);
+        WishlistPersistence persistence = open(first);
+        first.createWishlistForChild("Amy");
+        first.addItem("Amy", "Bike", "red", 5);
+        persistence.snapshot();
+        first.addItem("Amy", "Doll", "with a hat", 2);
+        first.editItem("Amy", 0, "Blue bike", "blue");
+        List<Integer> segments = WishlistJournal.listSegments(directory);
+        byte[] tail = Files.readAllBytes(WishlistJournal.segmentPath(directory, segments.get(segments.size() - 1)));
+        persistence.close();
+
+        // the same records again, after the snapshot close just wrote
+        segments = WishlistJournal.listSegments(directory);
+        Files.write(WishlistJournal.segmentPath(directory, segments.get(segments.size() - 1) + 1), tail);
+
+        SantaWishlistApp second = new SantaWishlistApp(Wishlist.Storage.STANDARD);
+        WishlistPersistence restored = open(second);
+        assertSameItems(first.getWishlist("Amy"), second.getWishlist("Amy"));
+        restored.close();
+    }
+
+    // persistence in the test folder that only snapshots when asked
+    private WishlistPersistence open(SantaWishlistApp app) throws Exception
+    {
+        return WishlistPersistence.open(app, directory, WishlistJournal.FsyncPolicy.ALWAYS, 200, 3_600_000);
+    }
+
+    // checks two wishlists hold the same items, ids and versions in the same order
+    private static void assertSameItems(Wishlist expected, Wishlist actual)
+    {
+        List<WishlistItem> want = expected.snapshot().getItems();
+        List<WishlistItem> got = actual.snapshot().getItems();
+        assertEquals(want.size(), got.size());
+        for (int i = 0; i < want.size(); i++)
+        {
+            assertEquals(want.get(i).getItemName(), got.get(i).getItemName());
+            assertEquals(want.get(i).getDescription(), got.get(i).getDescription());
+            assertEquals(want.get(i).getPriority(), got.get(i).getPriority());
+            assertEquals(want.get(i).getId(), got.get(i).getId());
+            assertEquals(want.get(i).getVersion(), got.get(i).getVersion());
+        }
+    }
+}